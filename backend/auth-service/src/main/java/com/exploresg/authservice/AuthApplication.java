@@ -1,8 +1,11 @@
 package com.exploresg.authservice;
 
+import com.exploresg.common.codec.BinaryCodecConfig;
+import com.exploresg.common.datasource.ReplicaRoutingConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
 /**
@@ -11,6 +14,8 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
  * Additional configuration needed for multi-module Maven project:
  * - @EntityScan: Tells JPA to scan for @Entity classes in common module
  * - @EnableJpaRepositories: Tells Spring Data to scan for repositories in multiple packages
+ * - @Import(BinaryCodecConfig): CBOR/Smile responses (e.g. AuthResponse) on request via Accept
+ * - @Import(ReplicaRoutingConfig): read-only lookups go to read replicas, if configured
  *
  * Without these, Spring Boot only scans com.exploresg.authservice package
  * and misses entities/repositories from com.exploresg.common!
@@ -24,6 +29,7 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
         "com.exploresg.authservice.repository", // Local repositories
         "com.exploresg.common.repository"       // Repositories from common module (if any)
 })
+@Import({ BinaryCodecConfig.class, ReplicaRoutingConfig.class })
 public class AuthApplication {
     public static void main(String[] args){
         SpringApplication.run(AuthApplication.class, args);
@@ -2,7 +2,10 @@ package com.exploresg.authservice.repository;
 
 import com.exploresg.common.model.IdentityProvider;
 import com.exploresg.common.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -18,6 +21,8 @@ import java.util.Optional;
  * - count() - Count users
  *
  * Custom query methods are defined here using Spring Data JPA naming conventions.
+ * The login lookups are cached in the "user-lookups" query cache region; any
+ * write to app_user through Hibernate invalidates them.
  */
 @Repository
 public interface UserRepository extends JpaRepository<User,Long> {
@@ -41,6 +46,10 @@ public interface UserRepository extends JpaRepository<User,Long> {
      * @param email User's email address
      * @return Optional containing user if found,empty otherwise
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "user-lookups")
+    })
     Optional<User> findByEmail(String email);
 
     /**
@@ -52,6 +61,10 @@ public interface UserRepository extends JpaRepository<User,Long> {
      * @param providerSub OAuth provider's unique user identifier
      * @return Optional containing user if found, empty otherwise
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "user-lookups")
+    })
     Optional<User> findByProviderSub(String providerSub);
 
     /**
@@ -69,5 +82,9 @@ public interface UserRepository extends JpaRepository<User,Long> {
      * @param identityProvider OAuth provider (GOOGLE, GITHUB, etc.)
      * @return Optional containing user if found with this email/provider combination, empty otherwise
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "user-lookups")
+    })
     Optional<User> findByEmailAndIdentityProvider(String email, IdentityProvider identityProvider);
 }
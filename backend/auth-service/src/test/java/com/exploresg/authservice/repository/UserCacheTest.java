@@ -0,0 +1,151 @@
+package com.exploresg.authservice.repository;
+
+import com.exploresg.common.model.IdentityProvider;
+import com.exploresg.common.model.Role;
+import com.exploresg.common.model.User;
+import com.exploresg.common.model.UserProfile;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Second-level cache of users (hibernate-cache.xml): the UserRepository login
+ * lookups are answered from the "user-lookups" query region, profiles from the
+ * "user-profile" entity region, and a write through the repositories
+ * invalidates them.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:user-cache-test;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+class UserCacheTest {
+
+    private static final String LOOKUP_REGION = "user-lookups";
+    private static final String PROFILE_REGION = "user-profile";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserProfileRepository userProfileRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String id = UUID.randomUUID().toString();
+        user = userRepository.save(User.builder()
+                .email(id + "@example.com")
+                .fullName("Cached User")
+                .providerSub("sub-" + id)
+                .role(Role.USER)
+                .identityProvider(IdentityProvider.values()[0])
+                .build());
+    }
+
+    @Test
+    void lookupsAreCachedUntilTheUserIsUpdated() {
+        List<Supplier<User>> lookups = List.of(
+                () -> userRepository.findByEmail(user.getEmail()).orElseThrow(),
+                () -> userRepository.findByProviderSub(user.getProviderSub()).orElseThrow(),
+                () -> userRepository.findByEmailAndIdentityProvider(user.getEmail(), user.getIdentityProvider())
+                        .orElseThrow());
+        for (Supplier<User> lookup : lookups) {
+            assertSecondReadIsCached(lookup, "Cached User");
+        }
+
+        User changed = userRepository.findById(user.getId()).orElseThrow();
+        changed.setFullName("Renamed User");
+        userRepository.save(changed);
+
+        for (Supplier<User> lookup : lookups) {
+            assertNextReadMisses(lookup, "Renamed User");
+            assertSecondReadIsCached(lookup, "Renamed User");
+        }
+    }
+
+    @Test
+    void profileIsCachedUntilItIsUpdated() {
+        // @MapsId: the profile takes its id from a managed user
+        UserProfile profile = new TransactionTemplate(transactionManager).execute(status ->
+                userProfileRepository.save(UserProfile.builder()
+                        .user(userRepository.findById(user.getId()).orElseThrow())
+                        .phone("+65 1111 1111")
+                        .build()));
+        CacheRegionStatistics profiles = statistics.getDomainDataRegionStatistics(PROFILE_REGION);
+
+        userProfileRepository.findById(profile.getId()).orElseThrow();
+        long hits = profiles.getHitCount();
+        assertThat(userProfileRepository.findById(profile.getId()).orElseThrow().getPhone())
+                .isEqualTo("+65 1111 1111");
+        assertThat(profiles.getHitCount()).isEqualTo(hits + 1);
+
+        UserProfile changed = userProfileRepository.findById(profile.getId()).orElseThrow();
+        changed.setPhone("+65 2222 2222");
+        userProfileRepository.save(changed);
+
+        hits = profiles.getHitCount();
+        long misses = profiles.getMissCount();
+        assertThat(userProfileRepository.findById(profile.getId()).orElseThrow().getPhone())
+                .isEqualTo("+65 2222 2222");
+        assertThat(profiles.getHitCount()).isEqualTo(hits);
+        assertThat(profiles.getMissCount()).isEqualTo(misses + 1);
+    }
+
+    // ============================================
+    // HELPERS
+    // ============================================
+
+    /**
+     * Two reads: the second is answered from the query region.
+     */
+    private void assertSecondReadIsCached(Supplier<User> lookup, String expectedName) {
+        lookup.get();
+        CacheRegionStatistics lookups = statistics.getQueryRegionStatistics(LOOKUP_REGION);
+        long queryHits = lookups.getHitCount();
+        long queryMisses = lookups.getMissCount();
+
+        assertThat(lookup.get().getFullName()).isEqualTo(expectedName);
+
+        assertThat(lookups.getHitCount()).isEqualTo(queryHits + 1);
+        assertThat(lookups.getMissCount()).isEqualTo(queryMisses);
+    }
+
+    /**
+     * The next read misses the query region, goes to the database, sees the
+     * change and caches it again.
+     */
+    private void assertNextReadMisses(Supplier<User> lookup, String expectedName) {
+        CacheRegionStatistics lookups = statistics.getQueryRegionStatistics(LOOKUP_REGION);
+        long queryHits = lookups.getHitCount();
+        long queryMisses = lookups.getMissCount();
+        long queryPuts = lookups.getPutCount();
+
+        assertThat(lookup.get().getFullName()).isEqualTo(expectedName);
+
+        assertThat(lookups.getHitCount()).isEqualTo(queryHits);
+        assertThat(lookups.getMissCount()).isEqualTo(queryMisses + 1);
+        assertThat(lookups.getPutCount()).isEqualTo(queryPuts + 1);
+    }
+}
@@ -0,0 +1,103 @@
+package com.exploresg.common.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared codec for the compact binary representations of our DTOs.
+ *
+ * Same DTOs and Jackson configuration as JSON, different encoding:
+ * - CBOR (RFC 8949), application/cbor - standard, has decoders for every platform
+ * - Smile, application/x-jackson-smile - Jackson's binary JSON; back-references
+ *   repeated field names and short strings, so it is the smallest for long lists
+ *
+ * JSON stays the default: a binary format is only used when the client asks for
+ * it in Accept. BinaryCodecConfig registers the message converters.
+ */
+public final class BinaryCodec {
+
+    public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    /**
+     * Representations a DTO can be sent in, in server preference order.
+     */
+    public enum Format {
+        JSON(MediaType.APPLICATION_JSON, ""),
+        CBOR(MediaType.APPLICATION_CBOR, "-cbor"),
+        SMILE(BinaryCodec.SMILE, "-smile");
+
+        private final MediaType mediaType;
+        private final String etagSuffix;
+
+        Format(MediaType mediaType, String etagSuffix) {
+            this.mediaType = mediaType;
+            this.etagSuffix = etagSuffix;
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        /**
+         * Appended to entity tags: a strong ETag must differ between representations.
+         */
+        public String etagSuffix() {
+            return etagSuffix;
+        }
+    }
+
+    private BinaryCodec() {
+    }
+
+    /**
+     * CBOR mapper with the modules and features of the given (JSON) builder.
+     */
+    public static ObjectMapper cborMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.createXmlMapper(false).factory(new CBORFactory()).build();
+    }
+
+    /**
+     * Smile mapper with the modules and features of the given (JSON) builder.
+     */
+    public static ObjectMapper smileMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.createXmlMapper(false).factory(new SmileFactory()).build();
+    }
+
+    /**
+     * Pick the representation for an Accept header the way content negotiation
+     * does: highest quality first, wildcards and unknown types fall back to JSON.
+     *
+     * @param accept Accept header value, may be null
+     */
+    public static Format negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return Format.JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return Format.JSON;
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType candidate : accepted) {
+            if (candidate.getQualityValue() == 0) {
+                continue;
+            }
+            for (Format format : Format.values()) {
+                if (candidate.includes(format.mediaType())) {
+                    return format;
+                }
+            }
+        }
+        return Format.JSON;
+    }
+}
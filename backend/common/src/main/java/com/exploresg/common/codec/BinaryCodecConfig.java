@@ -0,0 +1,53 @@
+package com.exploresg.common.codec;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Registers the BinaryCodec formats with Spring MVC, so every controller can
+ * answer Accept: application/cbor or application/x-jackson-smile with the
+ * same DTOs (and read request bodies in them).
+ *
+ * Services opt in with @Import(BinaryCodecConfig.class) on the application class.
+ *
+ * The converters replace the defaults Spring adds when the dataformat jars are
+ * present: those use a plain ObjectMapper, so dates and other settings would
+ * differ from the JSON responses. They are placed right after the JSON
+ * converter, which keeps JSON the answer for Accept: *&#47;*.
+ */
+@Configuration
+public class BinaryCodecConfig implements WebMvcConfigurer {
+
+    // Prototype bean with the spring.jackson.* settings of the service
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    public BinaryCodecConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+
+        int position = converters.size();
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2HttpMessageConverter) {
+                position = i + 1;
+                break;
+            }
+        }
+        converters.add(position, new MappingJackson2CborHttpMessageConverter(
+                BinaryCodec.cborMapper(objectMapperBuilder.getObject())));
+        converters.add(position + 1, new MappingJackson2SmileHttpMessageConverter(
+                BinaryCodec.smileMapper(objectMapperBuilder.getObject())));
+    }
+}
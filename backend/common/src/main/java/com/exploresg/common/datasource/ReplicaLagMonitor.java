@@ -0,0 +1,185 @@
+package com.exploresg.common.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures how far each read replica trails the primary, with a heartbeat
+ * row instead of database-specific replication views.
+ *
+ * Every interval a "replica-lag-monitor" thread writes the current time into
+ * this node's row of replication_heartbeat on the primary, then reads the
+ * row back from each replica. The value a replica returns is the newest beat
+ * it has replayed, so:
+ * - lag = now - replayed beat (an upper bound, at least the interval)
+ * - every write committed on the primary before that beat is on the replica,
+ *   which is what read-your-writes stickiness checks against
+ *
+ * Each node keeps its own row, so clock skew between nodes does not matter.
+ * A replica that cannot be read or has no row yet counts as infinitely behind.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final long UNKNOWN = Long.MIN_VALUE;
+    private static final Duration ROW_RETENTION = Duration.ofDays(1);
+    private static final int TICKS_PER_CLEANUP = 3600;
+
+    /**
+     * A replica and the newest heartbeat it has replayed.
+     */
+    public static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile long replayedBeat = UNKNOWN;
+        // Ticker thread only
+        private boolean failing;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        /**
+         * @return milliseconds behind the primary, or Long.MAX_VALUE if unknown
+         */
+        public long lagMillis() {
+            long beat = replayedBeat;
+            return beat == UNKNOWN ? Long.MAX_VALUE : Math.max(0, System.currentTimeMillis() - beat);
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Duration interval;
+    private final long maxLagMillis;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "replica-lag-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Ticker thread only
+    private long ticks;
+
+    public ReplicaLagMonitor(DataSource primary, List<Replica> replicas, Duration interval, Duration maxLag) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.interval = interval;
+        this.maxLagMillis = maxLag.toMillis();
+    }
+
+    public List<Replica> replicas() {
+        return replicas;
+    }
+
+    public void start() {
+        try (Connection connection = primary.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS replication_heartbeat ("
+                    + "node_id VARCHAR(36) PRIMARY KEY, beat_at BIGINT NOT NULL)");
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO replication_heartbeat (node_id, beat_at) VALUES (?, ?)")) {
+                insert.setString(1, nodeId);
+                insert.setLong(2, System.currentTimeMillis());
+                insert.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not set up the replication heartbeat on the primary", e);
+        }
+        ticker.scheduleWithFixedDelay(this::tick, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * A replica to read from, round robin among those within the maximum lag.
+     *
+     * @param writtenAt epoch millis of the caller's last write, or 0; only
+     *                  replicas that have replayed a beat from after it qualify
+     * @return null if no replica qualifies (read from the primary)
+     */
+    public Replica pick(long writtenAt) {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            long beat = replica.replayedBeat;
+            if (beat != UNKNOWN && now - beat <= maxLagMillis && beat > writtenAt) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes older than this can be served by any replica within the maximum lag.
+     */
+    public long stickinessHorizon() {
+        return System.currentTimeMillis() - maxLagMillis;
+    }
+
+    private void tick() {
+        long now = System.currentTimeMillis();
+        try (Connection connection = primary.getConnection();
+                PreparedStatement update = connection.prepareStatement(
+                        "UPDATE replication_heartbeat SET beat_at = ? WHERE node_id = ?")) {
+            update.setLong(1, now);
+            update.setString(2, nodeId);
+            update.executeUpdate();
+            if (++ticks % TICKS_PER_CLEANUP == 0) {
+                try (PreparedStatement delete = connection.prepareStatement(
+                        "DELETE FROM replication_heartbeat WHERE beat_at < ?")) {
+                    delete.setLong(1, now - ROW_RETENTION.toMillis());
+                    delete.executeUpdate();
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            log.warn("Could not write the replication heartbeat", e);
+        }
+        for (Replica replica : replicas) {
+            replica.replayedBeat = readBeat(replica);
+        }
+    }
+
+    private long readBeat(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection();
+                PreparedStatement select = connection.prepareStatement(
+                        "SELECT beat_at FROM replication_heartbeat WHERE node_id = ?")) {
+            select.setString(1, nodeId);
+            try (ResultSet rows = select.executeQuery()) {
+                replica.failing = false;
+                return rows.next() ? rows.getLong(1) : UNKNOWN;
+            }
+        } catch (SQLException | RuntimeException e) {
+            if (!replica.failing) {
+                replica.failing = true;
+                log.warn("Replica {} cannot be read, sending its reads to the primary: {}",
+                        replica.name, e.getMessage());
+            }
+            return UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.exploresg.common.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the service's DataSource with a ReplicaRoutingDataSource when read
+ * replicas are configured:
+ * <pre>
+ * application.datasource.replicas.urls=jdbc:postgresql://replica-1/db,jdbc:postgresql://replica-2/db
+ * </pre>
+ *
+ * The primary is spring.datasource.*; replicas use the same driver and, unless
+ * application.datasource.replicas.username/password are set, the same
+ * credentials. All pools take the spring.datasource.hikari.* settings, and
+ * replica pools hand out read-only connections. Without replica URLs nothing
+ * changes and Spring Boot configures the single data source as before.
+ *
+ * Services opt in with @Import(ReplicaRoutingConfig.class) on the application class.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.datasource.replicas.urls")
+public class ReplicaRoutingConfig implements DisposableBean {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private ReplicaLagMonitor monitor;
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${application.datasource.replicas.urls}") String[] replicaUrls,
+            @Value("${application.datasource.replicas.username:#{null}}") String username,
+            @Value("${application.datasource.replicas.password:#{null}}") String password,
+            @Value("${application.datasource.replicas.max-lag:PT5S}") Duration maxLag,
+            @Value("${application.datasource.replicas.check-interval:PT1S}") Duration checkInterval) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = pool(binder, properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build(), "primary", false);
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReplicaRoutingDataSource.PRIMARY, primary);
+        List<ReplicaLagMonitor.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.length; i++) {
+            String name = "replica-" + i;
+            HikariDataSource replica = pool(binder, DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(replicaUrls[i].trim())
+                    .username(username != null ? username : properties.determineUsername())
+                    .password(password != null ? password : properties.determinePassword())
+                    .build(), name, true);
+            targets.put(name, replica);
+            replicas.add(new ReplicaLagMonitor.Replica(name, replica));
+        }
+
+        monitor = new ReplicaLagMonitor(primary, replicas, checkInterval, maxLag);
+        monitor.start();
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(monitor,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        // Defer the physical connection until the transaction's read-only flag is set
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private HikariDataSource pool(Binder binder, HikariDataSource pool, String name, boolean readOnly) {
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setReadOnly(readOnly);
+        pools.add(pool);
+        return pool;
+    }
+
+    @Override
+    public void destroy() {
+        if (monitor != null) {
+            monitor.stop();
+        }
+        pools.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,199 @@
+package com.exploresg.common.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a read replica and everything else to the
+ * primary.
+ *
+ * The target is chosen when a transaction first needs a physical connection
+ * (the data source is wrapped in a LazyConnectionDataSourceProxy, see
+ * ReplicaRoutingConfig), by which time the read-only flag of
+ * {@code @Transactional(readOnly = true)} and of the CRUD methods Spring Data
+ * repositories inherit (findById, findAll, ...) is known. Query methods
+ * declared on a repository run without a transaction, on the primary, unless
+ * annotated read-only themselves.
+ *
+ * A read-only transaction still goes to the primary when:
+ * - no replica is within the maximum lag (ReplicaLagMonitor)
+ * - read-your-writes: the current user, or the current thread, committed a
+ *   write that the replicas have not replayed yet. Users are told apart by
+ *   the authenticated principal name; the thread covers background work such
+ *   as a catalogue rebuild right after an import.
+ *
+ * Writes a worker thread commits for a request (a booking shard writer, a
+ * store executor) carry no SecurityContext. The request thread captures
+ * currentUser() when it hands the work over, and the worker names that user
+ * with writingFor() inside its transaction, so the user is sticky from the
+ * commit on exactly as if the request thread had committed.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private static final int ROUTINGS_PER_PURGE = 4096;
+    private static final ThreadLocal<Long> THREAD_WRITE = new ThreadLocal<>();
+    // Users named with writingFor in the current transaction; cleared when it completes
+    private static final ThreadLocal<Set<String>> TRANSACTION_USERS = new ThreadLocal<>();
+
+    private final ReplicaLagMonitor monitor;
+    private final Map<String, Long> userWrites = new ConcurrentHashMap<>();
+    private final AtomicInteger routings = new AtomicInteger();
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private final Counter stickyConnections;
+
+    public ReplicaRoutingDataSource(ReplicaLagMonitor monitor, MeterRegistry meterRegistry) {
+        this.monitor = monitor;
+        this.primaryConnections = routedCounter(meterRegistry, "primary");
+        this.replicaConnections = routedCounter(meterRegistry, "replica");
+        this.stickyConnections = routedCounter(meterRegistry, "primary_sticky");
+        for (ReplicaLagMonitor.Replica replica : monitor.replicas()) {
+            meterRegistry.gauge("datasource.replica.lag.ms", Tags.of("replica", replica.name()), replica,
+                    r -> r.lagMillis() == Long.MAX_VALUE ? Double.NaN : r.lagMillis());
+        }
+    }
+
+    private static Counter routedCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("datasource.routing.connections")
+                .tag("target", target)
+                .description("Physical connections taken by the routing data source, by target")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (routings.incrementAndGet() % ROUTINGS_PER_PURGE == 0) {
+            purgeUserWrites();
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWriteOnCommit();
+            primaryConnections.increment();
+            return PRIMARY;
+        }
+        long writtenAt = lastWrite();
+        ReplicaLagMonitor.Replica replica = monitor.pick(writtenAt);
+        if (replica == null) {
+            (writtenAt > 0 ? stickyConnections : primaryConnections).increment();
+            return PRIMARY;
+        }
+        replicaConnections.increment();
+        return replica.name();
+    }
+
+    /**
+     * Commit time of the last write by the current user or thread, if the
+     * replicas may still be missing it; 0 otherwise.
+     */
+    private long lastWrite() {
+        long horizon = monitor.stickinessHorizon();
+        long writtenAt = 0;
+        Long threadWrite = THREAD_WRITE.get();
+        if (threadWrite != null) {
+            if (threadWrite < horizon) {
+                THREAD_WRITE.remove();
+            } else {
+                writtenAt = threadWrite;
+            }
+        }
+        String user = currentUser();
+        Long userWrite = user == null ? null : userWrites.get(user);
+        if (userWrite != null) {
+            if (userWrite < horizon) {
+                userWrites.remove(user, userWrite);
+            } else {
+                writtenAt = Math.max(writtenAt, userWrite);
+            }
+        }
+        return writtenAt;
+    }
+
+    private void recordWriteOnCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        String user = currentUser();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                long now = System.currentTimeMillis();
+                THREAD_WRITE.set(now);
+                if (user != null) {
+                    userWrites.merge(user, now, Math::max);
+                }
+                Set<String> writingFor = TRANSACTION_USERS.get();
+                if (writingFor != null) {
+                    writingFor.forEach(u -> userWrites.merge(u, now, Math::max));
+                }
+            }
+        });
+    }
+
+    /**
+     * Drop users whose last write every replica within the maximum lag has.
+     */
+    private void purgeUserWrites() {
+        long horizon = monitor.stickinessHorizon();
+        userWrites.values().removeIf(writtenAt -> writtenAt < horizon);
+    }
+
+    // ============================================
+    // WORK COMMITTED FOR ANOTHER THREAD'S USER
+    // ============================================
+
+    /**
+     * The user of the current request, to pass to the thread that commits its
+     * writes (see writingFor).
+     *
+     * @return the authenticated principal name, or null if anonymous
+     */
+    public static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    /**
+     * Make the given user read from the primary once the current transaction
+     * commits, until the replicas have its writes. For transactions committed
+     * on a thread without the user's SecurityContext. Does nothing outside a
+     * transaction or for a null (anonymous) user; without read replicas
+     * nothing reads what it records.
+     *
+     * @param user principal name captured with currentUser() where the request was accepted
+     */
+    public static void writingFor(String user) {
+        if (user == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Set<String> users = TRANSACTION_USERS.get();
+        if (users == null) {
+            users = new HashSet<>();
+            TRANSACTION_USERS.set(users);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TRANSACTION_USERS.remove();
+                }
+            });
+        }
+        users.add(user);
+    }
+}
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.security.core.GrantedAuthority;
@@ -27,8 +29,11 @@ import java.util.UUID;
  * - SSO-only: No password field (Google OAuth authentication)
  * - Role-based authorization via Role enum
  * - OneToOne relationship with UserProfile for additional user information
+ * - Second-level cached (READ_WRITE): read on every login, and role or status
+ *   changes must never be served stale
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 @Table(name = "app_user", indexes = {
         @Index(name = "idx_user_email", columnList = "email", unique = true)
 }, uniqueConstraints = {
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -24,8 +26,12 @@ import java.time.LocalDateTime;
  * This means UserProfile.id always equals User.id.
  *
  * Relationship: User (1) <---> (1) UserProfile
+ *
+ * Second-level cached with NONSTRICT_READ_WRITE: only its owner edits a
+ * profile, so the cache entry is simply invalidated after each commit.
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "user-profile")
 @Table(name = "user_profile")
 @Data
 @NoArgsConstructor
@@ -0,0 +1,224 @@
+package com.exploresg.common.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing between two embedded H2 databases, a primary and a replica.
+ *
+ * The replica is a separate database that only gets what the test copies
+ * over, so replication lag is under the test's control: copying the
+ * heartbeat rows plays the part of the replica replaying the primary's log
+ * up to that point. Each database answers "select name from whoami" with its
+ * own name, which shows where a read went.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final Duration CHECK_INTERVAL = Duration.ofMillis(20);
+    private static final Duration MAX_LAG = Duration.ofSeconds(2);
+    private static final long TIMEOUT_MS = 10_000;
+
+    private DriverManagerDataSource primary;
+    private DriverManagerDataSource replica;
+    private ReplicaLagMonitor monitor;
+    private SimpleMeterRegistry meters;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readTransaction;
+    private ExecutorService worker;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        new JdbcTemplate(replica).execute("CREATE TABLE replication_heartbeat ("
+                + "node_id VARCHAR(36) PRIMARY KEY, beat_at BIGINT NOT NULL)");
+
+        monitor = new ReplicaLagMonitor(primary,
+                List.of(new ReplicaLagMonitor.Replica("replica-0", replica)), CHECK_INTERVAL, MAX_LAG);
+        monitor.start();
+        meters = new SimpleMeterRegistry();
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(monitor, meters);
+        routing.setTargetDataSources(Map.of(ReplicaRoutingDataSource.PRIMARY, primary, "replica-0", replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        worker = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        worker.shutdownNow();
+        monitor.stop();
+        for (DriverManagerDataSource database : List.of(primary, replica)) {
+            new JdbcTemplate(database).execute("SHUTDOWN");
+        }
+    }
+
+    @Test
+    void readsGoToTheReplicaOnlyWithinTheMaximumLag() throws InterruptedException {
+        // Never replayed a heartbeat: unknown lag
+        assertThat(read()).isEqualTo("primary");
+
+        replicate();
+        await(() -> read().equals("replica"));
+        assertThat(read()).isEqualTo("replica");
+
+        // Replication stops; once the last replayed beat is older than the maximum lag
+        Thread.sleep(MAX_LAG.toMillis() + CHECK_INTERVAL.toMillis() * 5);
+        assertThat(read()).isEqualTo("primary");
+        assertThat(monitor.replicas().get(0).lagMillis()).isGreaterThan(MAX_LAG.toMillis());
+
+        replicate();
+        await(() -> read().equals("replica"));
+        assertThat(read()).isEqualTo("replica");
+    }
+
+    @Test
+    void userReadsTheirOwnWriteFromThePrimaryUntilTheReplicaHasIt() throws Exception {
+        replicateUntilReplicaServes();
+
+        signIn("alice");
+        write();
+        double sticky = sticky();
+
+        // The replica is within the maximum lag but has not replayed alice's write
+        assertThat(read()).isEqualTo("primary");
+        assertThat(sticky()).isEqualTo(sticky + 1);
+        assertThat(readAs("bob")).isEqualTo("replica");
+
+        replicateUntilReplicaServes();
+        assertThat(read()).isEqualTo("replica");
+    }
+
+    @Test
+    void writeCommittedOnAWorkerMakesTheRequestUserSticky() throws Exception {
+        replicateUntilReplicaServes();
+        signIn("alice");
+
+        // Without naming the user, a worker's commit is not alice's
+        CompletableFuture.runAsync(this::write, worker).get();
+        assertThat(read()).isEqualTo("replica");
+
+        String user = ReplicaRoutingDataSource.currentUser();
+        CompletableFuture.runAsync(() -> writeTransaction.executeWithoutResult(status -> {
+            assertThat(ReplicaRoutingDataSource.currentUser()).isNull();
+            ReplicaRoutingDataSource.writingFor(user);
+            jdbcTemplate.update("INSERT INTO writes (id) VALUES (?)", UUID.randomUUID().toString());
+        }), worker).get();
+
+        assertThat(read()).isEqualTo("primary");
+        assertThat(readAs("bob")).isEqualTo("replica");
+
+        replicateUntilReplicaServes();
+        assertThat(read()).isEqualTo("replica");
+    }
+
+    // ============================================
+    // HELPERS
+    // ============================================
+
+    private static DriverManagerDataSource database(String name) {
+        DriverManagerDataSource database = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(database);
+        jdbc.execute("CREATE TABLE whoami (name VARCHAR(16))");
+        jdbc.update("INSERT INTO whoami (name) VALUES (?)", name);
+        jdbc.execute("CREATE TABLE writes (id VARCHAR(36) PRIMARY KEY)");
+        return database;
+    }
+
+    /**
+     * Where a read-only transaction went.
+     */
+    private String read() {
+        return readTransaction.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM whoami", String.class));
+    }
+
+    /**
+     * A read by another user, on a new thread: one that committed a write is
+     * itself sticky to the primary.
+     */
+    private String readAs(String user) throws Exception {
+        return CompletableFuture.supplyAsync(() -> {
+            signIn(user);
+            return read();
+        }, runnable -> new Thread(runnable).start()).get();
+    }
+
+    private void write() {
+        writeTransaction.executeWithoutResult(status ->
+                jdbcTemplate.update("INSERT INTO writes (id) VALUES (?)", UUID.randomUUID().toString()));
+    }
+
+    /**
+     * The replica replays the primary's log up to now: every heartbeat so far.
+     */
+    private void replicate() {
+        JdbcTemplate replicaJdbc = new JdbcTemplate(replica);
+        new JdbcTemplate(primary).query("SELECT node_id, beat_at FROM replication_heartbeat", row -> {
+            replicaJdbc.update("MERGE INTO replication_heartbeat KEY (node_id) VALUES (?, ?)",
+                    row.getString(1), row.getLong(2));
+        });
+    }
+
+    /**
+     * Replicate once the primary has a beat from after every write so far,
+     * and wait until the monitor has seen it.
+     */
+    private void replicateUntilReplicaServes() {
+        long now = System.currentTimeMillis();
+        await(() -> new JdbcTemplate(primary).queryForObject(
+                "SELECT MAX(beat_at) FROM replication_heartbeat", Long.class) > now);
+        replicate();
+        await(() -> monitor.pick(now) != null);
+    }
+
+    private double sticky() {
+        return meters.counter("datasource.routing.connections", "target", "primary_sticky").count();
+    }
+
+    private static void signIn(String user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(user, null, List.of()));
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package com.exploresg.fleetservice;
 
+import com.exploresg.common.codec.BinaryCodecConfig;
+import com.exploresg.common.datasource.ReplicaRoutingConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@Import({ BinaryCodecConfig.class, ReplicaRoutingConfig.class })
 public class FleetApplication {
     public static void main(String[] args){
         SpringApplication.run(FleetApplication.class, args);
@@ -36,8 +36,13 @@ public class FleetSecurityConfig extends BaseSecurityConfig {
                         "/api/v1/fleet/health",
                         "/api/v1/fleet/ping",
                         "/api/v1/fleet/models",
+                        "/api/v1/fleet/models/*",
                         "/api/v1/fleet/models/*/availability-count",
+                        "/api/v1/fleet/models/*/similar",
+                        "/api/v1/fleet/models/*/quote",
+                        "/api/v1/fleet/quotes",
                         "/api/v1/fleet/operators/*/models",
+                        "/api/v1/fleet/pickup-locations/nearby",
                         "/api/v1/fleet/bookings/**",
                         "/api/v1/fleet/reservations/**",
                         // Actuator endpoints for Kubernetes
@@ -0,0 +1,133 @@
+package com.exploresg.fleetservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the DataSource with a ShardRoutingDataSource when additional data
+ * shards are configured:
+ * <pre>
+ * fleet.sharding.shard-urls=jdbc:postgresql://shard-1/fleet,jdbc:postgresql://shard-2/fleet
+ * </pre>
+ *
+ * Shard 0 is spring.datasource.*; the listed URLs are shards 1..n. They use
+ * the same driver and, unless fleet.sharding.username/password are set, the
+ * same credentials. All pools take the spring.datasource.hikari.* settings.
+ * Without shard URLs nothing changes and shard 0 is the only shard.
+ *
+ * Sharding replaces the data source like application.datasource.replicas
+ * does, so the two cannot be enabled together: with both set the start fails
+ * (see ShardsConfigured) instead of one silently taking over the other.
+ */
+@Configuration
+@Conditional(FleetShardingConfig.ShardsConfigured.class)
+public class FleetShardingConfig implements DisposableBean {
+
+    private static final String SHARD_URLS = "fleet.sharding.shard-urls";
+    private static final String REPLICA_URLS = "application.datasource.replicas.urls";
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+            @Value("${fleet.sharding.shard-urls}") String[] shardUrls,
+            @Value("${fleet.sharding.username:#{null}}") String username,
+            @Value("${fleet.sharding.password:#{null}}") String password) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = pool(binder, properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build(), 0);
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(0, primary);
+        for (int i = 0; i < shardUrls.length; i++) {
+            targets.put(i + 1, pool(binder, DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(shardUrls[i].trim())
+                    .username(username != null ? username : properties.determineUsername())
+                    .password(password != null ? password : properties.determinePassword())
+                    .build(), i + 1));
+        }
+
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        // Defer the physical connection until the router has bound the shard
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public ShardSchemaSync shardSchemaSync(DataSource dataSource) {
+        return new ShardSchemaSync(dataSource);
+    }
+
+    /**
+     * Hands the Hibernate boot metadata to ShardSchemaSync.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer shardSchemaIntegrator(ShardSchemaSync shardSchemaSync) {
+        return properties -> properties.put("hibernate.integrator_provider",
+                (IntegratorProvider) () -> List.of(shardSchemaSync));
+    }
+
+    private HikariDataSource pool(Binder binder, HikariDataSource pool, int shard) {
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName("shard-" + shard);
+        pools.add(pool);
+        return pool;
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    /**
+     * Matches when shard URLs are set. Evaluated while the configuration is
+     * parsed, before any DataSource exists, so combining shards with
+     * ReplicaRoutingConfig fails with this message rather than a bean
+     * definition clash on "dataSource".
+     */
+    static class ShardsConfigured implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            Environment environment = context.getEnvironment();
+            if (!StringUtils.hasText(environment.getProperty(SHARD_URLS))) {
+                return false;
+            }
+            if (StringUtils.hasText(environment.getProperty(REPLICA_URLS))) {
+                throw new IllegalStateException(SHARD_URLS + " and " + REPLICA_URLS + " are both set. "
+                        + "Data shards and read replicas each replace the DataSource and cannot be combined; "
+                        + "unset one of them.");
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.exploresg.fleetservice.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Sends connections to the data shard bound to the current thread.
+ *
+ * Shard 0 is spring.datasource and also holds every table that is not
+ * partitioned by operator. Threads without a bound shard (startup, catalogue
+ * work, the directory itself) use shard 0.
+ *
+ * The shard is bound by OperatorShardRouter. The target is resolved when a
+ * transaction first needs a physical connection (the data source is wrapped in
+ * a LazyConnectionDataSourceProxy, see FleetShardingConfig), so the shard must
+ * be bound before the transaction starts and stays fixed until it ends.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    /**
+     * @return the shard bound to the current thread, 0 if none
+     */
+    public static int currentShard() {
+        Integer shard = CURRENT.get();
+        return shard == null ? 0 : shard;
+    }
+
+    /**
+     * Bind a shard to the current thread.
+     *
+     * @return the previous binding, for restore
+     */
+    public static Integer bind(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    public static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentShard();
+    }
+}
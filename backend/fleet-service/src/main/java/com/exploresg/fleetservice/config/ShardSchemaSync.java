@@ -0,0 +1,148 @@
+package com.exploresg.fleetservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Brings the schema of shards 1..n up to date the way Hibernate does it for
+ * shard 0 at startup.
+ *
+ * Hibernate only migrates the data source it boots with, which resolves to
+ * shard 0. This integrator keeps the boot metadata and, with
+ * spring.jpa.hibernate.ddl-auto=update, runs the same schema update against
+ * every other shard. With any other setting the shards are expected to be
+ * migrated together with shard 0 by whatever migrates it.
+ *
+ * Every shard draws ids of the operator-partitioned tables from its own block
+ * (shard * ID_BLOCK upwards), so vehicles and bookings keep globally unique ids
+ * and can be moved between shards unchanged. The block is set once, while the
+ * table is still empty, and recorded in shard_id_block on the shard: a table
+ * emptied later by ShardRebalancer keeps counting from where it was, since the
+ * moved rows keep their ids on the other shard. On the first assignment the
+ * identity also starts above any id of the block already present on another
+ * shard, so a shard whose block was set before it was recorded is not rewound
+ * onto rows moved away from it.
+ */
+@Slf4j
+public class ShardSchemaSync implements Integrator {
+
+    public static final long ID_BLOCK = 1L << 40;
+    private static final List<String> PARTITIONED_TABLES = List.of("vehicle", "booking", "vehicle_telemetry");
+    private static final String ID_BLOCKS_TABLE = "create table if not exists shard_id_block ("
+            + "table_name varchar(64) not null primary key, block_start bigint not null)";
+
+    private final DataSource dataSource;
+    private volatile Metadata metadata;
+    private volatile SessionFactoryImplementor sessionFactory;
+
+    public ShardSchemaSync(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+            SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+        this.sessionFactory = sessionFactory;
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        this.metadata = null;
+        this.sessionFactory = null;
+    }
+
+    /**
+     * Migrate shards 1..shardCount-1. Called once on startup, before the
+     * shards are read.
+     */
+    public void syncAll(int shardCount) {
+        if (metadata == null) {
+            throw new IllegalStateException("Hibernate metadata not captured, is the integrator registered?");
+        }
+        Map<String, Object> settings = new HashMap<>(sessionFactory.getProperties());
+        boolean update = "update".equals(String.valueOf(settings.get(AvailableSettings.HBM2DDL_AUTO)));
+        for (int shard = 1; shard < shardCount; shard++) {
+            Integer previous = ShardRoutingDataSource.bind(shard);
+            try {
+                if (update) {
+                    SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(),
+                            settings, action -> {
+                            });
+                }
+            } finally {
+                ShardRoutingDataSource.restore(previous);
+            }
+        }
+        // Once every shard has the tables: a block may be looked up on all of them
+        for (int shard = 1; shard < shardCount; shard++) {
+            assignIdBlock(shard, shardCount);
+        }
+        log.info("Synchronized {} additional data shards (schema update: {})", shardCount - 1, update);
+    }
+
+    private void assignIdBlock(int shard, int shardCount) {
+        onShard(shard, statement -> statement.execute(ID_BLOCKS_TABLE));
+        for (String table : PARTITIONED_TABLES) {
+            long blockStart = shard * ID_BLOCK + 1;
+            if (onShard(shard, statement -> queryLong(statement,
+                    "select count(*) from shard_id_block where table_name = '" + table + "'")) > 0) {
+                continue;
+            }
+            // A table with rows got its block while it was empty, before blocks were recorded
+            if (onShard(shard, statement -> queryLong(statement, "select max(id) from " + table)) == null) {
+                long restart = blockStart;
+                for (int other = 0; other < shardCount; other++) {
+                    Long moved = onShard(other, statement -> queryLong(statement, "select max(id) from " + table
+                            + " where id >= " + blockStart + " and id < " + (blockStart + ID_BLOCK)));
+                    if (moved != null) {
+                        restart = Math.max(restart, moved + 1);
+                    }
+                }
+                long start = restart;
+                onShard(shard, statement -> statement.execute("alter table " + table
+                        + " alter column id restart with " + start));
+                log.info("Data shard {} draws {} ids from {}", shard, table, start);
+            }
+            onShard(shard, statement -> statement.executeUpdate("insert into shard_id_block (table_name, block_start) "
+                    + "values ('" + table + "', " + blockStart + ")"));
+        }
+    }
+
+    private <T> T onShard(int shard, ShardStatement<T> work) {
+        Integer previous = ShardRoutingDataSource.bind(shard);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            return work.run(statement);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not assign the id block of data shard " + shard, e);
+        } finally {
+            ShardRoutingDataSource.restore(previous);
+        }
+    }
+
+    private static Long queryLong(Statement statement, String sql) throws SQLException {
+        try (ResultSet rows = statement.executeQuery(sql)) {
+            return rows.next() && rows.getObject(1) != null ? rows.getLong(1) : null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ShardStatement<T> {
+        T run(Statement statement) throws SQLException;
+    }
+}
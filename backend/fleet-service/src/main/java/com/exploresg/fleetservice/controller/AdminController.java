@@ -1,22 +1,99 @@
 package com.exploresg.fleetservice.controller;
 
+import com.exploresg.fleetservice.dto.ArchivePartitionResponse;
+import com.exploresg.fleetservice.dto.ArchiveReportResponse;
+import com.exploresg.fleetservice.dto.ArchiveRunResponse;
+import com.exploresg.fleetservice.dto.BookingRollupResponse;
+import com.exploresg.fleetservice.dto.CatalogueImportResponse;
+import com.exploresg.fleetservice.dto.OperatorRequest;
+import com.exploresg.fleetservice.dto.OperatorResponse;
+import com.exploresg.fleetservice.dto.PickupLocationRequest;
+import com.exploresg.fleetservice.dto.PickupLocationResponse;
+import com.exploresg.fleetservice.dto.RatePlanRequest;
+import com.exploresg.fleetservice.dto.RatePlanResponse;
+import com.exploresg.fleetservice.dto.ShardMoveRequest;
+import com.exploresg.fleetservice.dto.ShardMoveResponse;
+import com.exploresg.fleetservice.dto.ShardStatusResponse;
+import com.exploresg.fleetservice.dto.UtilizationResponse;
+import com.exploresg.fleetservice.dto.VehicleRequest;
+import com.exploresg.fleetservice.dto.VehicleResponse;
+import com.exploresg.fleetservice.engine.FleetRollups;
+import com.exploresg.fleetservice.exception.InvalidRequestException;
+import com.exploresg.fleetservice.service.BookingArchiveService;
+import com.exploresg.fleetservice.service.CatalogueImportService;
+import com.exploresg.fleetservice.service.FleetAnalyticsService;
+import com.exploresg.fleetservice.service.OperatorService;
+import com.exploresg.fleetservice.service.PickupLocationService;
+import com.exploresg.fleetservice.service.PricingService;
+import com.exploresg.fleetservice.service.ShardRebalancer;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * Admin Endpoints - require protection
  * These endpoints are PROTECTED - JWT required
+ *
+ * Endpoints:
+ * - GET  /api/v1/fleet/admin/status     - JWT check
+ * - GET  /api/v1/fleet/admin/operators  - Operators with fleet aggregates (ADMIN)
+ * - POST /api/v1/fleet/admin/operators  - Register an operator (ADMIN)
+ * - POST /api/v1/fleet/admin/vehicles   - Add a vehicle to an operator's fleet (ADMIN)
+ * - POST /api/v1/fleet/admin/models/import - Bulk CarModel upsert, text/csv or application/x-ndjson (ADMIN)
+ * - GET    /api/v1/fleet/admin/rate-plans        - All rate plans (ADMIN)
+ * - PUT    /api/v1/fleet/admin/rate-plans        - Create/replace the plan of a model or category (ADMIN)
+ * - DELETE /api/v1/fleet/admin/rate-plans/{uuid} - Delete a rate plan (ADMIN)
+ * - POST   /api/v1/fleet/admin/pickup-locations        - Add a pickup location to an operator (ADMIN)
+ * - DELETE /api/v1/fleet/admin/pickup-locations/{uuid} - Remove a pickup location (ADMIN)
+ * - GET  /api/v1/fleet/admin/shards        - Size of every data shard (ADMIN)
+ * - GET  /api/v1/fleet/admin/shards/plan   - Suggested operator moves to even out the shards (ADMIN)
+ * - POST /api/v1/fleet/admin/shards/moves  - Move an operator to another shard, in the background (ADMIN)
+ * - GET  /api/v1/fleet/admin/analytics/bookings?dimension=..&resolution=minute|hour|day&buckets=..
+ *                                           - Booking events per time bucket (ADMIN)
+ * - GET  /api/v1/fleet/admin/analytics/utilization?dimension=..&days=..
+ *                                           - Utilization per dimension value (ADMIN)
+ * - GET  /api/v1/fleet/admin/archive/partitions - Month files of the booking archive (ADMIN)
+ * - GET  /api/v1/fleet/admin/archive/report?from=yyyy-MM&to=yyyy-MM&groupBy=..
+ *                                           - Archived bookings per group (ADMIN)
+ * - POST /api/v1/fleet/admin/archive/runs   - Archive old bookings now (ADMIN)
+ *
+ * Analytics dimensions: fleet, category, fuel_type, operator.
+ * Archive groups: month, status, category, fuel_type, operator.
  */
 @RestController
 @RequestMapping("/api/v1/fleet/admin")
+@RequiredArgsConstructor
 public class AdminController {
 
+    private final OperatorService operatorService;
+    private final CatalogueImportService catalogueImportService;
+    private final PricingService pricingService;
+    private final PickupLocationService pickupLocationService;
+    private final ShardRebalancer shardRebalancer;
+    private final FleetAnalyticsService fleetAnalyticsService;
+    private final BookingArchiveService bookingArchiveService;
+
     /**
      * Protected endpoint - requires valid JWT.
      * No role check, just authentication.
@@ -32,7 +109,7 @@ public class AdminController {
 
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
     @GetMapping("/operators")
-    public ResponseEntity<Map<String, String>> getOperatorsList() {
+    public ResponseEntity<List<OperatorResponse>> getOperatorsList() {
 
         /**
          * {
@@ -44,10 +121,160 @@ public class AdminController {
          * "exp": 2000000000
          * }
          */
-        Map<String, String> response = new HashMap<>();
-        response.put("message", "Operators list");
-        response.put("note", "Only admins can see this!");
+        return ResponseEntity.ok(operatorService.getOperators());
+    }
 
-        return ResponseEntity.ok(response);
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @PostMapping("/operators")
+    public ResponseEntity<OperatorResponse> createOperator(@RequestBody OperatorRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(operatorService.createOperator(request));
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @PostMapping("/vehicles")
+    public ResponseEntity<VehicleResponse> addVehicle(@RequestBody VehicleRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(operatorService.addVehicle(request));
+    }
+
+    /**
+     * Streams the request body; the file is never held in memory as a whole.
+     */
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @PostMapping(value = "/models/import", consumes = { "text/csv", "application/x-ndjson" })
+    public ResponseEntity<CatalogueImportResponse> importModels(HttpServletRequest request) throws IOException {
+        CatalogueImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? CatalogueImportService.Format.CSV
+                : CatalogueImportService.Format.NDJSON;
+        return ResponseEntity.ok(catalogueImportService.importModels(request.getInputStream(), format));
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping("/rate-plans")
+    public ResponseEntity<List<RatePlanResponse>> getRatePlans() {
+        return ResponseEntity.ok(pricingService.getRatePlans());
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @PutMapping("/rate-plans")
+    public ResponseEntity<RatePlanResponse> saveRatePlan(@RequestBody RatePlanRequest request) {
+        return ResponseEntity.ok(pricingService.saveRatePlan(request));
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @DeleteMapping("/rate-plans/{ratePlanUuid}")
+    public ResponseEntity<Void> deleteRatePlan(@PathVariable UUID ratePlanUuid) {
+        pricingService.deleteRatePlan(ratePlanUuid);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @PostMapping("/pickup-locations")
+    public ResponseEntity<PickupLocationResponse> createPickupLocation(@RequestBody PickupLocationRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(pickupLocationService.createLocation(request));
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @DeleteMapping("/pickup-locations/{pickupLocationUuid}")
+    public ResponseEntity<Void> deletePickupLocation(@PathVariable UUID pickupLocationUuid) {
+        pickupLocationService.deleteLocation(pickupLocationUuid);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping("/shards")
+    public ResponseEntity<List<ShardStatusResponse>> getShards() {
+        return ResponseEntity.ok(shardRebalancer.getShards());
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping("/shards/plan")
+    public ResponseEntity<List<ShardMoveResponse>> planShardMoves() {
+        return ResponseEntity.ok(shardRebalancer.planMoves());
+    }
+
+    /**
+     * 202: the operator is marked as moving; progress shows in GET /shards.
+     */
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @PostMapping("/shards/moves")
+    public ResponseEntity<ShardMoveResponse> moveOperator(@RequestBody ShardMoveRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(shardRebalancer.startMove(request));
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping("/analytics/bookings")
+    public ResponseEntity<List<BookingRollupResponse>> getBookingRollups(
+            @RequestParam(defaultValue = "fleet") String dimension,
+            @RequestParam(defaultValue = "hour") String resolution,
+            @RequestParam(defaultValue = "24") int buckets) {
+        FleetRollups.Resolution parsed = parse(FleetRollups.Resolution.class, "resolution", resolution);
+        if (buckets < 1 || buckets > parsed.buckets()) {
+            throw new InvalidRequestException("buckets must be between 1 and " + parsed.buckets()
+                    + " for resolution " + resolution);
+        }
+        return ResponseEntity.ok(fleetAnalyticsService.getBookingRollups(
+                parse(FleetRollups.Dimension.class, "dimension", dimension), parsed, buckets));
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping("/analytics/utilization")
+    public ResponseEntity<List<UtilizationResponse>> getUtilization(
+            @RequestParam(defaultValue = "fleet") String dimension,
+            @RequestParam(defaultValue = "30") int days) {
+        if (days < 1) {
+            throw new InvalidRequestException("days must be at least 1");
+        }
+        return ResponseEntity.ok(fleetAnalyticsService.getUtilization(
+                parse(FleetRollups.Dimension.class, "dimension", dimension), days));
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping("/archive/partitions")
+    public ResponseEntity<List<ArchivePartitionResponse>> getArchivePartitions() {
+        return ResponseEntity.ok(bookingArchiveService.getPartitions());
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping("/archive/report")
+    public ResponseEntity<List<ArchiveReportResponse>> getArchiveReport(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "month") String groupBy) {
+        YearMonth first = parseMonth("from", from);
+        YearMonth last = parseMonth("to", to);
+        if (first != null && last != null && first.isAfter(last)) {
+            throw new InvalidRequestException("from must not be after to");
+        }
+        return ResponseEntity.ok(bookingArchiveService.getReport(first, last,
+                parse(BookingArchiveService.GroupBy.class, "groupBy", groupBy)));
+    }
+
+    /**
+     * Runs synchronously; 409 while another run is in progress.
+     */
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @PostMapping("/archive/runs")
+    public ResponseEntity<ArchiveRunResponse> runArchive() {
+        return ResponseEntity.ok(bookingArchiveService.archive());
+    }
+
+    private static YearMonth parseMonth(String name, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidRequestException(name + " must be a month (yyyy-MM): " + value);
+        }
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String name, String value) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Unsupported " + name + ": " + value);
+        }
     }
 }
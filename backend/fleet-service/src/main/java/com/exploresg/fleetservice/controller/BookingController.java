@@ -0,0 +1,85 @@
+package com.exploresg.fleetservice.controller;
+
+import com.exploresg.fleetservice.dto.BookingRequest;
+import com.exploresg.fleetservice.dto.BookingResponse;
+import com.exploresg.fleetservice.service.BookingService;
+import com.exploresg.fleetservice.service.IdempotencyStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Booking endpoints.
+ *
+ * Endpoints:
+ * - POST   /api/v1/fleet/bookings        - Book any free vehicle of a model
+ * - GET    /api/v1/fleet/bookings/{uuid} - Get a booking
+ * - DELETE /api/v1/fleet/bookings/{uuid} - Cancel a booking
+ *
+ * These routes are public in FleetSecurityConfig. If a valid JWT is sent,
+ * the booking is tied to the JWT subject and only that user can see or cancel it.
+ *
+ * POST takes an optional Idempotency-Key header: a retry with the same key
+ * gets the first response back instead of a second booking (IdempotencyStore).
+ * The key needs a JWT; anonymous requests run as if sent without one.
+ */
+@RestController
+@RequestMapping("/api/v1/fleet/bookings")
+@RequiredArgsConstructor
+public class BookingController {
+
+    private final BookingService bookingService;
+    private final IdempotencyStore idempotencyStore;
+
+    /**
+     * Book a vehicle.
+     *
+     * Returns a CompletableFuture so that, in sharded execution mode, the
+     * request thread is released while the booking waits for its group commit.
+     */
+    @PostMapping
+    public CompletableFuture<ResponseEntity<BookingResponse>> createBooking(@RequestBody BookingRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @AuthenticationPrincipal Jwt jwt) {
+        UUID userId = userIdOf(jwt);
+        return idempotencyStore.execute("booking", userId, idempotencyKey, request, BookingResponse.class,
+                        () -> bookingService.bookAsync(request, userId))
+                .thenApply(BookingController::created);
+    }
+
+    @GetMapping("/{bookingUuid}")
+    public ResponseEntity<BookingResponse> getBooking(@PathVariable UUID bookingUuid,
+            @AuthenticationPrincipal Jwt jwt) {
+        return ResponseEntity.ok(bookingService.getBooking(bookingUuid, userIdOf(jwt)));
+    }
+
+    @DeleteMapping("/{bookingUuid}")
+    public ResponseEntity<BookingResponse> cancelBooking(@PathVariable UUID bookingUuid,
+            @AuthenticationPrincipal Jwt jwt) {
+        return ResponseEntity.ok(bookingService.cancel(bookingUuid, userIdOf(jwt)));
+    }
+
+    /**
+     * 201 with the booking; replayed responses are marked with Idempotent-Replayed: true.
+     */
+    static ResponseEntity<BookingResponse> created(IdempotencyStore.Result<BookingResponse> result) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.CREATED);
+        if (result.replayed()) {
+            response.header(IdempotencyStore.REPLAYED_HEADER, "true");
+        }
+        return response.body(result.response());
+    }
+
+    /**
+     * JWT 'sub' is the user's UUID (see auth-service JwtService).
+     */
+    static UUID userIdOf(Jwt jwt) {
+        return jwt == null ? null : UUID.fromString(jwt.getSubject());
+    }
+}
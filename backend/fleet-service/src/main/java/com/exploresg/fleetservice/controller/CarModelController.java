@@ -0,0 +1,166 @@
+package com.exploresg.fleetservice.controller;
+
+import com.exploresg.common.codec.BinaryCodec;
+import com.exploresg.fleetservice.dto.AvailabilityCountResponse;
+import com.exploresg.fleetservice.dto.CarModelResponse;
+import com.exploresg.fleetservice.dto.CatalogueFacetsResponse;
+import com.exploresg.fleetservice.dto.FacetFilter;
+import com.exploresg.fleetservice.dto.ModelSuggestionResponse;
+import com.exploresg.fleetservice.dto.QuoteResponse;
+import com.exploresg.fleetservice.dto.SimilarModelResponse;
+import com.exploresg.fleetservice.exception.ResourceNotFoundException;
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.FuelType;
+import com.exploresg.fleetservice.model.Manufacturer;
+import com.exploresg.fleetservice.model.Transmission;
+import com.exploresg.fleetservice.service.AvailabilityPushService;
+import com.exploresg.fleetservice.service.AvailabilityService;
+import com.exploresg.fleetservice.service.CatalogueService;
+import com.exploresg.fleetservice.service.PricingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Public catalogue endpoints.
+ *
+ * Endpoints:
+ * - GET /api/v1/fleet/models                                      - All models
+ * - GET /api/v1/fleet/models?startDate=..&endDate=..              - Models available for the period
+ * - GET /api/v1/fleet/models/facets                               - Model counts per facet value
+ * - GET /api/v1/fleet/models/search?q=..&limit=..                 - Search suggestions by name/manufacturer
+ * - GET /api/v1/fleet/models/{uuid}                               - One model
+ * - GET /api/v1/fleet/models/{uuid}/similar?limit=..              - Most similar models by features
+ * - GET /api/v1/fleet/models/{uuid}/availability-count?startDate=..&endDate=..
+ * - GET /api/v1/fleet/models/{uuid}/quote?startDate=..&endDate=..  - Price for the period (PricingService)
+ * - GET /api/v1/fleet/models/availability-stream?carModelUuids=..&startDate=..&endDate=..
+ *                                                                 - Server-sent availability counts (AvailabilityPushService)
+ *
+ * Dates are ISO (YYYY-MM-DD); endDate is the return day (exclusive).
+ * Both lists and the search can be narrowed by facet (FacetFilter): manufacturer, category,
+ * fuelType, transmission, seats.
+ *
+ * Responses that depend only on the catalogue (list without dates, facets,
+ * details) carry the catalogue version as ETag/Last-Modified; revalidations
+ * are answered by CatalogueConditionalGetFilter before reaching this controller.
+ *
+ * Every endpoint except the event stream also answers Accept: application/cbor
+ * or application/x-jackson-smile (BinaryCodec); JSON is the default.
+ */
+@RestController
+@RequestMapping("/api/v1/fleet/models")
+@RequiredArgsConstructor
+public class CarModelController {
+
+    private final CatalogueService catalogueService;
+    private final AvailabilityService availabilityService;
+    private final PricingService pricingService;
+    private final AvailabilityPushService availabilityPushService;
+
+    @GetMapping
+    public ResponseEntity<List<CarModelResponse>> getModels(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Manufacturer manufacturer,
+            @RequestParam(required = false) Category category,
+            @RequestParam(required = false) FuelType fuelType,
+            @RequestParam(required = false) Transmission transmission,
+            @RequestParam(required = false) Integer seats,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        FacetFilter filter = new FacetFilter(manufacturer, category, fuelType, transmission, seats);
+        if (startDate != null || endDate != null) {
+            List<CarModel> available = availabilityService.findAvailableModels(startDate, endDate);
+            return ResponseEntity.ok(available.stream().filter(filter::matches).map(CarModelResponse::from).toList());
+        }
+        CatalogueService.Version version = catalogueService.getVersion();
+        List<CarModelResponse> models = catalogueService.find(filter).stream().map(CarModelResponse::from).toList();
+        return catalogueResponse(version, accept).body(models);
+    }
+
+    @GetMapping("/facets")
+    public ResponseEntity<CatalogueFacetsResponse> getFacets(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        CatalogueService.Version version = catalogueService.getVersion();
+        return catalogueResponse(version, accept).body(catalogueService.getFacets());
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<ModelSuggestionResponse>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) Manufacturer manufacturer,
+            @RequestParam(required = false) Category category,
+            @RequestParam(required = false) FuelType fuelType,
+            @RequestParam(required = false) Transmission transmission,
+            @RequestParam(required = false) Integer seats) {
+        FacetFilter filter = new FacetFilter(manufacturer, category, fuelType, transmission, seats);
+        return ResponseEntity.ok(catalogueService.search(q, filter, limit).stream()
+                .map(ModelSuggestionResponse::from)
+                .toList());
+    }
+
+    /**
+     * Event stream of availability counts; see AvailabilityPushService for the events.
+     * carModelUuids is comma-separated.
+     */
+    @GetMapping(value = "/availability-stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(
+            @RequestParam List<UUID> carModelUuids,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return availabilityPushService.subscribe(carModelUuids, startDate, endDate);
+    }
+
+    @GetMapping("/{carModelUuid}")
+    public ResponseEntity<CarModelResponse> getModel(@PathVariable UUID carModelUuid,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        CatalogueService.Version version = catalogueService.getVersion();
+        CarModel model = catalogueService.findByUuid(carModelUuid)
+                .orElseThrow(() -> new ResourceNotFoundException("Car model not found: " + carModelUuid));
+        return catalogueResponse(version, accept).body(CarModelResponse.from(model));
+    }
+
+    @GetMapping("/{carModelUuid}/similar")
+    public ResponseEntity<List<SimilarModelResponse>> getSimilarModels(@PathVariable UUID carModelUuid,
+            @RequestParam(defaultValue = "5") int limit) {
+        CarModel model = catalogueService.findByUuid(carModelUuid)
+                .orElseThrow(() -> new ResourceNotFoundException("Car model not found: " + carModelUuid));
+        return ResponseEntity.ok(catalogueService.findSimilar(model, limit).stream()
+                .map(SimilarModelResponse::from)
+                .toList());
+    }
+
+    @GetMapping("/{carModelUuid}/availability-count")
+    public ResponseEntity<AvailabilityCountResponse> getAvailabilityCount(
+            @PathVariable UUID carModelUuid,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(availabilityService.getAvailabilityCount(carModelUuid, startDate, endDate));
+    }
+
+    @GetMapping("/{carModelUuid}/quote")
+    public ResponseEntity<QuoteResponse> getQuote(
+            @PathVariable UUID carModelUuid,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(pricingService.quote(carModelUuid, startDate, endDate));
+    }
+
+    private static ResponseEntity.BodyBuilder catalogueResponse(CatalogueService.Version version, String accept) {
+        return ResponseEntity.ok()
+                .eTag(version.etag(BinaryCodec.negotiate(accept)))
+                .varyBy(HttpHeaders.ACCEPT)
+                .lastModified(version.lastModified())
+                .cacheControl(CacheControl.noCache());
+    }
+}
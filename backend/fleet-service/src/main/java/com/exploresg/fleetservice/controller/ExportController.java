@@ -0,0 +1,106 @@
+package com.exploresg.fleetservice.controller;
+
+import com.exploresg.fleetservice.exception.InvalidRequestException;
+import com.exploresg.fleetservice.service.ExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bulk exports for partners (ADMIN only).
+ *
+ * Endpoints:
+ * - GET /api/v1/fleet/admin/export/models?format=ndjson|csv&after=..&limit=..
+ * - GET /api/v1/fleet/admin/export/bookings?format=ndjson|csv&after=..&limit=..
+ *
+ * The body is streamed while rows are read from the database. Resume an
+ * interrupted export with after=&lt;cursor of the last row received&gt;.
+ * Sent gzip-compressed when the request has Accept-Encoding: gzip.
+ */
+@RestController
+@RequestMapping("/api/v1/fleet/admin/export")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private final ExportService exportService;
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping("/models")
+    public ResponseEntity<StreamingResponseBody> exportModels(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "0") int limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ExportService.Format exportFormat = parseFormat(format);
+        ExportService.Cursor cursor = ExportService.decodeCursor(after);
+        if (cursor.shard() != 0) {
+            // Models are not sharded, this is a booking cursor
+            throw new InvalidRequestException("Invalid cursor: " + after);
+        }
+        validateLimit(limit);
+        return stream("models", exportFormat, acceptEncoding,
+                out -> exportService.exportModels(out, exportFormat, cursor, limit));
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping("/bookings")
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "0") int limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ExportService.Format exportFormat = parseFormat(format);
+        ExportService.Cursor cursor = ExportService.decodeCursor(after);
+        validateLimit(limit);
+        return stream("bookings", exportFormat, acceptEncoding,
+                out -> exportService.exportBookings(out, exportFormat, cursor, limit));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, ExportService.Format format,
+            String acceptEncoding, StreamingResponseBody body) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        String extension = format == ExportService.Format.CSV ? "csv" : "ndjson";
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format == ExportService.Format.CSV ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "." + extension + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!gzip) {
+            return response.body(body);
+        }
+        return response
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .body(out -> {
+                    GZIPOutputStream compressed = new GZIPOutputStream(out, 1 << 16, true);
+                    body.writeTo(compressed);
+                    compressed.finish();
+                });
+    }
+
+    private static void validateLimit(int limit) {
+        if (limit < 0) {
+            throw new InvalidRequestException("limit must not be negative");
+        }
+    }
+
+    private static ExportService.Format parseFormat(String format) {
+        try {
+            return ExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Unsupported format: " + format + " (ndjson or csv)");
+        }
+    }
+}
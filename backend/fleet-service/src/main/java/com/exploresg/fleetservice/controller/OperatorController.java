@@ -0,0 +1,31 @@
+package com.exploresg.fleetservice.controller;
+
+import com.exploresg.fleetservice.dto.CarModelResponse;
+import com.exploresg.fleetservice.service.OperatorService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Public operator endpoints.
+ *
+ * Endpoints:
+ * - GET /api/v1/fleet/operators/{operatorUuid}/models - Models offered by the operator
+ */
+@RestController
+@RequestMapping("/api/v1/fleet/operators")
+@RequiredArgsConstructor
+public class OperatorController {
+
+    private final OperatorService operatorService;
+
+    @GetMapping("/{operatorUuid}/models")
+    public ResponseEntity<List<CarModelResponse>> getOperatorModels(@PathVariable UUID operatorUuid) {
+        return ResponseEntity.ok(operatorService.getOperatorModels(operatorUuid).stream()
+                .map(CarModelResponse::from)
+                .toList());
+    }
+}
@@ -0,0 +1,52 @@
+package com.exploresg.fleetservice.controller;
+
+import com.exploresg.fleetservice.dto.FacetFilter;
+import com.exploresg.fleetservice.dto.NearbyLocationResponse;
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.FuelType;
+import com.exploresg.fleetservice.model.Manufacturer;
+import com.exploresg.fleetservice.model.Transmission;
+import com.exploresg.fleetservice.service.PickupLocationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Public pickup location endpoints.
+ *
+ * Endpoints:
+ * - GET /api/v1/fleet/pickup-locations/nearby?lat=..&lon=..&limit=..      - Nearest matching locations
+ * - GET /api/v1/fleet/pickup-locations/nearby?lat=..&lon=..&radiusKm=..   - Matching locations within the radius
+ *
+ * Optional startDate/endDate (ISO, endDate exclusive) keep only locations whose
+ * operator has a vehicle free for the whole period; facet parameters
+ * (manufacturer, category, fuelType, transmission, seats) narrow the models.
+ */
+@RestController
+@RequestMapping("/api/v1/fleet/pickup-locations")
+@RequiredArgsConstructor
+public class PickupLocationController {
+
+    private final PickupLocationService pickupLocationService;
+
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyLocationResponse>> findNearby(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Manufacturer manufacturer,
+            @RequestParam(required = false) Category category,
+            @RequestParam(required = false) FuelType fuelType,
+            @RequestParam(required = false) Transmission transmission,
+            @RequestParam(required = false) Integer seats) {
+        FacetFilter filter = new FacetFilter(manufacturer, category, fuelType, transmission, seats);
+        return ResponseEntity.ok(pickupLocationService.findNearby(lat, lon, radiusKm, limit, startDate, endDate, filter));
+    }
+}
@@ -0,0 +1,34 @@
+package com.exploresg.fleetservice.controller;
+
+import com.exploresg.fleetservice.dto.QuoteRequest;
+import com.exploresg.fleetservice.dto.QuoteResponse;
+import com.exploresg.fleetservice.service.PricingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Bulk price quotes.
+ *
+ * Endpoints:
+ * - POST /api/v1/fleet/quotes - Price many models for one period (QuoteRequest)
+ *
+ * The single-model quote is GET /api/v1/fleet/models/{uuid}/quote.
+ */
+@RestController
+@RequestMapping("/api/v1/fleet/quotes")
+@RequiredArgsConstructor
+public class QuoteController {
+
+    private final PricingService pricingService;
+
+    @PostMapping
+    public ResponseEntity<List<QuoteResponse>> quote(@RequestBody QuoteRequest request) {
+        return ResponseEntity.ok(pricingService.quotes(request));
+    }
+}
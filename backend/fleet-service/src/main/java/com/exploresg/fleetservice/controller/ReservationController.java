@@ -0,0 +1,63 @@
+package com.exploresg.fleetservice.controller;
+
+import com.exploresg.fleetservice.dto.BookingRequest;
+import com.exploresg.fleetservice.dto.BookingResponse;
+import com.exploresg.fleetservice.service.IdempotencyStore;
+import com.exploresg.fleetservice.service.ReservationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reservation hold endpoints (checkout flow).
+ *
+ * Endpoints:
+ * - POST   /api/v1/fleet/reservations                - Hold a vehicle (e.g. 10 minutes)
+ * - GET    /api/v1/fleet/reservations/{uuid}         - Get a hold
+ * - POST   /api/v1/fleet/reservations/{uuid}/confirm - Confirm the hold into a booking
+ * - DELETE /api/v1/fleet/reservations/{uuid}         - Release the hold early
+ *
+ * Unconfirmed holds are released automatically when they expire.
+ * Creating a hold takes an optional Idempotency-Key header, as booking does.
+ */
+@RestController
+@RequestMapping("/api/v1/fleet/reservations")
+@RequiredArgsConstructor
+public class ReservationController {
+
+    private final ReservationService reservationService;
+    private final IdempotencyStore idempotencyStore;
+
+    @PostMapping
+    public CompletableFuture<ResponseEntity<BookingResponse>> createHold(@RequestBody BookingRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @AuthenticationPrincipal Jwt jwt) {
+        UUID userId = BookingController.userIdOf(jwt);
+        return idempotencyStore.execute("hold", userId, idempotencyKey, request, BookingResponse.class,
+                        () -> CompletableFuture.completedFuture(reservationService.hold(request, userId)))
+                .thenApply(BookingController::created);
+    }
+
+    @GetMapping("/{bookingUuid}")
+    public ResponseEntity<BookingResponse> getHold(@PathVariable UUID bookingUuid,
+            @AuthenticationPrincipal Jwt jwt) {
+        return ResponseEntity.ok(reservationService.getHold(bookingUuid, BookingController.userIdOf(jwt)));
+    }
+
+    @PostMapping("/{bookingUuid}/confirm")
+    public ResponseEntity<BookingResponse> confirmHold(@PathVariable UUID bookingUuid,
+            @AuthenticationPrincipal Jwt jwt) {
+        return ResponseEntity.ok(reservationService.confirm(bookingUuid, BookingController.userIdOf(jwt)));
+    }
+
+    @DeleteMapping("/{bookingUuid}")
+    public ResponseEntity<BookingResponse> releaseHold(@PathVariable UUID bookingUuid,
+            @AuthenticationPrincipal Jwt jwt) {
+        return ResponseEntity.ok(reservationService.release(bookingUuid, BookingController.userIdOf(jwt)));
+    }
+}
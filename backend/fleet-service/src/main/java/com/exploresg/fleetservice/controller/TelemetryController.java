@@ -0,0 +1,56 @@
+package com.exploresg.fleetservice.controller;
+
+import com.exploresg.fleetservice.dto.TelemetryBatchRequest;
+import com.exploresg.fleetservice.dto.TelemetryBatchResponse;
+import com.exploresg.fleetservice.dto.VehicleTelemetryResponse;
+import com.exploresg.fleetservice.exception.InvalidRequestException;
+import com.exploresg.fleetservice.service.TelemetryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+/**
+ * EV telemetry endpoints - JWT required.
+ *
+ * Endpoints:
+ * - POST /api/v1/fleet/telemetry/readings - Batch of state-of-charge/odometer readings (TELEMETRY or ADMIN)
+ * - GET  /api/v1/fleet/telemetry/vehicles/{vehicleUuid}?minutes=.. - Latest state and minute series (ADMIN)
+ *
+ * Readings are buffered and written asynchronously: 202 means the readings
+ * were taken, not that they are stored yet.
+ */
+@RestController
+@RequestMapping("/api/v1/fleet/telemetry")
+@RequiredArgsConstructor
+public class TelemetryController {
+
+    private static final int MAX_HISTORY_MINUTES = 24 * 60;
+
+    private final TelemetryService telemetryService;
+
+    @PreAuthorize("hasAnyAuthority('ROLE_TELEMETRY', 'ROLE_ADMIN')")
+    @PostMapping("/readings")
+    public ResponseEntity<TelemetryBatchResponse> ingest(@RequestBody TelemetryBatchRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(telemetryService.ingest(request));
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping("/vehicles/{vehicleUuid}")
+    public ResponseEntity<VehicleTelemetryResponse> getTelemetry(@PathVariable UUID vehicleUuid,
+            @RequestParam(defaultValue = "60") int minutes) {
+        if (minutes < 0 || minutes > MAX_HISTORY_MINUTES) {
+            throw new InvalidRequestException("minutes must be between 0 and " + MAX_HISTORY_MINUTES);
+        }
+        return ResponseEntity.ok(telemetryService.getTelemetry(vehicleUuid, minutes));
+    }
+}
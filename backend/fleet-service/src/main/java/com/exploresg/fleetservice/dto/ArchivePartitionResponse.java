@@ -0,0 +1,21 @@
+package com.exploresg.fleetservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+
+/**
+ * One month file of the booking archive: bookings starting in that month.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArchivePartitionResponse {
+    private YearMonth month;
+    private int bookings;
+    private long bytes;
+}
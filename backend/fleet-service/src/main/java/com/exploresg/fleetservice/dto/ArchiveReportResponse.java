@@ -0,0 +1,28 @@
+package com.exploresg.fleetservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Archived bookings of one group.
+ *
+ * key is the month (yyyy-MM), the BookingStatus, the Category / FuelType
+ * name, or the operatorUuid (name then holds the operator name); "unknown"
+ * for models or operators that no longer exist. rentalDays counts the days of
+ * CONFIRMED bookings only.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArchiveReportResponse {
+    private String key;
+    private String name;
+    private long bookings;
+    private long confirmed;
+    private long cancelled;
+    private long expired;
+    private long rentalDays;
+}
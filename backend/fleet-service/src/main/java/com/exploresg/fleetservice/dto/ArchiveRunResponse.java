@@ -0,0 +1,27 @@
+package com.exploresg.fleetservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Outcome of one archive run: bookings that ended before cutoff were moved to
+ * the month files listed in months.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArchiveRunResponse {
+    private LocalDate cutoff;
+    private long archived;
+    private List<YearMonth> months;
+    private Instant startedAt;
+    private Instant finishedAt;
+}
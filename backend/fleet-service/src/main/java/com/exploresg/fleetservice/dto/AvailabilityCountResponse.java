@@ -0,0 +1,28 @@
+package com.exploresg.fleetservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Availability of one CarModel for a period.
+ *
+ * availableVehicles counts vehicles free for the WHOLE period.
+ * dailyFree[i] counts vehicles free on startDate + i (any vehicle).
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AvailabilityCountResponse {
+    private UUID carModelUuid;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private int availableVehicles;
+    private int totalVehicles;
+    private int[] dailyFree;
+}
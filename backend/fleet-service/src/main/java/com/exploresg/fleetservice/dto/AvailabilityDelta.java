@@ -0,0 +1,25 @@
+package com.exploresg.fleetservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Count of one model on the availability stream.
+ *
+ * availableVehicles is the absolute count of vehicles free for the whole
+ * subscribed period; delta is the change since the previous event for the
+ * model (0 in the initial snapshot).
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AvailabilityDelta {
+    private UUID carModelUuid;
+    private int availableVehicles;
+    private int delta;
+}
@@ -0,0 +1,31 @@
+package com.exploresg.fleetservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Request DTO for booking any free vehicle of a CarModel.
+ *
+ * Example request body:
+ * {
+ *   "carModelUuid": "6f1c...",
+ *   "startDate": "2025-03-12",
+ *   "endDate": "2025-03-19"
+ * }
+ *
+ * endDate is the return day and is exclusive.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingRequest {
+    private UUID carModelUuid;
+    private LocalDate startDate;
+    private LocalDate endDate;
+}
@@ -0,0 +1,45 @@
+package com.exploresg.fleetservice.dto;
+
+import com.exploresg.fleetservice.model.Booking;
+import com.exploresg.fleetservice.model.BookingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Response DTO for a booking.
+ *
+ * Never exposes internal database IDs - only UUIDs.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingResponse {
+    private UUID bookingUuid;
+    private UUID vehicleUuid;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BookingStatus status;
+
+    /**
+     * Only set for HELD bookings: when the hold is released if not confirmed.
+     */
+    private Instant expiresAt;
+
+    public static BookingResponse from(Booking booking) {
+        return BookingResponse.builder()
+                .bookingUuid(booking.getBookingUuid())
+                .vehicleUuid(booking.getVehicle().getVehicleUuid())
+                .startDate(booking.getStartDate())
+                .endDate(booking.getEndDate())
+                .status(booking.getStatus())
+                .expiresAt(booking.getExpiresAt())
+                .build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.exploresg.fleetservice.dto;
+
+import com.exploresg.fleetservice.engine.FleetRollups;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Booking events of one dimension value per time bucket.
+ *
+ * key is "all" for the fleet, the Category / FuelType name, or the
+ * operatorUuid (name then holds the operator name). counts holds one value per
+ * bucket for every metric, oldest bucket (starting at from) first; the last
+ * bucket is the current, incomplete one.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingRollupResponse {
+    private String key;
+    private String name;
+    private FleetRollups.Resolution resolution;
+    private Instant from;
+    private Map<FleetRollups.Metric, long[]> counts;
+    private Map<FleetRollups.Metric, Long> totals;
+}
@@ -0,0 +1,66 @@
+package com.exploresg.fleetservice.dto;
+
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.FuelType;
+import com.exploresg.fleetservice.model.Manufacturer;
+import com.exploresg.fleetservice.model.Transmission;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Response DTO for a catalogue entry.
+ *
+ * Same fields as CarModel, minus the internal database ID.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CarModelResponse {
+    private UUID carModelUuid;
+    private String model;
+    private Manufacturer manufacturer;
+    private Integer seats;
+    private Transmission transmission;
+    private String imageUrl;
+    private Category category;
+    private FuelType fuelType;
+    private Integer modelYear;
+    private Integer engineCapacityCc;
+    private Integer maxUnladenWeightKg;
+    private Integer maxLadenWeightKg;
+    private Integer rangeInKm;
+    private boolean hasAirConditioning;
+    private boolean hasInfotainmentSystem;
+    private String safetyRating;
+    private Integer topSpeedKph;
+    private Double zeroToHundredSec;
+
+    public static CarModelResponse from(CarModel carModel) {
+        return CarModelResponse.builder()
+                .carModelUuid(carModel.getCarModelUuid())
+                .model(carModel.getModel())
+                .manufacturer(carModel.getManufacturer())
+                .seats(carModel.getSeats())
+                .transmission(carModel.getTransmission())
+                .imageUrl(carModel.getImageUrl())
+                .category(carModel.getCategory())
+                .fuelType(carModel.getFuelType())
+                .modelYear(carModel.getModelYear())
+                .engineCapacityCc(carModel.getEngineCapacityCc())
+                .maxUnladenWeightKg(carModel.getMaxUnladenWeightKg())
+                .maxLadenWeightKg(carModel.getMaxLadenWeightKg())
+                .rangeInKm(carModel.getRangeInKm())
+                .hasAirConditioning(carModel.isHasAirConditioning())
+                .hasInfotainmentSystem(carModel.isHasInfotainmentSystem())
+                .safetyRating(carModel.getSafetyRating())
+                .topSpeedKph(carModel.getTopSpeedKph())
+                .zeroToHundredSec(carModel.getZeroToHundredSec())
+                .build();
+    }
+}
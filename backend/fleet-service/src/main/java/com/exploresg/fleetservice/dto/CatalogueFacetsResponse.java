@@ -0,0 +1,31 @@
+package com.exploresg.fleetservice.dto;
+
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.FuelType;
+import com.exploresg.fleetservice.model.Manufacturer;
+import com.exploresg.fleetservice.model.Transmission;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Number of catalogue models per facet value, for building browse filters.
+ *
+ * Values without any model are left out.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CatalogueFacetsResponse {
+    private long catalogueVersion;
+    private int totalModels;
+    private Map<Manufacturer, Integer> manufacturers;
+    private Map<Category, Integer> categories;
+    private Map<FuelType, Integer> fuelTypes;
+    private Map<Transmission, Integer> transmissions;
+    private Map<Integer, Integer> seats;
+}
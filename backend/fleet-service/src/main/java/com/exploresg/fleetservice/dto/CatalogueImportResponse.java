@@ -0,0 +1,36 @@
+package com.exploresg.fleetservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of a bulk CarModel import.
+ *
+ * rows counts every non-blank data line; failed rows are listed in errors
+ * (capped, see errorsTruncated).
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CatalogueImportResponse {
+    private int rows;
+    private int inserted;
+    private int updated;
+    private int failed;
+    private long durationMs;
+    private List<RowError> errors;
+    private boolean errorsTruncated;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        private int line;
+        private String message;
+    }
+}
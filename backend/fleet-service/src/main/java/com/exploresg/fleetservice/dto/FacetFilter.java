@@ -0,0 +1,80 @@
+package com.exploresg.fleetservice.dto;
+
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.FuelType;
+import com.exploresg.fleetservice.model.Manufacturer;
+import com.exploresg.fleetservice.model.Transmission;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Facet values a model list is narrowed to; null means "any".
+ *
+ * The request parameters have the same names as the fields
+ * (?category=SUV&amp;fuelType=ELECTRIC).
+ */
+public record FacetFilter(Manufacturer manufacturer, Category category, FuelType fuelType,
+        Transmission transmission, Integer seats) {
+
+    public static final FacetFilter NONE = new FacetFilter(null, null, null, null, null);
+
+    public boolean isEmpty() {
+        return manufacturer == null && category == null && fuelType == null && transmission == null && seats == null;
+    }
+
+    public boolean matches(CarModel model) {
+        return (manufacturer == null || manufacturer == model.getManufacturer())
+                && (category == null || category == model.getCategory())
+                && (fuelType == null || fuelType == model.getFuelType())
+                && (transmission == null || transmission == model.getTransmission())
+                && (seats == null || seats.equals(model.getSeats()));
+    }
+
+    /**
+     * Canonical text form in a fixed field order, e.g. "category=SUV&amp;fuelType=ELECTRIC";
+     * empty for no filter. Equal filters give equal keys whatever the parameter order.
+     */
+    public String key() {
+        StringBuilder key = new StringBuilder();
+        append(key, "manufacturer", manufacturer);
+        append(key, "category", category);
+        append(key, "fuelType", fuelType);
+        append(key, "transmission", transmission);
+        append(key, "seats", seats);
+        return key.toString();
+    }
+
+    private static void append(StringBuilder key, String name, Object value) {
+        if (value != null) {
+            if (!key.isEmpty()) {
+                key.append('&');
+            }
+            key.append(name).append('=').append(value);
+        }
+    }
+
+    /**
+     * Read the filter from request parameters, for code running before MVC binding.
+     *
+     * @return empty if a value is invalid (MVC binding then answers 400)
+     */
+    public static Optional<FacetFilter> fromParameters(Function<String, String> parameter) {
+        try {
+            String seats = parameter.apply("seats");
+            return Optional.of(new FacetFilter(
+                    parse(Manufacturer.class, parameter.apply("manufacturer")),
+                    parse(Category.class, parameter.apply("category")),
+                    parse(FuelType.class, parameter.apply("fuelType")),
+                    parse(Transmission.class, parameter.apply("transmission")),
+                    seats == null || seats.isBlank() ? null : Integer.valueOf(seats.trim())));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value) {
+        return value == null || value.isBlank() ? null : Enum.valueOf(type, value.trim());
+    }
+}
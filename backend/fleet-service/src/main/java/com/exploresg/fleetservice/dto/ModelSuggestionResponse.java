@@ -0,0 +1,46 @@
+package com.exploresg.fleetservice.dto;
+
+import com.exploresg.fleetservice.engine.ModelSearchIndex;
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.FuelType;
+import com.exploresg.fleetservice.model.Manufacturer;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * One search suggestion: enough to render the suggestion list, the full
+ * model is fetched by UUID when picked.
+ *
+ * score is between 0 and 1 (1 = every query word matched exactly).
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ModelSuggestionResponse {
+    private UUID carModelUuid;
+    private Manufacturer manufacturer;
+    private String model;
+    private Integer modelYear;
+    private Category category;
+    private FuelType fuelType;
+    private double score;
+
+    public static ModelSuggestionResponse from(ModelSearchIndex.Hit hit) {
+        CarModel carModel = hit.model();
+        return ModelSuggestionResponse.builder()
+                .carModelUuid(carModel.getCarModelUuid())
+                .manufacturer(carModel.getManufacturer())
+                .model(carModel.getModel())
+                .modelYear(carModel.getModelYear())
+                .category(carModel.getCategory())
+                .fuelType(carModel.getFuelType())
+                .score(Math.round(hit.score() * 1000) / 1000.0)
+                .build();
+    }
+}
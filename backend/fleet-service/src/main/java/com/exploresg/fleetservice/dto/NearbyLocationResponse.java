@@ -0,0 +1,57 @@
+package com.exploresg.fleetservice.dto;
+
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.Manufacturer;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A pickup location near the customer, with the models its operator can hand out.
+ *
+ * models lists the operator's models that match the facet filter; with a
+ * period, only models with a vehicle free for the whole period, and
+ * availableVehicles counts those vehicles. Without a period it counts the
+ * operator's vehicles of the model.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class NearbyLocationResponse {
+    private UUID pickupLocationUuid;
+    private String name;
+    private UUID operatorUuid;
+    private String operatorName;
+    private double latitude;
+    private double longitude;
+    private long distanceMeters;
+    private List<AvailableModel> models;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class AvailableModel {
+        private UUID carModelUuid;
+        private Manufacturer manufacturer;
+        private String model;
+        private Category category;
+        private int availableVehicles;
+
+        public static AvailableModel from(CarModel carModel, int availableVehicles) {
+            return AvailableModel.builder()
+                    .carModelUuid(carModel.getCarModelUuid())
+                    .manufacturer(carModel.getManufacturer())
+                    .model(carModel.getModel())
+                    .category(carModel.getCategory())
+                    .availableVehicles(availableVehicles)
+                    .build();
+        }
+    }
+}
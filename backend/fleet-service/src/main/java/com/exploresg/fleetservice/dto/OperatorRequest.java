@@ -0,0 +1,18 @@
+package com.exploresg.fleetservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO for registering a rental operator.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OperatorRequest {
+    private String name;
+    private String contactEmail;
+}
@@ -0,0 +1,39 @@
+package com.exploresg.fleetservice.dto;
+
+import com.exploresg.fleetservice.engine.OperatorIndex;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Operator with its fleet aggregates.
+ *
+ * utilization is the share of vehicle-days booked over the next
+ * utilizationDays days (0.0 - 1.0).
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OperatorResponse {
+    private UUID operatorUuid;
+    private String name;
+    private int modelCount;
+    private int vehicleCount;
+    private int utilizationDays;
+    private double utilization;
+
+    public static OperatorResponse from(OperatorIndex.OperatorStats stats, int utilizationDays) {
+        return OperatorResponse.builder()
+                .operatorUuid(stats.operatorUuid())
+                .name(stats.name())
+                .modelCount(stats.modelCount())
+                .vehicleCount(stats.vehicleCount())
+                .utilizationDays(utilizationDays)
+                .utilization(stats.utilization())
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.exploresg.fleetservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Request DTO for adding a pickup location to an operator.
+ *
+ * latitude/longitude are WGS84 degrees.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PickupLocationRequest {
+    private UUID operatorUuid;
+    private String name;
+    private String address;
+    private Double latitude;
+    private Double longitude;
+}
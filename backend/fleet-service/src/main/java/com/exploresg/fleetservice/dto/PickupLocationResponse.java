@@ -0,0 +1,35 @@
+package com.exploresg.fleetservice.dto;
+
+import com.exploresg.fleetservice.model.PickupLocation;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PickupLocationResponse {
+    private UUID pickupLocationUuid;
+    private UUID operatorUuid;
+    private String name;
+    private String address;
+    private double latitude;
+    private double longitude;
+    private boolean active;
+
+    public static PickupLocationResponse from(PickupLocation location) {
+        return PickupLocationResponse.builder()
+                .pickupLocationUuid(location.getPickupLocationUuid())
+                .operatorUuid(location.getOperator().getOperatorUuid())
+                .name(location.getName())
+                .address(location.getAddress())
+                .latitude(location.getLatitude())
+                .longitude(location.getLongitude())
+                .active(location.isActive())
+                .build();
+    }
+}
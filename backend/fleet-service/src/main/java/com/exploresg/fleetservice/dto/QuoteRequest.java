@@ -0,0 +1,33 @@
+package com.exploresg.fleetservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Request DTO for pricing several models for the same period.
+ *
+ * Example request body:
+ * {
+ *   "startDate": "2025-03-12",
+ *   "endDate": "2025-03-19",
+ *   "carModelUuids": ["6f1c...", "9a2e..."]
+ * }
+ *
+ * Without carModelUuids every priced model of the catalogue is quoted.
+ * endDate is the return day and is exclusive.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuoteRequest {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private List<UUID> carModelUuids;
+}
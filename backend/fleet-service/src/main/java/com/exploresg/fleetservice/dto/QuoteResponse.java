@@ -0,0 +1,48 @@
+package com.exploresg.fleetservice.dto;
+
+import com.exploresg.fleetservice.engine.PriceTables;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Price of renting a model for a period.
+ *
+ * subtotal is the sum of the day prices (weekend/peak surcharges included),
+ * discount the length-of-rental discount on it, total what the customer pays.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuoteResponse {
+    private UUID carModelUuid;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private int days;
+    private String currency;
+    private BigDecimal subtotal;
+    private int discountPercent;
+    private BigDecimal discount;
+    private BigDecimal total;
+
+    public static QuoteResponse from(UUID carModelUuid, LocalDate startDate, LocalDate endDate,
+            String currency, PriceTables.Quote quote) {
+        return QuoteResponse.builder()
+                .carModelUuid(carModelUuid)
+                .startDate(startDate)
+                .endDate(endDate)
+                .days(quote.days())
+                .currency(currency)
+                .subtotal(BigDecimal.valueOf(quote.subtotal(), 2))
+                .discountPercent(quote.discountPercent())
+                .discount(BigDecimal.valueOf(quote.discount(), 2))
+                .total(BigDecimal.valueOf(quote.total(), 2))
+                .build();
+    }
+}
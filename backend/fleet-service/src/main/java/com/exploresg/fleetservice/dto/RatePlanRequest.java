@@ -0,0 +1,41 @@
+package com.exploresg.fleetservice.dto;
+
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.LengthOfRentalDiscount;
+import com.exploresg.fleetservice.model.PeakPeriod;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Request DTO for creating or replacing the rate plan of a model or a category.
+ *
+ * Example request body:
+ * {
+ *   "category": "SUV",
+ *   "dailyRate": 120.00,
+ *   "weekendSurchargePercent": 15,
+ *   "peakPeriods": [{"startDate": "2025-12-20", "endDate": "2026-01-03", "surchargePercent": 30}],
+ *   "lengthOfRentalDiscounts": [{"minDays": 7, "discountPercent": 10}, {"minDays": 28, "discountPercent": 25}]
+ * }
+ *
+ * Set exactly one of carModelUuid / category. An existing plan for the same
+ * model or category is replaced.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RatePlanRequest {
+    private UUID carModelUuid;
+    private Category category;
+    private BigDecimal dailyRate;
+    private int weekendSurchargePercent;
+    private List<PeakPeriod> peakPeriods;
+    private List<LengthOfRentalDiscount> lengthOfRentalDiscounts;
+}
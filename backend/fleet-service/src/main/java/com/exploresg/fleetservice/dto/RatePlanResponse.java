@@ -0,0 +1,46 @@
+package com.exploresg.fleetservice.dto;
+
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.LengthOfRentalDiscount;
+import com.exploresg.fleetservice.model.PeakPeriod;
+import com.exploresg.fleetservice.model.RatePlan;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO for a rate plan (model plans carry carModelUuid, category plans category).
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RatePlanResponse {
+    private UUID ratePlanUuid;
+    private UUID carModelUuid;
+    private Category category;
+    private BigDecimal dailyRate;
+    private int weekendSurchargePercent;
+    private List<PeakPeriod> peakPeriods;
+    private List<LengthOfRentalDiscount> lengthOfRentalDiscounts;
+    private Instant updatedAt;
+
+    public static RatePlanResponse from(RatePlan plan, UUID carModelUuid) {
+        return RatePlanResponse.builder()
+                .ratePlanUuid(plan.getRatePlanUuid())
+                .carModelUuid(carModelUuid)
+                .category(plan.getCategory())
+                .dailyRate(plan.getDailyRate())
+                .weekendSurchargePercent(plan.getWeekendSurchargePercent())
+                .peakPeriods(List.copyOf(plan.getPeakPeriods()))
+                .lengthOfRentalDiscounts(List.copyOf(plan.getLengthOfRentalDiscounts()))
+                .updatedAt(plan.getUpdatedAt())
+                .build();
+    }
+}
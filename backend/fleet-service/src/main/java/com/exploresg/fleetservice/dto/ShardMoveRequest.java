@@ -0,0 +1,20 @@
+package com.exploresg.fleetservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Request DTO for moving an operator's fleet data to another shard.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShardMoveRequest {
+    private UUID operatorUuid;
+    private Integer targetShard;
+}
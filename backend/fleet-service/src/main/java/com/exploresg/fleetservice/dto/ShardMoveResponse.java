@@ -0,0 +1,23 @@
+package com.exploresg.fleetservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * A started or suggested move of an operator between data shards.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShardMoveResponse {
+    private UUID operatorUuid;
+    private String name;
+    private int fromShard;
+    private int toShard;
+    private int vehicles;
+}
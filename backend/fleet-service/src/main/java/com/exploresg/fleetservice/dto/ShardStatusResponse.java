@@ -0,0 +1,24 @@
+package com.exploresg.fleetservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Size of one data shard.
+ *
+ * vehicles and bookings are counted in the shard's database; operators and
+ * movingOperators come from the shard directory.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShardStatusResponse {
+    private int shard;
+    private int operators;
+    private int movingOperators;
+    private long vehicles;
+    private long bookings;
+}
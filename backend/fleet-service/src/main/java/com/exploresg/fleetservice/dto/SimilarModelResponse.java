@@ -0,0 +1,52 @@
+package com.exploresg.fleetservice.dto;
+
+import com.exploresg.fleetservice.engine.SimilarModelIndex;
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.FuelType;
+import com.exploresg.fleetservice.model.Manufacturer;
+import com.exploresg.fleetservice.model.Transmission;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * One "similar cars" card on the model detail page.
+ *
+ * similarity is between 0 and 1 (1 = identical features).
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SimilarModelResponse {
+    private UUID carModelUuid;
+    private Manufacturer manufacturer;
+    private String model;
+    private Integer modelYear;
+    private String imageUrl;
+    private Category category;
+    private FuelType fuelType;
+    private Transmission transmission;
+    private Integer seats;
+    private double similarity;
+
+    public static SimilarModelResponse from(SimilarModelIndex.Neighbour neighbour) {
+        CarModel carModel = neighbour.model();
+        return SimilarModelResponse.builder()
+                .carModelUuid(carModel.getCarModelUuid())
+                .manufacturer(carModel.getManufacturer())
+                .model(carModel.getModel())
+                .modelYear(carModel.getModelYear())
+                .imageUrl(carModel.getImageUrl())
+                .category(carModel.getCategory())
+                .fuelType(carModel.getFuelType())
+                .transmission(carModel.getTransmission())
+                .seats(carModel.getSeats())
+                .similarity(Math.round(neighbour.similarity() * 1000) / 1000.0)
+                .build();
+    }
+}
@@ -0,0 +1,42 @@
+package com.exploresg.fleetservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Request DTO for a batch of EV telemetry readings, of any number of vehicles.
+ *
+ * Example request body:
+ * {
+ *   "readings": [
+ *     { "vehicleUuid": "3b0e...", "recordedAt": "2025-03-12T08:15:02Z",
+ *       "stateOfChargePercent": 81.5, "odometerKm": 12873.4 }
+ *   ]
+ * }
+ *
+ * odometerKm is optional.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TelemetryBatchRequest {
+    private List<Reading> readings;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Reading {
+        private UUID vehicleUuid;
+        private Instant recordedAt;
+        private Double stateOfChargePercent;
+        private Double odometerKm;
+    }
+}
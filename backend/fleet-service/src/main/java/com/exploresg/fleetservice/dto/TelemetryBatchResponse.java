@@ -0,0 +1,23 @@
+package com.exploresg.fleetservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a telemetry batch.
+ *
+ * rejected: invalid readings, or readings of unknown or non-electric vehicles.
+ * dropped: valid readings refused because the vehicle's buffer was full; the
+ * sender may retry them.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TelemetryBatchResponse {
+    private int accepted;
+    private int rejected;
+    private int dropped;
+}
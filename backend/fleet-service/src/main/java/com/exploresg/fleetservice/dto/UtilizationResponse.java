@@ -0,0 +1,25 @@
+package com.exploresg.fleetservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Utilization of one dimension value.
+ *
+ * key is "all" for the fleet, the Category / FuelType name, or the
+ * operatorUuid (name then holds the operator name). utilization is the share
+ * of vehicle-days booked over the next utilizationDays days (0.0 - 1.0).
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UtilizationResponse {
+    private String key;
+    private String name;
+    private int vehicleCount;
+    private int utilizationDays;
+    private double utilization;
+}
@@ -0,0 +1,21 @@
+package com.exploresg.fleetservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Request DTO for adding a vehicle to an operator's fleet.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class VehicleRequest {
+    private UUID carModelUuid;
+    private UUID operatorUuid;
+    private String licensePlate;
+}
@@ -0,0 +1,20 @@
+package com.exploresg.fleetservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class VehicleResponse {
+    private UUID vehicleUuid;
+    private UUID carModelUuid;
+    private UUID operatorUuid;
+    private String licensePlate;
+    private boolean active;
+}
@@ -0,0 +1,46 @@
+package com.exploresg.fleetservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Telemetry of one electric vehicle: the latest reading and the stored
+ * minutes of the last hours.
+ *
+ * estimatedRangeKm is rangeInKm of the model x stateOfChargePercent; null if
+ * the model has no range. offerableToday tells whether the vehicle is offered
+ * for bookings starting today.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class VehicleTelemetryResponse {
+    private UUID vehicleUuid;
+    private Instant recordedAt;
+    private Double stateOfChargePercent;
+    private Double odometerKm;
+    private Double estimatedRangeKm;
+    private boolean offerableToday;
+    private List<Minute> minutes;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Minute {
+        private Instant minute;
+        private int samples;
+        private double stateOfChargeMin;
+        private double stateOfChargeMax;
+        private double stateOfChargeAvg;
+        private double stateOfChargeLast;
+        private Double odometerKm;
+    }
+}
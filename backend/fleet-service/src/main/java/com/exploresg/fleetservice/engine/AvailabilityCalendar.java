@@ -0,0 +1,263 @@
+package com.exploresg.fleetservice.engine;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Per-day availability calendar for the whole fleet.
+ *
+ * Structure:
+ * - One DayBitmap per vehicle (bit set = occupied that day)
+ * - Vehicles grouped per CarModel, with a per-day count of occupied vehicles
+ * - The window rolls forward daily and covers horizonDays (default ~18 months)
+ *
+ * The calendar is an OccupancyListener of the BookingEngine, so it is updated
+ * incrementally on every reserve/release and never rescans bookings.
+ *
+ * Catalogue-wide date-range queries ("which models are available 12-19 March")
+ * run in parallel over model shards on the common fork-join pool. Each model
+ * check is a handful of word operations per vehicle.
+ *
+ * Ordered first among the listeners, so listeners after it (e.g. the
+ * AvailabilityChangeTracker) already see the change in the calendar.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AvailabilityCalendar implements OccupancyListener {
+
+    private final int horizonDays;
+    private final int capacity;
+    private final ConcurrentHashMap<Long, ModelCalendar> models = new ConcurrentHashMap<>();
+
+    /**
+     * First day of the window (today). Days before it have been cleared.
+     */
+    private volatile long windowStart;
+
+    /**
+     * Vehicles of one model. All access synchronizes on the instance.
+     */
+    private final class ModelCalendar {
+        private final Map<Long, DayBitmap> vehicles = new HashMap<>();
+        private final int[] occupied = new int[capacity];
+
+        private synchronized void add(long vehicleId) {
+            vehicles.putIfAbsent(vehicleId, new DayBitmap(capacity));
+        }
+
+        private synchronized void mark(long vehicleId, long startDay, long endDay, boolean occupy) {
+            long from = Math.max(startDay, windowStart);
+            long to = Math.min(endDay, windowStart + horizonDays);
+            if (from >= to) {
+                return;
+            }
+            DayBitmap bitmap = vehicles.computeIfAbsent(vehicleId, id -> new DayBitmap(capacity));
+            if (occupy) {
+                bitmap.set(from, to);
+            } else {
+                bitmap.clear(from, to);
+            }
+            for (long day = from; day < to; day++) {
+                occupied[slot(day)] += occupy ? 1 : -1;
+            }
+        }
+
+        private synchronized int available(long startDay, long endDay) {
+            int total = vehicles.size();
+            boolean anyOccupied = false;
+            for (long day = startDay; day < endDay; day++) {
+                int count = occupied[slot(day)];
+                if (count >= total) {
+                    return 0; // every vehicle busy on this day
+                }
+                anyOccupied |= count > 0;
+            }
+            if (!anyOccupied) {
+                return total;
+            }
+            int free = 0;
+            for (DayBitmap bitmap : vehicles.values()) {
+                if (bitmap.isClear(startDay, endDay)) {
+                    free++;
+                }
+            }
+            return free;
+        }
+
+        private synchronized int available(LongPredicate vehicleFilter, long startDay, long endDay) {
+            int free = 0;
+            for (Map.Entry<Long, DayBitmap> vehicle : vehicles.entrySet()) {
+                if (vehicleFilter.test(vehicle.getKey()) && vehicle.getValue().isClear(startDay, endDay)) {
+                    free++;
+                }
+            }
+            return free;
+        }
+
+        private synchronized int[] dailyFree(long startDay, long endDay) {
+            int[] free = new int[(int) (endDay - startDay)];
+            for (int i = 0; i < free.length; i++) {
+                free[i] = vehicles.size() - occupied[slot(startDay + i)];
+            }
+            return free;
+        }
+
+        private synchronized void roll(long fromDay, long toDay) {
+            for (long day = fromDay; day < toDay; day++) {
+                occupied[slot(day)] = 0;
+            }
+            for (DayBitmap bitmap : vehicles.values()) {
+                bitmap.clear(fromDay, toDay);
+            }
+        }
+    }
+
+    public AvailabilityCalendar(@Value("${fleet.availability.horizon-days:548}") int horizonDays) {
+        this.horizonDays = horizonDays;
+        // Round up to whole words; the spare slots keep the ring from aliasing
+        this.capacity = ((horizonDays + 63) / 64) * 64 + 64;
+        this.windowStart = LocalDate.now().toEpochDay();
+    }
+
+    // ============================================
+    // OCCUPANCY LISTENER
+    // ============================================
+
+    @Override
+    public void vehicleRegistered(long carModelId, long vehicleId) {
+        calendar(carModelId).add(vehicleId);
+    }
+
+    @Override
+    public void occupied(long carModelId, long vehicleId, long startDay, long endDay) {
+        calendar(carModelId).mark(vehicleId, startDay, endDay, true);
+    }
+
+    @Override
+    public void released(long carModelId, long vehicleId, long startDay, long endDay) {
+        calendar(carModelId).mark(vehicleId, startDay, endDay, false);
+    }
+
+    // ============================================
+    // QUERIES
+    // ============================================
+
+    /**
+     * Last bookable return day (exclusive end) of the window.
+     */
+    public LocalDate horizonEnd() {
+        return LocalDate.ofEpochDay(windowStart + horizonDays);
+    }
+
+    /**
+     * Number of vehicles of a model free for the whole period.
+     */
+    public int availableCount(long carModelId, LocalDate startDate, LocalDate endDate) {
+        ModelCalendar calendar = models.get(carModelId);
+        if (calendar == null || !inWindow(startDate, endDate)) {
+            return 0;
+        }
+        return calendar.available(startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    /**
+     * Number of vehicles of a model, among those accepted by the filter
+     * (e.g. one operator's), free for the whole period.
+     */
+    public int availableCount(long carModelId, LongPredicate vehicleFilter, LocalDate startDate, LocalDate endDate) {
+        ModelCalendar calendar = models.get(carModelId);
+        if (calendar == null || !inWindow(startDate, endDate)) {
+            return 0;
+        }
+        return calendar.available(vehicleFilter, startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    /**
+     * Free vehicles per day (not necessarily the same vehicle every day).
+     * Useful for rendering a month view.
+     */
+    public int[] dailyFreeCounts(long carModelId, LocalDate startDate, LocalDate endDate) {
+        ModelCalendar calendar = models.get(carModelId);
+        if (calendar == null || !inWindow(startDate, endDate)) {
+            return new int[Math.max(0, (int) (endDate.toEpochDay() - startDate.toEpochDay()))];
+        }
+        return calendar.dailyFree(startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    /**
+     * Models with at least one vehicle free for the whole period.
+     *
+     * Runs as a parallel stream, i.e. the model list is split into shards
+     * that are checked concurrently on the common fork-join pool.
+     *
+     * @param carModelIds candidate models (e.g. the whole catalogue)
+     * @return ids of available models, in input order
+     */
+    public List<Long> availableModels(Collection<Long> carModelIds, LocalDate startDate, LocalDate endDate) {
+        if (!inWindow(startDate, endDate)) {
+            return List.of();
+        }
+        long start = startDate.toEpochDay();
+        long end = endDate.toEpochDay();
+        return carModelIds.parallelStream()
+                .filter(id -> {
+                    ModelCalendar calendar = models.get(id);
+                    return calendar != null && calendar.available(start, end) > 0;
+                })
+                .toList();
+    }
+
+    // ============================================
+    // WINDOW MAINTENANCE
+    // ============================================
+
+    /**
+     * Move the window start to the given day, clearing days that fell out.
+     * Called daily by AvailabilityService.
+     */
+    public void rollTo(LocalDate today) {
+        long newStart = today.toEpochDay();
+        long oldStart = windowStart;
+        if (newStart <= oldStart) {
+            return;
+        }
+        // Publish the new start first: marks that run after a model's roll
+        // then clamp to it, marks that ran before are cleared by the roll
+        windowStart = newStart;
+        long clearTo = Math.min(newStart, oldStart + capacity);
+        for (ModelCalendar calendar : models.values()) {
+            calendar.roll(oldStart, clearTo);
+        }
+        log.debug("Availability window rolled to {}", today);
+    }
+
+    // ============================================
+    // HELPERS
+    // ============================================
+
+    private ModelCalendar calendar(long carModelId) {
+        return models.computeIfAbsent(carModelId, id -> new ModelCalendar());
+    }
+
+    private boolean inWindow(LocalDate startDate, LocalDate endDate) {
+        long start = startDate.toEpochDay();
+        long end = endDate.toEpochDay();
+        return start < end && start >= windowStart && end <= windowStart + horizonDays;
+    }
+
+    private int slot(long day) {
+        return (int) Math.floorMod(day, (long) capacity);
+    }
+}
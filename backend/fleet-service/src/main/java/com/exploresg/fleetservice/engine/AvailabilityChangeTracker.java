@@ -0,0 +1,64 @@
+package com.exploresg.fleetservice.engine;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Set of CarModels whose availability changed since it was last drained.
+ *
+ * An OccupancyListener, so marking costs one set insert under the engine
+ * lock. Any number of changes to a model between two drains collapse into a
+ * single entry; the consumer (AvailabilityPushService) re-reads the counts it
+ * cares about once per drain. The calendar is the first listener, so a model
+ * is only marked once its change is readable. Changes that are not bookings,
+ * such as a VehicleEligibility veto appearing or lifting, are marked with
+ * modelChanged.
+ */
+@Component
+public class AvailabilityChangeTracker implements OccupancyListener {
+
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void vehicleRegistered(long carModelId, long vehicleId) {
+        changed.add(carModelId);
+    }
+
+    @Override
+    public void occupied(long carModelId, long vehicleId, long startDay, long endDay) {
+        changed.add(carModelId);
+    }
+
+    @Override
+    public void released(long carModelId, long vehicleId, long startDay, long endDay) {
+        changed.add(carModelId);
+    }
+
+    /**
+     * Mark a model whose availability changed without a booking or a new
+     * vehicle.
+     */
+    public void modelChanged(long carModelId) {
+        changed.add(carModelId);
+    }
+
+    /**
+     * Take the models changed since the last drain.
+     *
+     * A change racing with the drain is either returned now or by the next drain.
+     */
+    public List<Long> drain() {
+        List<Long> drained = new ArrayList<>();
+        Iterator<Long> iterator = changed.iterator();
+        while (iterator.hasNext()) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        return drained;
+    }
+}
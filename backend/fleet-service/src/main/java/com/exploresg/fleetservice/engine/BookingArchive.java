@@ -0,0 +1,476 @@
+package com.exploresg.fleetservice.engine;
+
+import com.exploresg.fleetservice.model.BookingStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Cold storage for bookings that left the booking table: one columnar,
+ * compressed file per month of startDate.
+ *
+ * Each column is encoded on its own (ids as varints, days and timestamps as
+ * deltas of rows sorted by startDate, UUIDs as 16 bytes), then deflated and
+ * checksummed separately, so a scan decodes only the columns it asks for.
+ *
+ * File layout (big endian):
+ * <pre>
+ *  0  int      magic "FLBA"
+ *  4  int      format version
+ *  8  int      month (yyyy * 100 + mm)
+ * 12  int      row count
+ * 16  int      column count
+ * 20  entries  per column: byte Column ordinal, long offset, int compressed
+ *              length, int raw length, int CRC32C of the compressed bytes
+ *     blocks   deflated column data
+ * </pre>
+ *
+ * Files are immutable. Adding bookings to a month rewrites its file (next to
+ * it, then moved over it), dropping rows whose bookingUuid is re-added, so an
+ * archive run that is repeated after a crash does not duplicate bookings.
+ */
+@Slf4j
+@Component
+public class BookingArchive {
+
+    private static final int MAGIC = 0x464C4241; // "FLBA"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 20;
+    private static final int COLUMN_ENTRY_BYTES = 21;
+    private static final String SUFFIX = ".bka";
+    private static final String PREFIX = "bookings-";
+
+    public enum Column {
+        BOOKING_UUID, VEHICLE_ID, CAR_MODEL_ID, OPERATOR_ID, USER_ID,
+        START_DAY, END_DAY, STATUS, CREATED_AT, UPDATED_AT
+    }
+
+    /**
+     * One archived booking.
+     *
+     * @param operatorId 0 for vehicles without an operator
+     * @param userId     null for anonymous bookings
+     * @param startDay   epoch day
+     * @param endDay     epoch day, exclusive
+     * @param createdAt  epoch millis
+     * @param updatedAt  epoch millis
+     */
+    public record ArchivedBooking(UUID bookingUuid, long vehicleId, long carModelId, long operatorId, UUID userId,
+            long startDay, long endDay, BookingStatus status, long createdAt, long updatedAt) {
+    }
+
+    /**
+     * Columns of one month as read from its file. Columns that were not
+     * requested are null.
+     */
+    public record Partition(YearMonth month, int rows, UUID[] bookingUuids, long[] vehicleIds,
+            long[] carModelIds, long[] operatorIds, UUID[] userIds, long[] startDays, long[] endDays,
+            BookingStatus[] statuses, long[] createdAt, long[] updatedAt) {
+
+        private ArchivedBooking row(int i) {
+            return new ArchivedBooking(bookingUuids[i], vehicleIds[i], carModelIds[i], operatorIds[i], userIds[i],
+                    startDays[i], endDays[i], statuses[i], createdAt[i], updatedAt[i]);
+        }
+    }
+
+    /**
+     * Month file on disk.
+     */
+    public record PartitionInfo(YearMonth month, int rows, long bytes) {
+    }
+
+    private final Path directory;
+
+    public BookingArchive(@Value("${fleet.archive.directory:./data/booking-archive}") Path directory) {
+        this.directory = directory;
+    }
+
+    // ============================================
+    // WRITE
+    // ============================================
+
+    /**
+     * Add bookings to their month's file.
+     *
+     * @return months written
+     */
+    public synchronized Set<YearMonth> append(Collection<ArchivedBooking> bookings) throws IOException {
+        Map<YearMonth, List<ArchivedBooking>> byMonth = new LinkedHashMap<>();
+        for (ArchivedBooking booking : bookings) {
+            byMonth.computeIfAbsent(monthOf(booking.startDay()), m -> new ArrayList<>()).add(booking);
+        }
+        Files.createDirectories(directory);
+        for (Map.Entry<YearMonth, List<ArchivedBooking>> entry : byMonth.entrySet()) {
+            Map<UUID, ArchivedBooking> rows = new LinkedHashMap<>();
+            Path path = pathOf(entry.getKey());
+            if (Files.exists(path)) {
+                Partition existing = read(entry.getKey(), EnumSet.allOf(Column.class));
+                for (int i = 0; i < existing.rows(); i++) {
+                    rows.put(existing.bookingUuids()[i], existing.row(i));
+                }
+            }
+            for (ArchivedBooking booking : entry.getValue()) {
+                rows.put(booking.bookingUuid(), booking);
+            }
+            List<ArchivedBooking> sorted = new ArrayList<>(rows.values());
+            sorted.sort(Comparator.comparingLong(ArchivedBooking::startDay)
+                    .thenComparingLong(ArchivedBooking::createdAt));
+            write(entry.getKey(), sorted);
+        }
+        return byMonth.keySet();
+    }
+
+    private void write(YearMonth month, List<ArchivedBooking> rows) throws IOException {
+        Column[] columns = Column.values();
+        byte[][] blocks = new byte[columns.length][];
+        int[] rawLengths = new int[columns.length];
+        for (Column column : columns) {
+            byte[] raw = encode(column, rows);
+            rawLengths[column.ordinal()] = raw.length;
+            blocks[column.ordinal()] = deflate(raw);
+        }
+
+        int headerLength = HEADER_BYTES + columns.length * COLUMN_ENTRY_BYTES;
+        ByteBuffer header = ByteBuffer.allocate(headerLength);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(month.getYear() * 100 + month.getMonthValue())
+                .putInt(rows.size()).putInt(columns.length);
+        long offset = headerLength;
+        for (Column column : columns) {
+            byte[] block = blocks[column.ordinal()];
+            CRC32C crc = new CRC32C();
+            crc.update(block);
+            header.put((byte) column.ordinal()).putLong(offset).putInt(block.length)
+                    .putInt(rawLengths[column.ordinal()]).putInt((int) crc.getValue());
+            offset += block.length;
+        }
+        header.flip();
+
+        Path target = pathOf(month);
+        Path tmp = directory.resolve(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header);
+            for (byte[] block : blocks) {
+                writeFully(channel, ByteBuffer.wrap(block));
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        log.debug("Wrote booking archive {}: {} rows, {} bytes", target, rows.size(), offset);
+    }
+
+    // ============================================
+    // READ
+    // ============================================
+
+    /**
+     * Month files, oldest first.
+     */
+    public List<PartitionInfo> partitions() throws IOException {
+        List<PartitionInfo> result = new ArrayList<>();
+        for (YearMonth month : months()) {
+            Path path = pathOf(month);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer header = readFully(channel, 0, HEADER_BYTES);
+                checkHeader(path, header, month);
+                result.add(new PartitionInfo(month, header.getInt(12), channel.size()));
+            } catch (NoSuchFileException e) {
+                // Replaced in the meantime
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Months with a file, oldest first.
+     */
+    public List<YearMonth> months() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> YearMonth.parse(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Read the given columns of a month.
+     *
+     * @throws IOException if the file is missing or damaged
+     */
+    public Partition read(YearMonth month, Set<Column> columns) throws IOException {
+        Set<Column> wanted = EnumSet.noneOf(Column.class);
+        wanted.addAll(columns);
+        if (wanted.contains(Column.END_DAY)) {
+            wanted.add(Column.START_DAY);
+        }
+        Path path = pathOf(month);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, 0, HEADER_BYTES);
+            checkHeader(path, header, month);
+            int rows = header.getInt(12);
+            int columnCount = header.getInt(16);
+            ByteBuffer entries = readFully(channel, HEADER_BYTES, columnCount * COLUMN_ENTRY_BYTES);
+
+            Object[] decoded = new Object[Column.values().length];
+            for (int i = 0; i < columnCount; i++) {
+                int ordinal = entries.get();
+                long offset = entries.getLong();
+                int compressedLength = entries.getInt();
+                int rawLength = entries.getInt();
+                int checksum = entries.getInt();
+                if (ordinal < 0 || ordinal >= decoded.length || !wanted.contains(Column.values()[ordinal])) {
+                    continue;
+                }
+                ByteBuffer block = readFully(channel, offset, compressedLength);
+                CRC32C crc = new CRC32C();
+                crc.update(block.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    throw new IOException(path + ": column " + Column.values()[ordinal] + " fails its checksum");
+                }
+                decoded[ordinal] = decode(Column.values()[ordinal], inflate(block, rawLength), rows);
+            }
+            if (decoded[Column.END_DAY.ordinal()] instanceof long[] endDays) {
+                long[] startDays = (long[]) decoded[Column.START_DAY.ordinal()];
+                for (int i = 0; i < rows; i++) {
+                    endDays[i] += startDays[i];
+                }
+            }
+            return new Partition(month, rows, (UUID[]) decoded[Column.BOOKING_UUID.ordinal()],
+                    (long[]) decoded[Column.VEHICLE_ID.ordinal()], (long[]) decoded[Column.CAR_MODEL_ID.ordinal()],
+                    (long[]) decoded[Column.OPERATOR_ID.ordinal()], (UUID[]) decoded[Column.USER_ID.ordinal()],
+                    (long[]) decoded[Column.START_DAY.ordinal()], (long[]) decoded[Column.END_DAY.ordinal()],
+                    (BookingStatus[]) decoded[Column.STATUS.ordinal()], (long[]) decoded[Column.CREATED_AT.ordinal()],
+                    (long[]) decoded[Column.UPDATED_AT.ordinal()]);
+        }
+    }
+
+    private static void checkHeader(Path path, ByteBuffer header, YearMonth month) throws IOException {
+        if (header.getInt(0) != MAGIC || header.getInt(4) != FORMAT_VERSION) {
+            throw new IOException(path + " has an unknown format");
+        }
+        if (header.getInt(8) != month.getYear() * 100 + month.getMonthValue()) {
+            throw new IOException(path + " holds another month");
+        }
+    }
+
+    // ============================================
+    // ENCODING
+    // ============================================
+
+    private static byte[] encode(Column column, List<ArchivedBooking> rows) {
+        Encoder out = new Encoder(rows.size() * (column == Column.BOOKING_UUID || column == Column.USER_ID ? 16 : 4));
+        long previous = 0;
+        for (ArchivedBooking row : rows) {
+            switch (column) {
+                case BOOKING_UUID -> out.uuid(row.bookingUuid());
+                case USER_ID -> out.uuid(row.userId() == null ? new UUID(0, 0) : row.userId());
+                case VEHICLE_ID -> out.varint(row.vehicleId());
+                case CAR_MODEL_ID -> out.varint(row.carModelId());
+                case OPERATOR_ID -> out.varint(row.operatorId());
+                case START_DAY -> {
+                    out.varint(zigzag(row.startDay() - previous));
+                    previous = row.startDay();
+                }
+                case END_DAY -> out.varint(zigzag(row.endDay() - row.startDay()));
+                case STATUS -> out.write(row.status().ordinal());
+                case CREATED_AT -> {
+                    out.varint(zigzag(row.createdAt() - previous));
+                    previous = row.createdAt();
+                }
+                case UPDATED_AT -> {
+                    out.varint(zigzag(row.updatedAt() - previous));
+                    previous = row.updatedAt();
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * END_DAY is decoded to rental lengths; see read.
+     */
+    private static Object decode(Column column, ByteBuffer in, int rows) {
+        switch (column) {
+            case BOOKING_UUID, USER_ID -> {
+                UUID[] values = new UUID[rows];
+                for (int i = 0; i < rows; i++) {
+                    UUID uuid = new UUID(in.getLong(), in.getLong());
+                    values[i] = column == Column.USER_ID && uuid.getMostSignificantBits() == 0
+                            && uuid.getLeastSignificantBits() == 0 ? null : uuid;
+                }
+                return values;
+            }
+            case STATUS -> {
+                BookingStatus[] values = new BookingStatus[rows];
+                for (int i = 0; i < rows; i++) {
+                    values[i] = BookingStatus.values()[in.get()];
+                }
+                return values;
+            }
+            case START_DAY, CREATED_AT, UPDATED_AT -> {
+                long[] values = new long[rows];
+                long previous = 0;
+                for (int i = 0; i < rows; i++) {
+                    previous += unzigzag(readVarint(in));
+                    values[i] = previous;
+                }
+                return values;
+            }
+            case END_DAY -> {
+                // Lengths; read() adds the START_DAY
+                long[] values = new long[rows];
+                for (int i = 0; i < rows; i++) {
+                    values[i] = unzigzag(readVarint(in));
+                }
+                return values;
+            }
+            default -> {
+                long[] values = new long[rows];
+                for (int i = 0; i < rows; i++) {
+                    values[i] = readVarint(in);
+                }
+                return values;
+            }
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static final class Encoder extends ByteArrayOutputStream {
+        private Encoder(int size) {
+            super(Math.max(size, 32));
+        }
+
+        private void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        private void uuid(UUID uuid) {
+            long msb = uuid.getMostSignificantBits();
+            long lsb = uuid.getLeastSignificantBits();
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                write((int) (msb >>> shift));
+            }
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                write((int) (lsb >>> shift));
+            }
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(raw.length / 4, 64));
+            byte[] buffer = new byte[1 << 16];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static ByteBuffer inflate(ByteBuffer compressed, int rawLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteBuffer raw = ByteBuffer.allocate(rawLength);
+            while (!inflater.finished() && raw.hasRemaining()) {
+                if (inflater.inflate(raw) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+            }
+            if (raw.hasRemaining()) {
+                throw new IOException("column is shorter than its recorded length");
+            }
+            return raw.flip();
+        } catch (DataFormatException e) {
+            throw new IOException("column cannot be inflated", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    // ============================================
+    // FILES
+    // ============================================
+
+    private Path pathOf(YearMonth month) {
+        return directory.resolve(PREFIX + month + SUFFIX);
+    }
+
+    private static YearMonth monthOf(long epochDay) {
+        return YearMonth.from(LocalDate.ofEpochDay(epochDay));
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("unexpected end of file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
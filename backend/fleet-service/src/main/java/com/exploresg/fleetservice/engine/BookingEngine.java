@@ -0,0 +1,282 @@
+package com.exploresg.fleetservice.engine;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory booking engine: one IntervalSchedule per vehicle, grouped by CarModel.
+ *
+ * Why in memory:
+ * - Overlap checks are O(log n) per vehicle instead of a range query per request
+ * - "First free vehicle of model X for D1-D2" never touches the database
+ * - No serializable/row-locking transactions needed to prevent double booking
+ *
+ * Concurrency:
+ * - Each CarModel has its own lock (lock striping by model)
+ * - Reserving scans the model's vehicles and inserts the interval while holding
+ *   that lock, so find-and-reserve is atomic per model
+ * - Bookings of different models never contend
+ *
+ * Every change is forwarded to the registered OccupancyListeners while the
+ * model lock is held, so derived structures stay in step with the engine.
+ * VehicleEligibility beans can veto free vehicles for new bookings and counts.
+ *
+ * The engine is rebuilt from the booking table on startup (see BookingService).
+ */
+@Slf4j
+@Component
+public class BookingEngine {
+
+    /**
+     * carModelId -> vehicles of that model and the lock guarding them
+     */
+    private final ConcurrentHashMap<Long, ModelFleet> fleets = new ConcurrentHashMap<>();
+
+    /**
+     * vehicleId -> schedule (for direct access on release/specific-vehicle reserve)
+     */
+    private final ConcurrentHashMap<Long, VehicleSchedule> vehicles = new ConcurrentHashMap<>();
+
+    private final List<OccupancyListener> listeners;
+    private final List<VehicleEligibility> eligibility;
+
+    public BookingEngine(ObjectProvider<OccupancyListener> listeners, ObjectProvider<VehicleEligibility> eligibility) {
+        this.listeners = listeners.orderedStream().toList();
+        this.eligibility = eligibility.orderedStream().toList();
+    }
+
+    private static final class ModelFleet {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final List<VehicleSchedule> schedules = new ArrayList<>();
+    }
+
+    private static final class VehicleSchedule {
+        private final long vehicleId;
+        private final long carModelId;
+        private final IntervalSchedule intervals = new IntervalSchedule();
+
+        private VehicleSchedule(long vehicleId, long carModelId) {
+            this.vehicleId = vehicleId;
+            this.carModelId = carModelId;
+        }
+    }
+
+    // ============================================
+    // FLEET REGISTRATION
+    // ============================================
+
+    /**
+     * Make a vehicle bookable. Idempotent.
+     *
+     * @param vehicleId  Vehicle.id
+     * @param carModelId CarModel.id of the vehicle
+     */
+    public void registerVehicle(long vehicleId, long carModelId) {
+        ModelFleet fleet = fleets.computeIfAbsent(carModelId, id -> new ModelFleet());
+        fleet.lock.lock();
+        try {
+            if (vehicles.containsKey(vehicleId)) {
+                return;
+            }
+            VehicleSchedule schedule = new VehicleSchedule(vehicleId, carModelId);
+            fleet.schedules.add(schedule);
+            vehicles.put(vehicleId, schedule);
+            for (OccupancyListener listener : listeners) {
+                listener.vehicleRegistered(carModelId, vehicleId);
+            }
+        } finally {
+            fleet.lock.unlock();
+        }
+    }
+
+    // ============================================
+    // RESERVATION
+    // ============================================
+
+    /**
+     * Atomically find the first vehicle of a model that is free for the whole
+     * period (and not vetoed by a VehicleEligibility) and reserve it for the booking.
+     *
+     * @param carModelId  CarModel.id
+     * @param startDate   pickup day (inclusive)
+     * @param endDate     return day (exclusive)
+     * @param bookingUuid booking that will occupy the vehicle
+     * @return id of the reserved vehicle, empty if none is free
+     */
+    public OptionalLong reserveFirstAvailable(long carModelId, LocalDate startDate, LocalDate endDate, UUID bookingUuid) {
+        ModelFleet fleet = fleets.get(carModelId);
+        if (fleet == null) {
+            return OptionalLong.empty();
+        }
+        long start = startDate.toEpochDay();
+        long end = endDate.toEpochDay();
+
+        fleet.lock.lock();
+        try {
+            for (VehicleSchedule schedule : fleet.schedules) {
+                if (isOfferable(schedule, start) && schedule.intervals.tryAdd(start, end, bookingUuid)) {
+                    notifyOccupied(schedule, start, end);
+                    return OptionalLong.of(schedule.vehicleId);
+                }
+            }
+            return OptionalLong.empty();
+        } finally {
+            fleet.lock.unlock();
+        }
+    }
+
+    /**
+     * Reserve a specific vehicle. Used when rebuilding state from storage.
+     *
+     * @return true if reserved, false if the vehicle is unknown or already occupied
+     */
+    public boolean reserve(long vehicleId, LocalDate startDate, LocalDate endDate, UUID bookingUuid) {
+        VehicleSchedule schedule = vehicles.get(vehicleId);
+        if (schedule == null) {
+            return false;
+        }
+        ModelFleet fleet = fleets.get(schedule.carModelId);
+        long start = startDate.toEpochDay();
+        long end = endDate.toEpochDay();
+        fleet.lock.lock();
+        try {
+            if (!schedule.intervals.tryAdd(start, end, bookingUuid)) {
+                return false;
+            }
+            notifyOccupied(schedule, start, end);
+            return true;
+        } finally {
+            fleet.lock.unlock();
+        }
+    }
+
+    /**
+     * Free a vehicle's interval held by the given booking. Idempotent.
+     *
+     * @return true if an interval was released
+     */
+    public boolean release(long vehicleId, LocalDate startDate, UUID bookingUuid) {
+        VehicleSchedule schedule = vehicles.get(vehicleId);
+        if (schedule == null) {
+            return false;
+        }
+        ModelFleet fleet = fleets.get(schedule.carModelId);
+        fleet.lock.lock();
+        try {
+            IntervalSchedule.Slot removed = schedule.intervals.remove(startDate.toEpochDay(), bookingUuid);
+            if (removed == null) {
+                return false;
+            }
+            for (OccupancyListener listener : listeners) {
+                listener.released(schedule.carModelId, schedule.vehicleId, removed.startDay(), removed.endDay());
+            }
+            return true;
+        } finally {
+            fleet.lock.unlock();
+        }
+    }
+
+    // ============================================
+    // QUERIES
+    // ============================================
+
+    /**
+     * Number of vehicles of a model free for the whole period (and not vetoed).
+     */
+    public int countAvailable(long carModelId, LocalDate startDate, LocalDate endDate) {
+        return countAvailable(carModelId, vehicleId -> true, startDate, endDate);
+    }
+
+    /**
+     * Number of vehicles of a model, among those accepted by the filter (e.g.
+     * one operator's), free for the whole period and not vetoed.
+     */
+    public int countAvailable(long carModelId, LongPredicate vehicleFilter, LocalDate startDate, LocalDate endDate) {
+        ModelFleet fleet = fleets.get(carModelId);
+        if (fleet == null) {
+            return 0;
+        }
+        long start = startDate.toEpochDay();
+        long end = endDate.toEpochDay();
+
+        fleet.lock.lock();
+        try {
+            int count = 0;
+            for (VehicleSchedule schedule : fleet.schedules) {
+                if (vehicleFilter.test(schedule.vehicleId) && schedule.intervals.isFree(start, end)
+                        && isOfferable(schedule, start)) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            fleet.lock.unlock();
+        }
+    }
+
+    /**
+     * Number of registered vehicles of a model.
+     */
+    public int vehicleCount(long carModelId) {
+        ModelFleet fleet = fleets.get(carModelId);
+        if (fleet == null) {
+            return 0;
+        }
+        fleet.lock.lock();
+        try {
+            return fleet.schedules.size();
+        } finally {
+            fleet.lock.unlock();
+        }
+    }
+
+    /**
+     * Drop intervals that ended before the given day from every schedule.
+     * Keeps the trees small; past intervals can never conflict again.
+     *
+     * @return number of intervals removed
+     */
+    public int pruneEndedBefore(LocalDate day) {
+        long cutoff = day.toEpochDay();
+        int removed = 0;
+        for (ModelFleet fleet : fleets.values()) {
+            fleet.lock.lock();
+            try {
+                for (VehicleSchedule schedule : fleet.schedules) {
+                    removed += schedule.intervals.pruneEndedBefore(cutoff);
+                }
+            } finally {
+                fleet.lock.unlock();
+            }
+        }
+        if (removed > 0) {
+            log.debug("Pruned {} ended intervals before {}", removed, day);
+        }
+        return removed;
+    }
+
+    private boolean isOfferable(VehicleSchedule schedule, long startDay) {
+        for (VehicleEligibility check : eligibility) {
+            if (!check.isOfferable(schedule.vehicleId, startDay)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void notifyOccupied(VehicleSchedule schedule, long startDay, long endDay) {
+        for (OccupancyListener listener : listeners) {
+            listener.occupied(schedule.carModelId, schedule.vehicleId, startDay, endDay);
+        }
+    }
+}
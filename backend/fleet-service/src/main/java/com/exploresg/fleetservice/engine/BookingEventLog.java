@@ -0,0 +1,466 @@
+package com.exploresg.fleetservice.engine;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Append-only log of booking occupancy changes plus periodic snapshots, so a
+ * restart restores the in-memory engine without reading the booking table.
+ *
+ * Directory layout:
+ * - 00000000000000000001.seg  - preallocated, memory-mapped segments of
+ *                               fixed-size records (see EventLogSegment)
+ * - 00000000000000523001.snap - bookings still occupying a vehicle as of the
+ *                               sequence number in the name
+ *
+ * Records are appended after the database commit, so the log only ever holds
+ * committed changes. A crash between commit and append is covered by the
+ * catch-up query BookingService runs from RecoveryStats.catchUpFrom.
+ *
+ * Snapshots are produced by folding the log (previous snapshot + newer records)
+ * rather than by copying the live engine, so they never contain reservations
+ * that were still in flight. Segments fully covered by the newest snapshot are
+ * deleted. Ended bookings are dropped when folding, so snapshot size follows the
+ * number of upcoming bookings, not the length of the booking history.
+ *
+ * Enabled with fleet.event-log.enabled=true; the directory must survive restarts.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "fleet.event-log.enabled", havingValue = "true")
+public class BookingEventLog {
+
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final int SNAPSHOT_MAGIC = 0x464C534E; // "FLSN"
+    private static final int SNAPSHOT_VERSION = 1;
+
+    public enum Type {
+        BOOKED((byte) 1),
+        RELEASED((byte) 2);
+
+        private final byte code;
+
+        Type(byte code) {
+            this.code = code;
+        }
+
+        static Type of(byte code) {
+            return switch (code) {
+                case 1 -> BOOKED;
+                case 2 -> RELEASED;
+                default -> null;
+            };
+        }
+    }
+
+    /**
+     * A log record, or a snapshot entry (type BOOKED, seq of the snapshot).
+     * Days are epoch days; endDay is 0 for RELEASED.
+     */
+    public record Event(long seq, Type type, long timestamp, UUID bookingUuid,
+            long vehicleId, long startDay, long endDay) {
+    }
+
+    /**
+     * Outcome of a recovery.
+     *
+     * @param snapshotSeq     sequence number the snapshot was taken at
+     * @param snapshotEntries bookings restored from the snapshot
+     * @param tailEvents      records replayed after the snapshot
+     * @param catchUpFrom     changes committed from this instant on may be missing from the log
+     */
+    public record RecoveryStats(long snapshotSeq, int snapshotEntries, long tailEvents, Instant catchUpFrom) {
+    }
+
+    private record Snapshot(long seq, long timestamp, List<Event> entries) {
+    }
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final Duration catchUpGrace;
+
+    /**
+     * Ordered by baseSeq; the last one is the active segment.
+     */
+    private final List<EventLogSegment> segments = new CopyOnWriteArrayList<>();
+    private final Object appendLock = new Object();
+
+    /**
+     * Guarded by appendLock.
+     */
+    private long nextSeq;
+
+    private volatile long snapshotSeq = -1;
+
+    public BookingEventLog(
+            @Value("${fleet.event-log.directory:./data/event-log}") Path directory,
+            @Value("${fleet.event-log.segment-records:1048576}") int segmentRecords,
+            @Value("${fleet.event-log.catch-up-grace:PT5M}") Duration catchUpGrace) {
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.catchUpGrace = catchUpGrace;
+    }
+
+    /**
+     * Map the existing segments and find the end of the log.
+     * Only the last segment is scanned; a torn record at its end is discarded.
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files = listFiles(EventLogSegment::isSegment);
+        for (int i = 0; i < files.size(); i++) {
+            segments.add(EventLogSegment.open(files.get(i), i == files.size() - 1));
+        }
+        snapshotSeq = latestSnapshot().map(BookingEventLog::seqOf).orElse(-1L);
+        if (segments.isEmpty()) {
+            segments.add(EventLogSegment.create(directory, Math.max(snapshotSeq, 0) + 1, segmentRecords));
+        }
+        EventLogSegment active = active();
+        nextSeq = active.lastSeq() + 1;
+        log.info("Booking event log opened at {}: {} segments, next seq {}, snapshot seq {}",
+                directory.toAbsolutePath(), segments.size(), nextSeq, snapshotSeq);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            for (EventLogSegment segment : segments) {
+                segment.force();
+                segment.close();
+            }
+        }
+    }
+
+    // ============================================
+    // APPEND
+    // ============================================
+
+    public void appendBooked(UUID bookingUuid, long vehicleId, LocalDate startDate, LocalDate endDate) {
+        append(Type.BOOKED, bookingUuid, vehicleId, startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    public void appendReleased(UUID bookingUuid, long vehicleId, LocalDate startDate) {
+        append(Type.RELEASED, bookingUuid, vehicleId, startDate.toEpochDay(), 0);
+    }
+
+    private void append(Type type, UUID bookingUuid, long vehicleId, long startDay, long endDay) {
+        synchronized (appendLock) {
+            try {
+                EventLogSegment active = active();
+                if (active.isFull()) {
+                    active.force();
+                    active = EventLogSegment.create(directory, nextSeq, segmentRecords);
+                    segments.add(active);
+                }
+                active.append(nextSeq++, type.code, System.currentTimeMillis(),
+                        bookingUuid, vehicleId, startDay, endDay);
+            } catch (IOException e) {
+                // The change is already committed; make sure the next start does not trust the log
+                log.error("Booking event log append failed, invalidating snapshots", e);
+                invalidate();
+            }
+        }
+    }
+
+    /**
+     * Flush dirty pages of the active segment to disk.
+     */
+    @Scheduled(fixedDelayString = "${fleet.event-log.flush-interval:PT1S}")
+    public void flush() {
+        active().force();
+    }
+
+    // ============================================
+    // RECOVERY
+    // ============================================
+
+    /**
+     * Replay the newest snapshot and the records after it.
+     *
+     * BOOKED events for bookings that ended on or before today are skipped;
+     * RELEASED events are passed through (releasing an unknown booking is a no-op).
+     *
+     * @param today current day
+     * @param sink  receives every event in log order
+     * @return stats, or empty if there is no usable snapshot or a record fails
+     *         its checksum (caller falls back to the database and calls writeBaseline)
+     */
+    public Optional<RecoveryStats> recover(LocalDate today, Consumer<Event> sink) {
+        Optional<Path> latest = latestSnapshot();
+        if (latest.isEmpty()) {
+            return Optional.empty();
+        }
+        Snapshot snapshot;
+        try {
+            snapshot = readSnapshot(latest.get());
+        } catch (IOException e) {
+            log.warn("Unreadable snapshot {}: {}", latest.get(), e.getMessage());
+            return Optional.empty();
+        }
+
+        long todayDay = today.toEpochDay();
+        int restored = 0;
+        for (Event entry : snapshot.entries()) {
+            if (entry.endDay() > todayDay) {
+                sink.accept(entry);
+                restored++;
+            }
+        }
+
+        long replayed = 0;
+        long lastSeen = snapshot.timestamp();
+        long upTo;
+        synchronized (appendLock) {
+            upTo = nextSeq - 1;
+        }
+        for (EventLogSegment segment : segments) {
+            if (segment.lastSeq() <= snapshot.seq()) {
+                continue;
+            }
+            int from = (int) Math.max(0, snapshot.seq() + 1 - segment.baseSeq());
+            int to = (int) Math.min(segment.count(), upTo + 1 - segment.baseSeq());
+            for (int i = from; i < to; i++) {
+                Event event = segment.read(i);
+                if (event == null) {
+                    log.warn("Corrupt record at seq {} in the booking event log", segment.baseSeq() + i);
+                    return Optional.empty();
+                }
+                if (event.type() == Type.RELEASED || event.endDay() > todayDay) {
+                    sink.accept(event);
+                }
+                lastSeen = event.timestamp();
+                replayed++;
+            }
+        }
+        return Optional.of(new RecoveryStats(snapshot.seq(), restored, replayed,
+                Instant.ofEpochMilli(lastSeen).minus(catchUpGrace)));
+    }
+
+    /**
+     * Replace the log's history with the given state, e.g. after rebuilding from
+     * the database. Must be called before any append.
+     *
+     * @param bookings bookings that currently occupy a vehicle (type and seq are ignored)
+     */
+    public void writeBaseline(Collection<Event> bookings) throws IOException {
+        long seq;
+        synchronized (appendLock) {
+            seq = nextSeq - 1;
+        }
+        writeSnapshot(seq, System.currentTimeMillis(), bookings);
+        deleteCoveredFiles(seq);
+    }
+
+    // ============================================
+    // SNAPSHOTS
+    // ============================================
+
+    /**
+     * Fold the records written since the last snapshot into a new snapshot and
+     * delete the files it supersedes. Runs off the request path; appends continue
+     * while the snapshot is being written.
+     */
+    @Scheduled(fixedDelayString = "${fleet.event-log.snapshot-interval:PT15M}",
+            initialDelayString = "${fleet.event-log.snapshot-interval:PT15M}")
+    public void snapshot() {
+        long upTo;
+        synchronized (appendLock) {
+            upTo = nextSeq - 1;
+        }
+        if (upTo <= snapshotSeq) {
+            return;
+        }
+        Optional<Path> latest = latestSnapshot();
+        if (latest.isEmpty()) {
+            return;
+        }
+        try {
+            long started = System.nanoTime();
+            Snapshot previous = readSnapshot(latest.get());
+            long todayDay = LocalDate.now().toEpochDay();
+            Map<UUID, Event> live = new HashMap<>(previous.entries().size() * 2);
+            for (Event entry : previous.entries()) {
+                live.put(entry.bookingUuid(), entry);
+            }
+            long timestamp = previous.timestamp();
+            for (EventLogSegment segment : segments) {
+                if (segment.lastSeq() <= previous.seq() || segment.baseSeq() > upTo) {
+                    continue;
+                }
+                int from = (int) Math.max(0, previous.seq() + 1 - segment.baseSeq());
+                int to = (int) Math.min(segment.count(), upTo + 1 - segment.baseSeq());
+                for (int i = from; i < to; i++) {
+                    Event event = segment.read(i);
+                    if (event == null) {
+                        log.error("Corrupt record at seq {}, snapshot skipped", segment.baseSeq() + i);
+                        return;
+                    }
+                    if (event.type() == Type.BOOKED) {
+                        if (event.endDay() > todayDay) {
+                            live.put(event.bookingUuid(), event);
+                        }
+                    } else {
+                        live.remove(event.bookingUuid());
+                    }
+                    timestamp = event.timestamp();
+                }
+            }
+            live.values().removeIf(entry -> entry.endDay() <= todayDay);
+
+            writeSnapshot(upTo, timestamp, live.values());
+            deleteCoveredFiles(upTo);
+            log.info("Booking event log snapshot at seq {}: {} bookings in {} ms",
+                    upTo, live.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException e) {
+            log.error("Booking event log snapshot failed", e);
+        }
+    }
+
+    private void writeSnapshot(long seq, long timestamp, Collection<Event> entries) throws IOException {
+        Path target = directory.resolve(String.format("%020d%s", seq, SNAPSHOT_SUFFIX));
+        Path tmp = directory.resolve(target.getFileName() + ".tmp");
+        CheckedOutputStream checked = new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16), new CRC32C());
+        try (DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(seq);
+            out.writeLong(timestamp);
+            out.writeInt(entries.size());
+            for (Event entry : entries) {
+                out.writeLong(entry.bookingUuid().getMostSignificantBits());
+                out.writeLong(entry.bookingUuid().getLeastSignificantBits());
+                out.writeLong(entry.vehicleId());
+                out.writeLong(entry.startDay());
+                out.writeLong(entry.endDay());
+            }
+            out.writeInt((int) checked.getChecksum().getValue());
+        }
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        snapshotSeq = seq;
+    }
+
+    private static Snapshot readSnapshot(Path path) throws IOException {
+        CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(path), 1 << 16), new CRC32C());
+        try (DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("not a booking snapshot");
+            }
+            long seq = in.readLong();
+            long timestamp = in.readLong();
+            int count = in.readInt();
+            List<Event> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                UUID uuid = new UUID(in.readLong(), in.readLong());
+                entries.add(new Event(seq, Type.BOOKED, timestamp, uuid, in.readLong(), in.readLong(), in.readLong()));
+            }
+            int expected = (int) checked.getChecksum().getValue();
+            if (in.readInt() != expected) {
+                throw new IOException("checksum mismatch");
+            }
+            return new Snapshot(seq, timestamp, entries);
+        }
+    }
+
+    // ============================================
+    // FILE MANAGEMENT
+    // ============================================
+
+    private EventLogSegment active() {
+        return segments.get(segments.size() - 1);
+    }
+
+    /**
+     * Delete older snapshots and every segment (except the active one) whose
+     * records are all covered by the snapshot at seq.
+     */
+    private void deleteCoveredFiles(long seq) throws IOException {
+        for (Path file : listFiles(path -> path.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))) {
+            if (seqOf(file) < seq) {
+                Files.deleteIfExists(file);
+            }
+        }
+        synchronized (appendLock) {
+            for (EventLogSegment segment : segments) {
+                if (segment != active() && segment.lastSeq() <= seq) {
+                    segments.remove(segment);
+                    segment.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove all snapshots so the next start rebuilds from the database.
+     */
+    private void invalidate() {
+        try {
+            for (Path file : listFiles(path -> path.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))) {
+                Files.deleteIfExists(file);
+            }
+            snapshotSeq = -1;
+        } catch (IOException e) {
+            log.error("Could not invalidate booking event log snapshots", e);
+        }
+    }
+
+    private Optional<Path> latestSnapshot() {
+        try {
+            List<Path> snapshots = listFiles(path -> path.getFileName().toString().endsWith(SNAPSHOT_SUFFIX));
+            return snapshots.isEmpty() ? Optional.empty() : Optional.of(snapshots.get(snapshots.size() - 1));
+        } catch (IOException e) {
+            log.warn("Could not list booking event log snapshots: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private List<Path> listFiles(Predicate<Path> filter) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(filter).sorted(Comparator.comparing(Path::getFileName)).toList();
+        }
+    }
+
+    private static long seqOf(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+}
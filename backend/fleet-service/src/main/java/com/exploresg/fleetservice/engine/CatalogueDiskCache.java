@@ -0,0 +1,181 @@
+package com.exploresg.fleetservice.engine;
+
+import com.exploresg.common.codec.BinaryCodec;
+import com.exploresg.fleetservice.model.CarModel;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+/**
+ * Second-level tier of the catalogue cache: the last catalogue snapshot in a
+ * memory-mapped file that survives restarts.
+ *
+ * The first level is the on-heap snapshot of CatalogueService. On startup it
+ * reads this file instead of the car_model table when the file is of the
+ * stored catalogue version and content hash, so a restarting node only reads
+ * the catalogue_version row. Any mismatch (other version, damaged file,
+ * changed CarModel fields) falls back to the full load, which rewrites the file.
+ *
+ * File layout (big endian):
+ * <pre>
+ *  0  int      magic "FLCC"
+ *  4  int      format version
+ *  8  long     catalogue version
+ * 16  long     lastModified (epoch seconds)
+ * 24  byte[64] content hash, hex
+ * 88  int      model count
+ * 92  int      payload length
+ * 96  int      CRC32C of the payload
+ * 100 payload  Smile-encoded CarModel array
+ * </pre>
+ *
+ * Files are written next to the target and moved over it, so readers never
+ * see a partly written file. Enabled with fleet.catalogue-cache.enabled=true;
+ * the directory must survive restarts.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "fleet.catalogue-cache.enabled", havingValue = "true")
+public class CatalogueDiskCache {
+
+    private static final int MAGIC = 0x464C4343; // "FLCC"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HASH_BYTES = 64;
+    private static final int HEADER_BYTES = 100;
+    private static final String FILE_NAME = "catalogue.bin";
+
+    /**
+     * A catalogue as read back from the file.
+     */
+    public record Contents(long version, Instant lastModified, String contentHash, List<CarModel> models) {
+    }
+
+    private final Path directory;
+    private final ObjectMapper mapper;
+
+    // Catalogue service lock only; skips rewriting after a rebuild without changes
+    private long writtenVersion = -1;
+    private String writtenHash;
+
+    public CatalogueDiskCache(@Value("${fleet.catalogue-cache.directory:./data/catalogue-cache}") Path directory,
+            ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+        this.directory = directory;
+        this.mapper = BinaryCodec.smileMapper(objectMapperBuilder.getObject());
+    }
+
+    /**
+     * @return the cached catalogue, or empty if there is none or it cannot be read
+     */
+    public Optional<Contents> read() {
+        Path path = directory.resolve(FILE_NAME);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                log.warn("Catalogue cache {} is truncated, ignoring it", path);
+                return Optional.empty();
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+                log.warn("Catalogue cache {} has an unknown format, ignoring it", path);
+                return Optional.empty();
+            }
+            long version = buffer.getLong(8);
+            Instant lastModified = Instant.ofEpochSecond(buffer.getLong(16));
+            byte[] hash = new byte[HASH_BYTES];
+            buffer.get(24, hash);
+            int count = buffer.getInt(88);
+            int length = buffer.getInt(92);
+            if (length < 0 || HEADER_BYTES + (long) length > channel.size()) {
+                log.warn("Catalogue cache {} is truncated, ignoring it", path);
+                return Optional.empty();
+            }
+            ByteBuffer payload = buffer.slice(HEADER_BYTES, length);
+            CRC32C crc = new CRC32C();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(96)) {
+                log.warn("Catalogue cache {} fails its checksum, ignoring it", path);
+                return Optional.empty();
+            }
+            List<CarModel> models = mapper.readValue(new ByteBufferBackedInputStream(payload),
+                    new TypeReference<List<CarModel>>() {
+                    });
+            if (models.size() != count) {
+                log.warn("Catalogue cache {} holds {} models instead of {}, ignoring it", path, models.size(), count);
+                return Optional.empty();
+            }
+            return Optional.of(new Contents(version, lastModified, new String(hash, StandardCharsets.US_ASCII),
+                    models));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read catalogue cache {}", path, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Replace the file with this catalogue, unless it already holds it.
+     * Failures are logged only: the next start then loads from the database.
+     *
+     * @param contentHash hex SHA-256 the catalogue version was resolved with
+     */
+    public void write(List<CarModel> models, long version, Instant lastModified, String contentHash) {
+        if (version == writtenVersion && contentHash.equals(writtenHash)) {
+            return;
+        }
+        byte[] hash = contentHash.getBytes(StandardCharsets.US_ASCII);
+        if (hash.length != HASH_BYTES) {
+            throw new IllegalArgumentException("content hash must be " + HASH_BYTES + " hex digits");
+        }
+        Path target = directory.resolve(FILE_NAME);
+        Path tmp = directory.resolve(FILE_NAME + ".tmp");
+        try {
+            byte[] payload = mapper.writeValueAsBytes(models);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                        HEADER_BYTES + (long) payload.length);
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, FORMAT_VERSION);
+                buffer.putLong(8, version);
+                buffer.putLong(16, lastModified.getEpochSecond());
+                buffer.put(24, hash);
+                buffer.putInt(88, models.size());
+                buffer.putInt(92, payload.length);
+                buffer.putInt(96, (int) crc.getValue());
+                buffer.put(HEADER_BYTES, payload);
+                buffer.force();
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            writtenVersion = version;
+            writtenHash = contentHash;
+            log.debug("Wrote catalogue version {} ({} models, {} bytes) to {}",
+                    version, models.size(), payload.length, target);
+        } catch (IOException e) {
+            log.warn("Could not write catalogue cache {}", target, e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.exploresg.fleetservice.engine;
+
+import com.exploresg.fleetservice.model.CarModel;
+
+import java.util.List;
+
+/**
+ * Callback for structures derived from the CarModel catalogue (search index,
+ * similarity neighbours, ...).
+ *
+ * Called by CatalogueService after every rebuild with the complete new
+ * catalogue, in id order; rebuilds never overlap, so listeners see catalogues
+ * one at a time. Listeners work out themselves what changed (CarModel equals
+ * covers every column) and update only that. The models are shared and must
+ * not be modified.
+ */
+public interface CatalogueListener {
+
+    void catalogueChanged(List<CarModel> models, long version);
+}
@@ -0,0 +1,119 @@
+package com.exploresg.fleetservice.engine;
+
+/**
+ * One bit per day over a rolling window, stored as a ring of 64-bit words.
+ *
+ * Day d lives at bit (d mod capacity), so the window can roll forward one
+ * day at a time by clearing the bit of the day that falls out, without
+ * shifting any data. Callers are responsible for only addressing days
+ * inside the current window.
+ *
+ * A set bit means the vehicle is occupied that day. Vehicles that have
+ * never been booked keep no words at all (words == null), which keeps the
+ * calendar small for large, mostly idle fleets.
+ *
+ * Not thread-safe: guarded by the owning model calendar.
+ */
+public final class DayBitmap {
+
+    private final int capacity;
+    private long[] words;
+
+    /**
+     * @param capacity window size in days, must be a multiple of 64
+     */
+    public DayBitmap(int capacity) {
+        if (capacity <= 0 || capacity % 64 != 0) {
+            throw new IllegalArgumentException("capacity must be a positive multiple of 64");
+        }
+        this.capacity = capacity;
+    }
+
+    public void set(long startDay, long endDay) {
+        if (words == null) {
+            words = new long[capacity / 64];
+        }
+        forEachSegment(startDay, endDay, (word, mask) -> words[word] |= mask);
+    }
+
+    public void clear(long startDay, long endDay) {
+        if (words == null) {
+            return;
+        }
+        forEachSegment(startDay, endDay, (word, mask) -> words[word] &= ~mask);
+    }
+
+    /**
+     * @return true if no day in [startDay, endDay) is set
+     */
+    public boolean isClear(long startDay, long endDay) {
+        if (words == null) {
+            return true;
+        }
+        int length = (int) (endDay - startDay);
+        int from = slot(startDay);
+        if (from + length <= capacity) {
+            return isClearSlots(from, from + length);
+        }
+        return isClearSlots(from, capacity) && isClearSlots(0, from + length - capacity);
+    }
+
+    public boolean get(long day) {
+        return words != null && (words[slot(day) >>> 6] & (1L << slot(day))) != 0;
+    }
+
+    // ============================================
+    // INTERNALS
+    // ============================================
+
+    private interface WordOp {
+        void apply(int word, long mask);
+    }
+
+    private int slot(long day) {
+        return (int) Math.floorMod(day, (long) capacity);
+    }
+
+    private void forEachSegment(long startDay, long endDay, WordOp op) {
+        int length = (int) Math.min(endDay - startDay, capacity);
+        if (length <= 0) {
+            return;
+        }
+        int from = slot(startDay);
+        if (from + length <= capacity) {
+            applySlots(from, from + length, op);
+        } else {
+            applySlots(from, capacity, op);
+            applySlots(0, from + length - capacity, op);
+        }
+    }
+
+    /**
+     * Apply op to every word touched by slots [from, to), with the mask of bits in range.
+     */
+    private static void applySlots(int from, int to, WordOp op) {
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        for (int w = firstWord; w <= lastWord; w++) {
+            op.apply(w, rangeMask(w, from, to));
+        }
+    }
+
+    private boolean isClearSlots(int from, int to) {
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        for (int w = firstWord; w <= lastWord; w++) {
+            if ((words[w] & rangeMask(w, from, to)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long rangeMask(int word, int from, int to) {
+        int lo = Math.max(from, word << 6) & 63;
+        int hi = Math.min(to, (word + 1) << 6) - (word << 6); // 1..64
+        long upper = hi == 64 ? -1L : (1L << hi) - 1;
+        return upper & (-1L << lo);
+    }
+}
@@ -0,0 +1,200 @@
+package com.exploresg.fleetservice.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * One preallocated, memory-mapped segment file of the BookingEventLog.
+ *
+ * Record layout (64 bytes, big endian):
+ * <pre>
+ *  0  int   CRC32C of bytes 4..63
+ *  4  byte  type (see BookingEventLog.Type), 3 bytes padding
+ *  8  long  sequence number
+ * 16  long  timestamp (epoch millis)
+ * 24  long  booking UUID, most significant bits
+ * 32  long  booking UUID, least significant bits
+ * 40  long  vehicle id
+ * 48  long  start day (epoch day)
+ * 56  long  end day (epoch day, 0 for RELEASED)
+ * </pre>
+ *
+ * A zeroed type byte marks the end of the written part. The record count is
+ * kept in memory and re-established by scanning when the segment is reopened.
+ *
+ * Not thread-safe for writers; BookingEventLog serializes appends. Readers may
+ * read any index below count() concurrently with an append.
+ */
+final class EventLogSegment implements Closeable {
+
+    static final int RECORD_BYTES = 64;
+    private static final String SUFFIX = ".seg";
+
+    private final Path path;
+    private final long baseSeq;
+    private final int capacity;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    /**
+     * Written only by the appending thread; volatile so readers see complete records.
+     */
+    private volatile int count;
+
+    private EventLogSegment(Path path, long baseSeq, int capacity, FileChannel channel, MappedByteBuffer buffer) {
+        this.path = path;
+        this.baseSeq = baseSeq;
+        this.capacity = capacity;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Create and preallocate a new, empty segment.
+     */
+    static EventLogSegment create(Path directory, long baseSeq, int capacity) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", baseSeq, SUFFIX));
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength((long) capacity * RECORD_BYTES);
+        }
+        return map(path, baseSeq);
+    }
+
+    /**
+     * Open an existing segment.
+     *
+     * @param scan true to find the end of the written part by validating records
+     *             (the last segment); false to trust that the segment is full
+     */
+    static EventLogSegment open(Path path, boolean scan) throws IOException {
+        EventLogSegment segment = map(path, baseSeqOf(path));
+        if (!scan) {
+            segment.count = segment.capacity;
+            return segment;
+        }
+        int valid = 0;
+        while (valid < segment.capacity && segment.read(valid) != null) {
+            valid++;
+        }
+        segment.count = valid;
+        return segment;
+    }
+
+    private static EventLogSegment map(Path path, long baseSeq) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        return new EventLogSegment(path, baseSeq, (int) (size / RECORD_BYTES), channel, buffer);
+    }
+
+    static boolean isSegment(Path path) {
+        return path.getFileName().toString().endsWith(SUFFIX);
+    }
+
+    static long baseSeqOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    // ============================================
+    // WRITE
+    // ============================================
+
+    boolean isFull() {
+        return count == capacity;
+    }
+
+    void append(long seq, byte type, long timestamp, UUID bookingUuid, long vehicleId, long startDay, long endDay) {
+        int index = count;
+        int offset = index * RECORD_BYTES;
+        buffer.put(offset + 4, type);
+        buffer.putLong(offset + 8, seq);
+        buffer.putLong(offset + 16, timestamp);
+        buffer.putLong(offset + 24, bookingUuid.getMostSignificantBits());
+        buffer.putLong(offset + 32, bookingUuid.getLeastSignificantBits());
+        buffer.putLong(offset + 40, vehicleId);
+        buffer.putLong(offset + 48, startDay);
+        buffer.putLong(offset + 56, endDay);
+        buffer.putInt(offset, checksum(offset));
+        count = index + 1;
+    }
+
+    // ============================================
+    // READ
+    // ============================================
+
+    /**
+     * @return the record at the given index, or null if it is empty or fails
+     *         its checksum / sequence check
+     */
+    BookingEventLog.Event read(int index) {
+        int offset = index * RECORD_BYTES;
+        BookingEventLog.Type type = BookingEventLog.Type.of(buffer.get(offset + 4));
+        if (type == null) {
+            return null;
+        }
+        long seq = buffer.getLong(offset + 8);
+        if (seq != baseSeq + index || buffer.getInt(offset) != checksum(offset)) {
+            return null;
+        }
+        return new BookingEventLog.Event(
+                seq,
+                type,
+                buffer.getLong(offset + 16),
+                new UUID(buffer.getLong(offset + 24), buffer.getLong(offset + 32)),
+                buffer.getLong(offset + 40),
+                buffer.getLong(offset + 48),
+                buffer.getLong(offset + 56));
+    }
+
+    private int checksum(int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + 4, RECORD_BYTES - 4));
+        return (int) crc.getValue();
+    }
+
+    int count() {
+        return count;
+    }
+
+    long baseSeq() {
+        return baseSeq;
+    }
+
+    /**
+     * Sequence number of the last written record (baseSeq - 1 if empty).
+     */
+    long lastSeq() {
+        return baseSeq + count - 1;
+    }
+
+    // ============================================
+    // LIFECYCLE
+    // ============================================
+
+    /**
+     * Write dirty pages to disk. Records are already safe from a process crash
+     * once appended (they live in the page cache); this protects against an OS crash.
+     */
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+}
@@ -0,0 +1,500 @@
+package com.exploresg.fleetservice.engine;
+
+import com.exploresg.fleetservice.model.BookingStatus;
+import com.exploresg.fleetservice.model.CarModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Incremental, in-memory booking analytics per fleet dimension.
+ *
+ * Two kinds of figures, both updated on every write so that reading them
+ * costs the same however many bookings there are:
+ * - booking events (Metric) counted into ring buffers of per-minute,
+ *   per-hour and per-day buckets (Resolution). Each bucket remembers which
+ *   minute/hour/day it holds, so a bucket is cleared lazily when the ring
+ *   wraps around to it
+ * - booked vehicles per day over the booking horizon and the number of
+ *   vehicles, for utilization. This is an OccupancyListener and is rebuilt
+ *   with the BookingEngine on startup, like the OperatorIndex
+ *
+ * Series exist for the whole fleet (key "all"), per Category, per FuelType
+ * and, for events, per operator (key: operator id). Utilization per operator
+ * is kept by the OperatorIndex. A vehicle is attributed to the category and
+ * fuel type its model had when the vehicle was registered.
+ *
+ * Event counters are not derived from the database; they are saved with
+ * checkpoint() and loaded with restore() (see FleetAnalyticsService).
+ */
+@Component
+public class FleetRollups implements OccupancyListener, CatalogueListener {
+
+    public static final String ALL = "all";
+
+    private static final int CHECKPOINT_MAGIC = 0x464C5255; // "FLRU"
+    private static final int CHECKPOINT_VERSION = 1;
+
+    public enum Dimension {
+        FLEET, CATEGORY, FUEL_TYPE, OPERATOR
+    }
+
+    /**
+     * Counted booking events.
+     */
+    public enum Metric {
+        /** Booked directly (confirmed on creation) */
+        BOOKED,
+        /** Hold created */
+        HELD,
+        /** Hold confirmed */
+        CONFIRMED,
+        CANCELLED,
+        /** Hold timed out */
+        EXPIRED
+    }
+
+    public enum Resolution {
+        MINUTE(60, 180),
+        HOUR(3_600, 168),
+        DAY(86_400, 400);
+
+        private final long seconds;
+        private final int buckets;
+
+        Resolution(long seconds, int buckets) {
+            this.seconds = seconds;
+            this.buckets = buckets;
+        }
+
+        public long seconds() {
+            return seconds;
+        }
+
+        /**
+         * Buckets kept, i.e. how far back this resolution reaches.
+         */
+        public int buckets() {
+            return buckets;
+        }
+    }
+
+    private static final int METRICS = Metric.values().length;
+    private static final int RESOLUTIONS = Resolution.values().length;
+
+    /**
+     * Event counts of one series for one bucket.
+     *
+     * @param start  epoch second the bucket starts at
+     * @param counts indexed by Metric ordinal
+     */
+    public record Bucket(long start, long[] counts) {
+    }
+
+    /**
+     * @param key    "all", a Category / FuelType name or an operator id
+     */
+    public record SeriesBuckets(String key, List<Bucket> buckets) {
+    }
+
+    /**
+     * @param utilization share of vehicle-days booked in the requested window (0..1)
+     */
+    public record Utilization(String key, int vehicles, double utilization) {
+    }
+
+    private record SeriesKey(Dimension dimension, String key) {
+    }
+
+    /**
+     * One ring of buckets. Guarded by the owning Series.
+     */
+    private static final class Ring {
+        private final Resolution resolution;
+        private final long[] bucketIndex;
+        private final long[] counts;
+
+        private Ring(Resolution resolution) {
+            this.resolution = resolution;
+            this.bucketIndex = new long[resolution.buckets];
+            this.counts = new long[resolution.buckets * METRICS];
+            Arrays.fill(bucketIndex, Long.MIN_VALUE);
+        }
+
+        private void add(long epochSecond, int metric, long amount) {
+            long index = Math.floorDiv(epochSecond, resolution.seconds);
+            int slot = (int) Math.floorMod(index, (long) resolution.buckets);
+            if (bucketIndex[slot] != index) {
+                if (bucketIndex[slot] > index) {
+                    // Older than the ring reaches
+                    return;
+                }
+                Arrays.fill(counts, slot * METRICS, (slot + 1) * METRICS, 0);
+                bucketIndex[slot] = index;
+            }
+            counts[slot * METRICS + metric] += amount;
+        }
+
+        private List<Bucket> read(long nowSecond, int buckets) {
+            long last = Math.floorDiv(nowSecond, resolution.seconds);
+            List<Bucket> result = new ArrayList<>(buckets);
+            for (long index = last - buckets + 1; index <= last; index++) {
+                int slot = (int) Math.floorMod(index, (long) resolution.buckets);
+                long[] values = new long[METRICS];
+                if (bucketIndex[slot] == index) {
+                    System.arraycopy(counts, slot * METRICS, values, 0, METRICS);
+                }
+                result.add(new Bucket(index * resolution.seconds, values));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Event rings of one dimension value. All access synchronizes on the instance.
+     */
+    private static final class Series {
+        private final Ring[] rings = new Ring[RESOLUTIONS];
+
+        private Series() {
+            for (Resolution resolution : Resolution.values()) {
+                rings[resolution.ordinal()] = new Ring(resolution);
+            }
+        }
+
+        private synchronized void add(long epochSecond, Metric metric, long amount) {
+            for (Ring ring : rings) {
+                ring.add(epochSecond, metric.ordinal(), amount);
+            }
+        }
+
+        private synchronized List<Bucket> read(Resolution resolution, long nowSecond, int buckets) {
+            return rings[resolution.ordinal()].read(nowSecond, buckets);
+        }
+    }
+
+    /**
+     * Vehicles and booked vehicles per day of one dimension value.
+     * All access synchronizes on the instance.
+     */
+    private final class Occupancy {
+        private int vehicles;
+        private final int[] bookedPerDay = new int[capacity];
+
+        private synchronized void addVehicle() {
+            vehicles++;
+        }
+
+        private synchronized void mark(long startDay, long endDay, int delta) {
+            long from = Math.max(startDay, windowStart);
+            long to = Math.min(endDay, windowStart + horizonDays);
+            for (long day = from; day < to; day++) {
+                bookedPerDay[slot(day)] += delta;
+            }
+        }
+
+        private synchronized Utilization utilization(String key, int windowDays) {
+            long booked = 0;
+            long start = windowStart;
+            for (long day = start; day < start + windowDays; day++) {
+                booked += bookedPerDay[slot(day)];
+            }
+            return new Utilization(key, vehicles,
+                    vehicles == 0 ? 0.0 : (double) booked / ((long) vehicles * windowDays));
+        }
+
+        private synchronized void clearDays(long fromDay, long toDay) {
+            for (long day = fromDay; day < toDay; day++) {
+                bookedPerDay[slot(day)] = 0;
+            }
+        }
+    }
+
+    /**
+     * Category and fuel type of a model, as of the last catalogue.
+     */
+    private record ModelAttributes(String category, String fuelType) {
+    }
+
+    /**
+     * Series a vehicle counts towards, fixed when it is registered.
+     */
+    private record VehicleSeries(List<SeriesKey> events, Occupancy[] occupancy) {
+    }
+
+    private final int horizonDays;
+    private final int capacity;
+    private final OperatorIndex operatorIndex;
+    private final ConcurrentHashMap<SeriesKey, Series> series = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<SeriesKey, Occupancy> occupancy = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, ModelAttributes> models = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, VehicleSeries> vehicles = new ConcurrentHashMap<>();
+
+    private volatile long windowStart;
+
+    public FleetRollups(OperatorIndex operatorIndex,
+            @Value("${fleet.availability.horizon-days:548}") int horizonDays) {
+        this.operatorIndex = operatorIndex;
+        this.horizonDays = horizonDays;
+        this.capacity = horizonDays + 1;
+        this.windowStart = LocalDate.now().toEpochDay();
+    }
+
+    // ============================================
+    // CATALOGUE LISTENER
+    // ============================================
+
+    @Override
+    public void catalogueChanged(List<CarModel> catalogue, long version) {
+        for (CarModel model : catalogue) {
+            models.put(model.getId(), new ModelAttributes(
+                    model.getCategory() == null ? null : model.getCategory().name(),
+                    model.getFuelType() == null ? null : model.getFuelType().name()));
+        }
+    }
+
+    // ============================================
+    // OCCUPANCY LISTENER
+    // ============================================
+
+    @Override
+    public void vehicleRegistered(long carModelId, long vehicleId) {
+        ModelAttributes attributes = models.get(carModelId);
+        List<SeriesKey> keys = new ArrayList<>(3);
+        keys.add(new SeriesKey(Dimension.FLEET, ALL));
+        if (attributes != null && attributes.category() != null) {
+            keys.add(new SeriesKey(Dimension.CATEGORY, attributes.category()));
+        }
+        if (attributes != null && attributes.fuelType() != null) {
+            keys.add(new SeriesKey(Dimension.FUEL_TYPE, attributes.fuelType()));
+        }
+        VehicleSeries attribution = new VehicleSeries(List.copyOf(keys),
+                keys.stream().map(key -> occupancy.computeIfAbsent(key, k -> new Occupancy())).toArray(Occupancy[]::new));
+        if (vehicles.putIfAbsent(vehicleId, attribution) == null) {
+            for (Occupancy entry : attribution.occupancy()) {
+                entry.addVehicle();
+            }
+        }
+    }
+
+    @Override
+    public void occupied(long carModelId, long vehicleId, long startDay, long endDay) {
+        mark(vehicleId, startDay, endDay, 1);
+    }
+
+    @Override
+    public void released(long carModelId, long vehicleId, long startDay, long endDay) {
+        mark(vehicleId, startDay, endDay, -1);
+    }
+
+    private void mark(long vehicleId, long startDay, long endDay, int delta) {
+        VehicleSeries attribution = vehicles.get(vehicleId);
+        if (attribution != null) {
+            for (Occupancy entry : attribution.occupancy()) {
+                entry.mark(startDay, endDay, delta);
+            }
+        }
+    }
+
+    // ============================================
+    // EVENTS
+    // ============================================
+
+    /**
+     * Count a committed booking or hold.
+     */
+    public void created(long vehicleId, BookingStatus status) {
+        record(vehicleId, status == BookingStatus.HELD ? Metric.HELD : Metric.BOOKED,
+                System.currentTimeMillis() / 1000);
+    }
+
+    /**
+     * Count a committed status change.
+     */
+    public void transitioned(long vehicleId, BookingStatus to) {
+        Metric metric = switch (to) {
+            case CONFIRMED -> Metric.CONFIRMED;
+            case CANCELLED -> Metric.CANCELLED;
+            case EXPIRED -> Metric.EXPIRED;
+            case HELD -> null;
+        };
+        if (metric != null) {
+            record(vehicleId, metric, System.currentTimeMillis() / 1000);
+        }
+    }
+
+    public void record(long vehicleId, Metric metric, long epochSecond) {
+        VehicleSeries attribution = vehicles.get(vehicleId);
+        if (attribution != null) {
+            for (SeriesKey key : attribution.events()) {
+                series(key).add(epochSecond, metric, 1);
+            }
+        } else {
+            series(new SeriesKey(Dimension.FLEET, ALL)).add(epochSecond, metric, 1);
+        }
+        Long operatorId = operatorIndex.findOperatorOfVehicle(vehicleId).orElse(null);
+        if (operatorId != null) {
+            series(new SeriesKey(Dimension.OPERATOR, operatorId.toString())).add(epochSecond, metric, 1);
+        }
+    }
+
+    // ============================================
+    // QUERIES
+    // ============================================
+
+    /**
+     * The latest buckets of every series of a dimension, oldest first.
+     *
+     * @param buckets number of buckets, at most resolution.buckets()
+     */
+    public List<SeriesBuckets> buckets(Dimension dimension, Resolution resolution, int buckets, long nowSecond) {
+        int count = Math.min(Math.max(buckets, 1), resolution.buckets);
+        List<SeriesBuckets> result = new ArrayList<>();
+        for (Map.Entry<SeriesKey, Series> entry : series.entrySet()) {
+            if (entry.getKey().dimension() == dimension) {
+                result.add(new SeriesBuckets(entry.getKey().key(),
+                        entry.getValue().read(resolution, nowSecond, count)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Utilization of every series of a dimension over the next windowDays days.
+     * Not kept for OPERATOR; see OperatorIndex.allStats.
+     */
+    public List<Utilization> utilization(Dimension dimension, int windowDays) {
+        int days = Math.min(Math.max(windowDays, 1), horizonDays);
+        List<Utilization> result = new ArrayList<>();
+        for (Map.Entry<SeriesKey, Occupancy> entry : occupancy.entrySet()) {
+            if (entry.getKey().dimension() == dimension) {
+                result.add(entry.getValue().utilization(entry.getKey().key(), days));
+            }
+        }
+        return result;
+    }
+
+    // ============================================
+    // WINDOW MAINTENANCE
+    // ============================================
+
+    /**
+     * Move the utilization window start to the given day, dropping past days.
+     */
+    public void rollTo(LocalDate today) {
+        long newStart = today.toEpochDay();
+        long oldStart = windowStart;
+        if (newStart <= oldStart) {
+            return;
+        }
+        windowStart = newStart;
+        long clearTo = Math.min(newStart, oldStart + capacity);
+        for (Occupancy entry : occupancy.values()) {
+            entry.clearDays(oldStart, clearTo);
+        }
+    }
+
+    // ============================================
+    // CHECKPOINT
+    // ============================================
+
+    /**
+     * Write the event counters (not the utilization, which the engine rebuilds).
+     *
+     * Format: magic, version, metric count, then per series its dimension,
+     * key and, per resolution, the ring size and the used buckets as
+     * (slot, bucket index, counts).
+     */
+    public void checkpoint(DataOutput out) throws IOException {
+        out.writeInt(CHECKPOINT_MAGIC);
+        out.writeInt(CHECKPOINT_VERSION);
+        out.writeInt(METRICS);
+        List<Map.Entry<SeriesKey, Series>> entries = new ArrayList<>(series.entrySet());
+        out.writeInt(entries.size());
+        for (Map.Entry<SeriesKey, Series> entry : entries) {
+            out.writeByte(entry.getKey().dimension().ordinal());
+            out.writeUTF(entry.getKey().key());
+            Series value = entry.getValue();
+            synchronized (value) {
+                for (Ring ring : value.rings) {
+                    out.writeInt(ring.resolution.buckets);
+                    int used = 0;
+                    for (long index : ring.bucketIndex) {
+                        if (index != Long.MIN_VALUE) {
+                            used++;
+                        }
+                    }
+                    out.writeInt(used);
+                    for (int slot = 0; slot < ring.bucketIndex.length; slot++) {
+                        if (ring.bucketIndex[slot] == Long.MIN_VALUE) {
+                            continue;
+                        }
+                        out.writeInt(slot);
+                        out.writeLong(ring.bucketIndex[slot]);
+                        for (int metric = 0; metric < METRICS; metric++) {
+                            out.writeLong(ring.counts[slot * METRICS + metric]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Replace the event counters with a checkpoint. Nothing is changed if it
+     * is not in the current format.
+     *
+     * @return false if the checkpoint format is not this one
+     */
+    public boolean restore(DataInput in) throws IOException {
+        if (in.readInt() != CHECKPOINT_MAGIC || in.readInt() != CHECKPOINT_VERSION || in.readInt() != METRICS) {
+            return false;
+        }
+        Map<SeriesKey, Series> restored = new ConcurrentHashMap<>();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            int dimension = in.readByte();
+            if (dimension < 0 || dimension >= Dimension.values().length) {
+                return false;
+            }
+            Series value = new Series();
+            restored.put(new SeriesKey(Dimension.values()[dimension], in.readUTF()), value);
+            for (Ring ring : value.rings) {
+                if (in.readInt() != ring.resolution.buckets) {
+                    return false;
+                }
+                int used = in.readInt();
+                for (int b = 0; b < used; b++) {
+                    int slot = in.readInt();
+                    if (slot < 0 || slot >= ring.bucketIndex.length) {
+                        return false;
+                    }
+                    ring.bucketIndex[slot] = in.readLong();
+                    for (int metric = 0; metric < METRICS; metric++) {
+                        ring.counts[slot * METRICS + metric] = in.readLong();
+                    }
+                }
+            }
+        }
+        series.clear();
+        series.putAll(restored);
+        return true;
+    }
+
+    private Series series(SeriesKey key) {
+        return series.computeIfAbsent(key, k -> new Series());
+    }
+
+    private int slot(long day) {
+        return (int) Math.floorMod(day, (long) capacity);
+    }
+}
@@ -0,0 +1,257 @@
+package com.exploresg.fleetservice.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hierarchical timing wheel for very large numbers of timeouts.
+ *
+ * Layout (defaults: 1s tick, 64 slots, 4 levels):
+ * - Level 0: 64 slots of 1 tick         (covers 64 s)
+ * - Level 1: 64 slots of 64 ticks       (covers ~68 min)
+ * - Level 2: 64 slots of 4096 ticks     (covers ~73 h)
+ * - Level 3: 64 slots of 262144 ticks   (covers ~194 days)
+ *
+ * Each slot is an intrusive doubly-linked list, so schedule and cancel are
+ * O(1) regardless of how many timeouts are pending. When the wheel turns
+ * past a level boundary, the matching higher-level slot is cascaded down
+ * into finer levels. Deadlines beyond the top level are parked in the
+ * furthest top-level slot and re-placed when that slot cascades.
+ *
+ * Time only moves forward when advanceTo() is called, which makes the wheel
+ * independent of any particular thread model. All operations take a single
+ * short lock; none of them iterate over unrelated timeouts.
+ *
+ * @param <T> payload carried by each timeout
+ */
+public final class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final int bitsPerLevel;
+    private final int mask;
+    private final int levels;
+    private final Bucket<T>[][] wheels;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Last tick that has been fully processed.
+     */
+    private long currentTick;
+    private long size;
+
+    /**
+     * Handle returned by schedule(), used to cancel the timeout.
+     */
+    public static final class Timeout<T> {
+        private final T payload;
+        private final long deadlineTick;
+        private Bucket<T> bucket;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(T payload, long deadlineTick) {
+            this.payload = payload;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T payload() {
+            return payload;
+        }
+    }
+
+    private static final class Bucket<T> {
+        private Timeout<T> head;
+
+        private void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.prev = null;
+            timeout.next = head;
+            if (head != null) {
+                head.prev = timeout;
+            }
+            head = timeout;
+        }
+
+        private void remove(Timeout<T> timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        /**
+         * Detach and return the whole list.
+         */
+        private Timeout<T> drain() {
+            Timeout<T> first = head;
+            head = null;
+            return first;
+        }
+    }
+
+    /**
+     * @param tickMillis   resolution of the wheel
+     * @param bitsPerLevel log2 of the slots per level (6 = 64 slots)
+     * @param levels       number of levels
+     * @param startMillis  wall-clock time of tick 0
+     */
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int bitsPerLevel, int levels, long startMillis) {
+        if (tickMillis <= 0 || bitsPerLevel <= 0 || levels <= 0 || (long) bitsPerLevel * levels >= 62) {
+            throw new IllegalArgumentException("Invalid timing wheel dimensions");
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.bitsPerLevel = bitsPerLevel;
+        this.mask = (1 << bitsPerLevel) - 1;
+        this.levels = levels;
+        this.wheels = new Bucket[levels][1 << bitsPerLevel];
+        for (int level = 0; level < levels; level++) {
+            for (int slot = 0; slot <= mask; slot++) {
+                wheels[level][slot] = new Bucket<>();
+            }
+        }
+    }
+
+    // ============================================
+    // SCHEDULE / CANCEL - O(1)
+    // ============================================
+
+    /**
+     * Schedule a payload to expire at the given wall-clock time.
+     * Deadlines in the past expire on the next advance.
+     */
+    public Timeout<T> schedule(T payload, long deadlineMillis) {
+        long deadlineTick = Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis);
+        lock.lock();
+        try {
+            Timeout<T> timeout = new Timeout<>(payload, deadlineTick);
+            place(timeout);
+            size++;
+            return timeout;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cancel a pending timeout.
+     *
+     * @return true if it was pending, false if it already expired or was cancelled
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        lock.lock();
+        try {
+            if (timeout.bucket == null) {
+                return false;
+            }
+            timeout.bucket.remove(timeout);
+            size--;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ============================================
+    // ADVANCE
+    // ============================================
+
+    /**
+     * Turn the wheel up to the given wall-clock time.
+     *
+     * @return payloads whose deadline has passed, in tick order
+     */
+    public List<T> advanceTo(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        List<T> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            while (currentTick < targetTick) {
+                currentTick++;
+                cascade();
+                Timeout<T> timeout = wheels[0][(int) (currentTick & mask)].drain();
+                while (timeout != null) {
+                    Timeout<T> next = timeout.next;
+                    timeout.bucket = null;
+                    timeout.prev = null;
+                    timeout.next = null;
+                    if (timeout.deadlineTick <= currentTick) {
+                        expired.add(timeout.payload);
+                        size--;
+                    } else {
+                        place(timeout);
+                    }
+                    timeout = next;
+                }
+            }
+            return expired;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of pending timeouts.
+     */
+    public long size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ============================================
+    // INTERNALS (caller holds lock)
+    // ============================================
+
+    /**
+     * Re-place timeouts of every higher-level slot whose span starts at currentTick.
+     * Higher levels go first so their timeouts can land in lower slots that are
+     * cascaded in the same tick.
+     */
+    private void cascade() {
+        for (int level = levels - 1; level >= 1; level--) {
+            long span = 1L << (bitsPerLevel * level);
+            if ((currentTick & (span - 1)) != 0) {
+                continue;
+            }
+            int slot = (int) ((currentTick >>> (bitsPerLevel * level)) & mask);
+            Timeout<T> timeout = wheels[level][slot].drain();
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                place(timeout);
+                timeout = next;
+            }
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        // Anything already due goes into the next slot to be processed
+        long tick = Math.max(timeout.deadlineTick, currentTick + 1);
+        long delta = tick - currentTick;
+
+        int level = 0;
+        while (level < levels - 1 && delta >= (1L << (bitsPerLevel * (level + 1)))) {
+            level++;
+        }
+        long topSpan = 1L << (bitsPerLevel * levels);
+        if (delta >= topSpan) {
+            // Beyond the wheel's horizon: park in the furthest top-level slot
+            tick = currentTick + topSpan - 1;
+        }
+        int slot = (int) ((tick >>> (bitsPerLevel * level)) & mask);
+        wheels[level][slot].add(timeout);
+    }
+}
@@ -0,0 +1,95 @@
+package com.exploresg.fleetservice.engine;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Set of non-overlapping, half-open day intervals [startDay, endDay) for one vehicle.
+ *
+ * Because a vehicle can never hold two overlapping bookings, the intervals
+ * are disjoint. Sorting disjoint intervals by start also sorts them by end,
+ * so the only interval that can overlap a query [s, e) is the one with the
+ * greatest start strictly before e. That turns the classic interval-tree
+ * overlap query into a single TreeMap.lowerEntry lookup: O(log n).
+ *
+ * Days are epoch days (LocalDate.toEpochDay()).
+ *
+ * Not thread-safe: callers must hold the owning model's lock.
+ */
+public final class IntervalSchedule {
+
+    private final TreeMap<Long, Slot> slots = new TreeMap<>();
+
+    /**
+     * One occupied interval and the booking that occupies it.
+     */
+    public record Slot(long startDay, long endDay, UUID bookingUuid) {
+    }
+
+    /**
+     * Check whether [startDay, endDay) overlaps no existing interval.
+     *
+     * @param startDay first day (inclusive)
+     * @param endDay   last day (exclusive)
+     * @return true if the whole range is free
+     */
+    public boolean isFree(long startDay, long endDay) {
+        Map.Entry<Long, Slot> candidate = slots.lowerEntry(endDay);
+        return candidate == null || candidate.getValue().endDay() <= startDay;
+    }
+
+    /**
+     * Occupy [startDay, endDay) if it is free.
+     *
+     * @return true if inserted, false if it overlaps an existing interval
+     */
+    public boolean tryAdd(long startDay, long endDay, UUID bookingUuid) {
+        if (startDay >= endDay) {
+            throw new IllegalArgumentException("startDay must be before endDay");
+        }
+        if (!isFree(startDay, endDay)) {
+            return false;
+        }
+        slots.put(startDay, new Slot(startDay, endDay, bookingUuid));
+        return true;
+    }
+
+    /**
+     * Free the interval starting at startDay, but only if it belongs to the given booking.
+     *
+     * The booking check makes release idempotent and protects against a late
+     * release (e.g. an expired hold) removing a newer booking's interval.
+     *
+     * @return the removed interval, null if none matched
+     */
+    public Slot remove(long startDay, UUID bookingUuid) {
+        Slot slot = slots.get(startDay);
+        if (slot == null || !slot.bookingUuid().equals(bookingUuid)) {
+            return null;
+        }
+        slots.remove(startDay);
+        return slot;
+    }
+
+    /**
+     * Drop every interval that ended on or before the given day.
+     *
+     * @return number of intervals removed
+     */
+    public int pruneEndedBefore(long day) {
+        int removed = 0;
+        var it = slots.headMap(day, false).values().iterator();
+        while (it.hasNext()) {
+            if (it.next().endDay() <= day) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+}
@@ -0,0 +1,676 @@
+package com.exploresg.fleetservice.engine;
+
+import com.exploresg.fleetservice.dto.FacetFilter;
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.Manufacturer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index for the model search box ("corolla", "bmw x", "tesla m").
+ *
+ * Searchable text: the words of CarModel.model plus the manufacturer name.
+ * Every query word must match (AND), either the manufacturer or a model word:
+ * - exact word                         - weight 1.0
+ * - prefix of a word (as it is typed)  - up to 0.75, closer to the full word is better
+ * - typo (1 edit up to 5 letters, 2 above, on the word or on its prefix;
+ *   only when the query word has no exact/prefix match) - weight 0.5
+ *
+ * Structures:
+ * - prefix trie of model words holding each word's postings (doc ids); every
+ *   node knows how many postings are below it, so the most selective query
+ *   word drives the candidate scan
+ * - trigram -> words index to find typo candidates without scanning the dictionary
+ * - manufacturer -> doc ids
+ *
+ * Hits are ranked by score (mean weight of the query words), then shorter
+ * model name, name, newer year. Facet filters are applied to the candidates.
+ * Postings lists are kept in that secondary order, so a one-word query (every
+ * keystroke of the first word) stops reading a list after about limit docs.
+ * Other query words are looked up in per-thread weight arrays.
+ *
+ * Maintained incrementally as a CatalogueListener: only models whose content
+ * changed are re-indexed, and each affected postings list is rewritten once
+ * per catalogue change. Readers share a read lock; updates take the write lock.
+ */
+@Slf4j
+@Component
+public class ModelSearchIndex implements CatalogueListener {
+
+    public record Hit(CarModel model, double score) {
+    }
+
+    private static final double EXACT = 1.0;
+    private static final double PREFIX = 0.75;
+    private static final double FUZZY = 0.5;
+    private static final int GRAM = 3;
+    private static final int MIN_FUZZY_LENGTH = 3;
+    private static final int[] NO_DOCS = new int[0];
+
+    private static final Manufacturer[] MANUFACTURERS = Manufacturer.values();
+    private static final String[] MANUFACTURER_NAMES = Arrays.stream(MANUFACTURERS)
+            .map(manufacturer -> manufacturer.name().toLowerCase(Locale.ROOT))
+            .toArray(String[]::new);
+
+    /**
+     * Order among equally scored models, and the order of every postings list:
+     * shorter name, name, newer year, id.
+     */
+    private static final Comparator<CarModel> MODEL_ORDER = Comparator
+            .comparingInt((CarModel model) -> model.getModel().length())
+            .thenComparing(CarModel::getModel)
+            .thenComparing(CarModel::getModelYear, Comparator.reverseOrder())
+            .thenComparing(CarModel::getId);
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score).reversed()
+            .thenComparing(Hit::model, MODEL_ORDER);
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private Doc[] docs = new Doc[256];
+    private int docLimit;
+    private final ArrayDeque<Integer> freeDocIds = new ArrayDeque<>();
+    private final Map<Long, Integer> docIds = new HashMap<>();
+    private final TrieNode trie = new TrieNode();
+    private final Map<String, Set<String>> wordsByGram = new HashMap<>();
+    // Doc ids in MODEL_ORDER
+    private final Map<Manufacturer, int[]> manufacturerDocs = new EnumMap<>(Manufacturer.class);
+
+    private record Doc(CarModel model, String[] words) {
+    }
+
+    private static final class TrieNode {
+        // Children sorted by key
+        private char[] keys = new char[0];
+        private TrieNode[] children = new TrieNode[0];
+        // Postings of all words in this subtree
+        private int docCount;
+        // Set while a word ending here has postings
+        private String word;
+        // Postings of word, in MODEL_ORDER
+        private int[] docIds = NO_DOCS;
+
+        private TrieNode child(char key) {
+            int at = Arrays.binarySearch(keys, key);
+            return at >= 0 ? children[at] : null;
+        }
+
+        private TrieNode childOrCreate(char key) {
+            int at = Arrays.binarySearch(keys, key);
+            if (at >= 0) {
+                return children[at];
+            }
+            at = -at - 1;
+            char[] grownKeys = new char[keys.length + 1];
+            TrieNode[] grownChildren = new TrieNode[keys.length + 1];
+            System.arraycopy(keys, 0, grownKeys, 0, at);
+            System.arraycopy(children, 0, grownChildren, 0, at);
+            grownKeys[at] = key;
+            grownChildren[at] = new TrieNode();
+            System.arraycopy(keys, at, grownKeys, at + 1, keys.length - at);
+            System.arraycopy(children, at, grownChildren, at + 1, keys.length - at);
+            keys = grownKeys;
+            children = grownChildren;
+            return grownChildren[at];
+        }
+    }
+
+    private TrieNode node(String word) {
+        TrieNode node = trie;
+        for (int i = 0; i < word.length() && node != null; i++) {
+            node = node.child(word.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Per-thread query state, left clean after every query.
+     */
+    private static final class Scratch {
+        private final BitSet seen = new BitSet();
+        private final List<float[]> weights = new ArrayList<>();
+
+        private float[] weights(int term, int size) {
+            while (weights.size() <= term) {
+                weights.add(new float[0]);
+            }
+            if (weights.get(term).length < size) {
+                weights.set(term, new float[Math.max(size, weights.get(term).length * 2)]);
+            }
+            return weights.get(term);
+        }
+    }
+
+    // ============================================
+    // SEARCH
+    // ============================================
+
+    /**
+     * @param query free text, case-insensitive
+     * @param limit maximum number of hits
+     * @return best hits first
+     */
+    public List<Hit> search(String query, FacetFilter filter, int limit) {
+        String[] terms = words(query);
+        if (terms.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            TermMatch[] matches = new TermMatch[terms.length];
+            int driving = 0;
+            for (int i = 0; i < terms.length; i++) {
+                matches[i] = match(terms[i]);
+                if (matches[i].estimatedDocs == 0) {
+                    return List.of();
+                }
+                if (matches[i].estimatedDocs < matches[driving].estimatedDocs) {
+                    driving = i;
+                }
+            }
+
+            Scratch scratch = SCRATCH.get();
+            float[][] weights = new float[terms.length][];
+            double otherMaximum = 0;
+            for (int i = 0; i < terms.length; i++) {
+                if (i != driving) {
+                    weights[i] = scratch.weights(i, docLimit);
+                    matches[i].fill(weights[i]);
+                    otherMaximum += matches[i].lists.get(0).weight();
+                }
+            }
+            try {
+                List<Candidate> top = collect(matches[driving], weights, otherMaximum, filter, limit, scratch.seen);
+                List<Hit> hits = new ArrayList<>(top.size());
+                for (Candidate candidate : top) {
+                    hits.add(new Hit(candidate.model(), candidate.score() / terms.length));
+                }
+                hits.sort(RANKING);
+                return hits;
+            } finally {
+                scratch.seen.clear();
+                for (int i = 0; i < terms.length; i++) {
+                    if (weights[i] != null) {
+                        matches[i].clear(weights[i]);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * A hit while collecting; list is the index of the driving list it came from.
+     */
+    private record Candidate(CarModel model, double score, int list) {
+    }
+
+    private static final Comparator<Candidate> WORST_FIRST = Comparator.comparingDouble(Candidate::score)
+            .thenComparing(Candidate::model, MODEL_ORDER.reversed());
+
+    /**
+     * Scan the docs of the driving query word, best lists first, keeping the top hits.
+     *
+     * Lists are in descending weight order, so the first time a doc is seen is
+     * its best driving weight, and once a list cannot reach the worst kept hit
+     * neither can the rest. Each list is in MODEL_ORDER, so a doc that ties
+     * with a kept hit from the same list ranks after it; for a one-word query
+     * all docs of a list score the same and the scan of the list stops at the
+     * first doc that does not make it into the top hits.
+     */
+    private List<Candidate> collect(TermMatch driving, float[][] weights, double otherMaximum,
+            FacetFilter filter, int limit, BitSet seen) {
+        boolean oneWord = weights.length == 1;
+        PriorityQueue<Candidate> top = new PriorityQueue<>(limit + 1, WORST_FIRST);
+        for (int list = 0; list < driving.lists.size(); list++) {
+            WeightedDocs docsOfList = driving.lists.get(list);
+            if (top.size() == limit && docsOfList.weight() + otherMaximum < top.peek().score()) {
+                break;
+            }
+            for (int docId : docsOfList.docIds()) {
+                if (seen.get(docId)) {
+                    continue;
+                }
+                seen.set(docId);
+                double score = score(docId, docsOfList.weight(), weights);
+                if (score == 0) {
+                    continue;
+                }
+                if (top.size() == limit && !beats(score, list, docId, top.peek())) {
+                    if (oneWord) {
+                        break;
+                    }
+                    continue;
+                }
+                CarModel model = docs[docId].model();
+                if (!filter.matches(model)) {
+                    continue;
+                }
+                top.offer(new Candidate(model, score, list));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+        return new ArrayList<>(top);
+    }
+
+    private boolean beats(double score, int list, int docId, Candidate worst) {
+        if (score != worst.score()) {
+            return score > worst.score();
+        }
+        return worst.list() != list && MODEL_ORDER.compare(docs[docId].model(), worst.model()) < 0;
+    }
+
+    /**
+     * Sum of the best weight per query word, 0 if a word does not match.
+     */
+    private static double score(int docId, double drivingWeight, float[][] weights) {
+        double score = drivingWeight;
+        for (float[] termWeights : weights) {
+            if (termWeights != null) {
+                float weight = termWeights[docId];
+                if (weight == 0) {
+                    return 0;
+                }
+                score += weight;
+            }
+        }
+        return score;
+    }
+
+    private record WeightedDocs(double weight, int[] docIds) {
+    }
+
+    /**
+     * What one query word matches: postings lists of model words and manufacturers with their weights.
+     */
+    private static final class TermMatch {
+        private final List<WeightedDocs> lists = new ArrayList<>();
+        private long estimatedDocs;
+
+        private void add(double weight, int[] docIds) {
+            lists.add(new WeightedDocs(weight, docIds));
+            estimatedDocs += docIds.length;
+        }
+
+        /**
+         * Write the best weight of every matched doc into a per-doc array.
+         */
+        private void fill(float[] weights) {
+            for (WeightedDocs list : lists) {
+                float weight = (float) list.weight();
+                for (int docId : list.docIds()) {
+                    if (weights[docId] < weight) {
+                        weights[docId] = weight;
+                    }
+                }
+            }
+        }
+
+        private void clear(float[] weights) {
+            for (WeightedDocs list : lists) {
+                for (int docId : list.docIds()) {
+                    weights[docId] = 0;
+                }
+            }
+        }
+    }
+
+    private TermMatch match(String term) {
+        TermMatch match = new TermMatch();
+        TrieNode node = node(term);
+        if (node != null && node.docCount > 0) {
+            collectPrefixMatches(node, term, match);
+        }
+        for (int i = 0; i < MANUFACTURERS.length; i++) {
+            String name = MANUFACTURER_NAMES[i];
+            if (name.equals(term)) {
+                addManufacturer(match, MANUFACTURERS[i], EXACT);
+            } else if (name.startsWith(term)) {
+                addManufacturer(match, MANUFACTURERS[i], prefixWeight(term, name));
+            }
+        }
+        if (match.lists.isEmpty() && term.length() >= MIN_FUZZY_LENGTH) {
+            collectFuzzyMatches(term, match);
+        }
+        match.lists.sort(Comparator.comparingDouble(WeightedDocs::weight).reversed());
+        return match;
+    }
+
+    private void collectPrefixMatches(TrieNode node, String term, TermMatch match) {
+        if (node.word != null) {
+            double weight = node.word.equals(term) ? EXACT : prefixWeight(term, node.word);
+            match.add(weight, node.docIds);
+        }
+        for (TrieNode child : node.children) {
+            if (child.docCount > 0) {
+                collectPrefixMatches(child, term, match);
+            }
+        }
+    }
+
+    private void collectFuzzyMatches(String term, TermMatch match) {
+        int maxEdits = term.length() <= 5 ? 1 : 2;
+        List<String> termGrams = grams(term, false);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : termGrams) {
+            Set<String> words = wordsByGram.get(gram);
+            if (words != null) {
+                for (String word : words) {
+                    shared.merge(word, 1, Integer::sum);
+                }
+            }
+        }
+        // Each edit destroys at most GRAM grams
+        int required = Math.max(1, termGrams.size() - GRAM * maxEdits);
+        for (Map.Entry<String, Integer> candidate : shared.entrySet()) {
+            String word = candidate.getKey();
+            if (candidate.getValue() >= required && isTypoOf(term, word, maxEdits)) {
+                match.add(FUZZY, node(word).docIds);
+            }
+        }
+        for (int i = 0; i < MANUFACTURERS.length; i++) {
+            if (isTypoOf(term, MANUFACTURER_NAMES[i], maxEdits)) {
+                addManufacturer(match, MANUFACTURERS[i], FUZZY);
+            }
+        }
+    }
+
+    private void addManufacturer(TermMatch match, Manufacturer manufacturer, double weight) {
+        match.add(weight, manufacturerDocs.getOrDefault(manufacturer, NO_DOCS));
+    }
+
+    private static double prefixWeight(String term, String word) {
+        return PREFIX * (0.5 + 0.5 * term.length() / word.length());
+    }
+
+    /**
+     * True if the term is within maxEdits of the word, or of the word's start
+     * (the term may still be being typed).
+     */
+    private static boolean isTypoOf(String term, String word, int maxEdits) {
+        if (editDistance(term, word, maxEdits) <= maxEdits) {
+            return true;
+        }
+        return word.length() > term.length()
+                && editDistance(term, word.substring(0, term.length()), maxEdits) <= maxEdits;
+    }
+
+    /**
+     * Optimal string alignment distance (a swap of two letters is one edit),
+     * or max + 1 as soon as it is known to exceed max.
+     */
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    // ============================================
+    // INCREMENTAL UPDATES
+    // ============================================
+
+    @Override
+    public void catalogueChanged(List<CarModel> models, long version) {
+        long started = System.nanoTime();
+        List<CarModel> upserts = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int unchangedOrUpdated = 0;
+            for (CarModel model : models) {
+                Integer docId = docIds.get(model.getId());
+                if (docId != null) {
+                    unchangedOrUpdated++;
+                }
+                if (docId == null || !docs[docId].model().equals(model)) {
+                    upserts.add(model);
+                }
+            }
+            if (unchangedOrUpdated < docIds.size()) {
+                Set<Long> current = new HashSet<>(models.size() * 2);
+                models.forEach(model -> current.add(model.getId()));
+                docIds.keySet().stream().filter(id -> !current.contains(id)).forEach(removed::add);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (upserts.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            apply(upserts, removed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Search index at catalogue version {}: {} models upserted, {} removed in {} ms",
+                version, upserts.size(), removed.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Pending changes to one postings list. A doc whose position changes
+     * (renamed, other year) is both removed and added. Docs are added in
+     * MODEL_ORDER.
+     */
+    private static final class Delta {
+        private final Set<Integer> added = new LinkedHashSet<>();
+        private final Set<Integer> removed = new HashSet<>();
+    }
+
+    /**
+     * Merge a delta into a list in MODEL_ORDER; docs must already hold the new models.
+     */
+    private int[] applyDelta(int[] current, Delta delta) {
+        int[] kept = delta.removed.isEmpty()
+                ? current
+                : Arrays.stream(current).filter(docId -> !delta.removed.contains(docId)).toArray();
+        int[] merged = new int[kept.length + delta.added.size()];
+        int from = 0;
+        int size = 0;
+        for (int docId : delta.added) {
+            int at = insertionPoint(kept, from, docs[docId].model());
+            System.arraycopy(kept, from, merged, size, at - from);
+            size += at - from;
+            from = at;
+            merged[size++] = docId;
+        }
+        System.arraycopy(kept, from, merged, size, kept.length - from);
+        return merged;
+    }
+
+    private int insertionPoint(int[] sorted, int from, CarModel model) {
+        int low = from;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (MODEL_ORDER.compare(docs[sorted[middle]].model(), model) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void apply(List<CarModel> upserts, List<Long> removedModelIds) {
+        Map<String, Delta> wordDeltas = new HashMap<>();
+        Map<Manufacturer, Delta> manufacturerDeltas = new EnumMap<>(Manufacturer.class);
+        List<Integer> released = new ArrayList<>();
+
+        for (Long modelId : removedModelIds) {
+            int docId = docIds.remove(modelId);
+            unindex(docId, wordDeltas, manufacturerDeltas);
+            docs[docId] = null;
+            released.add(docId);
+        }
+        // Sorted once, so that every delta receives its docs in list order
+        upserts.sort(MODEL_ORDER);
+        for (CarModel model : upserts) {
+            String[] words = words(model.getModel());
+            Integer docId = docIds.get(model.getId());
+            if (docId != null) {
+                Doc previous = docs[docId];
+                if (Arrays.equals(previous.words(), words)
+                        && previous.model().getManufacturer() == model.getManufacturer()
+                        && MODEL_ORDER.compare(previous.model(), model) == 0) {
+                    // Neither the searchable text nor the position in the lists changed
+                    docs[docId] = new Doc(model, words);
+                    continue;
+                }
+                unindex(docId, wordDeltas, manufacturerDeltas);
+            } else {
+                docId = allocateDocId();
+                docIds.put(model.getId(), docId);
+            }
+            docs[docId] = new Doc(model, words);
+            for (String word : words) {
+                wordDeltas.computeIfAbsent(word, key -> new Delta()).added.add(docId);
+            }
+            manufacturerDeltas.computeIfAbsent(model.getManufacturer(), key -> new Delta()).added.add(docId);
+        }
+
+        wordDeltas.forEach(this::updatePostings);
+        manufacturerDeltas.forEach((manufacturer, delta) ->
+                manufacturerDocs.put(manufacturer, applyDelta(manufacturerDocs.getOrDefault(manufacturer, NO_DOCS), delta)));
+        // Reusable only now that no delta refers to them any more
+        freeDocIds.addAll(released);
+    }
+
+    private void unindex(int docId, Map<String, Delta> wordDeltas, Map<Manufacturer, Delta> manufacturerDeltas) {
+        Doc doc = docs[docId];
+        for (String word : doc.words()) {
+            wordDeltas.computeIfAbsent(word, key -> new Delta()).removed.add(docId);
+        }
+        manufacturerDeltas.computeIfAbsent(doc.model().getManufacturer(), key -> new Delta()).removed.add(docId);
+    }
+
+    private int allocateDocId() {
+        Integer free = freeDocIds.poll();
+        if (free != null) {
+            return free;
+        }
+        if (docLimit == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+        }
+        return docLimit++;
+    }
+
+    private void updatePostings(String word, Delta delta) {
+        TrieNode[] path = new TrieNode[word.length() + 1];
+        path[0] = trie;
+        for (int i = 0; i < word.length(); i++) {
+            path[i + 1] = path[i].childOrCreate(word.charAt(i));
+        }
+        TrieNode node = path[word.length()];
+        int[] previous = node.docIds;
+        int[] updated = applyDelta(previous, delta);
+        if (updated.length == 0) {
+            grams(word, true).forEach(gram -> {
+                Set<String> words = wordsByGram.get(gram);
+                if (words != null && words.remove(word) && words.isEmpty()) {
+                    wordsByGram.remove(gram);
+                }
+            });
+        } else if (previous.length == 0) {
+            grams(word, true).forEach(gram -> wordsByGram.computeIfAbsent(gram, key -> new HashSet<>()).add(word));
+        }
+
+        node.docIds = updated;
+        node.word = updated.length == 0 ? null : word;
+        for (TrieNode onPath : path) {
+            onPath.docCount += updated.length - previous.length;
+        }
+    }
+
+    // ============================================
+    // TEXT
+    // ============================================
+
+    /**
+     * Lower-case words (letters and digits), each once, in order.
+     */
+    static String[] words(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        Set<String> words = new LinkedHashSet<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    /**
+     * Trigrams of "$word$" (indexed words) or "$term" (query terms, which may be unfinished).
+     */
+    private static List<String> grams(String word, boolean complete) {
+        String padded = "$" + word + (complete ? "$" : "");
+        List<String> grams = new ArrayList<>(Math.max(1, padded.length() - GRAM + 1));
+        for (int i = 0; i + GRAM <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
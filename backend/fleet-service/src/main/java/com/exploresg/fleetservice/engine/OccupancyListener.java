@@ -0,0 +1,21 @@
+package com.exploresg.fleetservice.engine;
+
+/**
+ * Callback for structures that mirror the BookingEngine's vehicle occupancy
+ * (availability calendar, analytics, push updates, ...).
+ *
+ * Callbacks run synchronously while the engine holds the model's lock, so
+ * listeners see changes of one model in exactly the order they were applied.
+ * Implementations must be fast and must never call back into the engine.
+ *
+ * Days are epoch days; periods are half-open [startDay, endDay).
+ */
+public interface OccupancyListener {
+
+    default void vehicleRegistered(long carModelId, long vehicleId) {
+    }
+
+    void occupied(long carModelId, long vehicleId, long startDay, long endDay);
+
+    void released(long carModelId, long vehicleId, long startDay, long endDay);
+}
@@ -0,0 +1,246 @@
+package com.exploresg.fleetservice.engine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Denormalized, in-memory operator index.
+ *
+ * Per operator it maintains, incrementally on every write:
+ * - which CarModels it offers (with vehicle count per model)
+ * - how many vehicles it owns
+ * - booked vehicles per day over the booking horizon, for utilization
+ *
+ * Per-operator fleet listings and the admin operator list are served from
+ * here without joining operator -> vehicle -> car_model and without
+ * aggregating bookings per request.
+ *
+ * Vehicles must be registered before their bookings are replayed, which
+ * BookingService.rebuildEngine() guarantees on startup.
+ */
+@Component
+public class OperatorIndex implements OccupancyListener {
+
+    private final int horizonDays;
+    private final int capacity;
+    private final ConcurrentHashMap<Long, OperatorEntry> operators = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Long> operatorIdsByUuid = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> operatorIdsByVehicle = new ConcurrentHashMap<>();
+
+    private volatile long windowStart;
+
+    /**
+     * Point-in-time aggregates for one operator.
+     *
+     * @param utilization share of vehicle-days booked in the requested window (0..1)
+     */
+    public record OperatorStats(long operatorId, UUID operatorUuid, String name,
+            int modelCount, int vehicleCount, double utilization) {
+    }
+
+    /**
+     * Identity of a registered operator.
+     */
+    public record OperatorRef(long operatorId, UUID operatorUuid, String name) {
+    }
+
+    /**
+     * Mutable aggregates of one operator. All access synchronizes on the instance.
+     */
+    private final class OperatorEntry {
+        private final long operatorId;
+        private UUID operatorUuid;
+        private String name;
+        private final Map<Long, Integer> vehiclesPerModel = new HashMap<>();
+        private int vehicleCount;
+        private final int[] bookedPerDay = new int[capacity];
+
+        private OperatorEntry(long operatorId) {
+            this.operatorId = operatorId;
+        }
+
+        private synchronized void addVehicle(long carModelId) {
+            vehiclesPerModel.merge(carModelId, 1, Integer::sum);
+            vehicleCount++;
+        }
+
+        private synchronized void mark(long startDay, long endDay, int delta) {
+            long from = Math.max(startDay, windowStart);
+            long to = Math.min(endDay, windowStart + horizonDays);
+            for (long day = from; day < to; day++) {
+                bookedPerDay[slot(day)] += delta;
+            }
+        }
+
+        private synchronized OperatorStats stats(int windowDays) {
+            long booked = 0;
+            long start = windowStart;
+            for (long day = start; day < start + windowDays; day++) {
+                booked += bookedPerDay[slot(day)];
+            }
+            double utilization = vehicleCount == 0 ? 0.0 : (double) booked / ((long) vehicleCount * windowDays);
+            return new OperatorStats(operatorId, operatorUuid, name, vehiclesPerModel.size(), vehicleCount, utilization);
+        }
+
+        private synchronized OperatorRef ref() {
+            return new OperatorRef(operatorId, operatorUuid, name);
+        }
+
+        private synchronized int vehicleCount(long carModelId) {
+            return vehiclesPerModel.getOrDefault(carModelId, 0);
+        }
+
+        private synchronized Set<Long> modelIds() {
+            return Set.copyOf(vehiclesPerModel.keySet());
+        }
+
+        private synchronized void clearDays(long fromDay, long toDay) {
+            for (long day = fromDay; day < toDay; day++) {
+                bookedPerDay[slot(day)] = 0;
+            }
+        }
+    }
+
+    public OperatorIndex(@Value("${fleet.availability.horizon-days:548}") int horizonDays) {
+        this.horizonDays = horizonDays;
+        this.capacity = horizonDays + 1;
+        this.windowStart = LocalDate.now().toEpochDay();
+    }
+
+    // ============================================
+    // REGISTRATION
+    // ============================================
+
+    public void registerOperator(long operatorId, UUID operatorUuid, String name) {
+        OperatorEntry entry = entry(operatorId);
+        synchronized (entry) {
+            entry.operatorUuid = operatorUuid;
+            entry.name = name;
+        }
+        operatorIdsByUuid.put(operatorUuid, operatorId);
+    }
+
+    /**
+     * Attribute a vehicle to its operator. Idempotent.
+     */
+    public void registerVehicle(long vehicleId, long carModelId, long operatorId) {
+        if (operatorIdsByVehicle.putIfAbsent(vehicleId, operatorId) == null) {
+            entry(operatorId).addVehicle(carModelId);
+        }
+    }
+
+    // ============================================
+    // OCCUPANCY LISTENER
+    // ============================================
+
+    @Override
+    public void occupied(long carModelId, long vehicleId, long startDay, long endDay) {
+        Long operatorId = operatorIdsByVehicle.get(vehicleId);
+        if (operatorId != null) {
+            entry(operatorId).mark(startDay, endDay, 1);
+        }
+    }
+
+    @Override
+    public void released(long carModelId, long vehicleId, long startDay, long endDay) {
+        Long operatorId = operatorIdsByVehicle.get(vehicleId);
+        if (operatorId != null) {
+            entry(operatorId).mark(startDay, endDay, -1);
+        }
+    }
+
+    // ============================================
+    // QUERIES
+    // ============================================
+
+    public Optional<Long> findOperatorId(UUID operatorUuid) {
+        return Optional.ofNullable(operatorIdsByUuid.get(operatorUuid));
+    }
+
+    /**
+     * @return empty for unknown operators and operators with vehicles but no registration yet
+     */
+    public Optional<OperatorRef> findOperator(long operatorId) {
+        OperatorEntry entry = operators.get(operatorId);
+        OperatorRef ref = entry == null ? null : entry.ref();
+        return ref == null || ref.operatorUuid() == null ? Optional.empty() : Optional.of(ref);
+    }
+
+    /**
+     * CarModels the operator has at least one vehicle of.
+     */
+    public Set<Long> modelIds(long operatorId) {
+        OperatorEntry entry = operators.get(operatorId);
+        return entry == null ? Set.of() : entry.modelIds();
+    }
+
+    /**
+     * Vehicles of the model in the operator's fleet.
+     */
+    public int vehicleCount(long operatorId, long carModelId) {
+        OperatorEntry entry = operators.get(operatorId);
+        return entry == null ? 0 : entry.vehicleCount(carModelId);
+    }
+
+    /**
+     * @return empty for vehicles without an operator and for unregistered vehicles
+     */
+    public Optional<Long> findOperatorOfVehicle(long vehicleId) {
+        return Optional.ofNullable(operatorIdsByVehicle.get(vehicleId));
+    }
+
+    public boolean ownsVehicle(long operatorId, long vehicleId) {
+        Long owner = operatorIdsByVehicle.get(vehicleId);
+        return owner != null && owner == operatorId;
+    }
+
+    /**
+     * Aggregates for every operator, utilization over the next windowDays days.
+     */
+    public List<OperatorStats> allStats(int windowDays) {
+        int days = Math.min(Math.max(windowDays, 1), horizonDays);
+        List<OperatorStats> stats = new ArrayList<>(operators.size());
+        for (OperatorEntry entry : operators.values()) {
+            stats.add(entry.stats(days));
+        }
+        return stats;
+    }
+
+    // ============================================
+    // WINDOW MAINTENANCE
+    // ============================================
+
+    /**
+     * Move the window start to the given day, dropping past days.
+     */
+    public void rollTo(LocalDate today) {
+        long newStart = today.toEpochDay();
+        long oldStart = windowStart;
+        if (newStart <= oldStart) {
+            return;
+        }
+        windowStart = newStart;
+        long clearTo = Math.min(newStart, oldStart + capacity);
+        for (OperatorEntry entry : operators.values()) {
+            entry.clearDays(oldStart, clearTo);
+        }
+    }
+
+    private OperatorEntry entry(long operatorId) {
+        return operators.computeIfAbsent(operatorId, OperatorEntry::new);
+    }
+
+    private int slot(long day) {
+        return (int) Math.floorMod(day, (long) capacity);
+    }
+}
@@ -0,0 +1,450 @@
+package com.exploresg.fleetservice.engine;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * In-memory geohash index of pickup locations for radius and k-nearest queries.
+ *
+ * Structure:
+ * - Every location gets a 52-bit geohash: 26 longitude bits interleaved with
+ *   26 latitude bits (Z-order), i.e. cells of about 0.6 m at the equator
+ * - One array of locations sorted by geohash, with the coordinates in
+ *   parallel primitive arrays
+ *
+ * The locations inside a geohash cell of any coarser level form one contiguous
+ * run of the array, found by two binary searches. A radius query picks the
+ * finest level whose cells are at least as wide and high as the radius, so the
+ * circle lies within the 3x3 cells around the point, scans those nine runs and
+ * keeps the candidates whose great-circle distance is inside the radius.
+ * k-nearest repeats that with a growing radius until k locations are found.
+ *
+ * Both queries take a filter that is evaluated nearest first and only until
+ * enough locations are accepted; this is how PickupLocationService joins the
+ * spatial search with operator availability and facets.
+ *
+ * Locations change rarely (admin edits), so writers copy the arrays and
+ * publish a new immutable Snapshot; readers never lock.
+ */
+@Component
+public class PickupLocationIndex {
+
+    public static final double EARTH_RADIUS_METERS = 6_371_000.0;
+
+    private static final int BITS = 26;
+    private static final double METERS_PER_DEGREE = Math.PI * EARTH_RADIUS_METERS / 180.0;
+
+    /**
+     * First k-nearest radius; multiplied by RADIUS_GROWTH until k are found.
+     */
+    private static final double INITIAL_NEAREST_RADIUS_METERS = 1_000.0;
+    private static final double RADIUS_GROWTH = 2.0;
+
+    /**
+     * An indexed pickup location.
+     */
+    public record Location(long locationId, UUID locationUuid, long operatorId, String name,
+            double latitude, double longitude) {
+    }
+
+    public record Hit(Location location, double distanceMeters) {
+    }
+
+    private record Snapshot(long[] codes, double[] latitudes, double[] longitudes, Location[] locations) {
+
+        private static final Snapshot EMPTY = new Snapshot(new long[0], new double[0], new double[0], new Location[0]);
+
+        private static Snapshot of(Collection<Location> locations) {
+            Location[] sorted = locations.toArray(Location[]::new);
+            long[] codes = new long[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                codes[i] = geohash(sorted[i]);
+            }
+            // Sort positions by (geohash, id) once, without recomputing hashes per comparison
+            Integer[] order = new Integer[sorted.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.<Integer>comparingLong(i -> codes[i])
+                    .thenComparingLong(i -> sorted[i].locationId()));
+            Snapshot snapshot = new Snapshot(new long[sorted.length], new double[sorted.length],
+                    new double[sorted.length], new Location[sorted.length]);
+            for (int i = 0; i < order.length; i++) {
+                snapshot.set(i, codes[order[i]], sorted[order[i]]);
+            }
+            return snapshot;
+        }
+
+        /**
+         * Copy with the location inserted at its sorted position.
+         */
+        private Snapshot with(Location location) {
+            long code = geohash(location);
+            int at = lowerBound(codes, code);
+            while (at < codes.length && codes[at] == code && locations[at].locationId() < location.locationId()) {
+                at++;
+            }
+            int size = codes.length + 1;
+            Snapshot copy = new Snapshot(new long[size], new double[size], new double[size], new Location[size]);
+            copy.copyFrom(this, 0, 0, at);
+            copy.set(at, code, location);
+            copy.copyFrom(this, at, at + 1, codes.length - at);
+            return copy;
+        }
+
+        /**
+         * Copy without the location.
+         */
+        private Snapshot without(Location location) {
+            int at = lowerBound(codes, geohash(location));
+            while (locations[at].locationId() != location.locationId()) {
+                at++;
+            }
+            int size = codes.length - 1;
+            Snapshot copy = new Snapshot(new long[size], new double[size], new double[size], new Location[size]);
+            copy.copyFrom(this, 0, 0, at);
+            copy.copyFrom(this, at + 1, at, size - at);
+            return copy;
+        }
+
+        private void set(int position, long code, Location location) {
+            codes[position] = code;
+            latitudes[position] = location.latitude();
+            longitudes[position] = location.longitude();
+            locations[position] = location;
+        }
+
+        private void copyFrom(Snapshot source, int from, int to, int length) {
+            System.arraycopy(source.codes, from, codes, to, length);
+            System.arraycopy(source.latitudes, from, latitudes, to, length);
+            System.arraycopy(source.longitudes, from, longitudes, to, length);
+            System.arraycopy(source.locations, from, locations, to, length);
+        }
+    }
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    // Source of the snapshot; guarded by this
+    private final Map<Long, Location> locations = new HashMap<>();
+
+    // ============================================
+    // UPDATES
+    // ============================================
+
+    /**
+     * Replace all locations.
+     */
+    public synchronized void load(Collection<Location> all) {
+        locations.clear();
+        for (Location location : all) {
+            locations.put(location.locationId(), location);
+        }
+        snapshot = Snapshot.of(locations.values());
+    }
+
+    /**
+     * Add a location or replace the one with the same id.
+     */
+    public synchronized void put(Location location) {
+        Location previous = locations.put(location.locationId(), location);
+        Snapshot current = previous == null ? snapshot : snapshot.without(previous);
+        snapshot = current.with(location);
+    }
+
+    public synchronized void remove(long locationId) {
+        Location previous = locations.remove(locationId);
+        if (previous != null) {
+            snapshot = snapshot.without(previous);
+        }
+    }
+
+    public int size() {
+        return snapshot.locations().length;
+    }
+
+    // ============================================
+    // QUERIES
+    // ============================================
+
+    /**
+     * Accepted locations within the radius, nearest first.
+     *
+     * Runs as a k-nearest search bounded by the radius, so a limit far below
+     * the number of locations in the radius never measures all of them.
+     *
+     * @param limit  maximum number of hits
+     * @param filter evaluated nearest first, for candidates inside the radius only
+     */
+    public List<Hit> withinRadius(double latitude, double longitude, double radiusMeters, int limit,
+            Predicate<Location> filter) {
+        return nearest(latitude, longitude, limit, radiusMeters, filter);
+    }
+
+    /**
+     * The k nearest accepted locations, nearest first, searching at most
+     * maxRadiusMeters away.
+     *
+     * @param filter evaluated at most once per location
+     */
+    public List<Hit> nearest(double latitude, double longitude, int k, double maxRadiusMeters,
+            Predicate<Location> filter) {
+        Snapshot current = snapshot;
+        BitSet tested = new BitSet();
+        BitSet accepted = new BitSet();
+        double radius = Math.min(INITIAL_NEAREST_RADIUS_METERS, maxRadiusMeters);
+        while (true) {
+            List<Hit> hits = new ArrayList<>(k);
+            Candidates candidates = candidates(current, latitude, longitude, radius);
+            while (hits.size() < k && !candidates.isEmpty()) {
+                double distance = candidates.nearestDistance();
+                int position = candidates.poll();
+                if (!tested.get(position)) {
+                    tested.set(position);
+                    accepted.set(position, filter.test(current.locations()[position]));
+                }
+                if (accepted.get(position)) {
+                    hits.add(new Hit(current.locations()[position], distance));
+                }
+            }
+            // Every location within the radius was considered, so k hits are the k nearest
+            if (hits.size() >= k || radius >= maxRadiusMeters || current.locations().length == 0) {
+                return hits;
+            }
+            radius = Math.min(radius * RADIUS_GROWTH, maxRadiusMeters);
+        }
+    }
+
+    /**
+     * Every location within the radius.
+     */
+    private static Candidates candidates(Snapshot current, double latitude, double longitude, double radiusMeters) {
+        Candidates candidates = new Candidates();
+        // Cheap bounding-box test before the exact distance
+        double latSpan = radiusMeters / METERS_PER_DEGREE;
+        double farthestLatitude = Math.abs(latitude) + latSpan;
+        double lonSpan = farthestLatitude >= 90.0 ? 360.0
+                : latSpan / Math.cos(Math.toRadians(farthestLatitude));
+        Box box = new Box(latitude, longitude, latSpan, lonSpan, radiusMeters);
+
+        int level = level(latitude, radiusMeters);
+        if (level < 2) {
+            // Cells wrap around the globe; nothing to prune
+            scan(current, 0, current.codes().length, box, candidates);
+        } else {
+            int shift = BITS - level;
+            int cells = 1 << level;
+            int cellX = cellX(longitude) >> shift;
+            int cellY = cellY(latitude) >> shift;
+            for (int dx = -1; dx <= 1; dx++) {
+                // Longitude wraps at the antimeridian, latitude stops at the poles
+                int x = Math.floorMod(cellX + dx, cells);
+                for (int dy = -1; dy <= 1; dy++) {
+                    int y = cellY + dy;
+                    if (y < 0 || y >= cells) {
+                        continue;
+                    }
+                    long prefix = interleave(x, y);
+                    long from = prefix << (2 * shift);
+                    long to = (prefix + 1) << (2 * shift);
+                    scan(current, lowerBound(current.codes(), from), lowerBound(current.codes(), to), box, candidates);
+                }
+            }
+        }
+        candidates.heapify();
+        return candidates;
+    }
+
+    private record Box(double latitude, double longitude, double latSpan, double lonSpan, double radiusMeters) {
+    }
+
+    private static void scan(Snapshot current, int from, int to, Box box, Candidates candidates) {
+        double[] latitudes = current.latitudes();
+        double[] longitudes = current.longitudes();
+        for (int i = from; i < to; i++) {
+            if (Math.abs(latitudes[i] - box.latitude()) > box.latSpan()) {
+                continue;
+            }
+            double lonDelta = Math.abs(longitudes[i] - box.longitude());
+            if (Math.min(lonDelta, 360.0 - lonDelta) > box.lonSpan()) {
+                continue;
+            }
+            double distance = distanceMeters(box.latitude(), box.longitude(), latitudes[i], longitudes[i]);
+            if (distance <= box.radiusMeters()) {
+                candidates.add(i, distance);
+            }
+        }
+    }
+
+    /**
+     * Snapshot positions with their distances, taken nearest first from a
+     * binary min-heap: a query that stops after a few hits pays for ordering
+     * those few only. Ties go to the lower position, i.e. the lower location
+     * id among equal coordinates.
+     */
+    private static final class Candidates {
+        private int[] positions = new int[64];
+        private double[] distances = new double[64];
+        private int size;
+
+        private void add(int position, double distance) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+                distances = Arrays.copyOf(distances, size * 2);
+            }
+            positions[size] = position;
+            distances[size] = distance;
+            size++;
+        }
+
+        private void heapify() {
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private double nearestDistance() {
+            return distances[0];
+        }
+
+        /**
+         * Remove the nearest candidate.
+         *
+         * @return its snapshot position
+         */
+        private int poll() {
+            int position = positions[0];
+            size--;
+            positions[0] = positions[size];
+            distances[0] = distances[size];
+            siftDown(0);
+            return position;
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && less(left, smallest)) {
+                    smallest = left;
+                }
+                if (right < size && less(right, smallest)) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                int position = positions[i];
+                double distance = distances[i];
+                positions[i] = positions[smallest];
+                distances[i] = distances[smallest];
+                positions[smallest] = position;
+                distances[smallest] = distance;
+                i = smallest;
+            }
+        }
+
+        private boolean less(int a, int b) {
+            return distances[a] < distances[b] || (distances[a] == distances[b] && positions[a] < positions[b]);
+        }
+    }
+
+    // ============================================
+    // GEOHASH
+    // ============================================
+
+    /**
+     * Finest level (bits per axis) whose cells are at least radiusMeters wide
+     * and high everywhere within radiusMeters of the latitude.
+     */
+    private static int level(double latitude, double radiusMeters) {
+        if (radiusMeters <= 0) {
+            return BITS;
+        }
+        double radiusDegrees = radiusMeters / METERS_PER_DEGREE;
+        double farthestLatitude = Math.min(Math.abs(latitude) + radiusDegrees, 90.0);
+        double minCos = Math.cos(Math.toRadians(farthestLatitude));
+        double latLevel = Math.log(180.0 / radiusDegrees) / Math.log(2);
+        double lonLevel = minCos <= 1e-9 ? 0 : Math.log(360.0 * minCos / radiusDegrees) / Math.log(2);
+        int level = (int) Math.floor(Math.min(latLevel, lonLevel));
+        return Math.max(0, Math.min(BITS, level));
+    }
+
+    private static long geohash(Location location) {
+        return interleave(cellX(location.longitude()), cellY(location.latitude()));
+    }
+
+    private static int cellX(double longitude) {
+        return cell((longitude + 180.0) / 360.0);
+    }
+
+    private static int cellY(double latitude) {
+        return cell((latitude + 90.0) / 180.0);
+    }
+
+    private static int cell(double fraction) {
+        long cell = (long) Math.floor(fraction * (1 << BITS));
+        return (int) Math.max(0, Math.min((1 << BITS) - 1, cell));
+    }
+
+    /**
+     * Longitude bits on the odd positions, latitude bits on the even ones
+     * (longitude first, as in standard geohashes).
+     */
+    private static long interleave(int x, int y) {
+        return (spread(x) << 1) | spread(y);
+    }
+
+    private static long spread(int value) {
+        long v = value & 0xFFFFFFFFL;
+        v = (v | (v << 16)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v << 8)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v << 2)) & 0x3333333333333333L;
+        v = (v | (v << 1)) & 0x5555555555555555L;
+        return v;
+    }
+
+    /**
+     * First index whose code is >= key.
+     */
+    private static int lowerBound(long[] codes, long key) {
+        int low = 0;
+        int high = codes.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (codes[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Great-circle (haversine) distance.
+     */
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,206 @@
+package com.exploresg.fleetservice.engine;
+
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.LengthOfRentalDiscount;
+import com.exploresg.fleetservice.model.PeakPeriod;
+import com.exploresg.fleetservice.model.RatePlan;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * RatePlans compiled into per-day price tables for O(1) quotes.
+ *
+ * Every plan becomes an array of cumulative day prices (cents) over the
+ * booking window [today, today + horizonDays], so the price of any period is
+ * prefix[end] - prefix[start]; the length-of-rental discount is then looked
+ * up by binary search over the plan's few thresholds. Weekend and peak rules
+ * are evaluated once per day at compile time, never per quote.
+ *
+ * Models are mapped to their own plan or else their category's plan. A
+ * category plan is compiled once and shared by all its models.
+ *
+ * Recompiled when the plans change and when the window rolls at midnight;
+ * a catalogue change only remaps models (CatalogueListener). Readers use the
+ * current immutable Tables without locking.
+ */
+@Slf4j
+@Component
+public class PriceTables implements CatalogueListener {
+
+    /**
+     * Price of a rental, in cents.
+     */
+    public record Quote(int days, long subtotal, int discountPercent, long discount, long total) {
+    }
+
+    private static final int NO_PEAK = Integer.MIN_VALUE;
+
+    private final int horizonDays;
+
+    private volatile Tables tables = new Tables(LocalDate.now().toEpochDay(), Map.of());
+
+    // Inputs of the current tables; guarded by this
+    private List<RatePlan> plans = List.of();
+    private List<CarModel> models = List.of();
+    private Map<Long, CompiledPlan> compiledPlans = Map.of();
+    private long windowStart = LocalDate.now().toEpochDay();
+
+    private record Tables(long windowStart, Map<Long, CompiledPlan> byModel) {
+    }
+
+    /**
+     * @param prefix        prefix[d] = sum of the day prices of window days 0..d-1
+     * @param discountDays  minimum rental days of the discounts, ascending
+     * @param discounts     discount percent for discountDays[i]
+     */
+    private record CompiledPlan(long[] prefix, int[] discountDays, int[] discounts) {
+
+        private Quote quote(int fromDay, int toDay) {
+            int days = toDay - fromDay;
+            long subtotal = prefix[toDay] - prefix[fromDay];
+            int at = Arrays.binarySearch(discountDays, days);
+            // Largest threshold <= days
+            int index = at >= 0 ? at : -at - 2;
+            int percent = index >= 0 ? discounts[index] : 0;
+            long discount = (subtotal * percent + 50) / 100;
+            return new Quote(days, subtotal, percent, discount, subtotal - discount);
+        }
+    }
+
+    public PriceTables(@Value("${fleet.availability.horizon-days:548}") int horizonDays) {
+        this.horizonDays = horizonDays;
+    }
+
+    // ============================================
+    // QUOTES
+    // ============================================
+
+    /**
+     * @return empty if the model has no rate plan or the period is outside the window
+     */
+    public Optional<Quote> quote(long carModelId, LocalDate startDate, LocalDate endDate) {
+        Tables current = tables;
+        CompiledPlan plan = current.byModel().get(carModelId);
+        long from = startDate.toEpochDay() - current.windowStart();
+        long to = endDate.toEpochDay() - current.windowStart();
+        if (plan == null || from < 0 || to > horizonDays || from >= to) {
+            return Optional.empty();
+        }
+        return Optional.of(plan.quote((int) from, (int) to));
+    }
+
+    public LocalDate windowStart() {
+        return LocalDate.ofEpochDay(tables.windowStart());
+    }
+
+    public LocalDate horizonEnd() {
+        return LocalDate.ofEpochDay(tables.windowStart() + horizonDays);
+    }
+
+    // ============================================
+    // COMPILATION
+    // ============================================
+
+    /**
+     * Replace all plans. Plans must have their collections loaded.
+     */
+    public synchronized void plansChanged(List<RatePlan> plans) {
+        this.plans = List.copyOf(plans);
+        recompile();
+    }
+
+    /**
+     * Move the window to start at the given day.
+     */
+    public synchronized void rollTo(LocalDate today) {
+        if (today.toEpochDay() != windowStart) {
+            windowStart = today.toEpochDay();
+            recompile();
+        }
+    }
+
+    @Override
+    public synchronized void catalogueChanged(List<CarModel> models, long version) {
+        this.models = models;
+        publish();
+    }
+
+    private void recompile() {
+        long started = System.nanoTime();
+        Map<Long, CompiledPlan> compiled = new HashMap<>(plans.size() * 2);
+        for (RatePlan plan : plans) {
+            compiled.put(plan.getId(), compile(plan));
+        }
+        compiledPlans = compiled;
+        publish();
+        log.info("Compiled {} rate plans over {} days in {} ms",
+                plans.size(), horizonDays, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void publish() {
+        Map<Long, CompiledPlan> byModelPlan = new HashMap<>();
+        Map<Category, CompiledPlan> byCategory = new EnumMap<>(Category.class);
+        for (RatePlan plan : plans) {
+            if (plan.getCarModelId() != null) {
+                byModelPlan.put(plan.getCarModelId(), compiledPlans.get(plan.getId()));
+            } else if (plan.getCategory() != null) {
+                byCategory.put(plan.getCategory(), compiledPlans.get(plan.getId()));
+            }
+        }
+        Map<Long, CompiledPlan> byModel = new HashMap<>(models.size() * 2);
+        for (CarModel model : models) {
+            CompiledPlan plan = byModelPlan.getOrDefault(model.getId(), byCategory.get(model.getCategory()));
+            if (plan != null) {
+                byModel.put(model.getId(), plan);
+            }
+        }
+        tables = new Tables(windowStart, byModel);
+    }
+
+    private CompiledPlan compile(RatePlan plan) {
+        long dailyRate = plan.getDailyRate().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+
+        // Highest peak surcharge of each day; NO_PEAK where no period applies, so a
+        // negative peak (off-season discount) is not lost to a default of 0
+        int[] peakPercent = new int[horizonDays];
+        Arrays.fill(peakPercent, NO_PEAK);
+        for (PeakPeriod peak : plan.getPeakPeriods()) {
+            long from = Math.max(peak.getStartDate().toEpochDay() - windowStart, 0);
+            long to = Math.min(peak.getEndDate().toEpochDay() - windowStart, horizonDays);
+            for (long day = from; day < to; day++) {
+                peakPercent[(int) day] = Math.max(peakPercent[(int) day], peak.getSurchargePercent());
+            }
+        }
+
+        long[] prefix = new long[horizonDays + 1];
+        for (int day = 0; day < horizonDays; day++) {
+            DayOfWeek dayOfWeek = LocalDate.ofEpochDay(windowStart + day).getDayOfWeek();
+            boolean weekend = dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY;
+            long percent = 100L + (weekend ? plan.getWeekendSurchargePercent() : 0)
+                    + (peakPercent[day] == NO_PEAK ? 0 : peakPercent[day]);
+            // PricingService rejects plans going to 0 or below; this covers plans saved before it did
+            percent = Math.max(percent, 1);
+            prefix[day + 1] = prefix[day] + (dailyRate * percent + 50) / 100;
+        }
+
+        List<LengthOfRentalDiscount> discounts = plan.getLengthOfRentalDiscounts().stream()
+                .sorted(Comparator.comparingInt(LengthOfRentalDiscount::getMinDays))
+                .toList();
+        return new CompiledPlan(prefix,
+                discounts.stream().mapToInt(LengthOfRentalDiscount::getMinDays).toArray(),
+                discounts.stream().mapToInt(LengthOfRentalDiscount::getDiscountPercent).toArray());
+    }
+}
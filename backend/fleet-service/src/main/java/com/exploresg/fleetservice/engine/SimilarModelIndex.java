@@ -0,0 +1,351 @@
+package com.exploresg.fleetservice.engine;
+
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.FuelType;
+import com.exploresg.fleetservice.model.Transmission;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed "similar cars" for every CarModel.
+ *
+ * Each model becomes a feature vector in which every feature spans 0..1:
+ * - seats, engineCapacityCc, rangeInKm, topSpeedKph, zeroToHundredSec scaled
+ *   between the catalogue minimum and maximum (no engine counts as 0, other
+ *   missing numbers sit mid-range)
+ * - category, fuelType, transmission one-hot, scaled so that two different
+ *   values are exactly 1 apart
+ * Neighbours are the models at the smallest Euclidean distance, reported as
+ * similarity 1 / (1 + distance).
+ *
+ * The top neighbours of all models are computed on a background thread,
+ * spread over a ForkJoinPool, and swapped in as an immutable state; lookups
+ * only read memory. Catalogue changes arriving while a computation runs are
+ * coalesced into one follow-up computation.
+ *
+ * Recomputation is incremental while the feature scales stay the same:
+ * - changed and new models get a full scan
+ * - models whose neighbour list contains a changed or removed model get a full scan
+ * - every other model keeps its list and only merges in the changed models
+ * A change of a scale (new minimum/maximum) moves every vector, so everything
+ * is recomputed.
+ */
+@Slf4j
+@Component
+public class SimilarModelIndex implements CatalogueListener {
+
+    public record Neighbour(CarModel model, double similarity) {
+    }
+
+    private static final List<Function<CarModel, Number>> NUMERIC_FEATURES = List.of(
+            CarModel::getSeats,
+            CarModel::getEngineCapacityCc,
+            CarModel::getRangeInKm,
+            CarModel::getTopSpeedKph,
+            CarModel::getZeroToHundredSec);
+    private static final int ENGINE_FEATURE = 1;
+    // Two different one-hot values are sqrt(2 * ONE_HOT^2) = 1 apart
+    private static final float ONE_HOT = (float) Math.sqrt(0.5);
+    private static final int CATEGORY_OFFSET = NUMERIC_FEATURES.size();
+    private static final int FUEL_TYPE_OFFSET = CATEGORY_OFFSET + Category.values().length;
+    private static final int TRANSMISSION_OFFSET = FUEL_TYPE_OFFSET + FuelType.values().length;
+    private static final int DIMENSIONS = TRANSMISSION_OFFSET + Transmission.values().length;
+
+    private final int neighbourCount;
+    private final ForkJoinPool workers;
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "similar-models");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicReference<Pending> pending = new AtomicReference<>();
+
+    private volatile State state = State.EMPTY;
+
+    private record Pending(List<CarModel> models, long version) {
+    }
+
+    /**
+     * Min/max per numeric feature over the catalogue.
+     */
+    private record Scale(double[] min, double[] max) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Scale scale && Arrays.equals(min, scale.min) && Arrays.equals(max, scale.max);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(min) + Arrays.hashCode(max);
+        }
+    }
+
+    /**
+     * Neighbours of models[i] are models[neighbours[i][k]] at distances[i][k], nearest first.
+     */
+    private record State(long version, CarModel[] models, Map<Long, Integer> positions, Scale scale,
+            float[][] vectors, int[][] neighbours, float[][] distances) {
+
+        private static final State EMPTY = new State(0, new CarModel[0], Map.of(), null,
+                new float[0][], new int[0][], new float[0][]);
+    }
+
+    public SimilarModelIndex(
+            @Value("${fleet.similar-models.neighbours:10}") int neighbourCount,
+            @Value("${fleet.similar-models.parallelism:0}") int parallelism) {
+        this.neighbourCount = neighbourCount;
+        this.workers = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void close() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    // ============================================
+    // LOOKUP
+    // ============================================
+
+    /**
+     * @return nearest first; empty for an unknown model or before the first computation finished
+     */
+    public List<Neighbour> neighbours(long carModelId, int limit) {
+        State current = state;
+        Integer position = current.positions().get(carModelId);
+        if (position == null) {
+            return List.of();
+        }
+        int[] neighbours = current.neighbours()[position];
+        float[] distances = current.distances()[position];
+        List<Neighbour> result = new ArrayList<>(Math.min(limit, neighbours.length));
+        for (int k = 0; k < neighbours.length && k < limit; k++) {
+            result.add(new Neighbour(current.models()[neighbours[k]], 1 / (1 + Math.sqrt(distances[k]))));
+        }
+        return result;
+    }
+
+    /**
+     * Catalogue version the neighbours were computed for (0 before the first computation).
+     */
+    public long version() {
+        return state.version();
+    }
+
+    // ============================================
+    // COMPUTATION
+    // ============================================
+
+    @Override
+    public void catalogueChanged(List<CarModel> models, long version) {
+        pending.set(new Pending(models, version));
+        coordinator.execute(this::computePending);
+    }
+
+    private void computePending() {
+        Pending next = pending.getAndSet(null);
+        if (next == null || next.version() == state.version()) {
+            return;
+        }
+        try {
+            long started = System.nanoTime();
+            state = compute(state, next);
+            log.info("Similar models computed for catalogue version {} ({} models) in {} ms",
+                    next.version(), next.models().size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Similar models computation for catalogue version {} failed", next.version(), e);
+        }
+    }
+
+    private State compute(State previous, Pending next) {
+        CarModel[] models = next.models().toArray(new CarModel[0]);
+        int count = models.length;
+        Map<Long, Integer> positions = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            positions.put(models[i].getId(), i);
+        }
+        Scale scale = scale(models);
+        boolean incremental = scale.equals(previous.scale());
+
+        // Positions (new numbering) of changed/new models; ids of changed/removed ones
+        boolean[] changed = new boolean[count];
+        List<Integer> changedPositions = new ArrayList<>();
+        Set<Long> stale = new HashSet<>();
+        float[][] vectors = new float[count][];
+        for (int i = 0; i < count; i++) {
+            Integer old = previous.positions().get(models[i].getId());
+            if (incremental && old != null && previous.models()[old].equals(models[i])) {
+                vectors[i] = previous.vectors()[old];
+            } else {
+                vectors[i] = vector(models[i], scale);
+                changed[i] = true;
+                changedPositions.add(i);
+                if (old != null) {
+                    stale.add(models[i].getId());
+                }
+            }
+        }
+        for (CarModel old : previous.models()) {
+            if (!positions.containsKey(old.getId())) {
+                stale.add(old.getId());
+            }
+        }
+
+        int[][] neighbours = new int[count][];
+        float[][] distances = new float[count][];
+        int[] changedArray = changedPositions.stream().mapToInt(Integer::intValue).toArray();
+        workers.submit(() -> IntStream.range(0, count).parallel().forEach(i -> {
+            Integer old = changed[i] ? null : previous.positions().get(models[i].getId());
+            TopNeighbours top = new TopNeighbours(Math.min(neighbourCount, count - 1));
+            if (old == null || !keep(previous, old, stale)) {
+                for (int j = 0; j < count; j++) {
+                    if (j != i) {
+                        top.offer(j, distance(vectors[i], vectors[j]), models[j].getId());
+                    }
+                }
+            } else {
+                int[] oldNeighbours = previous.neighbours()[old];
+                float[] oldDistances = previous.distances()[old];
+                for (int k = 0; k < oldNeighbours.length; k++) {
+                    int j = positions.get(previous.models()[oldNeighbours[k]].getId());
+                    top.offer(j, oldDistances[k], models[j].getId());
+                }
+                for (int j : changedArray) {
+                    top.offer(j, distance(vectors[i], vectors[j]), models[j].getId());
+                }
+            }
+            neighbours[i] = top.positions();
+            distances[i] = top.distances();
+        })).join();
+
+        log.debug("Similar models: {} of {} models changed, incremental={}", changedArray.length, count, incremental);
+        return new State(next.version(), models, Map.copyOf(positions), scale, vectors, neighbours, distances);
+    }
+
+    /**
+     * True if the old neighbour list is still valid: no neighbour changed or disappeared.
+     * An old list shorter than the wanted length is only valid if it held every other model.
+     */
+    private boolean keep(State previous, int old, Set<Long> stale) {
+        int[] oldNeighbours = previous.neighbours()[old];
+        if (oldNeighbours.length < neighbourCount && oldNeighbours.length < previous.models().length - 1) {
+            return false;
+        }
+        for (int neighbour : oldNeighbours) {
+            if (stale.contains(previous.models()[neighbour].getId())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Bounded list of the nearest positions, nearest first; ties broken by model id.
+     */
+    private static final class TopNeighbours {
+        private final int[] positions;
+        private final float[] distances;
+        private final long[] ids;
+        private int size;
+
+        private TopNeighbours(int capacity) {
+            positions = new int[Math.max(capacity, 0)];
+            distances = new float[positions.length];
+            ids = new long[positions.length];
+        }
+
+        private void offer(int position, float distance, long id) {
+            int at = size;
+            while (at > 0 && (distances[at - 1] > distance || (distances[at - 1] == distance && ids[at - 1] > id))) {
+                at--;
+            }
+            if (at == positions.length) {
+                return;
+            }
+            int moved = Math.min(size, positions.length - 1) - at;
+            System.arraycopy(positions, at, positions, at + 1, moved);
+            System.arraycopy(distances, at, distances, at + 1, moved);
+            System.arraycopy(ids, at, ids, at + 1, moved);
+            positions[at] = position;
+            distances[at] = distance;
+            ids[at] = id;
+            size = Math.min(size + 1, positions.length);
+        }
+
+        private int[] positions() {
+            return Arrays.copyOf(positions, size);
+        }
+
+        private float[] distances() {
+            return Arrays.copyOf(distances, size);
+        }
+    }
+
+    // ============================================
+    // FEATURES
+    // ============================================
+
+    private static Scale scale(CarModel[] models) {
+        double[] min = new double[NUMERIC_FEATURES.size()];
+        double[] max = new double[NUMERIC_FEATURES.size()];
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+        for (CarModel model : models) {
+            for (int f = 0; f < NUMERIC_FEATURES.size(); f++) {
+                Number value = NUMERIC_FEATURES.get(f).apply(model);
+                if (value != null) {
+                    min[f] = Math.min(min[f], value.doubleValue());
+                    max[f] = Math.max(max[f], value.doubleValue());
+                }
+            }
+        }
+        return new Scale(min, max);
+    }
+
+    private static float[] vector(CarModel model, Scale scale) {
+        float[] vector = new float[DIMENSIONS];
+        for (int f = 0; f < NUMERIC_FEATURES.size(); f++) {
+            Number value = NUMERIC_FEATURES.get(f).apply(model);
+            double range = scale.max()[f] - scale.min()[f];
+            if (value == null) {
+                vector[f] = f == ENGINE_FEATURE ? 0f : 0.5f;
+            } else {
+                vector[f] = range > 0 ? (float) ((value.doubleValue() - scale.min()[f]) / range) : 0.5f;
+            }
+        }
+        vector[CATEGORY_OFFSET + model.getCategory().ordinal()] = ONE_HOT;
+        vector[FUEL_TYPE_OFFSET + model.getFuelType().ordinal()] = ONE_HOT;
+        vector[TRANSMISSION_OFFSET + model.getTransmission().ordinal()] = ONE_HOT;
+        return vector;
+    }
+
+    /**
+     * Squared Euclidean distance.
+     */
+    private static float distance(float[] a, float[] b) {
+        float sum = 0;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            float difference = a[d] - b[d];
+            sum += difference * difference;
+        }
+        return sum;
+    }
+}
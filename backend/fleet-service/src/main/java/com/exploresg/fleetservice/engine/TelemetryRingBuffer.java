@@ -0,0 +1,108 @@
+package com.exploresg.fleetservice.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded ring of telemetry readings with many writers and one reader, and
+ * no locks.
+ *
+ * A writer claims the next sequence number by compare-and-set on the tail,
+ * fills the slot (sequence mod capacity) and publishes it by storing
+ * sequence + 1 in the slot's marker with release semantics. The reader takes
+ * slots in sequence order as long as they are published, then moves the head
+ * past them, which frees the slots for writers. A writer never waits for the
+ * reader: when the ring is full the reading is refused.
+ *
+ * Readings are stored as parallel primitive arrays, so the ring allocates
+ * nothing after construction.
+ */
+public final class TelemetryRingBuffer {
+
+    /**
+     * Receives drained readings.
+     */
+    @FunctionalInterface
+    public interface Sink {
+        void accept(long recordedAt, double stateOfCharge, double odometerKm);
+    }
+
+    private final int mask;
+    private final long[] recordedAt;
+    private final double[] stateOfCharge;
+    private final double[] odometerKm;
+    private final AtomicLongArray published;
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Next sequence to read; written by the reader only.
+     */
+    private volatile long head;
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public TelemetryRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 20) {
+            throw new IllegalArgumentException("capacity must be between 1 and " + (1 << 20));
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.recordedAt = new long[size];
+        this.stateOfCharge = new double[size];
+        this.odometerKm = new double[size];
+        this.published = new AtomicLongArray(size);
+    }
+
+    /**
+     * Add a reading. Safe to call from any number of threads.
+     *
+     * @param recordedAt epoch millis
+     * @param odometerKm NaN if the reading has none
+     * @return false if the ring is full
+     */
+    public boolean offer(long recordedAt, double stateOfCharge, double odometerKm) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head > mask) {
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+        int slot = (int) sequence & mask;
+        this.recordedAt[slot] = recordedAt;
+        this.stateOfCharge[slot] = stateOfCharge;
+        this.odometerKm[slot] = odometerKm;
+        published.lazySet(slot, sequence + 1);
+        return true;
+    }
+
+    /**
+     * Hand every published reading to the sink, oldest first. Stops at the
+     * first claimed slot that is not published yet; the rest follows on the
+     * next drain. Only one thread may drain.
+     *
+     * @return readings drained
+     */
+    public int drain(Sink sink) {
+        long next = head;
+        int drained = 0;
+        while (true) {
+            int slot = (int) next & mask;
+            if (published.get(slot) != next + 1) {
+                break;
+            }
+            sink.accept(recordedAt[slot], stateOfCharge[slot], odometerKm[slot]);
+            next++;
+            drained++;
+        }
+        if (drained > 0) {
+            head = next;
+        }
+        return drained;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
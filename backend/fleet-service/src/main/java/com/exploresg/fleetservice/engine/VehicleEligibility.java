@@ -0,0 +1,19 @@
+package com.exploresg.fleetservice.engine;
+
+/**
+ * Veto on offering a vehicle that is free, e.g. because it is not ready for
+ * the pickup day.
+ *
+ * Consulted by the BookingEngine for every candidate vehicle while it holds
+ * the model's lock, when it picks a vehicle for a new booking or counts free
+ * vehicles. Bookings restored from storage are never vetoed. Implementations
+ * must be fast and must never call back into the engine.
+ */
+public interface VehicleEligibility {
+
+    /**
+     * @param startDay pickup day (epoch day)
+     * @return false if the vehicle must not be offered for a booking starting that day
+     */
+    boolean isOfferable(long vehicleId, long startDay);
+}
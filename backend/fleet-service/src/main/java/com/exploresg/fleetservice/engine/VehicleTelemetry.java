@@ -0,0 +1,285 @@
+package com.exploresg.fleetservice.engine;
+
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.FuelType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory telemetry of electric vehicles: state of charge and odometer.
+ *
+ * Readings go into a TelemetryRingBuffer per vehicle, so ingesting threads
+ * never contend on a lock. A single drain (see TelemetryService) moves them
+ * out of the rings, keeps the latest reading per vehicle and rolls readings
+ * up into one Minute per vehicle and minute. A minute is handed out once it
+ * is fleet.telemetry.late-grace old; readings for minutes handed out already
+ * only update the latest state.
+ *
+ * As a VehicleEligibility it keeps EVs whose estimated range (CarModel
+ * rangeInKm x state of charge) is below fleet.telemetry.min-range-km out of
+ * bookings starting within fleet.telemetry.charge-days - there is not enough
+ * time to charge them. Vehicles without a fresh reading (fleet.telemetry.stale-after)
+ * or whose model has no rangeInKm are never vetoed. Each drain reports the
+ * models of vehicles that were vetoed or offered again since the last one, by
+ * a reading, a reading going stale or a new day entering the charge window,
+ * so counts pushed to clients can be re-read.
+ */
+@Component
+public class VehicleTelemetry implements VehicleEligibility, CatalogueListener {
+
+    private static final long MINUTE_MILLIS = 60_000;
+
+    /**
+     * Latest reading of a vehicle.
+     *
+     * @param recordedAt epoch millis
+     * @param odometerKm NaN if no reading had one yet
+     */
+    public record State(long recordedAt, double stateOfCharge, double odometerKm) {
+    }
+
+    /**
+     * Readings of one vehicle within one minute.
+     *
+     * @param minute     start of the minute, epoch millis
+     * @param odometerKm latest odometer value of the minute, NaN if none
+     */
+    public record Minute(long vehicleId, long minute, int samples, double stateOfChargeMin,
+            double stateOfChargeMax, double stateOfChargeAvg, double stateOfChargeLast, double odometerKm) {
+    }
+
+    /**
+     * Result of one drain.
+     *
+     * @param readings           readings taken out of the rings
+     * @param late               readings for minutes that were handed out already
+     * @param eligibilityChanged models with a vehicle vetoed or offered again since the last drain
+     */
+    public record Drain(List<Minute> minutes, int readings, int late, Set<Long> eligibilityChanged) {
+    }
+
+    private final int bufferSize;
+    private final long lateGraceMillis;
+    private final long staleAfterMillis;
+    private final double minRangeKm;
+    private final int chargeDays;
+
+    private final ConcurrentHashMap<Long, Track> tracks = new ConcurrentHashMap<>();
+
+    /**
+     * carModelId -> rangeInKm, electric models with a range only
+     */
+    private volatile Map<Long, Integer> ranges = Map.of();
+
+    private long drainedDay = Long.MIN_VALUE; // drain only
+
+    public VehicleTelemetry(@Value("${fleet.telemetry.buffer-size:256}") int bufferSize,
+            @Value("${fleet.telemetry.late-grace:PT30S}") Duration lateGrace,
+            @Value("${fleet.telemetry.stale-after:PT30M}") Duration staleAfter,
+            @Value("${fleet.telemetry.min-range-km:50}") double minRangeKm,
+            @Value("${fleet.telemetry.charge-days:1}") int chargeDays) {
+        this.bufferSize = bufferSize;
+        this.lateGraceMillis = lateGrace.toMillis();
+        this.staleAfterMillis = staleAfter.toMillis();
+        this.minRangeKm = minRangeKm;
+        this.chargeDays = chargeDays;
+    }
+
+    private static final class Track {
+        private final long vehicleId;
+        private final long carModelId;
+        private final TelemetryRingBuffer ring;
+        private volatile State latest;
+
+        // Drain thread only
+        private final TreeMap<Long, Aggregate> open = new TreeMap<>();
+        private long handedOutBefore;
+        private boolean lowOnCharge;
+
+        private Track(long vehicleId, long carModelId, int bufferSize) {
+            this.vehicleId = vehicleId;
+            this.carModelId = carModelId;
+            this.ring = new TelemetryRingBuffer(bufferSize);
+        }
+    }
+
+    private static final class Aggregate {
+        private int samples;
+        private double min = Double.MAX_VALUE;
+        private double max = -Double.MAX_VALUE;
+        private double sum;
+        private long lastAt = Long.MIN_VALUE;
+        private double last;
+        private long odometerAt = Long.MIN_VALUE;
+        private double odometerKm = Double.NaN;
+
+        private void add(long recordedAt, double stateOfCharge, double odometer) {
+            samples++;
+            min = Math.min(min, stateOfCharge);
+            max = Math.max(max, stateOfCharge);
+            sum += stateOfCharge;
+            if (recordedAt >= lastAt) {
+                lastAt = recordedAt;
+                last = stateOfCharge;
+            }
+            if (!Double.isNaN(odometer) && recordedAt >= odometerAt) {
+                odometerAt = recordedAt;
+                odometerKm = odometer;
+            }
+        }
+    }
+
+    // ============================================
+    // INGESTION
+    // ============================================
+
+    /**
+     * Start keeping telemetry for a vehicle. Idempotent.
+     */
+    public void track(long vehicleId, long carModelId) {
+        tracks.computeIfAbsent(vehicleId, id -> new Track(id, carModelId, bufferSize));
+    }
+
+    public boolean isTracked(long vehicleId) {
+        return tracks.containsKey(vehicleId);
+    }
+
+    /**
+     * Buffer a reading. Lock-free; safe from any thread.
+     *
+     * @param recordedAt epoch millis
+     * @param odometerKm NaN if the reading has none
+     * @return false if the vehicle is not tracked or its buffer is full
+     */
+    public boolean offer(long vehicleId, long recordedAt, double stateOfCharge, double odometerKm) {
+        Track track = tracks.get(vehicleId);
+        return track != null && track.ring.offer(recordedAt, stateOfCharge, odometerKm);
+    }
+
+    /**
+     * Take the buffered readings of every vehicle, update the latest states
+     * and hand out the minutes that are complete. Minutes of one vehicle come
+     * out in order.
+     *
+     * @param now epoch millis; Long.MAX_VALUE hands out every open minute
+     */
+    public synchronized Drain drain(long now) {
+        List<Minute> minutes = new ArrayList<>();
+        int readings = 0;
+        int[] late = new int[1];
+        Set<Long> eligibilityChanged = new HashSet<>();
+        long clock = System.currentTimeMillis();
+        long today = LocalDate.now().toEpochDay();
+        // A new day moves the charge window: vetoed vehicles drop out of further periods
+        boolean newDay = today != drainedDay;
+        drainedDay = today;
+        for (Track track : tracks.values()) {
+            State[] latest = { track.latest };
+            readings += track.ring.drain((recordedAt, stateOfCharge, odometerKm) -> {
+                State current = latest[0];
+                if (current == null || recordedAt >= current.recordedAt()) {
+                    latest[0] = new State(recordedAt, stateOfCharge,
+                            Double.isNaN(odometerKm) && current != null ? current.odometerKm() : odometerKm);
+                }
+                long minute = Math.floorDiv(recordedAt, MINUTE_MILLIS) * MINUTE_MILLIS;
+                if (minute < track.handedOutBefore) {
+                    late[0]++;
+                    return;
+                }
+                track.open.computeIfAbsent(minute, m -> new Aggregate()).add(recordedAt, stateOfCharge, odometerKm);
+            });
+            track.latest = latest[0];
+            boolean low = isLowOnCharge(track, clock);
+            if (low != track.lowOnCharge || (low && newDay)) {
+                eligibilityChanged.add(track.carModelId);
+            }
+            track.lowOnCharge = low;
+
+            while (!track.open.isEmpty()
+                    && (now == Long.MAX_VALUE || track.open.firstKey() + MINUTE_MILLIS + lateGraceMillis <= now)) {
+                Map.Entry<Long, Aggregate> entry = track.open.pollFirstEntry();
+                Aggregate aggregate = entry.getValue();
+                minutes.add(new Minute(track.vehicleId, entry.getKey(), aggregate.samples, aggregate.min,
+                        aggregate.max, aggregate.sum / aggregate.samples, aggregate.last, aggregate.odometerKm));
+                track.handedOutBefore = entry.getKey() + MINUTE_MILLIS;
+            }
+        }
+        return new Drain(minutes, readings, late[0], eligibilityChanged);
+    }
+
+    // ============================================
+    // QUERIES
+    // ============================================
+
+    public Optional<State> latest(long vehicleId) {
+        Track track = tracks.get(vehicleId);
+        return track == null ? Optional.empty() : Optional.ofNullable(track.latest);
+    }
+
+    /**
+     * Range left on the latest charge.
+     *
+     * @return empty without a reading or if the model has no rangeInKm
+     */
+    public Optional<Double> estimatedRangeKm(long vehicleId) {
+        Track track = tracks.get(vehicleId);
+        State state = track == null ? null : track.latest;
+        Integer range = track == null ? null : ranges.get(track.carModelId);
+        if (state == null || range == null) {
+            return Optional.empty();
+        }
+        return Optional.of(range * state.stateOfCharge() / 100);
+    }
+
+    /**
+     * @return true if EVs may be vetoed for bookings starting that day
+     */
+    public boolean isWithinChargeWindow(long startDay) {
+        return startDay < LocalDate.now().toEpochDay() + chargeDays;
+    }
+
+    @Override
+    public boolean isOfferable(long vehicleId, long startDay) {
+        Track track = tracks.get(vehicleId);
+        return track == null || !isWithinChargeWindow(startDay) || !isLowOnCharge(track, System.currentTimeMillis());
+    }
+
+    /**
+     * @return true if the latest reading is fresh and leaves less than the minimum range
+     */
+    private boolean isLowOnCharge(Track track, long now) {
+        State state = track.latest;
+        if (state == null || now - state.recordedAt() > staleAfterMillis) {
+            return false;
+        }
+        Integer range = ranges.get(track.carModelId);
+        return range != null && range * state.stateOfCharge() / 100 < minRangeKm;
+    }
+
+    // ============================================
+    // CATALOGUE LISTENER
+    // ============================================
+
+    @Override
+    public void catalogueChanged(List<CarModel> models, long version) {
+        Map<Long, Integer> electric = new HashMap<>();
+        for (CarModel model : models) {
+            if (model.getFuelType() == FuelType.ELECTRIC && model.getRangeInKm() != null) {
+                electric.put(model.getId(), model.getRangeInKm());
+            }
+        }
+        ranges = electric;
+    }
+}
@@ -0,0 +1,16 @@
+package com.exploresg.fleetservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when no vehicle is free for the requested period, or a booking
+ * is not in a state that allows the requested transition.
+ * Mapped to 409 Conflict.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class BookingConflictException extends RuntimeException {
+    public BookingConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.exploresg.fleetservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when request parameters are missing or inconsistent
+ * (e.g. end date before start date).
+ * Mapped to 400 Bad Request.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidRequestException extends RuntimeException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
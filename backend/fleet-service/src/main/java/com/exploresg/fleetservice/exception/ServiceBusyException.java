@@ -0,0 +1,15 @@
+package com.exploresg.fleetservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a bounded work queue is full and the request is shed
+ * instead of queued. Mapped to 503 Service Unavailable; clients should retry.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
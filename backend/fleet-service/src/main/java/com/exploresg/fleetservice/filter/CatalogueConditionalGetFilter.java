@@ -0,0 +1,291 @@
+package com.exploresg.fleetservice.filter;
+
+import com.exploresg.common.codec.BinaryCodec;
+import com.exploresg.fleetservice.dto.FacetFilter;
+import com.exploresg.fleetservice.service.CatalogueService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers conditional GETs on the catalogue with 304 Not Modified before the
+ * request reaches a controller or the database.
+ *
+ * Covered (GET/HEAD): the model list without dates, model details and the
+ * facets. Their representations depend only on the catalogue, so the catalogue
+ * version is their validator: ETag "c&lt;version&gt;" (plus a suffix for the
+ * binary representations, see BinaryCodec) and Last-Modified. The date-filtered
+ * list depends on bookings and is not covered.
+ *
+ * If-None-Match takes precedence over If-Modified-Since (RFC 9110). Requests
+ * that do not match go on to CatalogueSnapshotFilter (if enabled) or the
+ * controller, which set the validators.
+ *
+ * Metrics:
+ * - fleet.catalogue.conditional.requests{outcome=not_modified|full}
+ * - fleet.catalogue.conditional.not-modified.ratio
+ * - fleet.catalogue.conditional.bytes.saved: body bytes not sent thanks to a 304,
+ *   using the size of the last full response for the same resource and version
+ *
+ * The sizes are kept per resource, with model lists keyed by their normalized
+ * FacetFilter (other query parameters do not change the response), for the
+ * current catalogue version only, and for at most MAX_SENT_SIZES resources;
+ * 304s on resources beyond that are counted but save no bytes in the metric.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 100)
+public class CatalogueConditionalGetFilter extends OncePerRequestFilter {
+
+    private static final String MODELS_PATH = "/api/v1/fleet/models";
+    private static final String FACETS_PATH = MODELS_PATH + "/facets";
+    private static final int MAX_SENT_SIZES = 1024;
+
+    private final CatalogueService catalogueService;
+    private final Counter notModified;
+    private final Counter full;
+    private final Counter bytesSaved;
+
+    // resource + ETag sent -> size of the last full response, for the version it was sent with
+    private final Map<String, SentSize> sentSizes = new ConcurrentHashMap<>();
+    // Catalogue version the entries of sentSizes are for
+    private volatile long sentSizesVersion = -1;
+
+    private record SentSize(long version, long bytes) {
+    }
+
+    public CatalogueConditionalGetFilter(CatalogueService catalogueService, MeterRegistry meterRegistry) {
+        this.catalogueService = catalogueService;
+        this.notModified = Counter.builder("fleet.catalogue.conditional.requests")
+                .tag("outcome", "not_modified")
+                .description("Catalogue GETs seen by the conditional GET filter, by outcome")
+                .register(meterRegistry);
+        this.full = Counter.builder("fleet.catalogue.conditional.requests")
+                .tag("outcome", "full")
+                .description("Catalogue GETs seen by the conditional GET filter, by outcome")
+                .register(meterRegistry);
+        this.bytesSaved = Counter.builder("fleet.catalogue.conditional.bytes.saved")
+                .baseUnit("bytes")
+                .description("Response body bytes not sent because of 304 answers")
+                .register(meterRegistry);
+        meterRegistry.gauge("fleet.catalogue.conditional.not-modified.ratio", this,
+                filter -> filter.notModifiedRatio());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return true;
+        }
+        return resourceKey(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CatalogueService.Version version = catalogueService.getVersion();
+        BinaryCodec.Format format = BinaryCodec.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        String resource = resourceKey(request);
+
+        String matched = matchingTag(request, version, format);
+        if (matched != null) {
+            notModified.increment();
+            SentSize sent = sentSizes.get(resource + ' ' + matched);
+            if (sent != null && sent.version() == version.number()) {
+                bytesSaved.increment(sent.bytes());
+            }
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            response.setHeader(HttpHeaders.ETAG, matched);
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, version.lastModified().toEpochMilli());
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+            return;
+        }
+
+        full.increment();
+        CountingResponse counting = new CountingResponse(response);
+        chain.doFilter(request, counting);
+        String sentTag = counting.getHeader(HttpHeaders.ETAG);
+        if (counting.getStatus() == HttpServletResponse.SC_OK && sentTag != null && counting.bodyBytes() > 0) {
+            rememberSize(resource + ' ' + sentTag, new SentSize(version.number(), counting.bodyBytes()));
+        }
+    }
+
+    /**
+     * Keep the size of a full response. Sizes of older catalogue versions can
+     * never be used again and are dropped when a newer version is first seen;
+     * once MAX_SENT_SIZES resources are tracked, new ones are not.
+     */
+    private void rememberSize(String key, SentSize sent) {
+        if (sent.version() != sentSizesVersion) {
+            synchronized (sentSizes) {
+                if (sent.version() > sentSizesVersion) {
+                    sentSizesVersion = sent.version();
+                    sentSizes.values().removeIf(size -> size.version() != sent.version());
+                }
+            }
+            if (sent.version() != sentSizesVersion) {
+                return; // response of a version that has been replaced meanwhile
+            }
+        }
+        if (sentSizes.size() < MAX_SENT_SIZES || sentSizes.containsKey(key)) {
+            sentSizes.put(key, sent);
+        }
+    }
+
+    /**
+     * @return the current tag the client's validator matches (identity or gzip
+     *         snapshot variant), or null if the full response must be sent
+     */
+    private static String matchingTag(HttpServletRequest request, CatalogueService.Version version,
+            BinaryCodec.Format format) {
+        String etag = version.etag(format);
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            String gzipEtag = version.etag(format, true);
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                // Weak comparison is what If-None-Match uses
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return etag;
+                }
+                if (tag.equals(gzipEtag)) {
+                    return gzipEtag;
+                }
+            }
+            return null;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return null; // unparseable date: ignore the condition
+        }
+        return ifModifiedSince >= 0 && version.lastModified().toEpochMilli() <= ifModifiedSince ? etag : null;
+    }
+
+    /**
+     * @return the catalogue resource addressed by the request, or null if the
+     *         request is not covered. Model lists are identified by their
+     *         FacetFilter key, so parameter order and unrelated parameters do not
+     *         make new resources; an invalid filter is left to MVC binding (400).
+     */
+    private static String resourceKey(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.equals(MODELS_PATH)) {
+            if (request.getParameter("startDate") != null || request.getParameter("endDate") != null) {
+                return null;
+            }
+            return FacetFilter.fromParameters(request::getParameter)
+                    .map(filter -> filter.isEmpty() ? path : path + '?' + filter.key())
+                    .orElse(null);
+        }
+        if (path.equals(FACETS_PATH)) {
+            return path;
+        }
+        if (path.startsWith(MODELS_PATH + "/") && path.indexOf('/', MODELS_PATH.length() + 1) < 0) {
+            try {
+                UUID.fromString(path.substring(MODELS_PATH.length() + 1));
+                return path;
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private double notModifiedRatio() {
+        double total = notModified.count() + full.count();
+        return total == 0 ? 0 : notModified.count() / total;
+    }
+
+    // ============================================
+    // RESPONSE SIZE
+    // ============================================
+
+    /**
+     * Counts the body bytes written through getOutputStream (message converters
+     * write there). A body sent with sendfile (CatalogueSnapshotFilter) never
+     * passes through the stream; its declared Content-Length is used instead.
+     */
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+        private long bytes;
+        private long declaredLength;
+        private ServletOutputStream stream;
+
+        private CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        private long bodyBytes() {
+            return Math.max(bytes, declaredLength);
+        }
+
+        @Override
+        public void setContentLengthLong(long length) {
+            super.setContentLengthLong(length);
+            declaredLength = length;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (stream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                stream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        delegate.write(b);
+                        bytes++;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        delegate.write(b, off, len);
+                        bytes += len;
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        delegate.setWriteListener(listener);
+                    }
+                };
+            }
+            return stream;
+        }
+    }
+}
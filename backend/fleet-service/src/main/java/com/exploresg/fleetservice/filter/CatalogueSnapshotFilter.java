@@ -0,0 +1,165 @@
+package com.exploresg.fleetservice.filter;
+
+import com.exploresg.common.codec.BinaryCodec;
+import com.exploresg.fleetservice.dto.FacetFilter;
+import com.exploresg.fleetservice.service.CatalogueService;
+import com.exploresg.fleetservice.service.CatalogueSnapshotService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * Serves the anonymous catalogue pages (model list without dates, facets) from
+ * the files of CatalogueSnapshotService, bypassing the controllers.
+ *
+ * Runs after CatalogueConditionalGetFilter, so revalidations never get here.
+ * The representation is chosen from Accept (BinaryCodec) and Accept-Encoding
+ * (the gzip file when gzip is accepted). The body is sent zero-copy: with
+ * Tomcat's sendfile when the connector supports it, otherwise with
+ * FileChannel.transferTo into the response channel.
+ *
+ * Pages that are not materialized, or not yet for the current catalogue
+ * version, fall through to the controller.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 50)
+@ConditionalOnProperty(name = "fleet.catalogue-snapshots.enabled", havingValue = "true")
+public class CatalogueSnapshotFilter extends OncePerRequestFilter {
+
+    private static final String MODELS_PATH = "/api/v1/fleet/models";
+    private static final String FACETS_PATH = MODELS_PATH + "/facets";
+
+    // Tomcat request attributes (org.apache.tomcat.util.net.Constants / Globals)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final CatalogueSnapshotService snapshots;
+
+    public CatalogueSnapshotFilter(CatalogueSnapshotService snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.equals(MODELS_PATH) && !path.equals(FACETS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String resource = resource(request);
+        if (resource == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        BinaryCodec.Format format = BinaryCodec.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        Optional<CatalogueSnapshotService.Lease> acquired = snapshots.acquire(resource, format, gzip);
+        if (acquired.isEmpty()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        try (CatalogueSnapshotService.Lease lease = acquired.get()) {
+            CatalogueService.Version version = lease.version();
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(format.mediaType().toString());
+            response.setContentLengthLong(lease.length());
+            if (gzip) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            response.setHeader(HttpHeaders.ETAG, version.etag(format, gzip));
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, version.lastModified().toEpochMilli());
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+            if ("HEAD".equals(request.getMethod())) {
+                return;
+            }
+
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+                // Tomcat sends the file after the filter chain returns; the
+                // snapshot retention keeps it on disk until then
+                request.setAttribute(SENDFILE_FILENAME, lease.file().toRealPath().toString());
+                request.setAttribute(SENDFILE_START, 0L);
+                request.setAttribute(SENDFILE_END, lease.length());
+                return;
+            }
+            try (FileChannel file = FileChannel.open(lease.file(), StandardOpenOption.READ)) {
+                WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+                long position = 0;
+                while (position < lease.length()) {
+                    position += file.transferTo(position, lease.length() - position, out);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the snapshot resource for the request, or null if it is not a snapshot page
+     */
+    private String resource(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.equals(FACETS_PATH)) {
+            return CatalogueSnapshotService.FACETS;
+        }
+        if (request.getParameter("startDate") != null || request.getParameter("endDate") != null) {
+            return null;
+        }
+        Optional<FacetFilter> filter = FacetFilter.fromParameters(request::getParameter);
+        if (filter.isEmpty()) {
+            return null;
+        }
+        snapshots.recordRequest(filter.get());
+        return CatalogueSnapshotService.modelsResource(filter.get());
+    }
+
+    /**
+     * True if the Accept-Encoding header allows gzip (q=0 refuses it).
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(parameter.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,86 @@
+package com.exploresg.fleetservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A rental of one Vehicle for a period of days.
+ *
+ * The period is half-open: startDate is the pickup day (inclusive) and
+ * endDate is the return day (exclusive), so a booking for 12-19 March
+ * leaves the vehicle free for another pickup on 19 March.
+ *
+ * The database is the system of record, but overlap checks are done
+ * against the in-memory BookingEngine, which is rebuilt from this table
+ * on startup.
+ */
+@Entity
+@Table(name = "booking", indexes = {
+        @Index(name = "idx_booking_vehicle_start", columnList = "vehicle_id, start_date"),
+        @Index(name = "idx_booking_status_end", columnList = "status, end_date"),
+        @Index(name = "idx_booking_updated_at", columnList = "updated_at")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class Booking {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false, updatable = false)
+    @Builder.Default
+    private UUID bookingUuid = UUID.randomUUID();
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "vehicle_id", nullable = false)
+    private Vehicle vehicle;
+
+    /**
+     * Denormalized from vehicle.carModel so the engine can be rebuilt
+     * without joining through vehicle.
+     */
+    @Column(name = "car_model_id", nullable = false)
+    private Long carModelId;
+
+    /**
+     * JWT 'sub' of the user who made the booking (null for anonymous bookings).
+     */
+    private UUID userId;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BookingStatus status;
+
+    /**
+     * When a HELD booking is released automatically if not confirmed.
+     * Null for every other status.
+     */
+    private Instant expiresAt;
+
+    @Column(nullable = false, updatable = false)
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,36 @@
+package com.exploresg.fleetservice.model;
+
+/**
+ * Lifecycle state of a booking.
+ *
+ * Only HELD and CONFIRMED bookings occupy a vehicle's schedule.
+ * CANCELLED and EXPIRED bookings are kept for history but free the vehicle.
+ */
+public enum BookingStatus {
+    /**
+     * Short-lived hold while the user completes checkout
+     */
+    HELD,
+
+    /**
+     * Confirmed rental - vehicle is committed for the period
+     */
+    CONFIRMED,
+
+    /**
+     * Cancelled by the user or an operator
+     */
+    CANCELLED,
+
+    /**
+     * Hold that was never confirmed and timed out
+     */
+    EXPIRED;
+
+    /**
+     * @return true if a booking in this state blocks the vehicle for its period
+     */
+    public boolean occupiesVehicle() {
+        return this == HELD || this == CONFIRMED;
+    }
+}
@@ -1,15 +1,20 @@
 package com.exploresg.fleetservice.model;
 
+import com.exploresg.fleetservice.service.CatalogueChangeListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.UUID;
 
 @Entity
 @Table(name = "car_model")
+@EntityListeners(CatalogueChangeListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "car-model")
 @Data
 @AllArgsConstructor@NoArgsConstructor
 @Builder
@@ -0,0 +1,51 @@
+package com.exploresg.fleetservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * A catalogue change notification in the shared database (JdbcCatalogueChangeTransport).
+ *
+ * Rows are append-only and deleted after the retention period.
+ */
+@Entity
+@Table(name = "catalogue_change")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CatalogueChangeRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String originNode;
+
+    @Column(nullable = false)
+    private long version;
+
+    @Column(nullable = false)
+    private long baseVersion;
+
+    @Column(nullable = false)
+    private Instant lastModified;
+
+    /**
+     * Comma-separated carModelUuids; null for a full reload.
+     */
+    @Column(length = 40_000)
+    private String carModelUuids;
+
+    @Column(nullable = false, updatable = false)
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
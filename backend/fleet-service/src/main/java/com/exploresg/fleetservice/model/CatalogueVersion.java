@@ -0,0 +1,40 @@
+package com.exploresg.fleetservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Version of the CarModel catalogue (single row).
+ *
+ * The version is advanced whenever a rebuild finds catalogue content that
+ * differs from contentHash, so it survives restarts and is shared by every
+ * node on the same database. It is the source of the catalogue ETags.
+ */
+@Entity
+@Table(name = "catalogue_version")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CatalogueVersion {
+
+    public static final long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long version;
+
+    // SHA-256 (hex) of the catalogue content this version describes
+    @Column(nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+}
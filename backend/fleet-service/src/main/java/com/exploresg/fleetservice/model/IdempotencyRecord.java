@@ -0,0 +1,47 @@
+package com.exploresg.fleetservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Outcome of a request sent with an Idempotency-Key (IdempotencyStore).
+ *
+ * The id is a hash of operation, user and key. A row without a response is
+ * a claim: the request is still running, or its node died before it finished.
+ * Always stored on shard 0; rows are deleted once expired.
+ */
+@Entity
+@Table(name = "idempotency_record", indexes = @Index(name = "idx_idempotency_expires_at", columnList = "expiresAt"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    /**
+     * SHA-256 of the request body; the key cannot be reused for another request.
+     */
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    /**
+     * JSON response body; null while the request is in progress.
+     */
+    @Column(length = 8_000)
+    private String response;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,25 @@
+package com.exploresg.fleetservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Discount on the whole rental for rentals of at least minDays days.
+ */
+@Embeddable
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LengthOfRentalDiscount {
+
+    @Column(nullable = false)
+    private int minDays;
+
+    @Column(nullable = false)
+    private int discountPercent;
+}
@@ -0,0 +1,53 @@
+package com.exploresg.fleetservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A rental operator (company) that owns vehicles.
+ *
+ * Operators do not own CarModels - the catalogue is shared. An operator
+ * "offers" a model when it owns at least one vehicle of that model.
+ *
+ * Operators are created once and hardly ever edited, so the second-level
+ * cache skips the soft locks of READ_WRITE.
+ */
+@Entity
+@Table(name = "fleet_operator")
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "operator")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class Operator {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false, updatable = false)
+    @Builder.Default
+    private UUID operatorUuid = UUID.randomUUID();
+
+    @Column(unique = true, nullable = false)
+    private String name;
+
+    private String contactEmail;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean active = true;
+
+    @Column(nullable = false, updatable = false)
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,38 @@
+package com.exploresg.fleetservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Shard directory entry: the data shard holding an operator's vehicles and
+ * bookings.
+ *
+ * Always stored on shard 0. Operators without an entry (created before
+ * sharding was enabled, or while there was one shard) are on shard 0.
+ */
+@Entity
+@Table(name = "operator_shard")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OperatorShard {
+
+    @Id
+    private Long operatorId;
+
+    @Column(nullable = false)
+    private int shard;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OperatorShardState state;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,16 @@
+package com.exploresg.fleetservice.model;
+
+/**
+ * State of an operator's entry in the shard directory.
+ */
+public enum OperatorShardState {
+    /**
+     * Fleet data is on the entry's shard and can be read and written there
+     */
+    ACTIVE,
+
+    /**
+     * Fleet data is being copied to another shard - readable, writes are refused
+     */
+    MOVING
+}
@@ -0,0 +1,60 @@
+package com.exploresg.fleetservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A place where customers pick up an operator's cars (depot, car park, hotel desk).
+ *
+ * An operator can have many locations; all of them offer the operator's
+ * whole fleet. Coordinates are WGS84 degrees. Nearby searches are answered
+ * by the in-memory PickupLocationIndex, never by the database.
+ */
+@Entity
+@Table(name = "pickup_location", indexes = {
+        @Index(name = "idx_pickup_location_operator", columnList = "operator_id")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PickupLocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false, updatable = false)
+    @Builder.Default
+    private UUID pickupLocationUuid = UUID.randomUUID();
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "operator_id", nullable = false)
+    private Operator operator;
+
+    @Column(nullable = false)
+    private String name;
+
+    private String address;
+
+    @Column(nullable = false)
+    private double latitude;
+
+    @Column(nullable = false)
+    private double longitude;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean active = true;
+
+    @Column(nullable = false, updatable = false)
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,72 @@
+package com.exploresg.fleetservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Pricing rules for one CarModel or for a whole Category.
+ *
+ * Exactly one of carModelId / category is set; a model's own plan wins over
+ * its category's plan. The price of a day is
+ * dailyRate * (100 + weekend surcharge on Sat/Sun + highest peak surcharge) / 100,
+ * and a rental's total gets the discount of the longest LengthOfRentalDiscount
+ * it qualifies for.
+ *
+ * Plans are compiled into per-day price tables (PriceTables); quotes never
+ * evaluate these rules per day.
+ */
+@Entity
+@Table(name = "rate_plan")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RatePlan {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false, updatable = false)
+    @Builder.Default
+    private UUID ratePlanUuid = UUID.randomUUID();
+
+    @Column(name = "car_model_id", unique = true)
+    private Long carModelId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(unique = true)
+    private Category category;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal dailyRate;
+
+    @Column(nullable = false)
+    private int weekendSurchargePercent;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "rate_plan_peak_period", joinColumns = @JoinColumn(name = "rate_plan_id"))
+    @OrderColumn(name = "position")
+    @Builder.Default
+    private List<PeakPeriod> peakPeriods = new ArrayList<>();
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "rate_plan_discount", joinColumns = @JoinColumn(name = "rate_plan_id"))
+    @OrderColumn(name = "position")
+    @Builder.Default
+    private List<LengthOfRentalDiscount> lengthOfRentalDiscounts = new ArrayList<>();
+
+    @Column(nullable = false)
+    @UpdateTimestamp
+    private Instant updatedAt;
+}
@@ -0,0 +1,68 @@
+package com.exploresg.fleetservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A physical, bookable vehicle of a given CarModel.
+ *
+ * CarModel describes the catalogue entry ("Toyota Corolla 2024"),
+ * Vehicle is one concrete car of that model that can be rented out.
+ * Bookings are always made against a Vehicle.
+ *
+ * Vehicles live on the data shard of their operator (see
+ * OperatorShardRouter), while CarModel and Operator rows stay on shard 0, so
+ * those references have no foreign key constraint.
+ */
+@Entity
+@Table(name = "vehicle", indexes = {
+        @Index(name = "idx_vehicle_car_model", columnList = "car_model_id"),
+        @Index(name = "idx_vehicle_operator", columnList = "operator_id")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class Vehicle {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false, updatable = false)
+    @Builder.Default
+    private UUID vehicleUuid = UUID.randomUUID();
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "car_model_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private CarModel carModel;
+
+    /**
+     * Operator that owns the vehicle.
+     * Nullable for vehicles created before operators existed.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "operator_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private Operator operator;
+
+    @Column(unique = true, nullable = false)
+    private String licensePlate;
+
+    /**
+     * Inactive vehicles (in maintenance, retired) are never offered for booking.
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean active = true;
+
+    @Column(nullable = false, updatable = false)
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
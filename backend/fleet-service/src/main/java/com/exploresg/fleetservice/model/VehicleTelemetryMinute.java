@@ -0,0 +1,62 @@
+package com.exploresg.fleetservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Telemetry of one electric vehicle, downsampled to one row per minute
+ * (VehicleTelemetry, TelemetryService).
+ *
+ * A minute has more than one row if its readings reached several nodes, or
+ * arrived on both sides of a restart; weigh them by samples.
+ *
+ * Stored on the data shard of the vehicle's operator and moved with it.
+ * Written in JDBC batches, never through this entity.
+ */
+@Entity
+@Table(name = "vehicle_telemetry", indexes = @Index(name = "idx_vehicle_telemetry_vehicle_minute",
+        columnList = "vehicle_id, minute_start"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class VehicleTelemetryMinute {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "vehicle_id", nullable = false)
+    private Long vehicleId;
+
+    @Column(name = "minute_start", nullable = false)
+    private Instant minuteStart;
+
+    @Column(nullable = false)
+    private int samples;
+
+    /**
+     * State of charge in percent.
+     */
+    @Column(nullable = false)
+    private double stateOfChargeMin;
+
+    @Column(nullable = false)
+    private double stateOfChargeMax;
+
+    @Column(nullable = false)
+    private double stateOfChargeAvg;
+
+    @Column(nullable = false)
+    private double stateOfChargeLast;
+
+    /**
+     * Latest odometer value of the minute; null if no reading had one.
+     */
+    private Double odometerKm;
+}
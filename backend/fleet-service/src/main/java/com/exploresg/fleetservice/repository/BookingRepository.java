@@ -0,0 +1,93 @@
+package com.exploresg.fleetservice.repository;
+
+import com.exploresg.fleetservice.model.Booking;
+import com.exploresg.fleetservice.model.BookingStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface BookingRepository extends JpaRepository<Booking, Long> {
+
+    /**
+     * Read-only, so with read replicas a booking lookup (GET, cancel, hold
+     * confirm) is served by a replica; declared query methods get no
+     * transaction from Spring Data on their own. The caller's own bookings
+     * stay on the primary until replicated (ReplicaRoutingDataSource).
+     */
+    @Transactional(readOnly = true)
+    @EntityGraph(attributePaths = "vehicle")
+    Optional<Booking> findByBookingUuid(UUID bookingUuid);
+
+    /**
+     * Bookings that still occupy a vehicle on or after the given day.
+     *
+     * Used to rebuild the in-memory schedules on startup. Bookings that
+     * ended in the past can never conflict again and are skipped.
+     *
+     * @param statuses statuses that occupy a vehicle (HELD, CONFIRMED)
+     * @param endAfter only bookings ending after this day
+     * @return matching bookings
+     */
+    List<Booking> findByStatusInAndEndDateAfter(Collection<BookingStatus> statuses, LocalDate endAfter);
+
+    /**
+     * Bookings that ended before the given day, for the booking archive.
+     *
+     * Pass every status so the (status, end_date) index is used.
+     *
+     * @param limit batch size
+     */
+    List<Booking> findByStatusInAndEndDateBefore(Collection<BookingStatus> statuses, LocalDate endBefore,
+            Limit limit);
+
+    /**
+     * Find all bookings in a given status, with their vehicle.
+     *
+     * Used to recover pending holds after a restart.
+     */
+    @EntityGraph(attributePaths = "vehicle")
+    List<Booking> findByStatus(BookingStatus status);
+
+    /**
+     * Bookings created or changed since the given time.
+     *
+     * Used after an event log recovery to re-apply changes that were committed
+     * but may not have reached the log.
+     */
+    @EntityGraph(attributePaths = "vehicle")
+    List<Booking> findByUpdatedAtGreaterThanEqual(LocalDateTime since);
+
+    /**
+     * Compare-and-set a booking's status.
+     *
+     * Confirm, cancel and hold expiry can race for the same booking; this
+     * conditional update lets exactly one of them win without row locks.
+     *
+     * @param bookingUuid booking to update
+     * @param from        statuses the booking must currently be in
+     * @param to          new status
+     * @param now         value for updatedAt (bulk updates skip @UpdateTimestamp)
+     * @return 1 if the transition happened, 0 if the booking was not in a 'from' status
+     */
+    @Transactional
+    @Modifying
+    @Query("update Booking b set b.status = :to, b.expiresAt = null, b.updatedAt = :now "
+            + "where b.bookingUuid = :bookingUuid and b.status in :from")
+    int transitionStatus(@Param("bookingUuid") UUID bookingUuid,
+            @Param("from") Collection<BookingStatus> from,
+            @Param("to") BookingStatus to,
+            @Param("now") LocalDateTime now);
+}
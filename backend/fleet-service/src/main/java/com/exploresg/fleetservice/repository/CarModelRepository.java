@@ -1,9 +1,26 @@
 package com.exploresg.fleetservice.repository;
 
 import com.exploresg.fleetservice.model.CarModel;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
 @Repository
 public interface CarModelRepository extends JpaRepository<CarModel, Long> {
+
+    // Query cache; CarModelCacheEvictor clears it on writes that bypass Hibernate
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "car-model-lookups")
+    })
+    Optional<CarModel> findByCarModelUuid(UUID carModelUuid);
+
+    List<CarModel> findByCarModelUuidIn(Collection<UUID> carModelUuids);
 }
@@ -0,0 +1,26 @@
+package com.exploresg.fleetservice.repository;
+
+import com.exploresg.fleetservice.model.CatalogueChangeRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CatalogueChangeRecordRepository extends JpaRepository<CatalogueChangeRecord, Long> {
+
+    List<CatalogueChangeRecord> findByIdGreaterThanOrderByIdAsc(long id);
+
+    @Query("select coalesce(max(c.id), 0) from CatalogueChangeRecord c")
+    long findMaxId();
+
+    @Transactional
+    @Modifying
+    @Query("delete from CatalogueChangeRecord c where c.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
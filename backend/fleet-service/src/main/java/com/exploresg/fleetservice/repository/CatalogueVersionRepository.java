@@ -0,0 +1,27 @@
+package com.exploresg.fleetservice.repository;
+
+import com.exploresg.fleetservice.model.CatalogueVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface CatalogueVersionRepository extends JpaRepository<CatalogueVersion, Long> {
+
+    /**
+     * Compare-and-set: advance the version only if it is still the expected one.
+     *
+     * @return 1 if advanced, 0 if another node advanced it first
+     */
+    @Transactional
+    @Modifying
+    @Query("update CatalogueVersion c set c.version = c.version + 1, c.contentHash = :contentHash, "
+            + "c.updatedAt = :updatedAt where c.id = :id and c.version = :expected")
+    int advance(@Param("id") long id, @Param("expected") long expected,
+            @Param("contentHash") String contentHash, @Param("updatedAt") Instant updatedAt);
+}
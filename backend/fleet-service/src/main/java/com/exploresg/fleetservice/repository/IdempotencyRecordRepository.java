@@ -0,0 +1,45 @@
+package com.exploresg.fleetservice.repository;
+
+import com.exploresg.fleetservice.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Insert a claim; fails with a DataIntegrityViolationException if the id is taken.
+     * (save() would merge into an existing row instead.)
+     */
+    @Modifying
+    @Query("insert into IdempotencyRecord (id, requestHash, createdAt, expiresAt) "
+            + "values (:id, :requestHash, :createdAt, :expiresAt)")
+    int insertClaim(@Param("id") String id, @Param("requestHash") String requestHash,
+            @Param("createdAt") Instant createdAt, @Param("expiresAt") Instant expiresAt);
+
+    /**
+     * Take over a row that expired, or a claim abandoned before staleBefore.
+     *
+     * @return 1 if taken over
+     */
+    @Modifying
+    @Query("update IdempotencyRecord r set r.requestHash = :requestHash, r.response = null, "
+            + "r.createdAt = :createdAt, r.expiresAt = :expiresAt "
+            + "where r.id = :id and (r.expiresAt < :createdAt or (r.response is null and r.createdAt < :staleBefore))")
+    int reclaim(@Param("id") String id, @Param("requestHash") String requestHash,
+            @Param("createdAt") Instant createdAt, @Param("expiresAt") Instant expiresAt,
+            @Param("staleBefore") Instant staleBefore);
+
+    @Modifying
+    @Query("update IdempotencyRecord r set r.response = :response where r.id = :id")
+    int complete(@Param("id") String id, @Param("response") String response);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,16 @@
+package com.exploresg.fleetservice.repository;
+
+import com.exploresg.fleetservice.model.Operator;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface OperatorRepository extends JpaRepository<Operator, Long> {
+
+    Optional<Operator> findByOperatorUuid(UUID operatorUuid);
+
+    boolean existsByName(String name);
+}
@@ -0,0 +1,9 @@
+package com.exploresg.fleetservice.repository;
+
+import com.exploresg.fleetservice.model.OperatorShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OperatorShardRepository extends JpaRepository<OperatorShard, Long> {
+}
@@ -0,0 +1,23 @@
+package com.exploresg.fleetservice.repository;
+
+import com.exploresg.fleetservice.model.PickupLocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface PickupLocationRepository extends JpaRepository<PickupLocation, Long> {
+
+    Optional<PickupLocation> findByPickupLocationUuid(UUID pickupLocationUuid);
+
+    /**
+     * Active locations with their operators in one query, for seeding the
+     * PickupLocationIndex on startup.
+     */
+    @Query("select l from PickupLocation l join fetch l.operator where l.active = true")
+    List<PickupLocation> findActiveWithOperator();
+}
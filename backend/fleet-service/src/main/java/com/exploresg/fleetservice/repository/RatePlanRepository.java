@@ -0,0 +1,19 @@
+package com.exploresg.fleetservice.repository;
+
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.RatePlan;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface RatePlanRepository extends JpaRepository<RatePlan, Long> {
+
+    Optional<RatePlan> findByRatePlanUuid(UUID ratePlanUuid);
+
+    Optional<RatePlan> findByCarModelId(Long carModelId);
+
+    Optional<RatePlan> findByCategory(Category category);
+}
@@ -0,0 +1,41 @@
+package com.exploresg.fleetservice.repository;
+
+import com.exploresg.fleetservice.model.Vehicle;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
+
+    Optional<Vehicle> findByVehicleUuid(UUID vehicleUuid);
+
+    /**
+     * Active vehicles as (vehicleId, carModelId, operatorId) rows.
+     *
+     * Used to seed the in-memory structures on startup without loading
+     * full Vehicle/CarModel/Operator entity graphs.
+     *
+     * Reads the foreign key columns only: the operator rows are not on the
+     * same data shard as the vehicles.
+     *
+     * @return rows of [vehicleId, carModelId, operatorId (nullable)]
+     */
+    @Query("select v.id, v.carModel.id, v.operator.id from Vehicle v where v.active = true")
+    List<Object[]> findActiveVehicleKeys();
+
+    /**
+     * Active vehicles with the given UUIDs as (vehicleId, vehicleUuid, carModelId) rows.
+     *
+     * Used to resolve telemetry senders without loading entities.
+     */
+    @Query("select v.id, v.vehicleUuid, v.carModel.id from Vehicle v "
+            + "where v.active = true and v.vehicleUuid in :vehicleUuids")
+    List<Object[]> findActiveVehicleKeysByUuid(@Param("vehicleUuids") Collection<UUID> vehicleUuids);
+}
@@ -0,0 +1,18 @@
+package com.exploresg.fleetservice.repository;
+
+import com.exploresg.fleetservice.model.VehicleTelemetryMinute;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface VehicleTelemetryMinuteRepository extends JpaRepository<VehicleTelemetryMinute, Long> {
+
+    /**
+     * Minutes of a vehicle from the given minute on, oldest first.
+     */
+    List<VehicleTelemetryMinute> findByVehicleIdAndMinuteStartGreaterThanEqualOrderByMinuteStart(Long vehicleId,
+            Instant from);
+}
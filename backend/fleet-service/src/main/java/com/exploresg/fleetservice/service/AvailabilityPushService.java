@@ -0,0 +1,379 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.AvailabilityDelta;
+import com.exploresg.fleetservice.engine.AvailabilityCalendar;
+import com.exploresg.fleetservice.engine.AvailabilityChangeTracker;
+import com.exploresg.fleetservice.exception.InvalidRequestException;
+import com.exploresg.fleetservice.exception.ResourceNotFoundException;
+import com.exploresg.fleetservice.exception.ServiceBusyException;
+import com.exploresg.fleetservice.model.CarModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Availability counts pushed to browse pages over server-sent events,
+ * replacing per-card polling of /models/{uuid}/availability-count.
+ *
+ * A client subscribes to up to MAX_MODELS_PER_SUBSCRIPTION models for one
+ * period and receives:
+ * - event "snapshot": the current counts, once
+ * - event "update": the counts that changed, at most one event per tick
+ * - a comment line every heartbeat interval, which keeps proxies from closing
+ *   idle streams and detects clients that went away
+ *
+ * Fan-out:
+ * - Subscriptions to the same (model, period) share a Topic holding the last
+ *   published count
+ * - Once per tick the "availability-push" thread drains the
+ *   AvailabilityChangeTracker, re-reads the count of every topic of a changed
+ *   model (AvailabilityService, so vehicles vetoed for the period's start day
+ *   are left out) and offers the changed ones to the topic's subscribers
+ * - A subscriber merges offers into its pending map, one entry per model, so
+ *   a slow client gets the latest count rather than a backlog; a few sender
+ *   threads flush pending maps, at most one flush per subscriber at a time
+ *
+ * Streams are servlet async requests (SseEmitter): an idle subscriber holds
+ * its socket and a few objects, never a thread.
+ */
+@Slf4j
+@Service
+public class AvailabilityPushService {
+
+    public static final int MAX_MODELS_PER_SUBSCRIPTION = 100;
+
+    private final AvailabilityChangeTracker changeTracker;
+    private final AvailabilityCalendar availabilityCalendar;
+    private final AvailabilityService availabilityService;
+    private final CatalogueService catalogueService;
+    private final Duration tick;
+    private final long heartbeatTicks;
+    private final Duration timeout;
+    private final int maxSubscribers;
+
+    // Structure changes (subscribe/unsubscribe) lock this; the ticker reads topicsByModel lock-free
+    private final Map<TopicKey, Topic> topics = new HashMap<>();
+    private final ConcurrentHashMap<Long, Topic[]> topicsByModel = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "availability-push");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService senders;
+    private long ticks; // ticker thread only
+
+    private record TopicKey(long carModelId, long startDay, long endDay) {
+    }
+
+    /**
+     * One (model, period) with its subscribers. count and subscribers change
+     * together under the topic's lock.
+     */
+    private static final class Topic {
+        private final TopicKey key;
+        private final UUID carModelUuid;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final Set<Subscriber> subscribers = new LinkedHashSet<>();
+        private int count;
+
+        private Topic(TopicKey key, UUID carModelUuid, int count) {
+            this.key = key;
+            this.carModelUuid = carModelUuid;
+            this.startDate = LocalDate.ofEpochDay(key.startDay());
+            this.endDate = LocalDate.ofEpochDay(key.endDay());
+            this.count = count;
+        }
+    }
+
+    /**
+     * One open stream. pending, snapshotPending, heartbeatDue and
+     * flushScheduled are guarded by the instance.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final List<Topic> topics = new ArrayList<>();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final Map<UUID, AvailabilityDelta> pending = new LinkedHashMap<>();
+        private boolean snapshotPending = true;
+        private boolean heartbeatDue;
+        private boolean flushScheduled;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private synchronized void offer(AvailabilityDelta update) {
+            pending.merge(update.getCarModelUuid(), update, (previous, latest) -> new AvailabilityDelta(
+                    latest.getCarModelUuid(), latest.getAvailableVehicles(),
+                    snapshotPending ? 0 : previous.getDelta() + latest.getDelta()));
+            scheduleFlush();
+        }
+
+        private synchronized void heartbeat() {
+            heartbeatDue = true;
+            scheduleFlush();
+        }
+
+        private void scheduleFlush() {
+            if (flushScheduled || closed.get()) {
+                return;
+            }
+            flushScheduled = true;
+            try {
+                senders.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                flushScheduled = false; // shutting down
+            }
+        }
+
+        /**
+         * Send pending counts until there are none; runs on a sender thread.
+         */
+        private void flush() {
+            while (true) {
+                String event;
+                List<AvailabilityDelta> batch;
+                synchronized (this) {
+                    if (closed.get() || (pending.isEmpty() && !heartbeatDue)) {
+                        flushScheduled = false;
+                        return;
+                    }
+                    event = snapshotPending ? "snapshot" : "update";
+                    batch = new ArrayList<>(pending.values());
+                    pending.clear();
+                    snapshotPending = false;
+                    heartbeatDue = false;
+                }
+                try {
+                    if (batch.isEmpty()) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(SseEmitter.event().name(event).data(batch, MediaType.APPLICATION_JSON));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // Client went away or the stream already completed; the container completes the emitter
+                    unsubscribe(this);
+                    return;
+                }
+            }
+        }
+    }
+
+    public AvailabilityPushService(AvailabilityChangeTracker changeTracker,
+            AvailabilityCalendar availabilityCalendar,
+            AvailabilityService availabilityService,
+            CatalogueService catalogueService,
+            MeterRegistry meterRegistry,
+            @Value("${fleet.availability-push.tick:PT1S}") Duration tick,
+            @Value("${fleet.availability-push.heartbeat:PT30S}") Duration heartbeat,
+            @Value("${fleet.availability-push.timeout:PT30M}") Duration timeout,
+            @Value("${fleet.availability-push.max-subscribers:50000}") int maxSubscribers,
+            @Value("${fleet.availability-push.sender-threads:4}") int senderThreads) {
+        this.changeTracker = changeTracker;
+        this.availabilityCalendar = availabilityCalendar;
+        this.availabilityService = availabilityService;
+        this.catalogueService = catalogueService;
+        this.tick = tick;
+        this.heartbeatTicks = Math.max(1, heartbeat.toMillis() / tick.toMillis());
+        this.timeout = timeout;
+        this.maxSubscribers = maxSubscribers;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread thread = new Thread(r, "availability-push-send-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.gauge("fleet.availability.push.subscribers", subscriberCount);
+        meterRegistry.gauge("fleet.availability.push.topics", topicsByModel, map -> map.values().stream()
+                .mapToInt(modelTopics -> modelTopics.length).sum());
+    }
+
+    // ============================================
+    // LIFECYCLE
+    // ============================================
+
+    @PostConstruct
+    public void start() {
+        // Drop changes from the engine rebuild; subscribers start from a snapshot anyway
+        changeTracker.drain();
+        ticker.scheduleAtFixedRate(this::tick, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    // ============================================
+    // SUBSCRIPTIONS
+    // ============================================
+
+    /**
+     * Open a stream of availability counts of the models for the period.
+     *
+     * @throws ServiceBusyException if fleet.availability-push.max-subscribers streams are open
+     */
+    public SseEmitter subscribe(Collection<UUID> carModelUuids, LocalDate startDate, LocalDate endDate) {
+        if (carModelUuids == null || carModelUuids.isEmpty() || carModelUuids.size() > MAX_MODELS_PER_SUBSCRIPTION) {
+            throw new InvalidRequestException("Subscribe to between 1 and " + MAX_MODELS_PER_SUBSCRIPTION + " car models");
+        }
+        validatePeriod(startDate, endDate);
+        List<CarModel> models = new ArrayList<>(carModelUuids.size());
+        for (UUID carModelUuid : new LinkedHashSet<>(carModelUuids)) {
+            models.add(catalogueService.findByUuid(carModelUuid)
+                    .orElseThrow(() -> new ResourceNotFoundException("Car model not found: " + carModelUuid)));
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ServiceBusyException("Too many availability streams, please retry");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+
+        synchronized (this) {
+            for (CarModel model : models) {
+                TopicKey key = new TopicKey(model.getId(), startDate.toEpochDay(), endDate.toEpochDay());
+                Topic topic = topics.get(key);
+                if (topic == null) {
+                    topic = new Topic(key, model.getCarModelUuid(),
+                            availabilityService.availableCount(model.getId(), startDate, endDate));
+                    topics.put(key, topic);
+                    topicsByModel.merge(model.getId(), new Topic[] { topic }, AvailabilityPushService::concat);
+                }
+                subscriber.topics.add(topic);
+                // The snapshot carries the topic's count as of joining; later changes follow as updates
+                synchronized (topic) {
+                    topic.subscribers.add(subscriber);
+                    subscriber.offer(new AvailabilityDelta(topic.carModelUuid, topic.count, 0));
+                }
+            }
+        }
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscribers.remove(subscriber);
+        subscriberCount.decrementAndGet();
+        synchronized (this) {
+            for (Topic topic : subscriber.topics) {
+                boolean empty;
+                synchronized (topic) {
+                    topic.subscribers.remove(subscriber);
+                    empty = topic.subscribers.isEmpty();
+                }
+                if (empty) {
+                    topics.remove(topic.key);
+                    topicsByModel.computeIfPresent(topic.key.carModelId(), (id, modelTopics) -> {
+                        Topic[] remaining = Arrays.stream(modelTopics).filter(t -> t != topic).toArray(Topic[]::new);
+                        return remaining.length == 0 ? null : remaining;
+                    });
+                }
+            }
+        }
+    }
+
+    // ============================================
+    // TICK
+    // ============================================
+
+    private void tick() {
+        try {
+            for (long carModelId : changeTracker.drain()) {
+                Topic[] modelTopics = topicsByModel.get(carModelId);
+                if (modelTopics != null) {
+                    for (Topic topic : modelTopics) {
+                        publish(carModelId, topic);
+                    }
+                }
+            }
+            if (++ticks % heartbeatTicks == 0) {
+                for (Subscriber subscriber : subscribers) {
+                    subscriber.heartbeat();
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Availability push tick failed", e);
+        }
+    }
+
+    private void publish(long carModelId, Topic topic) {
+        int count = availabilityService.availableCount(carModelId, topic.startDate, topic.endDate);
+        synchronized (topic) {
+            int delta = count - topic.count;
+            if (delta == 0) {
+                return;
+            }
+            topic.count = count;
+            AvailabilityDelta update = new AvailabilityDelta(topic.carModelUuid, count, delta);
+            for (Subscriber subscriber : topic.subscribers) {
+                subscriber.offer(update);
+            }
+        }
+    }
+
+    private void validatePeriod(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || !startDate.isBefore(endDate)) {
+            throw new InvalidRequestException("startDate must be before endDate");
+        }
+        if (startDate.isBefore(LocalDate.now())) {
+            throw new InvalidRequestException("startDate is in the past");
+        }
+        if (endDate.isAfter(availabilityCalendar.horizonEnd())) {
+            throw new InvalidRequestException("endDate is beyond the booking horizon "
+                    + availabilityCalendar.horizonEnd());
+        }
+    }
+
+    private static Topic[] concat(Topic[] first, Topic[] second) {
+        Topic[] all = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, all, first.length, second.length);
+        return all;
+    }
+}
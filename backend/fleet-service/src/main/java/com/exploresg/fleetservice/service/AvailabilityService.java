@@ -0,0 +1,112 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.AvailabilityCountResponse;
+import com.exploresg.fleetservice.engine.AvailabilityCalendar;
+import com.exploresg.fleetservice.engine.BookingEngine;
+import com.exploresg.fleetservice.engine.VehicleTelemetry;
+import com.exploresg.fleetservice.exception.InvalidRequestException;
+import com.exploresg.fleetservice.exception.ResourceNotFoundException;
+import com.exploresg.fleetservice.model.CarModel;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.LongPredicate;
+
+/**
+ * Date-range availability queries over the catalogue.
+ *
+ * Answers come from the AvailabilityCalendar (per-day bitmaps), which the
+ * BookingEngine keeps up to date on every booking and cancellation. For
+ * periods starting within the EV charge window they come from the
+ * BookingEngine instead, so EVs too low on charge (VehicleTelemetry) are not
+ * offered. Every availability answer - these queries, the pushed counts
+ * (AvailabilityPushService) and nearby searches (PickupLocationService) -
+ * goes through availableCount, so they all agree with what can be booked.
+ */
+@Service
+@RequiredArgsConstructor
+public class AvailabilityService {
+
+    private final AvailabilityCalendar availabilityCalendar;
+    private final BookingEngine bookingEngine;
+    private final CatalogueService catalogueService;
+    private final VehicleTelemetry vehicleTelemetry;
+
+    /**
+     * Catalogue models with at least one vehicle free for the whole period.
+     */
+    public List<CarModel> findAvailableModels(LocalDate startDate, LocalDate endDate) {
+        validatePeriod(startDate, endDate);
+        List<Long> ids = catalogueService.findAll().stream().map(CarModel::getId).toList();
+        List<Long> available = availabilityCalendar.availableModels(ids, startDate, endDate);
+        if (vehicleTelemetry.isWithinChargeWindow(startDate.toEpochDay())) {
+            // A veto only takes vehicles away: recheck the models the calendar found
+            available = available.stream()
+                    .filter(id -> bookingEngine.countAvailable(id, startDate, endDate) > 0)
+                    .toList();
+        }
+        return available.stream()
+                .map(id -> catalogueService.findById(id).orElseThrow())
+                .toList();
+    }
+
+    /**
+     * Vehicle counts for one model over a period.
+     */
+    public AvailabilityCountResponse getAvailabilityCount(UUID carModelUuid, LocalDate startDate, LocalDate endDate) {
+        validatePeriod(startDate, endDate);
+        CarModel carModel = catalogueService.findByUuid(carModelUuid)
+                .orElseThrow(() -> new ResourceNotFoundException("Car model not found: " + carModelUuid));
+        return AvailabilityCountResponse.builder()
+                .carModelUuid(carModelUuid)
+                .startDate(startDate)
+                .endDate(endDate)
+                .availableVehicles(availableCount(carModel.getId(), startDate, endDate))
+                .totalVehicles(bookingEngine.vehicleCount(carModel.getId()))
+                .dailyFree(availabilityCalendar.dailyFreeCounts(carModel.getId(), startDate, endDate))
+                .build();
+    }
+
+    /**
+     * Vehicles of a model free for the whole period, not counting vehicles
+     * vetoed for its start day. The period is not validated.
+     */
+    public int availableCount(long carModelId, LocalDate startDate, LocalDate endDate) {
+        return vehicleTelemetry.isWithinChargeWindow(startDate.toEpochDay())
+                ? bookingEngine.countAvailable(carModelId, startDate, endDate)
+                : availabilityCalendar.availableCount(carModelId, startDate, endDate);
+    }
+
+    /**
+     * Vehicles of a model, among those accepted by the filter (e.g. one
+     * operator's), free for the whole period and not vetoed for its start
+     * day. The period is not validated.
+     */
+    public int availableCount(long carModelId, LongPredicate vehicleFilter, LocalDate startDate, LocalDate endDate) {
+        return vehicleTelemetry.isWithinChargeWindow(startDate.toEpochDay())
+                ? bookingEngine.countAvailable(carModelId, vehicleFilter, startDate, endDate)
+                : availabilityCalendar.availableCount(carModelId, vehicleFilter, startDate, endDate);
+    }
+
+    /**
+     * Roll the calendar window forward shortly after midnight.
+     */
+    @Scheduled(cron = "${fleet.availability.roll-cron:30 0 0 * * *}")
+    public void rollCalendar() {
+        availabilityCalendar.rollTo(LocalDate.now());
+    }
+
+    private void validatePeriod(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || !startDate.isBefore(endDate)) {
+            throw new InvalidRequestException("startDate must be before endDate");
+        }
+        if (endDate.isAfter(availabilityCalendar.horizonEnd())) {
+            throw new InvalidRequestException("endDate is beyond the booking horizon "
+                    + availabilityCalendar.horizonEnd());
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.ArchivePartitionResponse;
+import com.exploresg.fleetservice.dto.ArchiveReportResponse;
+import com.exploresg.fleetservice.dto.ArchiveRunResponse;
+import com.exploresg.fleetservice.engine.BookingArchive;
+import com.exploresg.fleetservice.engine.OperatorIndex;
+import com.exploresg.fleetservice.exception.BookingConflictException;
+import com.exploresg.fleetservice.exception.InvalidRequestException;
+import com.exploresg.fleetservice.model.Booking;
+import com.exploresg.fleetservice.model.BookingStatus;
+import com.exploresg.fleetservice.repository.BookingRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moves old bookings out of the booking table into the BookingArchive, and
+ * reports over the archive.
+ *
+ * With fleet.archive.enabled=true, bookings of any status that ended more than
+ * fleet.archive.after-days ago are archived on fleet.archive.cron (or on
+ * demand), fleet.archive.batch-size at a time per data shard: a batch is
+ * written to its month files first and deleted from the shard afterwards, so a
+ * crash in between only archives the batch again. Archived bookings are no
+ * longer in the booking exports.
+ *
+ * Reports read only the columns they need and scan the month files in
+ * parallel, on fleet.archive.scan-threads threads.
+ */
+@Slf4j
+@Service
+public class BookingArchiveService {
+
+    public enum GroupBy {
+        MONTH, STATUS, CATEGORY, FUEL_TYPE, OPERATOR
+    }
+
+    private static final String UNKNOWN = "unknown";
+    private static final List<BookingStatus> ALL_STATUSES = List.of(BookingStatus.values());
+
+    // Figures per group
+    private static final int BOOKINGS = 0;
+    private static final int CONFIRMED = 1;
+    private static final int CANCELLED = 2;
+    private static final int EXPIRED = 3;
+    private static final int RENTAL_DAYS = 4;
+    private static final int FIGURES = 5;
+
+    private final BookingRepository bookingRepository;
+    private final BookingArchive bookingArchive;
+    private final OperatorShardRouter shardRouter;
+    private final OperatorIndex operatorIndex;
+    private final CatalogueService catalogueService;
+    private final TransactionTemplate archiveTransaction;
+    private final boolean enabled;
+    private final int afterDays;
+    private final int batchSize;
+    private final ExecutorService scanExecutor;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public BookingArchiveService(BookingRepository bookingRepository,
+            BookingArchive bookingArchive,
+            OperatorShardRouter shardRouter,
+            OperatorIndex operatorIndex,
+            CatalogueService catalogueService,
+            PlatformTransactionManager transactionManager,
+            @Value("${fleet.archive.enabled:false}") boolean enabled,
+            @Value("${fleet.archive.after-days:365}") int afterDays,
+            @Value("${fleet.archive.batch-size:1000}") int batchSize,
+            @Value("${fleet.archive.scan-threads:0}") int scanThreads) {
+        this.bookingRepository = bookingRepository;
+        this.bookingArchive = bookingArchive;
+        this.shardRouter = shardRouter;
+        this.operatorIndex = operatorIndex;
+        this.catalogueService = catalogueService;
+        this.archiveTransaction = new TransactionTemplate(transactionManager);
+        this.archiveTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.afterDays = Math.max(afterDays, 1);
+        this.batchSize = Math.max(batchSize, 1);
+        AtomicInteger threads = new AtomicInteger();
+        this.scanExecutor = Executors.newFixedThreadPool(
+                scanThreads > 0 ? scanThreads : Runtime.getRuntime().availableProcessors(), r -> {
+                    Thread thread = new Thread(r, "booking-archive-scan-" + threads.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        scanExecutor.shutdownNow();
+    }
+
+    // ============================================
+    // ARCHIVING
+    // ============================================
+
+    @Scheduled(cron = "${fleet.archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            ArchiveRunResponse run = archive();
+            log.info("Archived {} bookings that ended before {}", run.getArchived(), run.getCutoff());
+        } catch (BookingConflictException e) {
+            log.info("Skipping scheduled booking archive: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("Booking archive run failed", e);
+        }
+    }
+
+    /**
+     * Archive every booking that ended before the cutoff.
+     *
+     * @throws InvalidRequestException  if archiving is disabled
+     * @throws BookingConflictException if a run is already in progress on this node
+     */
+    public ArchiveRunResponse archive() {
+        if (!enabled) {
+            throw new InvalidRequestException("Booking archive is disabled");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new BookingConflictException("A booking archive run is in progress");
+        }
+        try {
+            Instant startedAt = Instant.now();
+            LocalDate cutoff = LocalDate.now().minusDays(afterDays);
+            Set<YearMonth> months = new TreeSet<>();
+            long archived = 0;
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                archived += archiveShard(shard, cutoff, months);
+            }
+            return ArchiveRunResponse.builder()
+                    .cutoff(cutoff)
+                    .archived(archived)
+                    .months(List.copyOf(months))
+                    .startedAt(startedAt)
+                    .finishedAt(Instant.now())
+                    .build();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long archiveShard(int shard, LocalDate cutoff, Set<YearMonth> months) {
+        long archived = 0;
+        while (true) {
+            // Keyed by id: the IN-list index scan may return a row twice
+            Map<Long, BookingArchive.ArchivedBooking> rows = new LinkedHashMap<>();
+            int found = shardRouter.onShard(shard, () -> archiveTransaction.execute(status -> {
+                List<Booking> batch = bookingRepository.findByStatusInAndEndDateBefore(ALL_STATUSES, cutoff,
+                        Limit.of(batchSize));
+                batch.forEach(booking -> rows.put(booking.getId(), toArchived(booking)));
+                return batch.size();
+            }));
+            if (rows.isEmpty()) {
+                return archived;
+            }
+            try {
+                months.addAll(bookingArchive.append(rows.values()));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write the booking archive", e);
+            }
+            List<Long> ids = List.copyOf(rows.keySet());
+            shardRouter.onShard(shard, () -> {
+                archiveTransaction.executeWithoutResult(status -> bookingRepository.deleteAllByIdInBatch(ids));
+                return null;
+            });
+            archived += ids.size();
+            log.debug("Archived {} bookings from shard {}", ids.size(), shard);
+            if (found < batchSize) {
+                return archived;
+            }
+        }
+    }
+
+    private BookingArchive.ArchivedBooking toArchived(Booking booking) {
+        long vehicleId = booking.getVehicle().getId();
+        return new BookingArchive.ArchivedBooking(
+                booking.getBookingUuid(),
+                vehicleId,
+                booking.getCarModelId(),
+                operatorIndex.findOperatorOfVehicle(vehicleId).orElse(0L),
+                booking.getUserId(),
+                booking.getStartDate().toEpochDay(),
+                booking.getEndDate().toEpochDay(),
+                booking.getStatus(),
+                booking.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli(),
+                booking.getUpdatedAt().toInstant(ZoneOffset.UTC).toEpochMilli());
+    }
+
+    // ============================================
+    // QUERIES
+    // ============================================
+
+    public List<ArchivePartitionResponse> getPartitions() {
+        try {
+            return bookingArchive.partitions().stream()
+                    .map(p -> ArchivePartitionResponse.builder()
+                            .month(p.month())
+                            .bookings(p.rows())
+                            .bytes(p.bytes())
+                            .build())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the booking archive", e);
+        }
+    }
+
+    /**
+     * Archived bookings starting between two months, grouped.
+     *
+     * @param from first month, null for the oldest
+     * @param to   last month (inclusive), null for the latest
+     */
+    public List<ArchiveReportResponse> getReport(YearMonth from, YearMonth to, GroupBy groupBy) {
+        List<YearMonth> months;
+        try {
+            months = bookingArchive.months().stream()
+                    .filter(m -> (from == null || !m.isBefore(from)) && (to == null || !m.isAfter(to)))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the booking archive", e);
+        }
+        Set<BookingArchive.Column> columns = EnumSet.of(BookingArchive.Column.STATUS, BookingArchive.Column.END_DAY);
+        switch (groupBy) {
+            case CATEGORY, FUEL_TYPE -> columns.add(BookingArchive.Column.CAR_MODEL_ID);
+            case OPERATOR -> columns.add(BookingArchive.Column.OPERATOR_ID);
+            default -> {
+            }
+        }
+
+        List<CompletableFuture<Map<String, long[]>>> scans = new ArrayList<>(months.size());
+        for (YearMonth month : months) {
+            scans.add(CompletableFuture.supplyAsync(() -> scan(month, columns, groupBy), scanExecutor));
+        }
+        Map<String, long[]> merged = new HashMap<>();
+        try {
+            for (CompletableFuture<Map<String, long[]>> scan : scans) {
+                scan.join().forEach((key, figures) -> {
+                    long[] total = merged.computeIfAbsent(key, k -> new long[FIGURES]);
+                    for (int i = 0; i < FIGURES; i++) {
+                        total[i] += figures[i];
+                    }
+                });
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        Map<String, String> names = new HashMap<>();
+        Map<String, long[]> groups = groupBy == GroupBy.OPERATOR ? byOperatorUuid(merged, names) : merged;
+        List<ArchiveReportResponse> responses = new ArrayList<>(groups.size());
+        groups.forEach((key, figures) -> responses.add(ArchiveReportResponse.builder()
+                .key(key)
+                .name(names.get(key))
+                .bookings(figures[BOOKINGS])
+                .confirmed(figures[CONFIRMED])
+                .cancelled(figures[CANCELLED])
+                .expired(figures[EXPIRED])
+                .rentalDays(figures[RENTAL_DAYS])
+                .build()));
+        responses.sort(Comparator.comparing(ArchiveReportResponse::getKey));
+        return responses;
+    }
+
+    /**
+     * Replace operator ids by operator UUIDs. Operators that no longer exist
+     * are added up under "unknown".
+     */
+    private Map<String, long[]> byOperatorUuid(Map<String, long[]> byId, Map<String, String> names) {
+        Map<String, long[]> byUuid = new HashMap<>();
+        byId.forEach((id, figures) -> {
+            OperatorIndex.OperatorRef operator = id.equals(UNKNOWN) ? null
+                    : operatorIndex.findOperator(Long.parseLong(id)).orElse(null);
+            String key = operator == null ? UNKNOWN : operator.operatorUuid().toString();
+            if (operator != null) {
+                names.put(key, operator.name());
+            }
+            long[] total = byUuid.computeIfAbsent(key, k -> new long[FIGURES]);
+            for (int i = 0; i < FIGURES; i++) {
+                total[i] += figures[i];
+            }
+        });
+        return byUuid;
+    }
+
+    /**
+     * Figures of one month file per group. Operators are keyed by id here.
+     */
+    private Map<String, long[]> scan(YearMonth month, Set<BookingArchive.Column> columns, GroupBy groupBy) {
+        BookingArchive.Partition partition;
+        try {
+            partition = bookingArchive.read(month, columns);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the booking archive of " + month, e);
+        }
+        Map<Long, String> modelKeys = new HashMap<>();
+        Map<String, long[]> figures = new HashMap<>();
+        for (int i = 0; i < partition.rows(); i++) {
+            String key = switch (groupBy) {
+                case MONTH -> month.toString();
+                case STATUS -> partition.statuses()[i].name();
+                case CATEGORY, FUEL_TYPE -> modelKeys.computeIfAbsent(partition.carModelIds()[i],
+                        id -> catalogueService.findById(id)
+                                .map(model -> groupBy == GroupBy.CATEGORY
+                                        ? nameOf(model.getCategory())
+                                        : nameOf(model.getFuelType()))
+                                .orElse(UNKNOWN));
+                case OPERATOR -> partition.operatorIds()[i] == 0 ? UNKNOWN
+                        : Long.toString(partition.operatorIds()[i]);
+            };
+            long[] group = figures.computeIfAbsent(key, k -> new long[FIGURES]);
+            group[BOOKINGS]++;
+            switch (partition.statuses()[i]) {
+                case CONFIRMED -> {
+                    group[CONFIRMED]++;
+                    group[RENTAL_DAYS] += partition.endDays()[i] - partition.startDays()[i];
+                }
+                case CANCELLED -> group[CANCELLED]++;
+                case EXPIRED -> group[EXPIRED]++;
+                default -> {
+                }
+            }
+        }
+        return figures;
+    }
+
+    private static String nameOf(Enum<?> value) {
+        return value == null ? UNKNOWN : value.name();
+    }
+}
@@ -0,0 +1,386 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.BookingRequest;
+import com.exploresg.fleetservice.dto.BookingResponse;
+import com.exploresg.fleetservice.engine.AvailabilityCalendar;
+import com.exploresg.fleetservice.engine.BookingEngine;
+import com.exploresg.fleetservice.engine.BookingEventLog;
+import com.exploresg.fleetservice.engine.FleetRollups;
+import com.exploresg.fleetservice.engine.OperatorIndex;
+import com.exploresg.fleetservice.exception.BookingConflictException;
+import com.exploresg.fleetservice.exception.InvalidRequestException;
+import com.exploresg.fleetservice.exception.ResourceNotFoundException;
+import com.exploresg.fleetservice.model.Booking;
+import com.exploresg.fleetservice.model.BookingStatus;
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.Vehicle;
+import com.exploresg.fleetservice.repository.BookingRepository;
+import com.exploresg.fleetservice.repository.CarModelRepository;
+import com.exploresg.fleetservice.repository.VehicleRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Service layer for vehicle bookings.
+ *
+ * Flow for a new booking:
+ * 1. Resolve the CarModel by its external UUID
+ * 2. Atomically pick and reserve a free vehicle in the BookingEngine (in memory)
+ * 3. Persist the booking
+ * 4. If persisting fails, release the in-memory reservation again
+ *
+ * The engine, not the database, decides whether a period is free. The model
+ * lock is only held for the in-memory check-and-insert, never across the
+ * database write, so slow inserts do not serialize other bookings.
+ *
+ * With fleet.booking.execution-mode=sharded, steps 2-3 run on the model's
+ * single-writer shard instead (see ShardedBookingLedger).
+ *
+ * With fleet.event-log.enabled=true every committed occupancy change is also
+ * appended to the BookingEventLog, and startup restores the engine from its
+ * snapshot and tail instead of the booking table.
+ *
+ * Vehicles and bookings live on the data shard of the vehicle's operator:
+ * writes go through OperatorShardRouter, and queries that are not scoped to
+ * one vehicle run on every shard.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookingService {
+
+    private final BookingEngine bookingEngine;
+    private final AvailabilityCalendar availabilityCalendar;
+    private final OperatorIndex operatorIndex;
+    private final FleetRollups fleetRollups;
+    private final BookingRepository bookingRepository;
+    private final CarModelRepository carModelRepository;
+    private final CatalogueService catalogueService;
+    private final VehicleRepository vehicleRepository;
+    private final OperatorShardRouter shardRouter;
+    private final ObjectProvider<ShardedBookingLedger> shardedBookingLedger;
+    private final ObjectProvider<BookingEventLog> bookingEventLog;
+
+    // ============================================
+    // STARTUP
+    // ============================================
+
+    /**
+     * Rebuild the in-memory engine.
+     *
+     * Registers every active vehicle (with the OperatorIndex first, so the
+     * index can attribute the replayed bookings), then restores the bookings
+     * that still occupy a vehicle today or later - from the event log if it is
+     * enabled and usable, otherwise from the database.
+     */
+    @PostConstruct
+    public void rebuildEngine() {
+        List<Object[]> keys = shardRouter.scatterGatherAll(shard -> vehicleRepository.findActiveVehicleKeys());
+        for (Object[] key : keys) {
+            if (key[2] != null) {
+                operatorIndex.registerVehicle((Long) key[0], (Long) key[1], (Long) key[2]);
+            }
+            bookingEngine.registerVehicle((Long) key[0], (Long) key[1]);
+        }
+
+        BookingEventLog eventLog = bookingEventLog.getIfAvailable();
+        if (eventLog != null && recoverFromEventLog(eventLog)) {
+            return;
+        }
+
+        List<Booking> active = shardRouter.scatterGatherAll(shard -> bookingRepository.findByStatusInAndEndDateAfter(
+                EnumSet.of(BookingStatus.HELD, BookingStatus.CONFIRMED), LocalDate.now().minusDays(1)));
+        int conflicts = 0;
+        for (Booking booking : active) {
+            if (!bookingEngine.reserve(booking.getVehicle().getId(), booking.getStartDate(),
+                    booking.getEndDate(), booking.getBookingUuid())) {
+                conflicts++;
+                log.warn("Booking {} overlaps an existing booking or references an inactive vehicle",
+                        booking.getBookingUuid());
+            }
+        }
+        log.info("Booking engine rebuilt: {} vehicles, {} active bookings, {} conflicts",
+                keys.size(), active.size(), conflicts);
+
+        if (eventLog != null) {
+            try {
+                eventLog.writeBaseline(active.stream()
+                        .map(b -> new BookingEventLog.Event(0, BookingEventLog.Type.BOOKED, 0, b.getBookingUuid(),
+                                b.getVehicle().getId(), b.getStartDate().toEpochDay(), b.getEndDate().toEpochDay()))
+                        .toList());
+            } catch (IOException e) {
+                log.error("Could not write the booking event log baseline", e);
+            }
+        }
+    }
+
+    /**
+     * Replay the event log's snapshot and tail into the engine, then re-apply
+     * bookings the database changed around the end of the log (committed but
+     * not yet appended when the previous process stopped).
+     *
+     * @return false if the log has no usable snapshot
+     */
+    private boolean recoverFromEventLog(BookingEventLog eventLog) {
+        long started = System.nanoTime();
+        Optional<BookingEventLog.RecoveryStats> recovered = eventLog.recover(LocalDate.now(), event -> {
+            LocalDate startDate = LocalDate.ofEpochDay(event.startDay());
+            if (event.type() == BookingEventLog.Type.BOOKED) {
+                bookingEngine.reserve(event.vehicleId(), startDate, LocalDate.ofEpochDay(event.endDay()),
+                        event.bookingUuid());
+            } else {
+                bookingEngine.release(event.vehicleId(), startDate, event.bookingUuid());
+            }
+        });
+        if (recovered.isEmpty()) {
+            log.info("Booking event log not usable, rebuilding from the database");
+            return false;
+        }
+        BookingEventLog.RecoveryStats stats = recovered.get();
+
+        // Authoritative state for anything touched since the end of the log
+        LocalDateTime catchUpFrom = LocalDateTime.ofInstant(stats.catchUpFrom(), ZoneId.systemDefault());
+        List<Booking> changed = shardRouter.scatterGatherAll(
+                shard -> bookingRepository.findByUpdatedAtGreaterThanEqual(catchUpFrom));
+        LocalDate today = LocalDate.now();
+        for (Booking booking : changed) {
+            long vehicleId = booking.getVehicle().getId();
+            bookingEngine.release(vehicleId, booking.getStartDate(), booking.getBookingUuid());
+            if (booking.getStatus().occupiesVehicle() && booking.getEndDate().isAfter(today)) {
+                bookingEngine.reserve(vehicleId, booking.getStartDate(), booking.getEndDate(), booking.getBookingUuid());
+            }
+        }
+        log.info("Booking engine recovered from event log in {} ms: snapshot seq {} ({} bookings), "
+                        + "{} tail events, {} re-applied from the database",
+                (System.nanoTime() - started) / 1_000_000, stats.snapshotSeq(), stats.snapshotEntries(),
+                stats.tailEvents(), changed.size());
+        return true;
+    }
+
+    /**
+     * Nightly cleanup of intervals that can no longer conflict.
+     */
+    @Scheduled(cron = "${fleet.booking.prune-cron:0 5 0 * * *}")
+    public void pruneEndedIntervals() {
+        bookingEngine.pruneEndedBefore(LocalDate.now());
+    }
+
+    // ============================================
+    // COMMANDS
+    // ============================================
+
+    /**
+     * Book the first free vehicle of the requested model.
+     *
+     * @param request model and period
+     * @param userId  JWT subject of the caller, null if anonymous
+     * @return the confirmed booking
+     * @throws ResourceNotFoundException if the model does not exist
+     * @throws BookingConflictException  if no vehicle is free for the period
+     */
+    public BookingResponse book(BookingRequest request, UUID userId) {
+        return BookingResponse.from(createBooking(request, userId, BookingStatus.CONFIRMED, null));
+    }
+
+    /**
+     * Book the first free vehicle of the requested model, completing asynchronously.
+     *
+     * In the default (locking) mode the booking is made on the calling thread
+     * and an already-completed future is returned. In sharded mode the booking
+     * is queued on the model's shard and the future completes after its group commit.
+     *
+     * Validation errors are thrown directly, booking conflicts complete the future exceptionally.
+     */
+    public CompletableFuture<BookingResponse> bookAsync(BookingRequest request, UUID userId) {
+        ShardedBookingLedger ledger = shardedBookingLedger.getIfAvailable();
+        if (ledger == null) {
+            return CompletableFuture.completedFuture(book(request, userId));
+        }
+        validatePeriod(request.getStartDate(), request.getEndDate());
+        CarModel carModel = findCarModel(request.getCarModelUuid());
+        return ledger.submit(carModel.getId(), request, userId).thenApply(BookingResponse::from);
+    }
+
+    /**
+     * Reserve a free vehicle in memory and persist the booking in the given status.
+     *
+     * Shared by confirmed bookings and reservation holds (see ReservationService).
+     *
+     * @param request   model and period
+     * @param userId    JWT subject of the caller, null if anonymous
+     * @param status    CONFIRMED or HELD
+     * @param expiresAt hold expiry, null for confirmed bookings
+     * @return the persisted booking
+     */
+    public Booking createBooking(BookingRequest request, UUID userId, BookingStatus status, Instant expiresAt) {
+        validatePeriod(request.getStartDate(), request.getEndDate());
+        CarModel carModel = findCarModel(request.getCarModelUuid());
+
+        UUID bookingUuid = UUID.randomUUID();
+        long vehicleId = bookingEngine
+                .reserveFirstAvailable(carModel.getId(), request.getStartDate(), request.getEndDate(), bookingUuid)
+                .orElseThrow(() -> new BookingConflictException("No vehicle available for the requested period"));
+
+        try {
+            Booking booking = shardRouter.writeForVehicle(vehicleId, () -> {
+                Vehicle vehicle = vehicleRepository.findById(vehicleId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Vehicle not found: " + vehicleId));
+                return bookingRepository.save(Booking.builder()
+                        .bookingUuid(bookingUuid)
+                        .vehicle(vehicle)
+                        .carModelId(carModel.getId())
+                        .userId(userId)
+                        .startDate(request.getStartDate())
+                        .endDate(request.getEndDate())
+                        .status(status)
+                        .expiresAt(expiresAt)
+                        .build());
+            });
+            log.debug("{} vehicle {} for {} to {}", status, booking.getVehicle().getVehicleUuid(),
+                    request.getStartDate(), request.getEndDate());
+            bookingEventLog.ifAvailable(eventLog -> eventLog.appendBooked(
+                    bookingUuid, vehicleId, request.getStartDate(), request.getEndDate()));
+            fleetRollups.created(vehicleId, status);
+            return booking;
+        } catch (RuntimeException e) {
+            // Persisting failed - undo the in-memory reservation so the vehicle is not leaked
+            bookingEngine.release(vehicleId, request.getStartDate(), bookingUuid);
+            throw e;
+        }
+    }
+
+    /**
+     * Cancel a booking and free its vehicle.
+     *
+     * @param bookingUuid booking to cancel
+     * @param userId      JWT subject of the caller, null if anonymous
+     * @return the cancelled booking
+     */
+    public BookingResponse cancel(UUID bookingUuid, UUID userId) {
+        Booking booking = findOwnedBooking(bookingUuid, userId);
+        if (!transition(booking, BookingStatus.CANCELLED)) {
+            throw new BookingConflictException("Booking is already " + booking.getStatus());
+        }
+        booking.setStatus(BookingStatus.CANCELLED);
+        booking.setExpiresAt(null);
+        return BookingResponse.from(booking);
+    }
+
+    /**
+     * Move a booking that occupies its vehicle (HELD or CONFIRMED) to another status.
+     *
+     * The database update is conditional, so concurrent confirm/cancel/expiry
+     * of the same booking cannot both succeed. If the new status frees the
+     * vehicle, the in-memory interval is released as well.
+     *
+     * @return true if this call performed the transition
+     */
+    public boolean transition(Booking booking, BookingStatus to) {
+        Collection<BookingStatus> from = to == BookingStatus.CONFIRMED
+                ? EnumSet.of(BookingStatus.HELD)
+                : EnumSet.of(BookingStatus.HELD, BookingStatus.CONFIRMED);
+        return transition(booking.getBookingUuid(), booking.getVehicle().getId(), booking.getStartDate(), from, to);
+    }
+
+    /**
+     * Variant of transition(Booking, BookingStatus) for callers that only
+     * hold the booking's key fields (e.g. hold expiry).
+     */
+    public boolean transition(UUID bookingUuid, long vehicleId, LocalDate startDate,
+            Collection<BookingStatus> from, BookingStatus to) {
+        int updated = shardRouter.writeForVehicle(vehicleId,
+                () -> bookingRepository.transitionStatus(bookingUuid, from, to, LocalDateTime.now()));
+        if (updated == 0) {
+            return false;
+        }
+        fleetRollups.transitioned(vehicleId, to);
+        if (!to.occupiesVehicle()) {
+            bookingEngine.release(vehicleId, startDate, bookingUuid);
+            bookingEventLog.ifAvailable(eventLog -> eventLog.appendReleased(bookingUuid, vehicleId, startDate));
+        }
+        return true;
+    }
+
+    // ============================================
+    // QUERIES
+    // ============================================
+
+    public BookingResponse getBooking(UUID bookingUuid, UUID userId) {
+        return BookingResponse.from(findOwnedBooking(bookingUuid, userId));
+    }
+
+    // ============================================
+    // HELPERS
+    // ============================================
+
+    private CarModel findCarModel(UUID carModelUuid) {
+        if (carModelUuid == null) {
+            throw new InvalidRequestException("carModelUuid is required");
+        }
+        // In-memory catalogue first: keeps the request thread off the connection pool
+        return catalogueService.findByUuid(carModelUuid)
+                .or(() -> carModelRepository.findByCarModelUuid(carModelUuid))
+                .orElseThrow(() -> new ResourceNotFoundException("Car model not found: " + carModelUuid));
+    }
+
+    /**
+     * Load a booking, hiding bookings that belong to somebody else.
+     * Anonymous bookings (no userId) can be accessed by their UUID alone.
+     *
+     * The UUID does not tell the shard, so every shard is asked. While an
+     * operator is being moved its bookings are on two shards; the copy on the
+     * operator's current shard wins.
+     */
+    public Booking findOwnedBooking(UUID bookingUuid, UUID userId) {
+        List<Optional<Booking>> perShard = shardRouter.scatterGather(
+                shard -> bookingRepository.findByBookingUuid(bookingUuid));
+        Booking booking = null;
+        for (int shard = 0; shard < perShard.size(); shard++) {
+            Booking found = perShard.get(shard).orElse(null);
+            if (found != null && (booking == null
+                    || shard == shardRouter.shardFor(shardRouter.operatorOfVehicle(found.getVehicle().getId())))) {
+                booking = found;
+            }
+        }
+        if (booking == null) {
+            throw new ResourceNotFoundException("Booking not found: " + bookingUuid);
+        }
+        if (booking.getUserId() != null && !booking.getUserId().equals(userId)) {
+            throw new AccessDeniedException("Booking belongs to another user");
+        }
+        return booking;
+    }
+
+    private void validatePeriod(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            throw new InvalidRequestException("startDate and endDate are required");
+        }
+        if (!startDate.isBefore(endDate)) {
+            throw new InvalidRequestException("endDate must be after startDate");
+        }
+        if (startDate.isBefore(LocalDate.now())) {
+            throw new InvalidRequestException("startDate must not be in the past");
+        }
+        if (endDate.isAfter(availabilityCalendar.horizonEnd())) {
+            throw new InvalidRequestException("endDate is beyond the booking horizon "
+                    + availabilityCalendar.horizonEnd());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.engine.CatalogueListener;
+import com.exploresg.fleetservice.model.CarModel;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Clears the CarModel second-level cache regions whenever the catalogue
+ * version moves.
+ *
+ * Hibernate keeps its caches consistent for writes it makes itself, but the
+ * bulk import writes with plain JDBC batches, other nodes write to the same
+ * tables, and SQL may be run by hand. All of these end in a catalogue rebuild
+ * with a new version, so the version is the signal. Catalogue changes are
+ * rare; dropping the whole region is cheaper than tracking entries.
+ */
+@Slf4j
+@Component
+public class CarModelCacheEvictor implements CatalogueListener {
+
+    private static final String LOOKUP_REGION = "car-model-lookups";
+
+    private final SessionFactory sessionFactory;
+
+    // Catalogue rebuilds never overlap
+    private long version = -1;
+
+    public CarModelCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    @Override
+    public void catalogueChanged(List<CarModel> models, long version) {
+        if (version == this.version) {
+            return;
+        }
+        if (this.version >= 0) {
+            sessionFactory.getCache().evictEntityData(CarModel.class);
+            sessionFactory.getCache().evictQueryRegion(LOOKUP_REGION);
+            log.debug("Evicted cached car models for catalogue version {}", version);
+        }
+        this.version = version;
+    }
+}
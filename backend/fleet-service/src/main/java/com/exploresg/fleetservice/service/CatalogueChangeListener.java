@@ -0,0 +1,55 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.model.CarModel;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA listener on CarModel: rebuilds the catalogue (and so advances its
+ * version) after a transaction that wrote CarModels commits.
+ *
+ * Several writes in one transaction trigger a single rebuild. The bulk import
+ * writes with JDBC and rebuilds on its own.
+ */
+@Component
+public class CatalogueChangeListener {
+
+    private static final Object REBUILD_PENDING = new Object();
+
+    // Lazy: the listener is created with the EntityManagerFactory, before the catalogue
+    private final ObjectProvider<CatalogueService> catalogueService;
+
+    public CatalogueChangeListener(ObjectProvider<CatalogueService> catalogueService) {
+        this.catalogueService = catalogueService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void carModelWritten(CarModel carModel) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            catalogueService.getObject().rebuild();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(REBUILD_PENDING)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(REBUILD_PENDING, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                catalogueService.getObject().rebuild();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(REBUILD_PENDING);
+            }
+        });
+    }
+}
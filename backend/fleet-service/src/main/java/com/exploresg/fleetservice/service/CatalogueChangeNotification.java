@@ -0,0 +1,27 @@
+package com.exploresg.fleetservice.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Catalogue change announced to the other fleet-service nodes.
+ *
+ * Sent by the node that advanced the catalogue version. A receiver at
+ * baseVersion reloads only the listed models; a receiver at any other older
+ * version has missed a change (version gap) and reloads everything.
+ *
+ * @param originNode           node that made the change; it ignores its own notifications
+ * @param version              catalogue version after the change
+ * @param baseVersion          version the change was computed against
+ * @param lastModified         lastModified of the new version
+ * @param changedCarModelUuids models added, updated or removed; null if too many to list
+ *                             (receivers reload everything)
+ */
+public record CatalogueChangeNotification(String originNode, long version, long baseVersion,
+        Instant lastModified, List<UUID> changedCarModelUuids) {
+
+    public boolean fullReload() {
+        return changedCarModelUuids == null;
+    }
+}
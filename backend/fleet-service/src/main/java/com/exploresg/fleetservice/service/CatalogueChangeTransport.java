@@ -0,0 +1,21 @@
+package com.exploresg.fleetservice.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Channel carrying CatalogueChangeNotifications between fleet-service nodes.
+ *
+ * Selected with fleet.catalogue-sync.transport:
+ * - loopback (default): in-process only, for a single node and for tests
+ * - jdbc: a change table in the shared database, polled by every node
+ *
+ * Delivery is at least once and mostly in order; CatalogueService ignores
+ * versions it already has and reloads fully on a gap, so duplicates and
+ * reordering are harmless. Receivers run on the transport's own thread.
+ */
+public interface CatalogueChangeTransport {
+
+    void publish(CatalogueChangeNotification notification);
+
+    void subscribe(Consumer<CatalogueChangeNotification> receiver);
+}
@@ -0,0 +1,450 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.CatalogueImportResponse;
+import com.exploresg.fleetservice.exception.InvalidRequestException;
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.FuelType;
+import com.exploresg.fleetservice.model.Manufacturer;
+import com.exploresg.fleetservice.model.Transmission;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bulk import of CarModels from CSV or NDJSON.
+ *
+ * - The body is read line by line; at most one chunk of rows is held in memory
+ * - Each row is validated on its own (required fields, numbers, enum values);
+ *   invalid rows are reported with their line number and skipped
+ * - Valid rows are upserted by carModelUuid with JDBC batches, one transaction
+ *   per chunk (fleet.import.chunk-size). Rows without a carModelUuid are inserted
+ *   with a new one
+ * - If a chunk fails in the database, its rows are retried one by one so the
+ *   error can be attributed to a line
+ * - The in-memory catalogue is rebuilt once at the end, not per row
+ *
+ * Field names are those of CarModelResponse (CSV: header row, NDJSON: object keys),
+ * so an export can be imported again unchanged.
+ */
+@Slf4j
+@Service
+public class CatalogueImportService {
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String INSERT_SQL = "insert into car_model (model, manufacturer, seats, transmission, "
+            + "picture, category, fuel_type, model_year, engine_capacity_cc, max_unladen_weight_kg, "
+            + "max_laden_weight_kg, range_in_km, has_air_conditioning, has_infotainment_system, safety_rating, "
+            + "top_speed_kph, zero_to_hundred_sec, car_model_uuid) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL = "update car_model set model = ?, manufacturer = ?, seats = ?, "
+            + "transmission = ?, picture = ?, category = ?, fuel_type = ?, model_year = ?, "
+            + "engine_capacity_cc = ?, max_unladen_weight_kg = ?, max_laden_weight_kg = ?, range_in_km = ?, "
+            + "has_air_conditioning = ?, has_infotainment_system = ?, safety_rating = ?, top_speed_kph = ?, "
+            + "zero_to_hundred_sec = ? where car_model_uuid = ?";
+
+    /**
+     * SQL types of the shared parameter list (insert and update bind the same order).
+     */
+    private static final int[] ARG_TYPES = {
+            Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.VARCHAR,
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.INTEGER, Types.INTEGER,
+            Types.INTEGER, Types.INTEGER, Types.BOOLEAN, Types.BOOLEAN, Types.VARCHAR,
+            Types.INTEGER, Types.DOUBLE, Types.OTHER
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogueService catalogueService;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public CatalogueImportService(JdbcTemplate jdbcTemplate,
+            NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            CatalogueService catalogueService,
+            ObjectMapper objectMapper,
+            @Value("${fleet.import.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.catalogueService = catalogueService;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * A validated row, waiting for its chunk to be written.
+     */
+    private record ImportRow(int line, CarModel model) {
+    }
+
+    /**
+     * Running totals of one import.
+     */
+    private static final class Progress {
+        private int rows;
+        private int inserted;
+        private int updated;
+        private int failed;
+        private final List<CatalogueImportResponse.RowError> errors = new ArrayList<>();
+
+        private void fail(int line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new CatalogueImportResponse.RowError(line, message));
+            }
+        }
+    }
+
+    // ============================================
+    // IMPORT
+    // ============================================
+
+    /**
+     * Import CarModels from a stream.
+     *
+     * @param in     request body, read until EOF (not closed)
+     * @param format CSV (with header row) or NDJSON (one object per line)
+     * @return totals and per-row errors (the first 1000)
+     */
+    public CatalogueImportResponse importModels(InputStream in, Format format) throws IOException {
+        long started = System.nanoTime();
+        Progress progress = new Progress();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        String[] header = null;
+        // Keyed by UUID: a model appearing twice in a chunk is written once (last row wins)
+        Map<UUID, ImportRow> chunk = new LinkedHashMap<>();
+        String line;
+        int lineNumber = 0;
+        try {
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && header == null) {
+                    try {
+                        header = parseCsvLine(line);
+                    } catch (IllegalArgumentException e) {
+                        throw new InvalidRequestException("Invalid CSV header: " + e.getMessage());
+                    }
+                    for (int i = 0; i < header.length; i++) {
+                        header[i] = header[i].trim();
+                    }
+                    continue;
+                }
+                progress.rows++;
+                try {
+                    Map<String, String> fields = format == Format.CSV ? csvFields(header, line) : jsonFields(line);
+                    CarModel model = toCarModel(fields);
+                    chunk.remove(model.getCarModelUuid());
+                    chunk.put(model.getCarModelUuid(), new ImportRow(lineNumber, model));
+                } catch (IllegalArgumentException e) {
+                    progress.fail(lineNumber, e.getMessage());
+                }
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(chunk.values(), progress);
+                    chunk.clear();
+                }
+            }
+            if (format == Format.CSV && header == null) {
+                throw new InvalidRequestException("CSV import needs a header row");
+            }
+            writeChunk(chunk.values(), progress);
+        } finally {
+            // Also after a failure part way through: earlier chunks are committed
+            if (progress.inserted + progress.updated > 0) {
+                catalogueService.rebuild();
+            }
+        }
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Catalogue import: {} rows, {} inserted, {} updated, {} failed in {} ms",
+                progress.rows, progress.inserted, progress.updated, progress.failed, durationMs);
+        return CatalogueImportResponse.builder()
+                .rows(progress.rows)
+                .inserted(progress.inserted)
+                .updated(progress.updated)
+                .failed(progress.failed)
+                .durationMs(durationMs)
+                .errors(progress.errors)
+                .errorsTruncated(progress.failed > progress.errors.size())
+                .build();
+    }
+
+    // ============================================
+    // WRITE
+    // ============================================
+
+    private void writeChunk(Collection<ImportRow> rows, Progress progress) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<ImportRow> batch = List.copyOf(rows);
+        try {
+            int[] counts = transactionTemplate.execute(status -> upsert(batch));
+            progress.inserted += counts[0];
+            progress.updated += counts[1];
+        } catch (DataAccessException e) {
+            log.warn("Import chunk of {} rows failed, retrying row by row: {}", batch.size(), e.getMessage());
+            for (ImportRow row : batch) {
+                try {
+                    int[] counts = transactionTemplate.execute(status -> upsert(List.of(row)));
+                    progress.inserted += counts[0];
+                    progress.updated += counts[1];
+                } catch (DataAccessException rowError) {
+                    progress.fail(row.line(), rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Split the rows into updates (UUID already stored) and inserts, and write
+     * each group as one JDBC batch.
+     *
+     * @return {inserted, updated}
+     */
+    private int[] upsert(List<ImportRow> rows) {
+        Set<UUID> existing = new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                "select car_model_uuid from car_model where car_model_uuid in (:uuids)",
+                Map.of("uuids", rows.stream().map(row -> row.model().getCarModelUuid()).toList()),
+                UUID.class));
+
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        for (ImportRow row : rows) {
+            (existing.contains(row.model().getCarModelUuid()) ? updates : inserts).add(toArgs(row.model()));
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts, ARG_TYPES);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates, ARG_TYPES);
+        }
+        return new int[] { inserts.size(), updates.size() };
+    }
+
+    private static Object[] toArgs(CarModel m) {
+        return new Object[] {
+                m.getModel(), m.getManufacturer().name(), m.getSeats(), m.getTransmission().name(),
+                m.getImageUrl(), m.getCategory().name(), m.getFuelType().name(), m.getModelYear(),
+                m.getEngineCapacityCc(), m.getMaxUnladenWeightKg(), m.getMaxLadenWeightKg(), m.getRangeInKm(),
+                m.isHasAirConditioning(), m.isHasInfotainmentSystem(), m.getSafetyRating(),
+                m.getTopSpeedKph(), m.getZeroToHundredSec(), m.getCarModelUuid()
+        };
+    }
+
+    // ============================================
+    // PARSING / VALIDATION
+    // ============================================
+
+    /**
+     * Validate one row. All problems of the row are reported together.
+     *
+     * @throws IllegalArgumentException listing every invalid field
+     */
+    private static CarModel toCarModel(Map<String, String> fields) {
+        List<String> errors = new ArrayList<>();
+        CarModel model = CarModel.builder()
+                .carModelUuid(parseUuid(fields.get("carModelUuid"), errors))
+                .model(required(fields, "model", errors))
+                .manufacturer(parseEnum(Manufacturer.class, fields, "manufacturer", errors))
+                .seats(parseInt(fields, "seats", true, errors))
+                .transmission(parseEnum(Transmission.class, fields, "transmission", errors))
+                .imageUrl(blankToNull(fields.get("imageUrl")))
+                .category(parseEnum(Category.class, fields, "category", errors))
+                .fuelType(parseEnum(FuelType.class, fields, "fuelType", errors))
+                .modelYear(parseInt(fields, "modelYear", true, errors))
+                .engineCapacityCc(parseInt(fields, "engineCapacityCc", false, errors))
+                .maxUnladenWeightKg(parseInt(fields, "maxUnladenWeightKg", false, errors))
+                .maxLadenWeightKg(parseInt(fields, "maxLadenWeightKg", false, errors))
+                .rangeInKm(parseInt(fields, "rangeInKm", false, errors))
+                .hasAirConditioning(parseBoolean(fields, "hasAirConditioning", errors))
+                .hasInfotainmentSystem(parseBoolean(fields, "hasInfotainmentSystem", errors))
+                .safetyRating(blankToNull(fields.get("safetyRating")))
+                .topSpeedKph(parseInt(fields, "topSpeedKph", false, errors))
+                .zeroToHundredSec(parseDouble(fields, "zeroToHundredSec", errors))
+                .build();
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", errors));
+        }
+        return model;
+    }
+
+    private static UUID parseUuid(String value, List<String> errors) {
+        if (value == null || value.isBlank()) {
+            return UUID.randomUUID();
+        }
+        try {
+            return UUID.fromString(value.trim());
+        } catch (IllegalArgumentException e) {
+            errors.add("carModelUuid: not a UUID '" + value + "'");
+            return null;
+        }
+    }
+
+    private static String required(Map<String, String> fields, String name, List<String> errors) {
+        String value = blankToNull(fields.get(name));
+        if (value == null) {
+            errors.add(name + ": required");
+        }
+        return value;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, Map<String, String> fields, String name,
+            List<String> errors) {
+        String value = required(fields, name, errors);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            errors.add(name + ": unknown value '" + value + "', expected one of "
+                    + Arrays.toString(type.getEnumConstants()));
+            return null;
+        }
+    }
+
+    private static Integer parseInt(Map<String, String> fields, String name, boolean required, List<String> errors) {
+        String value = required ? required(fields, name, errors) : blankToNull(fields.get(name));
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            errors.add(name + ": not an integer '" + value + "'");
+            return null;
+        }
+    }
+
+    private static Double parseDouble(Map<String, String> fields, String name, List<String> errors) {
+        String value = blankToNull(fields.get(name));
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            errors.add(name + ": not a number '" + value + "'");
+            return null;
+        }
+    }
+
+    private static boolean parseBoolean(Map<String, String> fields, String name, List<String> errors) {
+        String value = blankToNull(fields.get(name));
+        if (value == null || value.equalsIgnoreCase("false")) {
+            return false;
+        }
+        if (value.equalsIgnoreCase("true")) {
+            return true;
+        }
+        errors.add(name + ": expected true or false, got '" + value + "'");
+        return false;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private Map<String, String> jsonFields(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("malformed JSON: " + e.getOriginalMessage());
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("expected a JSON object");
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (Map.Entry<String, JsonNode> field : node.properties()) {
+            fields.put(field.getKey(), field.getValue().isNull() ? null : field.getValue().asText());
+        }
+        return fields;
+    }
+
+    private static Map<String, String> csvFields(String[] header, String line) {
+        String[] values = parseCsvLine(line);
+        if (values.length != header.length) {
+            throw new IllegalArgumentException("expected " + header.length + " columns, got " + values.length);
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            fields.put(header[i], values[i]);
+        }
+        return fields;
+    }
+
+    /**
+     * Split one CSV line (RFC 4180 quoting: "a,b" and "" for a quote inside
+     * quotes). Quoted values spanning several lines are not supported.
+     */
+    static String[] parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted value");
+        }
+        values.add(current.toString());
+        return values.toArray(String[]::new);
+    }
+}
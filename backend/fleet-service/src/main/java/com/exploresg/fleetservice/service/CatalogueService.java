@@ -0,0 +1,475 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.common.codec.BinaryCodec;
+import com.exploresg.fleetservice.dto.CatalogueFacetsResponse;
+import com.exploresg.fleetservice.dto.FacetFilter;
+import com.exploresg.fleetservice.engine.CatalogueDiskCache;
+import com.exploresg.fleetservice.engine.CatalogueListener;
+import com.exploresg.fleetservice.engine.ModelSearchIndex;
+import com.exploresg.fleetservice.engine.SimilarModelIndex;
+import com.exploresg.fleetservice.exception.InvalidRequestException;
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.CatalogueVersion;
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.FuelType;
+import com.exploresg.fleetservice.model.Manufacturer;
+import com.exploresg.fleetservice.model.Transmission;
+import com.exploresg.fleetservice.repository.CarModelRepository;
+import com.exploresg.fleetservice.repository.CatalogueVersionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * In-memory catalogue of all CarModels.
+ *
+ * The catalogue is small and read on every browse/search request, so it is
+ * held as an immutable snapshot that is swapped atomically on rebuild.
+ * Readers never block and never see a half-built catalogue.
+ *
+ * Every snapshot carries the catalogue version (CatalogueVersion). A rebuild
+ * hashes the catalogue content and advances the stored version when the hash
+ * changed, so the version moves on every CarModel write - through the bulk
+ * import, JPA (CatalogueChangeListener) or even SQL run by hand, which is
+ * picked up on the next rebuild or restart. The version backs the catalogue
+ * ETags; the facet counts are precomputed with it. CatalogueListeners are
+ * told about every rebuild.
+ *
+ * With several nodes, the node that advances the version announces the
+ * changed models over the CatalogueChangeTransport. The other nodes reload
+ * just those models when the change is based on the version they hold, and
+ * reload everything when they missed one (version gap). A periodic check of
+ * the stored version catches lost notifications.
+ *
+ * Each snapshot is also written to the CatalogueDiskCache when enabled. A
+ * restart adopts that file instead of reading the car_model table when it
+ * holds the stored version and content hash, then reads the table once in
+ * the background: SQL run by hand does not move the stored version, so only
+ * the table itself shows such a change.
+ *
+ * Cached entities are shared between threads and must be treated as read-only.
+ */
+@Slf4j
+@Service
+public class CatalogueService {
+
+    public static final int MAX_SEARCH_RESULTS = 50;
+    // Beyond this a change is announced as a full reload
+    public static final int MAX_PATCH_MODELS = 1000;
+
+    private final CarModelRepository carModelRepository;
+    private final CatalogueVersionRepository catalogueVersionRepository;
+    // Own transaction: rebuilds also run from afterCommit callbacks of finished transactions
+    private final TransactionTemplate versionTransaction;
+    private final ObjectProvider<CatalogueListener> listeners;
+    private final ModelSearchIndex searchIndex;
+    private final SimilarModelIndex similarModels;
+    private final CatalogueChangeTransport changeTransport;
+    private final CatalogueDiskCache diskCache;
+    private final String nodeId;
+    private final Counter patched;
+    private final Counter reloaded;
+    private final Counter ignored;
+
+    private volatile Snapshot snapshot = new Snapshot(List.of(), Map.of(), Map.of(),
+            new Version(0, Instant.EPOCH), CatalogueFacetsResponse.builder().build());
+
+    private record Snapshot(List<CarModel> models, Map<UUID, CarModel> byUuid, Map<Long, CarModel> byId,
+            Version version, CatalogueFacetsResponse facets) {
+    }
+
+    public CatalogueService(CarModelRepository carModelRepository,
+            CatalogueVersionRepository catalogueVersionRepository,
+            PlatformTransactionManager transactionManager,
+            ObjectProvider<CatalogueListener> listeners,
+            ModelSearchIndex searchIndex,
+            SimilarModelIndex similarModels,
+            CatalogueChangeTransport changeTransport,
+            ObjectProvider<CatalogueDiskCache> diskCache,
+            MeterRegistry meterRegistry,
+            @Value("${fleet.catalogue-sync.node-id:}") String nodeId) {
+        this.carModelRepository = carModelRepository;
+        this.catalogueVersionRepository = catalogueVersionRepository;
+        this.versionTransaction = new TransactionTemplate(transactionManager);
+        this.versionTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.listeners = listeners;
+        this.searchIndex = searchIndex;
+        this.similarModels = similarModels;
+        this.changeTransport = changeTransport;
+        this.diskCache = diskCache.getIfAvailable();
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.patched = receivedCounter(meterRegistry, "patched");
+        this.reloaded = receivedCounter(meterRegistry, "reloaded");
+        this.ignored = receivedCounter(meterRegistry, "ignored");
+    }
+
+    private static Counter receivedCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("fleet.catalogue.sync.received")
+                .tag("outcome", outcome)
+                .description("Catalogue change notifications from other nodes, by outcome")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Catalogue version of the current snapshot.
+     *
+     * @param number       advances on every content change, never reused
+     * @param lastModified when the content last changed (whole seconds, as in HTTP dates)
+     */
+    public record Version(long number, Instant lastModified) {
+
+        /**
+         * Strong entity tag for a catalogue representation, quoted as sent in the ETag header.
+         */
+        public String etag(BinaryCodec.Format format) {
+            return etag(format, false);
+        }
+
+        /**
+         * @param gzip tag of the gzip-encoded snapshot file: another content coding
+         *             is another representation, so it needs its own strong tag
+         */
+        public String etag(BinaryCodec.Format format, boolean gzip) {
+            return "\"c" + number + format.etagSuffix() + (gzip ? "-gzip" : "") + "\"";
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        changeTransport.subscribe(this::changeReceived);
+        if (restore()) {
+            verifyRestored();
+        } else {
+            rebuild();
+        }
+    }
+
+    /**
+     * Adopt the disk cache if it holds the stored catalogue version.
+     * Changes made by hand in SQL since are found by verifyRestored.
+     */
+    private synchronized boolean restore() {
+        if (diskCache == null) {
+            return false;
+        }
+        Optional<CatalogueDiskCache.Contents> cached = diskCache.read();
+        Optional<CatalogueVersion> stored = catalogueVersionRepository.findById(CatalogueVersion.SINGLETON_ID);
+        if (cached.isEmpty() || stored.isEmpty()
+                || cached.get().version() != stored.get().getVersion()
+                || !cached.get().contentHash().equals(stored.get().getContentHash())
+                // decoded models must hash the same, or CarModel changed since the file was written
+                || !contentHash(cached.get().models()).equals(stored.get().getContentHash())) {
+            return false;
+        }
+        List<CarModel> models = cached.get().models();
+        install(models, new Version(stored.get().getVersion(),
+                stored.get().getUpdatedAt().truncatedTo(ChronoUnit.SECONDS)));
+        log.info("Catalogue restored from the disk cache with {} car models (version {})",
+                models.size(), stored.get().getVersion());
+        return true;
+    }
+
+    /**
+     * Hash the car_model table off the startup path and rebuild if it no
+     * longer matches the stored version, which the restored snapshot holds.
+     */
+    private void verifyRestored() {
+        Thread verifier = new Thread(() -> {
+            try {
+                String tableHash = contentHash(carModelRepository.findAll(Sort.by("id")));
+                Optional<CatalogueVersion> stored =
+                        catalogueVersionRepository.findById(CatalogueVersion.SINGLETON_ID);
+                if (stored.isEmpty() || !stored.get().getContentHash().equals(tableHash)) {
+                    log.info("car_model changed since the disk cache was written, rebuilding");
+                    rebuild();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not check the restored catalogue against car_model", e);
+            }
+        }, "catalogue-verify");
+        verifier.setDaemon(true);
+        verifier.start();
+    }
+
+    /**
+     * Reload the whole catalogue from the database.
+     */
+    public synchronized void rebuild() {
+        Snapshot previous = snapshot;
+        List<CarModel> models = carModelRepository.findAll(Sort.by("id"));
+        ResolvedVersion resolved = resolveVersion(contentHash(models));
+        Version version = new Version(resolved.stored().getVersion(),
+                resolved.stored().getUpdatedAt().truncatedTo(ChronoUnit.SECONDS));
+        Snapshot rebuilt = install(models, version);
+        persist(rebuilt, resolved.stored().getContentHash());
+        log.info("Catalogue rebuilt with {} car models (version {})", models.size(), version.number());
+        if (resolved.advanced()) {
+            announce(previous, rebuilt);
+        }
+    }
+
+    private Snapshot install(List<CarModel> models, Version version) {
+        Map<UUID, CarModel> byUuid = new HashMap<>(models.size() * 2);
+        Map<Long, CarModel> byId = new HashMap<>(models.size() * 2);
+        for (CarModel model : models) {
+            byUuid.put(model.getCarModelUuid(), model);
+            byId.put(model.getId(), model);
+        }
+        Snapshot installed = new Snapshot(List.copyOf(models), Map.copyOf(byUuid), Map.copyOf(byId),
+                version, buildFacets(models, version));
+        snapshot = installed;
+        listeners.orderedStream().forEach(listener -> listener.catalogueChanged(installed.models(), version.number()));
+        return installed;
+    }
+
+    private void persist(Snapshot installed, String contentHash) {
+        if (diskCache != null) {
+            diskCache.write(installed.models(), installed.version().number(), installed.version().lastModified(),
+                    contentHash);
+        }
+    }
+
+    public List<CarModel> findAll() {
+        return snapshot.models();
+    }
+
+    public List<CarModel> find(FacetFilter filter) {
+        List<CarModel> models = snapshot.models();
+        return filter.isEmpty() ? models : models.stream().filter(filter::matches).toList();
+    }
+
+    /**
+     * Typo-tolerant search over model names and manufacturers (ModelSearchIndex).
+     */
+    public List<ModelSearchIndex.Hit> search(String query, FacetFilter filter, int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new InvalidRequestException("limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+        return searchIndex.search(query, filter, limit);
+    }
+
+    /**
+     * Precomputed nearest models by features (SimilarModelIndex); may lag a
+     * catalogue change by the duration of the background recomputation.
+     */
+    public List<SimilarModelIndex.Neighbour> findSimilar(CarModel model, int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new InvalidRequestException("limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+        return similarModels.neighbours(model.getId(), limit);
+    }
+
+    public Optional<CarModel> findByUuid(UUID carModelUuid) {
+        return Optional.ofNullable(snapshot.byUuid().get(carModelUuid));
+    }
+
+    public Optional<CarModel> findById(long carModelId) {
+        return Optional.ofNullable(snapshot.byId().get(carModelId));
+    }
+
+    /**
+     * Version of the current snapshot. Read it BEFORE the data it is sent with:
+     * if a rebuild happens in between, the client gets newer data under an older
+     * tag and simply revalidates once more, instead of caching old data under
+     * the new tag.
+     */
+    public Version getVersion() {
+        return snapshot.version();
+    }
+
+    public CatalogueFacetsResponse getFacets() {
+        return snapshot.facets();
+    }
+
+    // ============================================
+    // CHANGE NOTIFICATIONS
+    // ============================================
+
+    /**
+     * Tell the other nodes which models differ between the two snapshots.
+     * A lost notification only delays them until their next version check.
+     */
+    private void announce(Snapshot previous, Snapshot current) {
+        Set<UUID> changed = new LinkedHashSet<>();
+        for (CarModel model : current.models()) {
+            if (!model.equals(previous.byUuid().get(model.getCarModelUuid()))) {
+                changed.add(model.getCarModelUuid());
+            }
+        }
+        for (UUID carModelUuid : previous.byUuid().keySet()) {
+            if (!current.byUuid().containsKey(carModelUuid)) {
+                changed.add(carModelUuid);
+            }
+        }
+        try {
+            changeTransport.publish(new CatalogueChangeNotification(nodeId, current.version().number(),
+                    previous.version().number(), current.version().lastModified(),
+                    changed.size() > MAX_PATCH_MODELS ? null : List.copyOf(changed)));
+        } catch (RuntimeException e) {
+            log.warn("Could not announce catalogue version {}", current.version().number(), e);
+        }
+    }
+
+    private synchronized void changeReceived(CatalogueChangeNotification change) {
+        long held = snapshot.version().number();
+        if (nodeId.equals(change.originNode()) || change.version() <= held) {
+            ignored.increment();
+            return;
+        }
+        if (change.fullReload() || change.baseVersion() != held) {
+            log.info("Catalogue version {} announced on top of {} while holding {}, reloading",
+                    change.version(), change.baseVersion(), held);
+            reloaded.increment();
+            rebuild();
+            return;
+        }
+        Map<UUID, CarModel> byUuid = new HashMap<>(snapshot.byUuid());
+        change.changedCarModelUuids().forEach(byUuid::remove);
+        List<CarModel> loaded = change.changedCarModelUuids().isEmpty() ? List.of()
+                : carModelRepository.findByCarModelUuidIn(change.changedCarModelUuids());
+        loaded.forEach(model -> byUuid.put(model.getCarModelUuid(), model));
+        List<CarModel> models = new ArrayList<>(byUuid.values());
+        models.sort(Comparator.comparing(CarModel::getId));
+        Snapshot installed = install(models, new Version(change.version(), change.lastModified()));
+        if (diskCache != null) {
+            persist(installed, contentHash(models));
+        }
+        patched.increment();
+        log.info("Catalogue patched to version {} ({} of {} changed models still exist)",
+                change.version(), loaded.size(), change.changedCarModelUuids().size());
+    }
+
+    /**
+     * Safety net for lost notifications: reload when the stored version moved past ours.
+     */
+    @Scheduled(fixedDelayString = "${fleet.catalogue-sync.check-interval:PT1M}")
+    public void checkVersion() {
+        long held = snapshot.version().number();
+        Optional<CatalogueVersion> stored = catalogueVersionRepository.findById(CatalogueVersion.SINGLETON_ID);
+        if (stored.isPresent() && stored.get().getVersion() > held) {
+            log.info("Stored catalogue version {} is ahead of {}, reloading", stored.get().getVersion(), held);
+            rebuild();
+        }
+    }
+
+    // ============================================
+    // VERSIONING
+    // ============================================
+
+    /**
+     * @param advanced whether this call advanced the stored version (and so announces it)
+     */
+    private record ResolvedVersion(CatalogueVersion stored, boolean advanced) {
+    }
+
+    /**
+     * Return the stored version for this content, advancing it if the content changed.
+     * Several nodes may rebuild at once; the compare-and-set makes exactly one of
+     * them advance the version and the others adopt it.
+     */
+    private ResolvedVersion resolveVersion(String contentHash) {
+        while (true) {
+            try {
+                ResolvedVersion resolved = versionTransaction.execute(status -> tryResolveVersion(contentHash));
+                if (resolved != null) {
+                    return resolved;
+                }
+            } catch (DataIntegrityViolationException e) {
+                // first row created concurrently by another node; read it again
+            }
+        }
+    }
+
+    /**
+     * @return the version, or null if another node advanced it first
+     */
+    private ResolvedVersion tryResolveVersion(String contentHash) {
+        Optional<CatalogueVersion> stored = catalogueVersionRepository.findById(CatalogueVersion.SINGLETON_ID);
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        if (stored.isEmpty()) {
+            return new ResolvedVersion(catalogueVersionRepository.saveAndFlush(new CatalogueVersion(
+                    CatalogueVersion.SINGLETON_ID, 1L, contentHash, now)), true);
+        }
+        CatalogueVersion current = stored.get();
+        if (current.getContentHash().equals(contentHash)) {
+            return new ResolvedVersion(current, false);
+        }
+        if (catalogueVersionRepository.advance(CatalogueVersion.SINGLETON_ID, current.getVersion(),
+                contentHash, now) == 1) {
+            return new ResolvedVersion(new CatalogueVersion(CatalogueVersion.SINGLETON_ID,
+                    current.getVersion() + 1, contentHash, now), true);
+        }
+        return null;
+    }
+
+    private static String contentHash(List<CarModel> models) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (CarModel model : models) {
+                // Lombok toString covers every column
+                digest.update(model.toString().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // ============================================
+    // FACETS
+    // ============================================
+
+    private static CatalogueFacetsResponse buildFacets(List<CarModel> models, Version version) {
+        Map<Manufacturer, Integer> manufacturers = new EnumMap<>(Manufacturer.class);
+        Map<Category, Integer> categories = new EnumMap<>(Category.class);
+        Map<FuelType, Integer> fuelTypes = new EnumMap<>(FuelType.class);
+        Map<Transmission, Integer> transmissions = new EnumMap<>(Transmission.class);
+        Map<Integer, Integer> seats = new TreeMap<>();
+        for (CarModel model : models) {
+            manufacturers.merge(model.getManufacturer(), 1, Integer::sum);
+            categories.merge(model.getCategory(), 1, Integer::sum);
+            fuelTypes.merge(model.getFuelType(), 1, Integer::sum);
+            transmissions.merge(model.getTransmission(), 1, Integer::sum);
+            seats.merge(model.getSeats(), 1, Integer::sum);
+        }
+        return CatalogueFacetsResponse.builder()
+                .catalogueVersion(version.number())
+                .totalModels(models.size())
+                .manufacturers(Collections.unmodifiableMap(manufacturers))
+                .categories(Collections.unmodifiableMap(categories))
+                .fuelTypes(Collections.unmodifiableMap(fuelTypes))
+                .transmissions(Collections.unmodifiableMap(transmissions))
+                .seats(Collections.unmodifiableMap(seats))
+                .build();
+    }
+}
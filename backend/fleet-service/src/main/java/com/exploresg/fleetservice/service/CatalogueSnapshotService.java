@@ -0,0 +1,373 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.common.codec.BinaryCodec;
+import com.exploresg.fleetservice.dto.CarModelResponse;
+import com.exploresg.fleetservice.dto.FacetFilter;
+import com.exploresg.fleetservice.model.CarModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Materializes the anonymous catalogue pages as files on local disk, so
+ * CatalogueSnapshotFilter can send them without running a controller or a
+ * serializer.
+ *
+ * A generation is one directory of files for one catalogue version:
+ * - the full model list and the facets
+ * - the model lists for the most requested facet filters
+ *   (fleet.catalogue-snapshots.top-combinations; request counts decay by half
+ *   on every refresh so the set follows current traffic)
+ * Each in every BinaryCodec format, plain and gzip (best compression, done once
+ * per version instead of per response).
+ *
+ * Generations are written by a single background thread: when a request finds
+ * the catalogue version moved on, and on every refresh interval. Until the new
+ * generation is published, requests fall through to the controller.
+ *
+ * Replaced generations are reference counted: a generation is deleted once no
+ * request is reading it and fleet.catalogue-snapshots.retention has passed (the
+ * servlet container may still be sending a file after the filter returned).
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "fleet.catalogue-snapshots.enabled", havingValue = "true")
+public class CatalogueSnapshotService {
+
+    public static final String MODELS = "models";
+    public static final String FACETS = "facets";
+
+    private static final int MAX_TRACKED_FILTERS = 10_000;
+
+    private final CatalogueService catalogueService;
+    private final Map<BinaryCodec.Format, ObjectMapper> mappers = new EnumMap<>(BinaryCodec.Format.class);
+    private final Path directory;
+    private final int topCombinations;
+    private final Duration retention;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalogue-snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+    private final Map<FacetFilter, LongAdder> filterRequests = new ConcurrentHashMap<>();
+    // Ranked by maintain(), before the counts decay
+    private volatile List<FacetFilter> wantedFilters = List.of();
+    private final AtomicReference<Generation> current = new AtomicReference<>();
+    private final ConcurrentLinkedQueue<Generation> retired = new ConcurrentLinkedQueue<>();
+    // writer thread only
+    private long generationCounter;
+
+    public CatalogueSnapshotService(CatalogueService catalogueService,
+            ObjectMapper objectMapper,
+            ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder,
+            @Value("${fleet.catalogue-snapshots.directory:./data/catalogue-snapshots}") Path directory,
+            @Value("${fleet.catalogue-snapshots.top-combinations:20}") int topCombinations,
+            @Value("${fleet.catalogue-snapshots.retention:PT1M}") Duration retention) {
+        this.catalogueService = catalogueService;
+        // Same mappers as the message converters, so the files match the controller's output
+        this.mappers.put(BinaryCodec.Format.JSON, objectMapper);
+        this.mappers.put(BinaryCodec.Format.CBOR, BinaryCodec.cborMapper(objectMapperBuilder.getObject()));
+        this.mappers.put(BinaryCodec.Format.SMILE, BinaryCodec.smileMapper(objectMapperBuilder.getObject()));
+        this.directory = directory;
+        this.topCombinations = topCombinations;
+        this.retention = retention;
+    }
+
+    /**
+     * Files of one generation, keyed by fileKey(resource, format, gzip).
+     */
+    private static final class Generation {
+        private final CatalogueService.Version version;
+        private final Path directory;
+        private final Set<FacetFilter> filters;
+        private final Map<String, SnapshotFile> files;
+        // 1 while current, +1 per open lease
+        private final AtomicInteger references = new AtomicInteger(1);
+        private volatile Instant retiredAt;
+
+        private Generation(CatalogueService.Version version, Path directory, Set<FacetFilter> filters,
+                Map<String, SnapshotFile> files) {
+            this.version = version;
+            this.directory = directory;
+            this.filters = filters;
+            this.files = files;
+        }
+
+        private boolean retain() {
+            while (true) {
+                int count = references.get();
+                if (count == 0) {
+                    return false;
+                }
+                if (references.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private void release() {
+            references.decrementAndGet();
+        }
+    }
+
+    private record SnapshotFile(Path path, long length) {
+    }
+
+    /**
+     * A snapshot file held open for sending. Close it when the response is written.
+     */
+    public static final class Lease implements AutoCloseable {
+        private final Generation generation;
+        private final SnapshotFile file;
+
+        private Lease(Generation generation, SnapshotFile file) {
+            this.generation = generation;
+            this.file = file;
+        }
+
+        public Path file() {
+            return file.path();
+        }
+
+        public long length() {
+            return file.length();
+        }
+
+        public CatalogueService.Version version() {
+            return generation.version;
+        }
+
+        @Override
+        public void close() {
+            generation.release();
+        }
+    }
+
+    // ============================================
+    // LIFECYCLE
+    // ============================================
+
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        // Generations of a previous run are never referenced again
+        try (Stream<Path> leftovers = Files.list(directory)) {
+            for (Path leftover : leftovers.toList()) {
+                FileSystemUtils.deleteRecursively(leftover);
+            }
+        }
+        requestRefresh();
+    }
+
+    @PreDestroy
+    public void stop() {
+        writer.shutdownNow();
+    }
+
+    // ============================================
+    // READ SIDE (request threads)
+    // ============================================
+
+    /**
+     * Resource name of a model list page.
+     */
+    public static String modelsResource(FacetFilter filter) {
+        return filter.isEmpty() ? MODELS : MODELS + '?' + filter.key();
+    }
+
+    /**
+     * Open the file for a resource in the current catalogue version.
+     *
+     * @return empty if it is not materialized (yet): serve it the normal way
+     */
+    public Optional<Lease> acquire(String resource, BinaryCodec.Format format, boolean gzip) {
+        Generation generation = current.get();
+        if (generation == null || generation.version.number() != catalogueService.getVersion().number()) {
+            requestRefresh();
+            return Optional.empty();
+        }
+        SnapshotFile file = generation.files.get(fileKey(resource, format, gzip));
+        if (file == null || !generation.retain()) {
+            return Optional.empty();
+        }
+        return Optional.of(new Lease(generation, file));
+    }
+
+    /**
+     * Count a request for a filtered model list, to pick the filters worth materializing.
+     */
+    public void recordRequest(FacetFilter filter) {
+        if (filter.isEmpty()) {
+            return;
+        }
+        LongAdder counter = filterRequests.get(filter);
+        if (counter == null) {
+            if (filterRequests.size() >= MAX_TRACKED_FILTERS) {
+                return;
+            }
+            counter = filterRequests.computeIfAbsent(filter, key -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    private static String fileKey(String resource, BinaryCodec.Format format, boolean gzip) {
+        return resource + ' ' + format + (gzip ? " gzip" : "");
+    }
+
+    // ============================================
+    // WRITE SIDE
+    // ============================================
+
+    /**
+     * Decay the request counts, delete unreferenced generations and refresh the
+     * materialized filters.
+     */
+    @Scheduled(fixedDelayString = "${fleet.catalogue-snapshots.refresh-interval:PT1M}")
+    public void maintain() {
+        wantedFilters = mostRequestedFilters();
+        for (Iterator<Map.Entry<FacetFilter, LongAdder>> it = filterRequests.entrySet().iterator(); it.hasNext(); ) {
+            LongAdder counter = it.next().getValue();
+            long halved = counter.sumThenReset() / 2;
+            if (halved == 0) {
+                it.remove();
+            } else {
+                counter.add(halved);
+            }
+        }
+        Instant cutoff = Instant.now().minus(retention);
+        for (Iterator<Generation> it = retired.iterator(); it.hasNext(); ) {
+            Generation generation = it.next();
+            if (generation.references.get() == 0 && generation.retiredAt.isBefore(cutoff)) {
+                it.remove();
+                try {
+                    FileSystemUtils.deleteRecursively(generation.directory);
+                } catch (IOException e) {
+                    log.warn("Could not delete catalogue snapshot {}: {}", generation.directory, e.getMessage());
+                }
+            }
+        }
+        requestRefresh();
+    }
+
+    private void requestRefresh() {
+        if (refreshQueued.compareAndSet(false, true)) {
+            writer.execute(this::refresh);
+        }
+    }
+
+    private void refresh() {
+        refreshQueued.set(false);
+        try {
+            // Version first: data read afterwards is at least as new (see CatalogueService.getVersion)
+            CatalogueService.Version version = catalogueService.getVersion();
+            List<FacetFilter> wanted = wantedFilters;
+            Generation generation = current.get();
+            if (generation != null && generation.version.number() == version.number()
+                    && generation.filters.containsAll(wanted)) {
+                return;
+            }
+            publish(materialize(version, wanted));
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Could not write catalogue snapshot: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Catalogue snapshot refresh failed", e);
+        }
+    }
+
+    private List<FacetFilter> mostRequestedFilters() {
+        return filterRequests.entrySet().stream()
+                .sorted(Comparator.comparingLong(
+                        (Map.Entry<FacetFilter, LongAdder> entry) -> entry.getValue().sum()).reversed())
+                .limit(topCombinations)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private Generation materialize(CatalogueService.Version version, List<FacetFilter> filters) throws IOException {
+        long started = System.nanoTime();
+        Path target = directory.resolve(version.number() + "-" + (++generationCounter));
+        Files.createDirectories(target);
+        Map<String, SnapshotFile> files = new HashMap<>();
+
+        List<CarModel> models = catalogueService.findAll();
+        write(target, files, MODELS, models.stream().map(CarModelResponse::from).toList());
+        write(target, files, FACETS, catalogueService.getFacets());
+        for (FacetFilter filter : filters) {
+            write(target, files, modelsResource(filter),
+                    models.stream().filter(filter::matches).map(CarModelResponse::from).toList());
+        }
+        log.info("Catalogue snapshot for version {} written: {} files in {} ms", version.number(), files.size(),
+                (System.nanoTime() - started) / 1_000_000);
+        return new Generation(version, target, Set.copyOf(filters), Map.copyOf(files));
+    }
+
+    private void write(Path target, Map<String, SnapshotFile> files, String resource, Object body)
+            throws IOException {
+        for (BinaryCodec.Format format : BinaryCodec.Format.values()) {
+            byte[] bytes = mappers.get(format).writeValueAsBytes(body);
+            // Resource names contain query characters: number the files instead
+            String name = files.size() + "." + format.name().toLowerCase(Locale.ROOT);
+
+            Path plain = target.resolve(name);
+            Files.write(plain, bytes);
+            files.put(fileKey(resource, format, false), new SnapshotFile(plain, bytes.length));
+
+            Path gzip = target.resolve(name + ".gz");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzip), 1 << 16) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            }) {
+                out.write(bytes);
+            }
+            files.put(fileKey(resource, format, true), new SnapshotFile(gzip, Files.size(gzip)));
+        }
+    }
+
+    private void publish(Generation next) {
+        Generation previous = current.getAndSet(next);
+        if (previous != null) {
+            previous.retiredAt = Instant.now();
+            retired.add(previous);
+            previous.release();
+        }
+    }
+}
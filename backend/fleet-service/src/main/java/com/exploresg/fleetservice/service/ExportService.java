@@ -0,0 +1,389 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.exception.InvalidRequestException;
+import com.exploresg.fleetservice.model.CarModel;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streaming exports of the catalogue and the booking history.
+ *
+ * Rows are read through a forward-only JDBC cursor (fetch size
+ * fleet.export.fetch-size, inside a read-only transaction so PostgreSQL uses a
+ * server-side cursor) and written to the output as they arrive. Nothing is
+ * collected in memory and no entities are created, so memory use does not
+ * depend on the number of rows.
+ *
+ * Every row starts with an opaque cursor. A client that lost the connection
+ * resumes with after=&lt;cursor of the last row it received&gt;; limit splits an
+ * export into ranges. Rows are ordered by their database id (keyset pagination),
+ * so resuming never skips or repeats a row. Bookings are exported one data
+ * shard after the other (see OperatorShardRouter), in id order within a shard,
+ * and their cursors carry the shard.
+ *
+ * Model exports use the CarModelResponse field names and can be fed back into
+ * the bulk import unchanged (the cursor column is ignored there).
+ */
+@Slf4j
+@Service
+public class ExportService {
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    private enum Kind {
+        STRING, INTEGER, DOUBLE, BOOLEAN, UUID, DATE, TIMESTAMP,
+        // car_model id, written as the model's UUID from the catalogue
+        CAR_MODEL
+    }
+
+    /**
+     * Position of an export: after row afterId of the given data shard.
+     */
+    public record Cursor(int shard, long afterId) {
+        public static final Cursor START = new Cursor(0, 0);
+    }
+
+    private record Column(String name, Kind kind) {
+    }
+
+    private static final String CURSOR_PREFIX = "v1:";
+    // v2:<shard>:<id>, for rows of shards other than 0
+    private static final String SHARD_CURSOR_PREFIX = "v2:";
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private static final String MODELS_SQL = "select id, car_model_uuid, model, manufacturer, seats, transmission, "
+            + "picture, category, fuel_type, model_year, engine_capacity_cc, max_unladen_weight_kg, "
+            + "max_laden_weight_kg, range_in_km, has_air_conditioning, has_infotainment_system, safety_rating, "
+            + "top_speed_kph, zero_to_hundred_sec from car_model where id > ? order by id";
+
+    private static final List<Column> MODEL_COLUMNS = List.of(
+            new Column("carModelUuid", Kind.UUID),
+            new Column("model", Kind.STRING),
+            new Column("manufacturer", Kind.STRING),
+            new Column("seats", Kind.INTEGER),
+            new Column("transmission", Kind.STRING),
+            new Column("imageUrl", Kind.STRING),
+            new Column("category", Kind.STRING),
+            new Column("fuelType", Kind.STRING),
+            new Column("modelYear", Kind.INTEGER),
+            new Column("engineCapacityCc", Kind.INTEGER),
+            new Column("maxUnladenWeightKg", Kind.INTEGER),
+            new Column("maxLadenWeightKg", Kind.INTEGER),
+            new Column("rangeInKm", Kind.INTEGER),
+            new Column("hasAirConditioning", Kind.BOOLEAN),
+            new Column("hasInfotainmentSystem", Kind.BOOLEAN),
+            new Column("safetyRating", Kind.STRING),
+            new Column("topSpeedKph", Kind.INTEGER),
+            new Column("zeroToHundredSec", Kind.DOUBLE));
+
+    // car_model is not on the bookings' shard, the model UUID comes from the catalogue
+    private static final String BOOKINGS_SQL = "select b.id, b.booking_uuid, v.vehicle_uuid, b.car_model_id, "
+            + "b.user_id, b.start_date, b.end_date, b.status, b.created_at, b.updated_at "
+            + "from booking b join vehicle v on v.id = b.vehicle_id "
+            + "where b.id > ? order by b.id";
+
+    private static final List<Column> BOOKING_COLUMNS = List.of(
+            new Column("bookingUuid", Kind.UUID),
+            new Column("vehicleUuid", Kind.UUID),
+            new Column("carModelUuid", Kind.CAR_MODEL),
+            new Column("userId", Kind.UUID),
+            new Column("startDate", Kind.DATE),
+            new Column("endDate", Kind.DATE),
+            new Column("status", Kind.STRING),
+            new Column("createdAt", Kind.TIMESTAMP),
+            new Column("updatedAt", Kind.TIMESTAMP));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final CatalogueService catalogueService;
+    private final OperatorShardRouter shardRouter;
+    private final int fetchSize;
+
+    public ExportService(DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            CatalogueService catalogueService,
+            OperatorShardRouter shardRouter,
+            @Value("${fleet.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.catalogueService = catalogueService;
+        this.shardRouter = shardRouter;
+        this.fetchSize = fetchSize;
+    }
+
+    // ============================================
+    // EXPORTS
+    // ============================================
+
+    /**
+     * Write CarModels after the cursor position, in id order.
+     *
+     * @param cursor position from decodeCursor (Cursor.START to start at the beginning)
+     * @param limit  maximum rows, 0 for all
+     * @return number of rows written
+     */
+    public long exportModels(OutputStream out, Format format, Cursor cursor, int limit) {
+        return export(MODELS_SQL, MODEL_COLUMNS, out, format, cursor, limit, 1);
+    }
+
+    /**
+     * Write bookings (every status) after the cursor position, shard by shard in id order.
+     */
+    public long exportBookings(OutputStream out, Format format, Cursor cursor, int limit) {
+        return export(BOOKINGS_SQL, BOOKING_COLUMNS, out, format, cursor, limit, shardRouter.shardCount());
+    }
+
+    private long export(String sql, List<Column> columns, OutputStream out, Format format, Cursor cursor,
+            int limit, int shards) {
+        long started = System.nanoTime();
+        try {
+            RowWriter writer = format == Format.CSV
+                    ? new CsvRowWriter(out, columns)
+                    : new NdjsonRowWriter(objectMapper.getFactory().createGenerator(out), columns);
+            long rows = 0;
+            for (int shard = cursor.shard(); shard < shards; shard++) {
+                int remaining = limit > 0 ? (int) (limit - rows) : 0;
+                if (limit > 0 && remaining <= 0) {
+                    break;
+                }
+                int current = shard;
+                long afterId = shard == cursor.shard() ? cursor.afterId() : 0;
+                rows += shardRouter.onShard(shard, () -> exportShard(sql, writer, current, afterId, remaining));
+            }
+            writer.finish();
+            log.info("Exported {} rows in {} ms", rows, (System.nanoTime() - started) / 1_000_000);
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Stream the rows of one shard.
+     *
+     * @param maxRows 0 for all
+     * @return number of rows written
+     */
+    private long exportShard(String sql, RowWriter writer, int shard, long afterId, int maxRows) {
+        long[] rows = new long[1];
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(sql,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setLong(1, afterId);
+                    statement.setMaxRows(maxRows);
+                    // The fetch size may not exceed maxRows
+                    statement.setFetchSize(maxRows > 0 ? Math.min(fetchSize, maxRows) : fetchSize);
+                    return statement;
+                },
+                (RowCallbackHandler) rs -> {
+                    try {
+                        writer.write(rs, shard);
+                        if (++rows[0] % FLUSH_EVERY_ROWS == 0) {
+                            writer.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+        return rows[0];
+    }
+
+    // ============================================
+    // CURSORS
+    // ============================================
+
+    private static String encodeCursor(int shard, long id) {
+        String cursor = shard == 0 ? CURSOR_PREFIX + id : SHARD_CURSOR_PREFIX + shard + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(cursor.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Validate a client cursor. Called before the response starts streaming,
+     * so a bad cursor still gets a proper 400.
+     *
+     * @param cursor cursor of the last row received, null or blank for the beginning
+     * @return position to continue after
+     */
+    public static Cursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Cursor.START;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (decoded.startsWith(CURSOR_PREFIX)) {
+                return new Cursor(0, Long.parseLong(decoded.substring(CURSOR_PREFIX.length())));
+            }
+            if (decoded.startsWith(SHARD_CURSOR_PREFIX)) {
+                String[] parts = decoded.substring(SHARD_CURSOR_PREFIX.length()).split(":", 2);
+                int shard = Integer.parseInt(parts[0]);
+                if (shard >= 0 && parts.length == 2) {
+                    return new Cursor(shard, Long.parseLong(parts[1]));
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through
+        }
+        throw new InvalidRequestException("Invalid cursor: " + cursor);
+    }
+
+    // ============================================
+    // ROW WRITERS
+    // ============================================
+
+    /**
+     * Writes the current row of a result set: column 1 is the id (written as
+     * the cursor, with the shard), the remaining columns follow the Column list.
+     */
+    private interface RowWriter {
+        void write(ResultSet rs, int shard) throws SQLException, IOException;
+
+        void flush() throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    private Object read(ResultSet rs, int index, Kind kind) throws SQLException {
+        Object value = switch (kind) {
+            case STRING -> rs.getString(index);
+            case INTEGER -> rs.getInt(index);
+            case DOUBLE -> rs.getDouble(index);
+            case BOOLEAN -> rs.getBoolean(index);
+            case UUID -> rs.getObject(index, UUID.class);
+            case DATE -> rs.getObject(index, LocalDate.class);
+            case TIMESTAMP -> rs.getObject(index, LocalDateTime.class);
+            case CAR_MODEL -> catalogueService.findById(rs.getLong(index))
+                    .map(CarModel::getCarModelUuid)
+                    .orElse(null);
+        };
+        return rs.wasNull() ? null : value;
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+        private final List<Column> columns;
+
+        private NdjsonRowWriter(JsonGenerator generator, List<Column> columns) {
+            this.generator = generator;
+            // One object per line: newline written explicitly, no separator between root values
+            this.generator.setRootValueSeparator(null);
+            this.columns = columns;
+        }
+
+        @Override
+        public void write(ResultSet rs, int shard) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeStringField("cursor", encodeCursor(shard, rs.getLong(1)));
+            for (int i = 0; i < columns.size(); i++) {
+                Column column = columns.get(i);
+                Object value = read(rs, i + 2, column.kind());
+                generator.writeFieldName(column.name());
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Integer number) {
+                    generator.writeNumber(number);
+                } else if (value instanceof Double number) {
+                    generator.writeNumber(number);
+                } else if (value instanceof Boolean flag) {
+                    generator.writeBoolean(flag);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        private final List<Column> columns;
+
+        private CsvRowWriter(OutputStream out, List<Column> columns) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+            this.columns = columns;
+            writer.write("cursor");
+            for (Column column : columns) {
+                writer.write(',');
+                writer.write(column.name());
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(ResultSet rs, int shard) throws SQLException, IOException {
+            writer.write(encodeCursor(shard, rs.getLong(1)));
+            for (int i = 0; i < columns.size(); i++) {
+                writer.write(',');
+                Object value = read(rs, i + 2, columns.get(i).kind());
+                if (value != null) {
+                    writeEscaped(value.toString());
+                }
+            }
+            writer.write('\n');
+        }
+
+        private void writeEscaped(String value) throws IOException {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                    && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+}
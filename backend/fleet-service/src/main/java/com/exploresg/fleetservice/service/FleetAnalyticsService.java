@@ -0,0 +1,232 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.BookingRollupResponse;
+import com.exploresg.fleetservice.dto.UtilizationResponse;
+import com.exploresg.fleetservice.engine.FleetRollups;
+import com.exploresg.fleetservice.engine.OperatorIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Ops dashboard figures from the FleetRollups: booking events per
+ * minute/hour/day and utilization, per Category, FuelType and operator.
+ *
+ * Every query reads the in-memory rollups only, so its cost depends on the
+ * number of series and buckets asked for, not on the number of bookings.
+ * Events are counted by the node that handled them.
+ *
+ * With fleet.analytics.checkpoint.enabled=true the event counters are written
+ * to fleet.analytics.checkpoint.directory every
+ * fleet.analytics.checkpoint.interval and on shutdown, and loaded on startup;
+ * a crash loses at most the events of one interval. Utilization needs no
+ * checkpoint: it is rebuilt with the booking engine.
+ */
+@Slf4j
+@Service
+public class FleetAnalyticsService {
+
+    private static final String CHECKPOINT_FILE = "rollups.bin";
+
+    /**
+     * Public key and name of a series.
+     */
+    private record Identity(String key, String name) {
+    }
+
+    private final FleetRollups fleetRollups;
+    private final OperatorIndex operatorIndex;
+    private final boolean checkpointEnabled;
+    private final Path checkpointDirectory;
+
+    public FleetAnalyticsService(FleetRollups fleetRollups,
+            OperatorIndex operatorIndex,
+            @Value("${fleet.analytics.checkpoint.enabled:false}") boolean checkpointEnabled,
+            @Value("${fleet.analytics.checkpoint.directory:./data/analytics}") Path checkpointDirectory) {
+        this.fleetRollups = fleetRollups;
+        this.operatorIndex = operatorIndex;
+        this.checkpointEnabled = checkpointEnabled;
+        this.checkpointDirectory = checkpointDirectory;
+    }
+
+    // ============================================
+    // CHECKPOINT
+    // ============================================
+
+    @PostConstruct
+    public void restore() {
+        if (!checkpointEnabled) {
+            return;
+        }
+        Path path = checkpointDirectory.resolve(CHECKPOINT_FILE);
+        try {
+            byte[] bytes = Files.readAllBytes(path);
+            if (bytes.length < Integer.BYTES) {
+                log.warn("Rollup checkpoint {} is truncated, starting from zero", path);
+                return;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(bytes, 0, bytes.length - Integer.BYTES);
+            if ((int) crc.getValue() != ByteBuffer.wrap(bytes, bytes.length - Integer.BYTES, Integer.BYTES).getInt()) {
+                log.warn("Rollup checkpoint {} fails its checksum, starting from zero", path);
+                return;
+            }
+            if (!fleetRollups.restore(new DataInputStream(new ByteArrayInputStream(bytes)))) {
+                log.warn("Rollup checkpoint {} has an unknown format, starting from zero", path);
+                return;
+            }
+            log.info("Restored booking rollups from {}", path);
+        } catch (NoSuchFileException e) {
+            log.info("No rollup checkpoint in {}, starting from zero", checkpointDirectory);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read rollup checkpoint {}, starting from zero", path, e);
+        }
+    }
+
+    /**
+     * Write the event counters next to the checkpoint and move them over it.
+     * Failures are logged only.
+     */
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${fleet.analytics.checkpoint.interval:PT1M}")
+    public synchronized void checkpoint() {
+        if (!checkpointEnabled) {
+            return;
+        }
+        Path target = checkpointDirectory.resolve(CHECKPOINT_FILE);
+        Path tmp = checkpointDirectory.resolve(CHECKPOINT_FILE + ".tmp");
+        try {
+            Files.createDirectories(checkpointDirectory);
+            CheckedOutputStream checked = new CheckedOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16), new CRC32C());
+            try (DataOutputStream out = new DataOutputStream(checked)) {
+                fleetRollups.checkpoint(out);
+                out.writeInt((int) checked.getChecksum().getValue());
+            }
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write rollup checkpoint {}", target, e);
+        }
+    }
+
+    @Scheduled(cron = "${fleet.availability.roll-cron:30 0 0 * * *}")
+    public void rollWindow() {
+        fleetRollups.rollTo(LocalDate.now());
+    }
+
+    // ============================================
+    // QUERIES
+    // ============================================
+
+    /**
+     * The latest buckets of booking events for every value of a dimension.
+     *
+     * @param buckets number of buckets, capped at what the resolution keeps
+     */
+    public List<BookingRollupResponse> getBookingRollups(FleetRollups.Dimension dimension,
+            FleetRollups.Resolution resolution, int buckets) {
+        List<BookingRollupResponse> responses = new ArrayList<>();
+        long now = Instant.now().getEpochSecond();
+        for (FleetRollups.SeriesBuckets series : fleetRollups.buckets(dimension, resolution, buckets, now)) {
+            Optional<Identity> identity = identify(dimension, series.key());
+            if (identity.isEmpty()) {
+                continue;
+            }
+            Map<FleetRollups.Metric, long[]> counts = new EnumMap<>(FleetRollups.Metric.class);
+            Map<FleetRollups.Metric, Long> totals = new EnumMap<>(FleetRollups.Metric.class);
+            for (FleetRollups.Metric metric : FleetRollups.Metric.values()) {
+                long[] values = new long[series.buckets().size()];
+                long total = 0;
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = series.buckets().get(i).counts()[metric.ordinal()];
+                    total += values[i];
+                }
+                counts.put(metric, values);
+                totals.put(metric, total);
+            }
+            responses.add(BookingRollupResponse.builder()
+                    .key(identity.get().key())
+                    .name(identity.get().name())
+                    .resolution(resolution)
+                    .from(Instant.ofEpochSecond(series.buckets().get(0).start()))
+                    .counts(counts)
+                    .totals(totals)
+                    .build());
+        }
+        responses.sort(Comparator.comparing(BookingRollupResponse::getKey));
+        return responses;
+    }
+
+    /**
+     * Utilization over the next days days for every value of a dimension.
+     */
+    public List<UtilizationResponse> getUtilization(FleetRollups.Dimension dimension, int days) {
+        List<UtilizationResponse> responses = new ArrayList<>();
+        if (dimension == FleetRollups.Dimension.OPERATOR) {
+            for (OperatorIndex.OperatorStats stats : operatorIndex.allStats(days)) {
+                if (stats.operatorUuid() != null) {
+                    responses.add(UtilizationResponse.builder()
+                            .key(stats.operatorUuid().toString())
+                            .name(stats.name())
+                            .vehicleCount(stats.vehicleCount())
+                            .utilizationDays(days)
+                            .utilization(stats.utilization())
+                            .build());
+                }
+            }
+        } else {
+            for (FleetRollups.Utilization utilization : fleetRollups.utilization(dimension, days)) {
+                responses.add(UtilizationResponse.builder()
+                        .key(utilization.key())
+                        .vehicleCount(utilization.vehicles())
+                        .utilizationDays(days)
+                        .utilization(utilization.utilization())
+                        .build());
+            }
+        }
+        responses.sort(Comparator.comparing(UtilizationResponse::getKey));
+        return responses;
+    }
+
+    /**
+     * Operator ids are replaced by operator UUIDs.
+     *
+     * @return empty for operators that are not registered
+     */
+    private Optional<Identity> identify(FleetRollups.Dimension dimension, String key) {
+        if (dimension != FleetRollups.Dimension.OPERATOR) {
+            return Optional.of(new Identity(key, null));
+        }
+        return operatorIndex.findOperator(Long.parseLong(key))
+                .map(ref -> new Identity(ref.operatorUuid().toString(), ref.name()));
+    }
+}
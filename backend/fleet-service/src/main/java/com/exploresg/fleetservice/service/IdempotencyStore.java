@@ -0,0 +1,365 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.common.datasource.ReplicaRoutingDataSource;
+import com.exploresg.fleetservice.exception.BookingConflictException;
+import com.exploresg.fleetservice.exception.InvalidRequestException;
+import com.exploresg.fleetservice.exception.ServiceBusyException;
+import com.exploresg.fleetservice.model.IdempotencyRecord;
+import com.exploresg.fleetservice.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key support for the POSTs that create bookings and holds.
+ *
+ * A client sends "Idempotency-Key: &lt;unique value&gt;" and sends the same key
+ * again when it retries a request whose response it never received. The first
+ * request with a key runs; repeats get its response (with
+ * Idempotent-Replayed: true) without taking locks or validating again.
+ *
+ * Keys are kept in two tiers:
+ * - an in-memory map of the keys seen in the last fleet.idempotency.local-ttl.
+ *   A duplicate arriving while the first request still runs waits for that
+ *   request's response instead of running alongside it
+ * - idempotency_record on shard 0, kept for fleet.idempotency.ttl, for older
+ *   keys, restarts and other nodes. The first request claims its key with an
+ *   insert before it runs and stores the response before it is returned
+ *
+ * Keys are scoped to the operation and the JWT subject. Anonymous requests
+ * have no subject to scope them by, and in a shared scope anyone sending the
+ * same key would be handed their response, so their key is ignored: they run
+ * as if sent without one and nothing is stored (counted as
+ * fleet.idempotency.requests{outcome=anonymous}).
+ *
+ * Reusing a key with a different body is rejected with 400, a duplicate of a
+ * request still running on another node with 409. Failures are not stored:
+ * waiting duplicates get the same error and a later retry runs again. A claim
+ * left by a node that died mid-request is taken over after
+ * fleet.idempotency.pending-timeout.
+ */
+@Slf4j
+@Service
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int CLAIM_ATTEMPTS = 3;
+
+    /**
+     * @param replayed true if the response is the stored one of an earlier request
+     */
+    public record Result<T>(T response, boolean replayed) {
+    }
+
+    /**
+     * A key seen by this node. The response completes when the first request does.
+     */
+    private record Entry(String requestHash, CompletableFuture<Object> response, long expiresAtMillis) {
+        boolean expired(long now) {
+            return response.isDone() && expiresAtMillis < now;
+        }
+    }
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final OperatorShardRouter shardRouter;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate storeTransaction;
+    private final Duration ttl;
+    private final Duration localTtl;
+    private final Duration pendingTimeout;
+    private final ExecutorService storeExecutor;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter joined;
+    private final Counter rejected;
+    private final Counter anonymous;
+
+    public IdempotencyStore(IdempotencyRecordRepository recordRepository,
+            OperatorShardRouter shardRouter,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${fleet.idempotency.ttl:PT24H}") Duration ttl,
+            @Value("${fleet.idempotency.local-ttl:PT10M}") Duration localTtl,
+            @Value("${fleet.idempotency.pending-timeout:PT1M}") Duration pendingTimeout,
+            @Value("${fleet.idempotency.store-threads:4}") int storeThreads) {
+        this.recordRepository = recordRepository;
+        this.shardRouter = shardRouter;
+        this.objectMapper = objectMapper;
+        // Claims must commit before the request runs, whatever it joins
+        this.storeTransaction = new TransactionTemplate(transactionManager);
+        this.storeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttl = ttl;
+        this.localTtl = localTtl.compareTo(ttl) < 0 ? localTtl : ttl;
+        this.pendingTimeout = pendingTimeout;
+        AtomicInteger threads = new AtomicInteger();
+        // Keeps database writes off the booking shard writer threads
+        this.storeExecutor = Executors.newFixedThreadPool(storeThreads, r -> {
+            Thread thread = new Thread(r, "idempotency-store-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executed = requestCounter(meterRegistry, "executed");
+        this.replayed = requestCounter(meterRegistry, "replayed");
+        this.joined = requestCounter(meterRegistry, "joined");
+        this.rejected = requestCounter(meterRegistry, "rejected");
+        this.anonymous = requestCounter(meterRegistry, "anonymous");
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("fleet.idempotency.requests")
+                .tag("outcome", outcome)
+                .description("Requests with an Idempotency-Key, by outcome")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        storeExecutor.shutdown();
+    }
+
+    // ============================================
+    // EXECUTION
+    // ============================================
+
+    /**
+     * Run work once per key.
+     *
+     * @param operation     scope of the key, e.g. "booking"
+     * @param userId        JWT subject; null (anonymous) runs the work without a key
+     * @param key           Idempotency-Key header; null runs the work without a key
+     * @param request       request body, compared with the one the key was first used for
+     * @param responseType  type of the stored response
+     * @param work          the request; only called if the key is new
+     * @throws InvalidRequestException if the key is malformed or was used for a different request
+     * @throws BookingConflictException if the key's request is still running on another node
+     */
+    public <T> CompletableFuture<Result<T>> execute(String operation, UUID userId, String key, Object request,
+            Class<T> responseType, Supplier<CompletableFuture<T>> work) {
+        if (key == null) {
+            return work.get().thenApply(response -> new Result<>(response, false));
+        }
+        if (userId == null) {
+            anonymous.increment();
+            return work.get().thenApply(response -> new Result<>(response, false));
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidRequestException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = sha256(operation + '\n' + userId + '\n' + key);
+        String requestHash = sha256(requestBytes(request));
+
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry(requestHash, new CompletableFuture<>(), now + localTtl.toMillis());
+        Entry existing;
+        while ((existing = entries.putIfAbsent(id, entry)) != null && existing.expired(now)) {
+            entries.remove(id, existing);
+        }
+        if (existing != null) {
+            checkSameRequest(existing.requestHash(), requestHash);
+            (existing.response().isDone() ? replayed : joined).increment();
+            return existing.response().thenApply(response -> new Result<>(responseType.cast(response), true));
+        }
+
+        try {
+            Optional<IdempotencyRecord> stored = claim(id, requestHash);
+            if (stored.isPresent()) {
+                T response = replay(stored.get(), requestHash, responseType);
+                entry.response().complete(response);
+                replayed.increment();
+                return CompletableFuture.completedFuture(new Result<>(response, true));
+            }
+        } catch (RuntimeException e) {
+            fail(id, entry, e);
+            throw e;
+        }
+
+        executed.increment();
+        // The response is stored on storeExecutor, without the request's SecurityContext
+        String user = ReplicaRoutingDataSource.currentUser();
+        CompletableFuture<T> result;
+        try {
+            result = work.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.handleAsync((response, failure) -> {
+            if (failure != null) {
+                Throwable cause = unwrap(failure);
+                release(id);
+                fail(id, entry, cause);
+                throw new CompletionException(cause);
+            }
+            store(id, response, user);
+            entry.response().complete(response);
+            return new Result<>(response, false);
+        }, storeExecutor);
+    }
+
+    /**
+     * Claim the key in idempotency_record.
+     *
+     * @return empty if claimed, otherwise the record of the earlier request
+     */
+    private Optional<IdempotencyRecord> claim(String id, String requestHash) {
+        for (int attempt = 0; attempt < CLAIM_ATTEMPTS; attempt++) {
+            Instant now = Instant.now();
+            Instant expiresAt = now.plus(ttl);
+            Instant staleBefore = now.minus(pendingTimeout);
+            Optional<IdempotencyRecord> stored = onHome(() -> recordRepository.findById(id));
+            if (stored.isEmpty()) {
+                try {
+                    onHome(() -> recordRepository.insertClaim(id, requestHash, now, expiresAt));
+                    return Optional.empty();
+                } catch (DataIntegrityViolationException e) {
+                    // Claimed by another node in the meantime
+                    continue;
+                }
+            }
+            IdempotencyRecord record = stored.get();
+            boolean abandoned = record.getExpiresAt().isBefore(now)
+                    || (record.getResponse() == null && record.getCreatedAt().isBefore(staleBefore));
+            if (!abandoned) {
+                return stored;
+            }
+            if (onHome(() -> recordRepository.reclaim(id, requestHash, now, expiresAt, staleBefore)) == 1) {
+                return Optional.empty();
+            }
+        }
+        throw new ServiceBusyException("Could not claim " + HEADER + ", please retry");
+    }
+
+    private <T> T replay(IdempotencyRecord stored, String requestHash, Class<T> responseType) {
+        checkSameRequest(stored.getRequestHash(), requestHash);
+        if (stored.getResponse() == null) {
+            rejected.increment();
+            throw new BookingConflictException("A request with this " + HEADER + " is still in progress");
+        }
+        try {
+            return objectMapper.readValue(stored.getResponse(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable stored response " + stored.getId(), e);
+        }
+    }
+
+    /**
+     * The response is returned even if it cannot be stored: the request did
+     * succeed. This node still replays it from the map.
+     *
+     * @param user principal name of the request, sticky to the primary after the commit
+     */
+    private void store(String id, Object response, String user) {
+        try {
+            String json = objectMapper.writeValueAsString(response);
+            onHome(() -> {
+                ReplicaRoutingDataSource.writingFor(user);
+                return recordRepository.complete(id, json);
+            });
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Could not store the response for idempotency record {}", id, e);
+        }
+    }
+
+    private void release(String id) {
+        try {
+            onHome(() -> {
+                recordRepository.deleteById(id);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not release idempotency record {}, taken over after {}", id, pendingTimeout, e);
+        }
+    }
+
+    /**
+     * Forget the key on this node, so the next retry runs again, and fail the waiting duplicates.
+     */
+    private void fail(String id, Entry entry, Throwable cause) {
+        entries.remove(id, entry);
+        entry.response().completeExceptionally(cause);
+    }
+
+    private void checkSameRequest(String expectedHash, String requestHash) {
+        if (!expectedHash.equals(requestHash)) {
+            rejected.increment();
+            throw new InvalidRequestException(HEADER + " was already used for a different request");
+        }
+    }
+
+    // ============================================
+    // EVICTION
+    // ============================================
+
+    @Scheduled(fixedDelayString = "${fleet.idempotency.sweep-interval:PT1M}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expired(now));
+        try {
+            int deleted = onHome(() -> recordRepository.deleteExpired(Instant.now()));
+            if (deleted > 0) {
+                log.debug("Deleted {} expired idempotency records", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Deleting expired idempotency records failed", e);
+        }
+    }
+
+    private <T> T onHome(Supplier<T> work) {
+        return shardRouter.onShard(0, () -> storeTransaction.execute(status -> work.get()));
+    }
+
+    private byte[] requestBytes(Object request) {
+        try {
+            return objectMapper.writeValueAsBytes(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Request cannot be serialized", e);
+        }
+    }
+
+    private static String sha256(String value) {
+        return sha256(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sha256(byte[] value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+}
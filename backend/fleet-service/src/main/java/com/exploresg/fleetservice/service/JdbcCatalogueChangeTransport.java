@@ -0,0 +1,135 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.model.CatalogueChangeRecord;
+import com.exploresg.fleetservice.repository.CatalogueChangeRecordRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * CatalogueChangeTransport over a change table in the database all nodes
+ * already share, so a cluster needs no extra infrastructure.
+ *
+ * Publishing inserts a CatalogueChangeRecord; a "catalogue-sync-poll" thread
+ * on every node reads the rows after the last one it saw. Identity values
+ * can commit out of order under concurrent inserts, so each poll re-reads the
+ * last OVERLAP ids and skips the ones already delivered. Rows older than the
+ * retention are deleted by whichever node gets there first.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "fleet.catalogue-sync.transport", havingValue = "jdbc")
+public class JdbcCatalogueChangeTransport implements CatalogueChangeTransport {
+
+    private static final int OVERLAP = 16;
+    private static final int POLLS_PER_CLEANUP = 60;
+
+    private final CatalogueChangeRecordRepository changeRepository;
+    private final TransactionTemplate publishTransaction;
+    private final Duration pollInterval;
+    private final Duration retention;
+    private final List<Consumer<CatalogueChangeNotification>> receivers = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "catalogue-sync-poll");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Poller thread only
+    private long lastId;
+    private final Set<Long> delivered = new TreeSet<>();
+    private long polls;
+
+    public JdbcCatalogueChangeTransport(CatalogueChangeRecordRepository changeRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${fleet.catalogue-sync.poll-interval:PT1S}") Duration pollInterval,
+            @Value("${fleet.catalogue-sync.retention:PT1H}") Duration retention) {
+        this.changeRepository = changeRepository;
+        this.publishTransaction = new TransactionTemplate(transactionManager);
+        this.publishTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.pollInterval = pollInterval;
+        this.retention = retention;
+    }
+
+    /**
+     * Start after the existing rows: the catalogue is loaded in full on startup anyway.
+     */
+    @PostConstruct
+    public void start() {
+        lastId = changeRepository.findMaxId();
+        changeRepository.findByIdGreaterThanOrderByIdAsc(lastId - OVERLAP)
+                .forEach(record -> delivered.add(record.getId()));
+        poller.scheduleWithFixedDelay(this::poll, pollInterval.toMillis(), pollInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        poller.shutdownNow();
+    }
+
+    /**
+     * Inserts in a transaction of its own: publishers run from afterCommit callbacks too.
+     */
+    @Override
+    public void publish(CatalogueChangeNotification notification) {
+        publishTransaction.executeWithoutResult(status -> changeRepository.save(CatalogueChangeRecord.builder()
+                .originNode(notification.originNode())
+                .version(notification.version())
+                .baseVersion(notification.baseVersion())
+                .lastModified(notification.lastModified())
+                .carModelUuids(notification.fullReload() ? null
+                        : String.join(",", notification.changedCarModelUuids().stream().map(UUID::toString).toList()))
+                .build()));
+    }
+
+    @Override
+    public void subscribe(Consumer<CatalogueChangeNotification> receiver) {
+        receivers.add(receiver);
+    }
+
+    private void poll() {
+        try {
+            for (CatalogueChangeRecord record : changeRepository.findByIdGreaterThanOrderByIdAsc(lastId - OVERLAP)) {
+                if (delivered.add(record.getId())) {
+                    CatalogueChangeNotification notification = toNotification(record);
+                    receivers.forEach(receiver -> receiver.accept(notification));
+                }
+                lastId = Math.max(lastId, record.getId());
+            }
+            delivered.removeIf(id -> id <= lastId - OVERLAP);
+            if (++polls % POLLS_PER_CLEANUP == 0) {
+                changeRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Polling catalogue changes failed", e);
+        }
+    }
+
+    private static CatalogueChangeNotification toNotification(CatalogueChangeRecord record) {
+        List<UUID> uuids = record.getCarModelUuids() == null ? null
+                : record.getCarModelUuids().isEmpty() ? List.of()
+                : Arrays.stream(record.getCarModelUuids().split(",")).map(UUID::fromString).toList();
+        return new CatalogueChangeNotification(record.getOriginNode(), record.getVersion(), record.getBaseVersion(),
+                record.getLastModified(), uuids);
+    }
+}
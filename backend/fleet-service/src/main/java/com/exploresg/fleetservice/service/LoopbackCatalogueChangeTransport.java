@@ -0,0 +1,48 @@
+package com.exploresg.fleetservice.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * In-process CatalogueChangeTransport: every published notification is
+ * handed to every subscriber of this instance, in publish order, on a
+ * single "catalogue-loopback" thread.
+ *
+ * With one node nothing else is listening (the publisher ignores its own
+ * notifications). Tests run several CatalogueService instances against one
+ * loopback transport to stand in for a cluster.
+ */
+@Component
+@ConditionalOnProperty(name = "fleet.catalogue-sync.transport", havingValue = "loopback", matchIfMissing = true)
+public class LoopbackCatalogueChangeTransport implements CatalogueChangeTransport {
+
+    private final List<Consumer<CatalogueChangeNotification>> receivers = new CopyOnWriteArrayList<>();
+    private final ExecutorService delivery = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "catalogue-loopback");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public void publish(CatalogueChangeNotification notification) {
+        // Asynchronous, like a real transport: publishers never run receivers under their own locks
+        delivery.execute(() -> receivers.forEach(receiver -> receiver.accept(notification)));
+    }
+
+    @Override
+    public void subscribe(Consumer<CatalogueChangeNotification> receiver) {
+        receivers.add(receiver);
+    }
+
+    @PreDestroy
+    public void stop() {
+        delivery.shutdownNow();
+    }
+}
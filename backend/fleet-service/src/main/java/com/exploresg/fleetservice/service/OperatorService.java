@@ -0,0 +1,176 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.OperatorRequest;
+import com.exploresg.fleetservice.dto.OperatorResponse;
+import com.exploresg.fleetservice.dto.VehicleRequest;
+import com.exploresg.fleetservice.dto.VehicleResponse;
+import com.exploresg.fleetservice.engine.BookingEngine;
+import com.exploresg.fleetservice.engine.OperatorIndex;
+import com.exploresg.fleetservice.exception.BookingConflictException;
+import com.exploresg.fleetservice.exception.InvalidRequestException;
+import com.exploresg.fleetservice.exception.ResourceNotFoundException;
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.Operator;
+import com.exploresg.fleetservice.model.Vehicle;
+import com.exploresg.fleetservice.repository.CarModelRepository;
+import com.exploresg.fleetservice.repository.OperatorRepository;
+import com.exploresg.fleetservice.repository.VehicleRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Operators and their fleets.
+ *
+ * Writes go to the database and are then applied to the in-memory
+ * OperatorIndex and BookingEngine. Reads (operator models, operator list
+ * with aggregates) are served from the index and the catalogue only.
+ *
+ * Each new operator is given a data shard by the OperatorShardRouter; its
+ * vehicles are stored there.
+ */
+@Slf4j
+@Service
+public class OperatorService {
+
+    private final OperatorRepository operatorRepository;
+    private final VehicleRepository vehicleRepository;
+    private final CarModelRepository carModelRepository;
+    private final OperatorIndex operatorIndex;
+    private final OperatorShardRouter shardRouter;
+    private final BookingEngine bookingEngine;
+    private final CatalogueService catalogueService;
+    private final int utilizationDays;
+
+    public OperatorService(OperatorRepository operatorRepository,
+            VehicleRepository vehicleRepository,
+            CarModelRepository carModelRepository,
+            OperatorIndex operatorIndex,
+            OperatorShardRouter shardRouter,
+            BookingEngine bookingEngine,
+            CatalogueService catalogueService,
+            @Value("${fleet.operator.utilization-days:30}") int utilizationDays) {
+        this.operatorRepository = operatorRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.carModelRepository = carModelRepository;
+        this.operatorIndex = operatorIndex;
+        this.shardRouter = shardRouter;
+        this.bookingEngine = bookingEngine;
+        this.catalogueService = catalogueService;
+        this.utilizationDays = utilizationDays;
+    }
+
+    /**
+     * Load operator names/UUIDs into the index.
+     * Vehicle attribution is loaded by BookingService.rebuildEngine().
+     */
+    @PostConstruct
+    public void loadOperators() {
+        List<Operator> all = operatorRepository.findAll();
+        for (Operator operator : all) {
+            operatorIndex.registerOperator(operator.getId(), operator.getOperatorUuid(), operator.getName());
+        }
+        log.info("Loaded {} operators into the operator index", all.size());
+    }
+
+    @Scheduled(cron = "${fleet.availability.roll-cron:30 0 0 * * *}")
+    public void rollIndex() {
+        operatorIndex.rollTo(LocalDate.now());
+    }
+
+    // ============================================
+    // COMMANDS
+    // ============================================
+
+    public OperatorResponse createOperator(OperatorRequest request) {
+        if (request.getName() == null || request.getName().isBlank()) {
+            throw new InvalidRequestException("name is required");
+        }
+        if (operatorRepository.existsByName(request.getName())) {
+            throw new BookingConflictException("Operator already exists: " + request.getName());
+        }
+        Operator operator = operatorRepository.save(Operator.builder()
+                .name(request.getName())
+                .contactEmail(request.getContactEmail())
+                .build());
+        shardRouter.place(operator.getId());
+        operatorIndex.registerOperator(operator.getId(), operator.getOperatorUuid(), operator.getName());
+        log.info("Created operator {} ({})", operator.getName(), operator.getOperatorUuid());
+        return OperatorResponse.builder()
+                .operatorUuid(operator.getOperatorUuid())
+                .name(operator.getName())
+                .utilizationDays(utilizationDays)
+                .build();
+    }
+
+    /**
+     * Add a vehicle to an operator's fleet and make it bookable immediately.
+     */
+    public VehicleResponse addVehicle(VehicleRequest request) {
+        if (request.getLicensePlate() == null || request.getLicensePlate().isBlank()) {
+            throw new InvalidRequestException("licensePlate is required");
+        }
+        if (request.getOperatorUuid() == null || request.getCarModelUuid() == null) {
+            throw new InvalidRequestException("operatorUuid and carModelUuid are required");
+        }
+        Operator operator = operatorRepository.findByOperatorUuid(request.getOperatorUuid())
+                .orElseThrow(() -> new ResourceNotFoundException("Operator not found: " + request.getOperatorUuid()));
+        CarModel carModel = carModelRepository.findByCarModelUuid(request.getCarModelUuid())
+                .orElseThrow(() -> new ResourceNotFoundException("Car model not found: " + request.getCarModelUuid()));
+
+        Vehicle vehicle = shardRouter.onShard(shardRouter.shardForWrite(operator.getId()),
+                () -> vehicleRepository.save(Vehicle.builder()
+                        .carModel(carModel)
+                        .operator(operator)
+                        .licensePlate(request.getLicensePlate())
+                        .build()));
+
+        // Index first, so bookings on the new vehicle are attributed to the operator
+        operatorIndex.registerVehicle(vehicle.getId(), carModel.getId(), operator.getId());
+        bookingEngine.registerVehicle(vehicle.getId(), carModel.getId());
+
+        return VehicleResponse.builder()
+                .vehicleUuid(vehicle.getVehicleUuid())
+                .carModelUuid(carModel.getCarModelUuid())
+                .operatorUuid(operator.getOperatorUuid())
+                .licensePlate(vehicle.getLicensePlate())
+                .active(vehicle.isActive())
+                .build();
+    }
+
+    // ============================================
+    // QUERIES (in-memory only)
+    // ============================================
+
+    /**
+     * Models offered by an operator, from the operator index and catalogue.
+     */
+    public List<CarModel> getOperatorModels(UUID operatorUuid) {
+        long operatorId = operatorIndex.findOperatorId(operatorUuid)
+                .orElseThrow(() -> new ResourceNotFoundException("Operator not found: " + operatorUuid));
+        return operatorIndex.modelIds(operatorId).stream()
+                .map(catalogueService::findById)
+                .flatMap(Optional::stream)
+                .sorted(Comparator.comparing(CarModel::getId))
+                .toList();
+    }
+
+    /**
+     * All operators with their pre-aggregated fleet statistics.
+     */
+    public List<OperatorResponse> getOperators() {
+        return operatorIndex.allStats(utilizationDays).stream()
+                .filter(stats -> stats.operatorUuid() != null)
+                .sorted(Comparator.comparing(OperatorIndex.OperatorStats::name))
+                .map(stats -> OperatorResponse.from(stats, utilizationDays))
+                .toList();
+    }
+}
@@ -0,0 +1,322 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.config.ShardRoutingDataSource;
+import com.exploresg.fleetservice.config.ShardSchemaSync;
+import com.exploresg.fleetservice.engine.OperatorIndex;
+import com.exploresg.fleetservice.exception.ServiceBusyException;
+import com.exploresg.fleetservice.model.OperatorShard;
+import com.exploresg.fleetservice.model.OperatorShardState;
+import com.exploresg.fleetservice.repository.OperatorShardRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Routes fleet data access to the data shard of the operator it belongs to.
+ *
+ * Vehicles and their bookings are partitioned by operator: all rows of one
+ * operator live on one shard, so every booking command runs against a single
+ * database. Everything else (catalogue, operators, rate plans, pickup
+ * locations, the shard directory) stays on shard 0. Vehicles without an
+ * operator are on shard 0 as well.
+ *
+ * The operator -> shard directory (operator_shard) is cached here and
+ * refreshed every fleet.sharding.directory-refresh; an operator created on
+ * another node is looked up on first use. New operators go to the shard with
+ * the fewest vehicles. Operators being moved by the ShardRebalancer are
+ * readable, but writes for them are refused with 503 until the move is done.
+ *
+ * Queries across operators (startup loads, shard statistics, booking lookups
+ * by UUID) run on every shard in parallel with scatterGather.
+ *
+ * With a single shard (no fleet.sharding.shard-urls) every method runs the
+ * work directly.
+ */
+@Slf4j
+@Service
+public class OperatorShardRouter {
+
+    /**
+     * Where an operator's fleet data lives.
+     */
+    public record Placement(int shard, OperatorShardState state) {
+        static Placement of(OperatorShard entry) {
+            return new Placement(entry.getShard(), entry.getState());
+        }
+    }
+
+    private static final Placement HOME = new Placement(0, OperatorShardState.ACTIVE);
+
+    private final OperatorShardRepository operatorShardRepository;
+    private final OperatorIndex operatorIndex;
+    private final ObjectProvider<ShardSchemaSync> shardSchemaSync;
+    private final TransactionTemplate directoryTransaction;
+    private final int shardCount;
+    private final ExecutorService scatterExecutor;
+
+    private volatile Map<Long, Placement> directory = new ConcurrentHashMap<>();
+
+    public OperatorShardRouter(OperatorShardRepository operatorShardRepository,
+            OperatorIndex operatorIndex,
+            ObjectProvider<ShardSchemaSync> shardSchemaSync,
+            PlatformTransactionManager transactionManager,
+            @Value("${fleet.sharding.shard-urls:}") List<String> shardUrls) {
+        this.operatorShardRepository = operatorShardRepository;
+        this.operatorIndex = operatorIndex;
+        this.shardSchemaSync = shardSchemaSync;
+        // Directory access must not join a transaction bound to another shard
+        this.directoryTransaction = new TransactionTemplate(transactionManager);
+        this.directoryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.shardCount = 1 + (int) shardUrls.stream().filter(url -> !url.isBlank()).count();
+        AtomicInteger threads = new AtomicInteger();
+        this.scatterExecutor = shardCount == 1 ? null : Executors.newFixedThreadPool(shardCount, r -> {
+            Thread thread = new Thread(r, "shard-scatter-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // ============================================
+    // LIFECYCLE
+    // ============================================
+
+    @PostConstruct
+    public void start() {
+        if (shardCount == 1) {
+            return;
+        }
+        shardSchemaSync.ifAvailable(sync -> sync.syncAll(shardCount));
+        refreshDirectory();
+        log.info("Fleet data sharded over {} shards, {} operators placed off shard 0", shardCount,
+                directory.values().stream().filter(p -> p.shard() != 0).count());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdownNow();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${fleet.sharding.directory-refresh:PT10S}")
+    public void refreshDirectory() {
+        if (shardCount == 1) {
+            return;
+        }
+        Map<Long, Placement> loaded = new ConcurrentHashMap<>();
+        for (OperatorShard entry : onDirectory(operatorShardRepository::findAll)) {
+            loaded.put(entry.getOperatorId(), Placement.of(entry));
+        }
+        directory = loaded;
+    }
+
+    // ============================================
+    // DIRECTORY
+    // ============================================
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    /**
+     * @param operatorId null for vehicles without an operator
+     */
+    public Placement placement(Long operatorId) {
+        if (operatorId == null || shardCount == 1) {
+            return HOME;
+        }
+        Map<Long, Placement> current = directory;
+        Placement placement = current.get(operatorId);
+        if (placement == null) {
+            placement = onDirectory(() -> operatorShardRepository.findById(operatorId))
+                    .map(Placement::of)
+                    .orElse(HOME);
+            current.putIfAbsent(operatorId, placement);
+        }
+        return placement;
+    }
+
+    /**
+     * Shard to read an operator's fleet data from.
+     */
+    public int shardFor(Long operatorId) {
+        return placement(operatorId).shard();
+    }
+
+    /**
+     * Shard to write an operator's fleet data to.
+     *
+     * @throws ServiceBusyException while the operator is being moved
+     */
+    public int shardForWrite(Long operatorId) {
+        Placement placement = placement(operatorId);
+        if (placement.state() == OperatorShardState.MOVING) {
+            throw new ServiceBusyException("Operator data is being moved between shards, please retry");
+        }
+        return placement.shard();
+    }
+
+    /**
+     * Operator owning a vehicle, from the OperatorIndex.
+     *
+     * @return null for vehicles without an operator
+     */
+    public Long operatorOfVehicle(long vehicleId) {
+        return operatorIndex.findOperatorOfVehicle(vehicleId).orElse(null);
+    }
+
+    /**
+     * Place a new operator on the shard with the fewest vehicles, or with the
+     * fewest operators among equally full shards.
+     *
+     * @return the chosen shard
+     */
+    public int place(long operatorId) {
+        if (shardCount == 1) {
+            return 0;
+        }
+        long[] vehicles = new long[shardCount];
+        int[] operators = new int[shardCount];
+        for (OperatorIndex.OperatorStats stats : operatorIndex.allStats(1)) {
+            int shard = shardFor(stats.operatorId());
+            vehicles[shard] += stats.vehicleCount();
+            operators[shard]++;
+        }
+        int shard = 0;
+        for (int i = 1; i < shardCount; i++) {
+            if (vehicles[i] < vehicles[shard] || (vehicles[i] == vehicles[shard] && operators[i] < operators[shard])) {
+                shard = i;
+            }
+        }
+        updatePlacement(operatorId, shard, OperatorShardState.ACTIVE);
+        log.info("Placed operator {} on shard {}", operatorId, shard);
+        return shard;
+    }
+
+    /**
+     * Store and apply a directory entry. Other nodes see it on their next refresh.
+     */
+    public void updatePlacement(long operatorId, int shard, OperatorShardState state) {
+        if (shard < 0 || shard >= shardCount) {
+            throw new IllegalArgumentException("No shard " + shard);
+        }
+        onDirectory(() -> operatorShardRepository.save(OperatorShard.builder()
+                .operatorId(operatorId)
+                .shard(shard)
+                .state(state)
+                .updatedAt(Instant.now())
+                .build()));
+        directory.put(operatorId, new Placement(shard, state));
+    }
+
+    // ============================================
+    // ROUTING
+    // ============================================
+
+    /**
+     * Run work against one shard.
+     *
+     * A transaction is bound to the shard it started on, so this must not
+     * switch shards inside a transaction; start the transaction inside the work.
+     *
+     * @throws IllegalStateException if called inside a transaction on another shard
+     */
+    public <T> T onShard(int shard, Supplier<T> work) {
+        if (shardCount == 1) {
+            return work.get();
+        }
+        if (shard != ShardRoutingDataSource.currentShard()
+                && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Cannot switch to shard " + shard + " inside a transaction on shard "
+                    + ShardRoutingDataSource.currentShard());
+        }
+        Integer previous = ShardRoutingDataSource.bind(shard);
+        try {
+            return work.get();
+        } finally {
+            ShardRoutingDataSource.restore(previous);
+        }
+    }
+
+    /**
+     * Run a write against the shard of a vehicle's operator.
+     *
+     * @throws ServiceBusyException while the operator is being moved
+     */
+    public <T> T writeForVehicle(long vehicleId, Supplier<T> work) {
+        return onShard(shardForWrite(operatorOfVehicle(vehicleId)), work);
+    }
+
+    /**
+     * Run work on every shard in parallel.
+     *
+     * @param work called with the shard number, on a shard-scatter thread
+     * @return results in shard order
+     */
+    public <T> List<T> scatterGather(IntFunction<T> work) {
+        if (shardCount == 1) {
+            return List.of(work.apply(0));
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> onShard(target, () -> work.apply(target)),
+                    scatterExecutor));
+        }
+        List<T> results = new ArrayList<>(shardCount);
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    /**
+     * scatterGather for list results, concatenated in shard order.
+     */
+    public <T> List<T> scatterGatherAll(IntFunction<List<T>> work) {
+        List<List<T>> perShard = scatterGather(work);
+        if (perShard.size() == 1) {
+            return perShard.get(0);
+        }
+        List<T> all = new ArrayList<>(perShard.stream().mapToInt(List::size).sum());
+        perShard.forEach(all::addAll);
+        return all;
+    }
+
+    private <T> T onDirectory(Supplier<T> work) {
+        Integer previous = ShardRoutingDataSource.bind(0);
+        try {
+            return directoryTransaction.execute(status -> work.get());
+        } finally {
+            ShardRoutingDataSource.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.FacetFilter;
+import com.exploresg.fleetservice.dto.NearbyLocationResponse;
+import com.exploresg.fleetservice.dto.PickupLocationRequest;
+import com.exploresg.fleetservice.dto.PickupLocationResponse;
+import com.exploresg.fleetservice.engine.AvailabilityCalendar;
+import com.exploresg.fleetservice.engine.OperatorIndex;
+import com.exploresg.fleetservice.engine.PickupLocationIndex;
+import com.exploresg.fleetservice.exception.InvalidRequestException;
+import com.exploresg.fleetservice.exception.ResourceNotFoundException;
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.Operator;
+import com.exploresg.fleetservice.model.PickupLocation;
+import com.exploresg.fleetservice.repository.OperatorRepository;
+import com.exploresg.fleetservice.repository.PickupLocationRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Operator pickup locations and "cars near me" searches.
+ *
+ * Locations are stored in the database and mirrored in the
+ * PickupLocationIndex. A nearby search walks the index nearest first and
+ * accepts a location when its operator offers a model matching the facets
+ * (OperatorIndex + catalogue) that, for a period, has a vehicle of that
+ * operator free (AvailabilityService). Each operator is evaluated once per
+ * search, however many of its locations are near. No spatial SQL is involved.
+ */
+@Slf4j
+@Service
+public class PickupLocationService {
+
+    public static final int MAX_NEARBY_RESULTS = 100;
+
+    private final PickupLocationRepository pickupLocationRepository;
+    private final OperatorRepository operatorRepository;
+    private final PickupLocationIndex pickupLocationIndex;
+    private final OperatorIndex operatorIndex;
+    private final AvailabilityCalendar availabilityCalendar;
+    private final AvailabilityService availabilityService;
+    private final CatalogueService catalogueService;
+    private final double maxRadiusKm;
+
+    public PickupLocationService(PickupLocationRepository pickupLocationRepository,
+            OperatorRepository operatorRepository,
+            PickupLocationIndex pickupLocationIndex,
+            OperatorIndex operatorIndex,
+            AvailabilityCalendar availabilityCalendar,
+            AvailabilityService availabilityService,
+            CatalogueService catalogueService,
+            @Value("${fleet.pickup.max-radius-km:50}") double maxRadiusKm) {
+        this.pickupLocationRepository = pickupLocationRepository;
+        this.operatorRepository = operatorRepository;
+        this.pickupLocationIndex = pickupLocationIndex;
+        this.operatorIndex = operatorIndex;
+        this.availabilityCalendar = availabilityCalendar;
+        this.availabilityService = availabilityService;
+        this.catalogueService = catalogueService;
+        this.maxRadiusKm = maxRadiusKm;
+    }
+
+    @PostConstruct
+    public void loadLocations() {
+        List<PickupLocation> all = pickupLocationRepository.findActiveWithOperator();
+        pickupLocationIndex.load(all.stream().map(PickupLocationService::toIndexed).toList());
+        log.info("Loaded {} pickup locations into the location index", all.size());
+    }
+
+    // ============================================
+    // COMMANDS
+    // ============================================
+
+    public PickupLocationResponse createLocation(PickupLocationRequest request) {
+        if (request.getOperatorUuid() == null) {
+            throw new InvalidRequestException("operatorUuid is required");
+        }
+        if (request.getName() == null || request.getName().isBlank()) {
+            throw new InvalidRequestException("name is required");
+        }
+        if (request.getLatitude() == null || request.getLongitude() == null) {
+            throw new InvalidRequestException("latitude and longitude are required");
+        }
+        validateCoordinates(request.getLatitude(), request.getLongitude());
+        Operator operator = operatorRepository.findByOperatorUuid(request.getOperatorUuid())
+                .orElseThrow(() -> new ResourceNotFoundException("Operator not found: " + request.getOperatorUuid()));
+
+        PickupLocation location = pickupLocationRepository.save(PickupLocation.builder()
+                .operator(operator)
+                .name(request.getName())
+                .address(request.getAddress())
+                .latitude(request.getLatitude())
+                .longitude(request.getLongitude())
+                .build());
+        pickupLocationIndex.put(toIndexed(location));
+        log.info("Added pickup location {} ({}) for operator {}",
+                location.getName(), location.getPickupLocationUuid(), operator.getName());
+        return PickupLocationResponse.from(location);
+    }
+
+    public void deleteLocation(UUID pickupLocationUuid) {
+        PickupLocation location = pickupLocationRepository.findByPickupLocationUuid(pickupLocationUuid)
+                .orElseThrow(() -> new ResourceNotFoundException("Pickup location not found: " + pickupLocationUuid));
+        pickupLocationRepository.delete(location);
+        pickupLocationIndex.remove(location.getId());
+    }
+
+    // ============================================
+    // QUERIES (in-memory only)
+    // ============================================
+
+    /**
+     * Pickup locations near a point whose operator offers a matching model,
+     * nearest first.
+     *
+     * @param radiusKm  all matches within the radius (up to limit); null for the
+     *                  limit nearest matches within fleet.pickup.max-radius-km
+     * @param startDate with endDate, only count vehicles free for the whole period
+     */
+    public List<NearbyLocationResponse> findNearby(double latitude, double longitude, Double radiusKm, int limit,
+            LocalDate startDate, LocalDate endDate, FacetFilter filter) {
+        validateCoordinates(latitude, longitude);
+        if (radiusKm != null && (radiusKm <= 0 || radiusKm > maxRadiusKm)) {
+            throw new InvalidRequestException("radiusKm must be between 0 and " + maxRadiusKm);
+        }
+        if (limit < 1 || limit > MAX_NEARBY_RESULTS) {
+            throw new InvalidRequestException("limit must be between 1 and " + MAX_NEARBY_RESULTS);
+        }
+        boolean period = startDate != null || endDate != null;
+        if (period) {
+            validatePeriod(startDate, endDate);
+        }
+
+        Map<Long, List<NearbyLocationResponse.AvailableModel>> offers = new HashMap<>();
+        Predicate<PickupLocationIndex.Location> offersMatch = location -> !offers.computeIfAbsent(
+                location.operatorId(), id -> offers(id, filter, startDate, endDate)).isEmpty();
+        List<PickupLocationIndex.Hit> hits = radiusKm != null
+                ? pickupLocationIndex.withinRadius(latitude, longitude, radiusKm * 1000, limit, offersMatch)
+                : pickupLocationIndex.nearest(latitude, longitude, limit, maxRadiusKm * 1000, offersMatch);
+
+        List<NearbyLocationResponse> results = new ArrayList<>(hits.size());
+        for (PickupLocationIndex.Hit hit : hits) {
+            PickupLocationIndex.Location location = hit.location();
+            OperatorIndex.OperatorRef operator = operatorIndex.findOperator(location.operatorId()).orElse(null);
+            results.add(NearbyLocationResponse.builder()
+                    .pickupLocationUuid(location.locationUuid())
+                    .name(location.name())
+                    .operatorUuid(operator == null ? null : operator.operatorUuid())
+                    .operatorName(operator == null ? null : operator.name())
+                    .latitude(location.latitude())
+                    .longitude(location.longitude())
+                    .distanceMeters(Math.round(hit.distanceMeters()))
+                    .models(offers.get(location.operatorId()))
+                    .build());
+        }
+        return results;
+    }
+
+    /**
+     * The operator's models matching the filter with at least one vehicle
+     * (free for the period, if given), in catalogue id order.
+     */
+    private List<NearbyLocationResponse.AvailableModel> offers(long operatorId, FacetFilter filter,
+            LocalDate startDate, LocalDate endDate) {
+        List<NearbyLocationResponse.AvailableModel> models = new ArrayList<>();
+        for (long carModelId : operatorIndex.modelIds(operatorId).stream().sorted().toList()) {
+            CarModel carModel = catalogueService.findById(carModelId).orElse(null);
+            if (carModel == null || !filter.matches(carModel)) {
+                continue;
+            }
+            int vehicles = startDate == null
+                    ? operatorIndex.vehicleCount(operatorId, carModelId)
+                    : availabilityService.availableCount(carModelId,
+                            vehicleId -> operatorIndex.ownsVehicle(operatorId, vehicleId), startDate, endDate);
+            if (vehicles > 0) {
+                models.add(NearbyLocationResponse.AvailableModel.from(carModel, vehicles));
+            }
+        }
+        return models;
+    }
+
+    private void validateCoordinates(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new InvalidRequestException("latitude must be within [-90, 90] and longitude within [-180, 180]");
+        }
+    }
+
+    private void validatePeriod(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || !startDate.isBefore(endDate)) {
+            throw new InvalidRequestException("startDate must be before endDate");
+        }
+        if (startDate.isBefore(LocalDate.now())) {
+            throw new InvalidRequestException("startDate is in the past");
+        }
+        if (endDate.isAfter(availabilityCalendar.horizonEnd())) {
+            throw new InvalidRequestException("endDate is beyond the booking horizon "
+                    + availabilityCalendar.horizonEnd());
+        }
+    }
+
+    private static PickupLocationIndex.Location toIndexed(PickupLocation location) {
+        return new PickupLocationIndex.Location(location.getId(), location.getPickupLocationUuid(),
+                location.getOperator().getId(), location.getName(), location.getLatitude(), location.getLongitude());
+    }
+}
@@ -0,0 +1,230 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.QuoteRequest;
+import com.exploresg.fleetservice.dto.QuoteResponse;
+import com.exploresg.fleetservice.dto.RatePlanRequest;
+import com.exploresg.fleetservice.dto.RatePlanResponse;
+import com.exploresg.fleetservice.engine.PriceTables;
+import com.exploresg.fleetservice.exception.InvalidRequestException;
+import com.exploresg.fleetservice.exception.ResourceNotFoundException;
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.LengthOfRentalDiscount;
+import com.exploresg.fleetservice.model.PeakPeriod;
+import com.exploresg.fleetservice.model.RatePlan;
+import com.exploresg.fleetservice.repository.RatePlanRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Rate plans and quotes.
+ *
+ * Plans are stored in the database and compiled into PriceTables on every
+ * change; quotes are served from the compiled tables only. Quotes cover
+ * periods inside the booking window (today until the booking horizon).
+ */
+@Slf4j
+@Service
+public class PricingService {
+
+    public static final int MAX_QUOTES_PER_REQUEST = 1000;
+
+    private final RatePlanRepository ratePlanRepository;
+    private final PriceTables priceTables;
+    private final CatalogueService catalogueService;
+    private final String currency;
+
+    public PricingService(RatePlanRepository ratePlanRepository,
+            PriceTables priceTables,
+            CatalogueService catalogueService,
+            @Value("${fleet.pricing.currency:SGD}") String currency) {
+        this.ratePlanRepository = ratePlanRepository;
+        this.priceTables = priceTables;
+        this.catalogueService = catalogueService;
+        this.currency = currency;
+    }
+
+    @PostConstruct
+    public void loadRatePlans() {
+        priceTables.rollTo(LocalDate.now());
+        priceTables.plansChanged(ratePlanRepository.findAll());
+    }
+
+    /**
+     * Roll the price tables forward shortly after midnight.
+     */
+    @Scheduled(cron = "${fleet.availability.roll-cron:30 0 0 * * *}")
+    public void rollPriceTables() {
+        priceTables.rollTo(LocalDate.now());
+    }
+
+    // ============================================
+    // QUOTES
+    // ============================================
+
+    public QuoteResponse quote(UUID carModelUuid, LocalDate startDate, LocalDate endDate) {
+        validatePeriod(startDate, endDate);
+        CarModel model = catalogueService.findByUuid(carModelUuid)
+                .orElseThrow(() -> new ResourceNotFoundException("Car model not found: " + carModelUuid));
+        PriceTables.Quote quote = priceTables.quote(model.getId(), startDate, endDate)
+                .orElseThrow(() -> new ResourceNotFoundException("No rate plan for car model: " + carModelUuid));
+        return QuoteResponse.from(carModelUuid, startDate, endDate, currency, quote);
+    }
+
+    /**
+     * Quote many models for one period. Unknown models and models without
+     * a rate plan are left out of the result.
+     */
+    public List<QuoteResponse> quotes(QuoteRequest request) {
+        validatePeriod(request.getStartDate(), request.getEndDate());
+        List<CarModel> models;
+        if (request.getCarModelUuids() == null || request.getCarModelUuids().isEmpty()) {
+            models = catalogueService.findAll();
+        } else if (request.getCarModelUuids().size() > MAX_QUOTES_PER_REQUEST) {
+            throw new InvalidRequestException("At most " + MAX_QUOTES_PER_REQUEST + " car models per request");
+        } else {
+            models = request.getCarModelUuids().stream()
+                    .map(catalogueService::findByUuid)
+                    .flatMap(Optional::stream)
+                    .toList();
+        }
+        List<QuoteResponse> quotes = new ArrayList<>(models.size());
+        for (CarModel model : models) {
+            priceTables.quote(model.getId(), request.getStartDate(), request.getEndDate())
+                    .ifPresent(quote -> quotes.add(QuoteResponse.from(model.getCarModelUuid(),
+                            request.getStartDate(), request.getEndDate(), currency, quote)));
+        }
+        return quotes;
+    }
+
+    private void validatePeriod(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || !startDate.isBefore(endDate)) {
+            throw new InvalidRequestException("startDate must be before endDate");
+        }
+        if (startDate.isBefore(priceTables.windowStart())) {
+            throw new InvalidRequestException("startDate is in the past");
+        }
+        if (endDate.isAfter(priceTables.horizonEnd())) {
+            throw new InvalidRequestException("endDate is beyond the booking horizon " + priceTables.horizonEnd());
+        }
+    }
+
+    // ============================================
+    // RATE PLANS
+    // ============================================
+
+    public List<RatePlanResponse> getRatePlans() {
+        return ratePlanRepository.findAll().stream()
+                .sorted(Comparator.comparing(RatePlan::getId))
+                .map(this::toResponse)
+                .toList();
+    }
+
+    /**
+     * Create the plan of a model or category, or replace the existing one.
+     */
+    public RatePlanResponse saveRatePlan(RatePlanRequest request) {
+        validate(request);
+        Long carModelId = null;
+        if (request.getCarModelUuid() != null) {
+            carModelId = catalogueService.findByUuid(request.getCarModelUuid())
+                    .orElseThrow(() -> new ResourceNotFoundException("Car model not found: " + request.getCarModelUuid()))
+                    .getId();
+        }
+        Optional<RatePlan> existing = carModelId != null
+                ? ratePlanRepository.findByCarModelId(carModelId)
+                : ratePlanRepository.findByCategory(request.getCategory());
+        RatePlan plan = existing.orElseGet(() -> RatePlan.builder().build());
+        plan.setCarModelId(carModelId);
+        plan.setCategory(carModelId != null ? null : request.getCategory());
+        plan.setDailyRate(request.getDailyRate().setScale(2));
+        plan.setWeekendSurchargePercent(request.getWeekendSurchargePercent());
+        plan.getPeakPeriods().clear();
+        plan.getPeakPeriods().addAll(orEmpty(request.getPeakPeriods()));
+        plan.getLengthOfRentalDiscounts().clear();
+        plan.getLengthOfRentalDiscounts().addAll(orEmpty(request.getLengthOfRentalDiscounts()));
+        RatePlan saved = ratePlanRepository.saveAndFlush(plan);
+
+        priceTables.plansChanged(ratePlanRepository.findAll());
+        log.info("Rate plan {} saved for {}", saved.getRatePlanUuid(),
+                carModelId != null ? "car model " + request.getCarModelUuid() : "category " + request.getCategory());
+        return toResponse(saved);
+    }
+
+    public void deleteRatePlan(UUID ratePlanUuid) {
+        RatePlan plan = ratePlanRepository.findByRatePlanUuid(ratePlanUuid)
+                .orElseThrow(() -> new ResourceNotFoundException("Rate plan not found: " + ratePlanUuid));
+        ratePlanRepository.delete(plan);
+        priceTables.plansChanged(ratePlanRepository.findAll());
+    }
+
+    private RatePlanResponse toResponse(RatePlan plan) {
+        UUID carModelUuid = plan.getCarModelId() == null ? null
+                : catalogueService.findById(plan.getCarModelId()).map(CarModel::getCarModelUuid).orElse(null);
+        return RatePlanResponse.from(plan, carModelUuid);
+    }
+
+    private static void validate(RatePlanRequest request) {
+        if ((request.getCarModelUuid() == null) == (request.getCategory() == null)) {
+            throw new InvalidRequestException("Set exactly one of carModelUuid and category");
+        }
+        if (request.getDailyRate() == null || request.getDailyRate().signum() <= 0
+                || request.getDailyRate().scale() > 2) {
+            throw new InvalidRequestException("dailyRate must be positive with at most 2 decimals");
+        }
+        if (request.getWeekendSurchargePercent() <= -100) {
+            throw new InvalidRequestException("weekendSurchargePercent must be above -100");
+        }
+        for (PeakPeriod peak : orEmpty(request.getPeakPeriods())) {
+            if (peak.getStartDate() == null || peak.getEndDate() == null
+                    || !peak.getStartDate().isBefore(peak.getEndDate())) {
+                throw new InvalidRequestException("Peak period startDate must be before endDate");
+            }
+            if (peak.getSurchargePercent() <= -100) {
+                throw new InvalidRequestException("Peak surchargePercent must be above -100");
+            }
+            // Both apply to a weekend day inside the peak; the day price must stay positive
+            if (request.getWeekendSurchargePercent() + peak.getSurchargePercent() <= -100
+                    && includesWeekend(peak.getStartDate(), peak.getEndDate())) {
+                throw new InvalidRequestException("weekendSurchargePercent plus a peak surchargePercent "
+                        + "must be above -100 on the weekends of the peak period");
+            }
+        }
+        Set<Integer> minDays = new HashSet<>();
+        for (LengthOfRentalDiscount discount : orEmpty(request.getLengthOfRentalDiscounts())) {
+            if (discount.getMinDays() < 1 || !minDays.add(discount.getMinDays())) {
+                throw new InvalidRequestException("Discount minDays must be positive and unique");
+            }
+            if (discount.getDiscountPercent() < 0 || discount.getDiscountPercent() >= 100) {
+                throw new InvalidRequestException("discountPercent must be between 0 and 99");
+            }
+        }
+    }
+
+    private static boolean includesWeekend(LocalDate startDate, LocalDate endDate) {
+        // A week covers every day of the week
+        LocalDate end = endDate.isBefore(startDate.plusDays(7)) ? endDate : startDate.plusDays(7);
+        for (LocalDate day = startDate; day.isBefore(end); day = day.plusDays(1)) {
+            if (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> List<T> orEmpty(List<T> list) {
+        return list == null ? List.of() : list;
+    }
+}
@@ -0,0 +1,213 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.BookingRequest;
+import com.exploresg.fleetservice.dto.BookingResponse;
+import com.exploresg.fleetservice.engine.HierarchicalTimingWheel;
+import com.exploresg.fleetservice.exception.BookingConflictException;
+import com.exploresg.fleetservice.model.Booking;
+import com.exploresg.fleetservice.model.BookingStatus;
+import com.exploresg.fleetservice.repository.BookingRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived reservation holds with automatic expiry.
+ *
+ * A hold is a HELD booking: it occupies a vehicle in the BookingEngine
+ * exactly like a confirmed booking, but is released if the user does not
+ * confirm it within the hold duration (default 10 minutes).
+ *
+ * Expiry uses a HierarchicalTimingWheel instead of polling the database:
+ * - Creating / confirming / releasing a hold is O(1) on the wheel
+ * - A single "hold-expiry" thread turns the wheel once per tick
+ * - Expired holds are moved HELD -> EXPIRED with a conditional update,
+ *   which also frees the vehicle in the engine
+ *
+ * On startup, pending holds are recovered from the booking table and
+ * re-scheduled; holds that expired while the service was down are
+ * released on the first tick.
+ */
+@Slf4j
+@Service
+public class ReservationService {
+
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final OperatorShardRouter shardRouter;
+    private final Duration holdDuration;
+    private final Duration tick;
+
+    private final HierarchicalTimingWheel<HoldKey> wheel;
+    private final ConcurrentHashMap<UUID, HierarchicalTimingWheel.Timeout<HoldKey>> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "hold-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Everything needed to expire a hold without loading it first.
+     */
+    record HoldKey(UUID bookingUuid, long vehicleId, LocalDate startDate) {
+        static HoldKey of(Booking booking) {
+            return new HoldKey(booking.getBookingUuid(), booking.getVehicle().getId(), booking.getStartDate());
+        }
+    }
+
+    public ReservationService(BookingService bookingService,
+            BookingRepository bookingRepository,
+            OperatorShardRouter shardRouter,
+            @Value("${fleet.reservation.hold-duration:PT10M}") Duration holdDuration,
+            @Value("${fleet.reservation.wheel-tick:PT1S}") Duration tick) {
+        this.bookingService = bookingService;
+        this.bookingRepository = bookingRepository;
+        this.shardRouter = shardRouter;
+        this.holdDuration = holdDuration;
+        this.tick = tick;
+        this.wheel = new HierarchicalTimingWheel<>(tick.toMillis(), 6, 4, System.currentTimeMillis());
+    }
+
+    // ============================================
+    // LIFECYCLE
+    // ============================================
+
+    /**
+     * Recover pending holds and start the wheel.
+     *
+     * BookingService is constructed first (it is a dependency), so its
+     * engine rebuild has already re-occupied the vehicles of these holds.
+     */
+    @PostConstruct
+    public void start() {
+        List<Booking> held = shardRouter.scatterGatherAll(shard -> bookingRepository.findByStatus(BookingStatus.HELD));
+        for (Booking booking : held) {
+            Instant expiresAt = booking.getExpiresAt() != null ? booking.getExpiresAt() : Instant.now();
+            schedule(HoldKey.of(booking), expiresAt);
+        }
+        log.info("Recovered {} pending reservation holds", held.size());
+
+        ticker.scheduleAtFixedRate(this::advance, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    // ============================================
+    // COMMANDS
+    // ============================================
+
+    /**
+     * Hold a free vehicle of the requested model for the hold duration.
+     */
+    public BookingResponse hold(BookingRequest request, UUID userId) {
+        Instant expiresAt = Instant.now().plus(holdDuration);
+        Booking booking = bookingService.createBooking(request, userId, BookingStatus.HELD, expiresAt);
+        schedule(HoldKey.of(booking), expiresAt);
+        return BookingResponse.from(booking);
+    }
+
+    /**
+     * Turn a hold into a confirmed booking.
+     *
+     * @throws BookingConflictException if the hold already expired or was released
+     */
+    public BookingResponse confirm(UUID bookingUuid, UUID userId) {
+        Booking booking = bookingService.findOwnedBooking(bookingUuid, userId);
+        if (booking.getStatus() == BookingStatus.HELD
+                && booking.getExpiresAt() != null
+                && booking.getExpiresAt().isBefore(Instant.now())) {
+            // Due but the wheel has not ticked yet - expire now rather than confirm late
+            expire(HoldKey.of(booking));
+            throw new BookingConflictException("Hold has expired");
+        }
+        if (!bookingService.transition(booking, BookingStatus.CONFIRMED)) {
+            throw new BookingConflictException("Hold is no longer active");
+        }
+        cancelTimeout(bookingUuid);
+        booking.setStatus(BookingStatus.CONFIRMED);
+        booking.setExpiresAt(null);
+        return BookingResponse.from(booking);
+    }
+
+    /**
+     * Release a hold before it expires (user abandoned checkout).
+     */
+    public BookingResponse release(UUID bookingUuid, UUID userId) {
+        Booking booking = bookingService.findOwnedBooking(bookingUuid, userId);
+        HoldKey key = HoldKey.of(booking);
+        if (!bookingService.transition(key.bookingUuid(), key.vehicleId(), key.startDate(),
+                EnumSet.of(BookingStatus.HELD), BookingStatus.CANCELLED)) {
+            throw new BookingConflictException("Hold is no longer active");
+        }
+        cancelTimeout(bookingUuid);
+        booking.setStatus(BookingStatus.CANCELLED);
+        booking.setExpiresAt(null);
+        return BookingResponse.from(booking);
+    }
+
+    public BookingResponse getHold(UUID bookingUuid, UUID userId) {
+        return bookingService.getBooking(bookingUuid, userId);
+    }
+
+    /**
+     * Number of holds currently waiting to expire.
+     */
+    public long pendingHolds() {
+        return wheel.size();
+    }
+
+    // ============================================
+    // EXPIRY
+    // ============================================
+
+    private void schedule(HoldKey key, Instant expiresAt) {
+        pending.put(key.bookingUuid(), wheel.schedule(key, expiresAt.toEpochMilli()));
+    }
+
+    private void cancelTimeout(UUID bookingUuid) {
+        HierarchicalTimingWheel.Timeout<HoldKey> timeout = pending.remove(bookingUuid);
+        if (timeout != null) {
+            wheel.cancel(timeout);
+        }
+    }
+
+    /**
+     * Runs on the hold-expiry thread once per tick.
+     */
+    private void advance() {
+        List<HoldKey> expired = wheel.advanceTo(System.currentTimeMillis());
+        for (HoldKey key : expired) {
+            try {
+                expire(key);
+            } catch (RuntimeException e) {
+                // Database unavailable - retry on a later tick rather than leak the vehicle
+                log.warn("Failed to expire hold {}, retrying: {}", key.bookingUuid(), e.getMessage());
+                schedule(key, Instant.now().plus(tick.multipliedBy(10)));
+            }
+        }
+    }
+
+    private void expire(HoldKey key) {
+        pending.remove(key.bookingUuid());
+        if (bookingService.transition(key.bookingUuid(), key.vehicleId(), key.startDate(),
+                EnumSet.of(BookingStatus.HELD), BookingStatus.EXPIRED)) {
+            log.debug("Hold {} expired, vehicle {} released", key.bookingUuid(), key.vehicleId());
+        }
+    }
+}
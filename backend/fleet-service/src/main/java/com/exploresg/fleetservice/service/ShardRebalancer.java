@@ -0,0 +1,310 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.ShardMoveRequest;
+import com.exploresg.fleetservice.dto.ShardMoveResponse;
+import com.exploresg.fleetservice.dto.ShardStatusResponse;
+import com.exploresg.fleetservice.engine.OperatorIndex;
+import com.exploresg.fleetservice.exception.BookingConflictException;
+import com.exploresg.fleetservice.exception.InvalidRequestException;
+import com.exploresg.fleetservice.exception.ResourceNotFoundException;
+import com.exploresg.fleetservice.model.OperatorShardState;
+import com.exploresg.fleetservice.repository.BookingRepository;
+import com.exploresg.fleetservice.repository.VehicleRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves operators between data shards, and suggests moves that even out the
+ * shards.
+ *
+ * A move (one at a time per node):
+ * 1. The operator is marked MOVING in the shard directory. Its data stays
+ *    readable, writes are refused with 503 (OperatorShardRouter)
+ * 2. After fleet.sharding.move-grace every node has seen the mark and
+ *    writes that started before it have finished
+ * 3. Vehicles, then bookings and telemetry minutes, are copied to the target
+ *    shard in batches, keeping their ids (ids are unique across shards, see
+ *    ShardSchemaSync)
+ * 4. The directory entry is switched to the target shard (ACTIVE)
+ * 5. After another grace period, so no node still reads the old shard, the
+ *    rows are deleted from the source shard
+ *
+ * If copying fails, the partial copy is removed and the operator goes back
+ * to its source shard. An operator left MOVING by a node that stopped during
+ * the copy can simply be moved again; the target is cleared before copying.
+ * The in-memory engine and indexes are keyed by vehicle id and need no change.
+ */
+@Slf4j
+@Service
+public class ShardRebalancer {
+
+    private static final int COPY_BATCH = 1000;
+
+    private static final String VEHICLES_OF_OPERATOR = "select * from vehicle "
+            + "where operator_id = ? and id > ? order by id limit ?";
+    private static final String BOOKINGS_OF_OPERATOR = "select b.* from booking b "
+            + "join vehicle v on v.id = b.vehicle_id where v.operator_id = ? and b.id > ? order by b.id limit ?";
+    private static final String TELEMETRY_OF_OPERATOR = "select t.* from vehicle_telemetry t "
+            + "join vehicle v on v.id = t.vehicle_id where v.operator_id = ? and t.id > ? order by t.id limit ?";
+    private static final String DELETE_BOOKINGS_OF_OPERATOR = "delete from booking "
+            + "where vehicle_id in (select id from vehicle where operator_id = ?)";
+    private static final String DELETE_TELEMETRY_OF_OPERATOR = "delete from vehicle_telemetry "
+            + "where vehicle_id in (select id from vehicle where operator_id = ?)";
+    private static final String DELETE_VEHICLES_OF_OPERATOR = "delete from vehicle where operator_id = ?";
+
+    private final OperatorShardRouter shardRouter;
+    private final OperatorIndex operatorIndex;
+    private final VehicleRepository vehicleRepository;
+    private final BookingRepository bookingRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration moveGrace;
+    private final AtomicBoolean moving = new AtomicBoolean();
+    private final ExecutorService mover = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "shard-rebalancer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ShardRebalancer(OperatorShardRouter shardRouter,
+            OperatorIndex operatorIndex,
+            VehicleRepository vehicleRepository,
+            BookingRepository bookingRepository,
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            @Value("${fleet.sharding.move-grace:PT30S}") Duration moveGrace) {
+        this.shardRouter = shardRouter;
+        this.operatorIndex = operatorIndex;
+        this.vehicleRepository = vehicleRepository;
+        this.bookingRepository = bookingRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.moveGrace = moveGrace;
+    }
+
+    @PreDestroy
+    public void stop() {
+        mover.shutdownNow();
+    }
+
+    // ============================================
+    // QUERIES
+    // ============================================
+
+    /**
+     * Row counts of every shard, counted on all shards in parallel.
+     */
+    public List<ShardStatusResponse> getShards() {
+        List<long[]> counts = shardRouter.scatterGather(
+                shard -> new long[] { vehicleRepository.count(), bookingRepository.count() });
+        int[] operators = new int[counts.size()];
+        int[] movingOperators = new int[counts.size()];
+        for (OperatorIndex.OperatorStats stats : operatorIndex.allStats(1)) {
+            OperatorShardRouter.Placement placement = shardRouter.placement(stats.operatorId());
+            operators[placement.shard()]++;
+            if (placement.state() == OperatorShardState.MOVING) {
+                movingOperators[placement.shard()]++;
+            }
+        }
+        List<ShardStatusResponse> shards = new ArrayList<>(counts.size());
+        for (int shard = 0; shard < counts.size(); shard++) {
+            shards.add(ShardStatusResponse.builder()
+                    .shard(shard)
+                    .operators(operators[shard])
+                    .movingOperators(movingOperators[shard])
+                    .vehicles(counts.get(shard)[0])
+                    .bookings(counts.get(shard)[1])
+                    .build());
+        }
+        return shards;
+    }
+
+    /**
+     * Moves that even out the number of active vehicles per shard.
+     *
+     * Greedy: repeatedly move the largest operator of the fullest shard that
+     * still narrows the gap to the emptiest shard. Nothing is moved.
+     */
+    public List<ShardMoveResponse> planMoves() {
+        int shardCount = shardRouter.shardCount();
+        long[] load = new long[shardCount];
+        List<List<OperatorIndex.OperatorStats>> operators = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            operators.add(new ArrayList<>());
+        }
+        for (OperatorIndex.OperatorStats stats : operatorIndex.allStats(1)) {
+            OperatorShardRouter.Placement placement = shardRouter.placement(stats.operatorId());
+            load[placement.shard()] += stats.vehicleCount();
+            if (stats.operatorUuid() != null && placement.state() == OperatorShardState.ACTIVE) {
+                operators.get(placement.shard()).add(stats);
+            }
+        }
+
+        List<ShardMoveResponse> moves = new ArrayList<>();
+        while (shardCount > 1) {
+            int fullest = 0;
+            int emptiest = 0;
+            for (int i = 1; i < shardCount; i++) {
+                fullest = load[i] > load[fullest] ? i : fullest;
+                emptiest = load[i] < load[emptiest] ? i : emptiest;
+            }
+            long gap = load[fullest] - load[emptiest];
+            OperatorIndex.OperatorStats best = operators.get(fullest).stream()
+                    .filter(stats -> stats.vehicleCount() > 0 && stats.vehicleCount() < gap)
+                    .max(Comparator.comparingInt(OperatorIndex.OperatorStats::vehicleCount))
+                    .orElse(null);
+            if (best == null) {
+                break;
+            }
+            operators.get(fullest).remove(best);
+            load[fullest] -= best.vehicleCount();
+            load[emptiest] += best.vehicleCount();
+            moves.add(ShardMoveResponse.builder()
+                    .operatorUuid(best.operatorUuid())
+                    .name(best.name())
+                    .fromShard(fullest)
+                    .toShard(emptiest)
+                    .vehicles(best.vehicleCount())
+                    .build());
+        }
+        return moves;
+    }
+
+    // ============================================
+    // MOVES
+    // ============================================
+
+    /**
+     * Start moving an operator to another shard. The move runs in the background.
+     *
+     * @throws BookingConflictException if a move is already running
+     */
+    public ShardMoveResponse startMove(ShardMoveRequest request) {
+        if (request.getOperatorUuid() == null || request.getTargetShard() == null) {
+            throw new InvalidRequestException("operatorUuid and targetShard are required");
+        }
+        int target = request.getTargetShard();
+        if (target < 0 || target >= shardRouter.shardCount()) {
+            throw new InvalidRequestException("targetShard must be between 0 and " + (shardRouter.shardCount() - 1));
+        }
+        OperatorIndex.OperatorRef operator = operatorIndex.findOperatorId(request.getOperatorUuid())
+                .flatMap(operatorIndex::findOperator)
+                .orElseThrow(() -> new ResourceNotFoundException("Operator not found: " + request.getOperatorUuid()));
+        OperatorShardRouter.Placement placement = shardRouter.placement(operator.operatorId());
+        if (placement.shard() == target) {
+            throw new InvalidRequestException("Operator is already on shard " + target);
+        }
+        if (!moving.compareAndSet(false, true)) {
+            throw new BookingConflictException("Another shard move is running");
+        }
+        int source = placement.shard();
+        try {
+            shardRouter.updatePlacement(operator.operatorId(), source, OperatorShardState.MOVING);
+            mover.execute(() -> move(operator, source, target));
+        } catch (RuntimeException e) {
+            moving.set(false);
+            throw e;
+        }
+        log.info("Moving operator {} from shard {} to shard {}", operator.name(), source, target);
+        return ShardMoveResponse.builder()
+                .operatorUuid(operator.operatorUuid())
+                .name(operator.name())
+                .fromShard(source)
+                .toShard(target)
+                .vehicles(operatorIndex.allStats(1).stream()
+                        .filter(stats -> stats.operatorId() == operator.operatorId())
+                        .mapToInt(OperatorIndex.OperatorStats::vehicleCount)
+                        .sum())
+                .build();
+    }
+
+    private void move(OperatorIndex.OperatorRef operator, int source, int target) {
+        long operatorId = operator.operatorId();
+        try {
+            try {
+                Thread.sleep(moveGrace.toMillis());
+                long started = System.nanoTime();
+                deleteOperatorRows(operatorId, target);
+                long vehicles = copy(VEHICLES_OF_OPERATOR, "vehicle", operatorId, source, target);
+                long bookings = copy(BOOKINGS_OF_OPERATOR, "booking", operatorId, source, target);
+                long telemetry = copy(TELEMETRY_OF_OPERATOR, "vehicle_telemetry", operatorId, source, target);
+                shardRouter.updatePlacement(operatorId, target, OperatorShardState.ACTIVE);
+                log.info("Copied operator {} to shard {} in {} ms: {} vehicles, {} bookings, {} telemetry minutes",
+                        operator.name(), target, (System.nanoTime() - started) / 1_000_000, vehicles, bookings,
+                        telemetry);
+            } catch (InterruptedException | RuntimeException e) {
+                log.error("Moving operator {} to shard {} failed, it stays on shard {}",
+                        operator.name(), target, source, e);
+                deleteOperatorRows(operatorId, target);
+                shardRouter.updatePlacement(operatorId, source, OperatorShardState.ACTIVE);
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                return;
+            }
+            try {
+                Thread.sleep(moveGrace.toMillis());
+            } catch (InterruptedException e) {
+                // Shutting down - clean up now, a stale copy must not outlive the move
+                Thread.currentThread().interrupt();
+            }
+            deleteOperatorRows(operatorId, source);
+            log.info("Moved operator {} from shard {} to shard {}", operator.name(), source, target);
+        } catch (RuntimeException e) {
+            log.error("Clean-up after moving operator {} failed", operator.name(), e);
+        } finally {
+            moving.set(false);
+        }
+    }
+
+    /**
+     * Copy an operator's rows of one table in id order, one transaction per batch.
+     *
+     * @return rows copied
+     */
+    private long copy(String selectSql, String table, long operatorId, int source, int target) {
+        long copied = 0;
+        long afterId = 0;
+        while (true) {
+            long from = afterId;
+            List<Map<String, Object>> rows = shardRouter.onShard(source,
+                    () -> jdbcTemplate.queryForList(selectSql, operatorId, from, COPY_BATCH));
+            if (rows.isEmpty()) {
+                return copied;
+            }
+            List<String> columns = List.copyOf(rows.get(0).keySet());
+            String insertSql = "insert into " + table + " (" + String.join(", ", columns) + ") values ("
+                    + String.join(", ", columns.stream().map(column -> "?").toList()) + ")";
+            List<Object[]> values = rows.stream()
+                    .map(row -> columns.stream().map(row::get).toArray())
+                    .toList();
+            shardRouter.onShard(target, () -> transactionTemplate.execute(
+                    status -> jdbcTemplate.batchUpdate(insertSql, values)));
+            copied += rows.size();
+            afterId = ((Number) rows.get(rows.size() - 1).get("id")).longValue();
+        }
+    }
+
+    private void deleteOperatorRows(long operatorId, int shard) {
+        shardRouter.onShard(shard, () -> transactionTemplate.execute(status -> {
+            jdbcTemplate.update(DELETE_BOOKINGS_OF_OPERATOR, operatorId);
+            jdbcTemplate.update(DELETE_TELEMETRY_OF_OPERATOR, operatorId);
+            return jdbcTemplate.update(DELETE_VEHICLES_OF_OPERATOR, operatorId);
+        }));
+    }
+}
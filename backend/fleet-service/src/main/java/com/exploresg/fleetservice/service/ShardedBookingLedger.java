@@ -0,0 +1,363 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.common.datasource.ReplicaRoutingDataSource;
+import com.exploresg.fleetservice.dto.BookingRequest;
+import com.exploresg.fleetservice.engine.BookingEngine;
+import com.exploresg.fleetservice.engine.BookingEventLog;
+import com.exploresg.fleetservice.engine.FleetRollups;
+import com.exploresg.fleetservice.exception.BookingConflictException;
+import com.exploresg.fleetservice.exception.ServiceBusyException;
+import com.exploresg.fleetservice.model.Booking;
+import com.exploresg.fleetservice.model.BookingStatus;
+import com.exploresg.fleetservice.model.Vehicle;
+import com.exploresg.fleetservice.repository.BookingRepository;
+import com.exploresg.fleetservice.repository.VehicleRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Single-writer execution mode for bookings of heavily contended models.
+ *
+ * Enabled with fleet.booking.execution-mode=sharded.
+ *
+ * How it works:
+ * 1. Each CarModel is routed to one shard (carModelId mod shard count)
+ * 2. A shard is a bounded queue drained by one dedicated thread, so all
+ *    bookings of a model are applied by a single writer, in arrival order
+ * 3. The writer drains up to maxBatch commands, reserves them in the
+ *    BookingEngine, and persists every successful reservation in ONE
+ *    transaction (group commit: one commit/fsync for the whole batch).
+ *    With data sharding (OperatorShardRouter) that is one transaction per
+ *    data shard the batch's vehicles live on
+ * 4. Each caller gets a CompletableFuture, completed when its batch commits,
+ *    so the HTTP request thread is released while the booking is queued
+ *
+ * When a queue is full the booking is rejected with 503 instead of piling up.
+ * If a group commit fails, its bookings are retried one by one so a single
+ * bad row does not fail the whole batch. If a batch fails for any other
+ * reason, reservations that were not persisted are released again and only
+ * callers still waiting are failed; persisted bookings are handed out.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "fleet.booking.execution-mode", havingValue = "sharded")
+public class ShardedBookingLedger {
+
+    private final BookingEngine bookingEngine;
+    private final BookingRepository bookingRepository;
+    private final VehicleRepository vehicleRepository;
+    private final OperatorShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<BookingEventLog> bookingEventLog;
+    private final FleetRollups fleetRollups;
+    private final int maxBatch;
+    private final List<Shard> shards = new ArrayList<>();
+
+    private volatile boolean running = true;
+
+    /**
+     * One queued booking command.
+     *
+     * @param user principal name of the request (ReplicaRoutingDataSource.currentUser),
+     *             made sticky to the primary when the writer commits the booking
+     */
+    private record Command(long carModelId, BookingRequest request, UUID userId, String user,
+            CompletableFuture<Booking> result) {
+    }
+
+    /**
+     * A command whose vehicle has been reserved in memory, waiting for commit.
+     * Mutable state is touched by the shard's writer thread only.
+     */
+    private static final class Reserved {
+        private final Command command;
+        private final long vehicleId;
+        private final UUID bookingUuid;
+
+        /**
+         * Set once the booking is committed; it is real from then on
+         */
+        private Booking booking;
+
+        /**
+         * Set once the in-memory reservation is given up
+         */
+        private boolean released;
+
+        private Reserved(Command command, long vehicleId, UUID bookingUuid) {
+            this.command = command;
+            this.vehicleId = vehicleId;
+            this.bookingUuid = bookingUuid;
+        }
+    }
+
+    private static final class Shard {
+        private final BlockingQueue<Command> queue;
+        private Thread writer;
+
+        private Shard(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    public ShardedBookingLedger(BookingEngine bookingEngine,
+            BookingRepository bookingRepository,
+            VehicleRepository vehicleRepository,
+            OperatorShardRouter shardRouter,
+            PlatformTransactionManager transactionManager,
+            ObjectProvider<BookingEventLog> bookingEventLog,
+            FleetRollups fleetRollups,
+            @Value("${fleet.booking.shards:0}") int shardCount,
+            @Value("${fleet.booking.shard-queue-capacity:10000}") int queueCapacity,
+            @Value("${fleet.booking.max-batch:256}") int maxBatch) {
+        this.bookingEngine = bookingEngine;
+        this.bookingRepository = bookingRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bookingEventLog = bookingEventLog;
+        this.fleetRollups = fleetRollups;
+        this.maxBatch = maxBatch;
+        int count = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < count; i++) {
+            shards.add(new Shard(queueCapacity));
+        }
+    }
+
+    // ============================================
+    // LIFECYCLE
+    // ============================================
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < shards.size(); i++) {
+            Shard shard = shards.get(i);
+            shard.writer = new Thread(() -> runWriter(shard), "booking-shard-" + i);
+            shard.writer.setDaemon(true);
+            shard.writer.start();
+        }
+        log.info("Sharded booking ledger started with {} shards", shards.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Shard shard : shards) {
+            shard.writer.interrupt();
+            List<Command> leftover = new ArrayList<>();
+            shard.queue.drainTo(leftover);
+            leftover.forEach(c -> c.result().completeExceptionally(
+                    new ServiceBusyException("Booking service is shutting down")));
+        }
+    }
+
+    // ============================================
+    // SUBMIT
+    // ============================================
+
+    /**
+     * Queue a booking for the model's shard.
+     *
+     * The request must already be validated and the model resolved by the caller.
+     *
+     * @return future completed with the persisted booking, or exceptionally with
+     *         BookingConflictException when no vehicle is free
+     * @throws ServiceBusyException if the shard queue is full
+     */
+    public CompletableFuture<Booking> submit(long carModelId, BookingRequest request, UUID userId) {
+        CompletableFuture<Booking> result = new CompletableFuture<>();
+        Shard shard = shards.get((int) Math.floorMod(carModelId, (long) shards.size()));
+        Command command = new Command(carModelId, request, userId, ReplicaRoutingDataSource.currentUser(), result);
+        if (!running || !shard.queue.offer(command)) {
+            throw new ServiceBusyException("Too many concurrent bookings, please retry");
+        }
+        return result;
+    }
+
+    // ============================================
+    // WRITER
+    // ============================================
+
+    private void runWriter(Shard shard) {
+        List<Command> batch = new ArrayList<>(maxBatch);
+        List<Reserved> reserved = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                Command first = shard.queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                shard.queue.drainTo(batch, maxBatch - 1);
+                process(batch, reserved);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Booking shard writer failed on a batch of {}", batch.size(), e);
+                abandon(batch, reserved, e);
+            } finally {
+                batch.clear();
+                reserved.clear();
+            }
+        }
+    }
+
+    /**
+     * Settle a batch that failed part way through process().
+     *
+     * Persisted bookings are real: their callers get the booking even if a
+     * later step (event log, rollups) failed. Reservations that never reached
+     * the database are released, otherwise the vehicles would stay blocked in
+     * memory until restart. Only futures that are not done yet are failed;
+     * completed ones (conflicts, bookings, single failures) keep their outcome.
+     */
+    private void abandon(List<Command> batch, List<Reserved> reserved, RuntimeException e) {
+        for (Reserved r : reserved) {
+            if (r.booking != null) {
+                if (!r.command.result().isDone()) {
+                    r.command.result().complete(r.booking);
+                }
+            } else if (!r.released) {
+                try {
+                    release(r);
+                } catch (RuntimeException releaseFailure) {
+                    log.error("Could not release vehicle {} of booking {}", r.vehicleId, r.bookingUuid,
+                            releaseFailure);
+                }
+            }
+        }
+        for (Command command : batch) {
+            if (!command.result().isDone()) {
+                command.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * @param reserved filled with every reservation taken, so a failure can
+     *                 settle them (see abandon)
+     */
+    private void process(List<Command> batch, List<Reserved> reserved) {
+        // 1. Reserve in memory - single writer per model, so no contention
+        for (Command command : batch) {
+            UUID bookingUuid = UUID.randomUUID();
+            BookingRequest request = command.request();
+            OptionalLong vehicleId = bookingEngine.reserveFirstAvailable(
+                    command.carModelId(), request.getStartDate(), request.getEndDate(), bookingUuid);
+            if (vehicleId.isEmpty()) {
+                command.result().completeExceptionally(
+                        new BookingConflictException("No vehicle available for the requested period"));
+            } else {
+                reserved.add(new Reserved(command, vehicleId.getAsLong(), bookingUuid));
+            }
+        }
+
+        // 2. Group by data shard
+        Map<Integer, List<Reserved>> byShard = new TreeMap<>();
+        for (Reserved r : reserved) {
+            try {
+                int shard = shardRouter.shardForWrite(shardRouter.operatorOfVehicle(r.vehicleId));
+                byShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(r);
+            } catch (RuntimeException e) {
+                failed(r, e);
+            }
+        }
+
+        // 3. Group commit per shard
+        byShard.forEach(this::groupCommit);
+    }
+
+    private void groupCommit(int shard, List<Reserved> reserved) {
+        List<Booking> saved;
+        try {
+            saved = shardRouter.onShard(shard, () -> transactionTemplate.execute(status -> persist(reserved)));
+        } catch (RuntimeException e) {
+            log.warn("Group commit of {} bookings failed, retrying individually: {}", reserved.size(), e.getMessage());
+            for (Reserved r : reserved) {
+                persistSingle(shard, r);
+            }
+            return;
+        }
+
+        // Complete callers only after the commit
+        for (int i = 0; i < reserved.size(); i++) {
+            reserved.get(i).booking = saved.get(i);
+        }
+        for (Reserved r : reserved) {
+            committed(r);
+        }
+    }
+
+    private void persistSingle(int shard, Reserved r) {
+        try {
+            List<Booking> saved = shardRouter.onShard(shard,
+                    () -> transactionTemplate.execute(status -> persist(List.of(r))));
+            r.booking = saved.get(0);
+        } catch (RuntimeException e) {
+            failed(r, e);
+            return;
+        }
+        committed(r);
+    }
+
+    private void failed(Reserved r, RuntimeException e) {
+        release(r);
+        r.command.result().completeExceptionally(e);
+    }
+
+    private void release(Reserved r) {
+        r.released = true;
+        bookingEngine.release(r.vehicleId, r.command.request().getStartDate(), r.bookingUuid);
+    }
+
+    private void committed(Reserved r) {
+        Booking booking = r.booking;
+        bookingEventLog.ifAvailable(eventLog -> eventLog.appendBooked(
+                r.bookingUuid, r.vehicleId, booking.getStartDate(), booking.getEndDate()));
+        fleetRollups.created(r.vehicleId, BookingStatus.CONFIRMED);
+        r.command.result().complete(booking);
+    }
+
+    private List<Booking> persist(List<Reserved> reserved) {
+        Map<Long, Vehicle> vehicles = vehicleRepository
+                .findAllById(reserved.stream().map(r -> r.vehicleId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(Vehicle::getId, Function.identity()));
+        List<Booking> bookings = new ArrayList<>(reserved.size());
+        for (Reserved r : reserved) {
+            BookingRequest request = r.command.request();
+            ReplicaRoutingDataSource.writingFor(r.command.user());
+            bookings.add(Booking.builder()
+                    .bookingUuid(r.bookingUuid)
+                    .vehicle(vehicles.get(r.vehicleId))
+                    .carModelId(r.command.carModelId())
+                    .userId(r.command.userId())
+                    .startDate(request.getStartDate())
+                    .endDate(request.getEndDate())
+                    .status(BookingStatus.CONFIRMED)
+                    .build());
+        }
+        return bookingRepository.saveAll(bookings);
+    }
+}
@@ -0,0 +1,358 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.TelemetryBatchRequest;
+import com.exploresg.fleetservice.dto.TelemetryBatchResponse;
+import com.exploresg.fleetservice.dto.VehicleTelemetryResponse;
+import com.exploresg.fleetservice.engine.AvailabilityChangeTracker;
+import com.exploresg.fleetservice.engine.VehicleTelemetry;
+import com.exploresg.fleetservice.exception.InvalidRequestException;
+import com.exploresg.fleetservice.exception.ResourceNotFoundException;
+import com.exploresg.fleetservice.exception.ServiceBusyException;
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.FuelType;
+import com.exploresg.fleetservice.repository.VehicleRepository;
+import com.exploresg.fleetservice.repository.VehicleTelemetryMinuteRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ingestion of EV telemetry (state of charge, odometer) and its minute
+ * series.
+ *
+ * Batches of readings are validated and put into the VehicleTelemetry rings;
+ * the request never waits for the database. Every fleet.telemetry.flush-interval
+ * the rings are drained: the latest state per vehicle is updated (it feeds the
+ * booking engine, see VehicleTelemetry) and complete minutes are written to
+ * vehicle_telemetry on the vehicle's data shard, fleet.telemetry.write-batch
+ * rows per JDBC batch. Models with a vehicle the drain vetoed or offered again
+ * are marked in the AvailabilityChangeTracker, so pushed counts follow.
+ *
+ * Minutes that cannot be written (database unavailable, operator being moved
+ * between shards) are kept and retried on the next flush, up to
+ * fleet.telemetry.max-pending; beyond that the oldest are discarded. Open
+ * minutes are written on shutdown.
+ *
+ * Vehicles are resolved by vehicleUuid once and then served from memory;
+ * readings of unknown or non-electric vehicles are rejected.
+ */
+@Slf4j
+@Service
+public class TelemetryService {
+
+    private static final String INSERT_SQL = "insert into vehicle_telemetry (vehicle_id, minute_start, samples, "
+            + "state_of_charge_min, state_of_charge_max, state_of_charge_avg, state_of_charge_last, odometer_km) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int[] ARG_TYPES = {
+            Types.BIGINT, Types.TIMESTAMP, Types.INTEGER, Types.DOUBLE, Types.DOUBLE, Types.DOUBLE, Types.DOUBLE,
+            Types.DOUBLE
+    };
+
+    /**
+     * Cached in vehicleIds for vehicles that are not electric.
+     */
+    private static final long NOT_ELECTRIC = -1;
+
+    private final VehicleTelemetry vehicleTelemetry;
+    private final AvailabilityChangeTracker changeTracker;
+    private final VehicleRepository vehicleRepository;
+    private final VehicleTelemetryMinuteRepository telemetryMinuteRepository;
+    private final CatalogueService catalogueService;
+    private final OperatorShardRouter shardRouter;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTransaction;
+    private final int maxBatch;
+    private final Duration maxClockSkew;
+    private final int writeBatch;
+    private final int maxPending;
+
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter dropped;
+    private final Counter late;
+    private final Counter minutesWritten;
+    private final Counter minutesDiscarded;
+
+    /**
+     * vehicleUuid -> Vehicle.id, or NOT_ELECTRIC
+     */
+    private final ConcurrentHashMap<UUID, Long> vehicleIds = new ConcurrentHashMap<>();
+
+    /**
+     * Drained minutes not written yet; guarded by this
+     */
+    private final Deque<VehicleTelemetry.Minute> pending = new ArrayDeque<>();
+
+    public TelemetryService(VehicleTelemetry vehicleTelemetry,
+            AvailabilityChangeTracker changeTracker,
+            VehicleRepository vehicleRepository,
+            VehicleTelemetryMinuteRepository telemetryMinuteRepository,
+            CatalogueService catalogueService,
+            OperatorShardRouter shardRouter,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${fleet.telemetry.max-batch:5000}") int maxBatch,
+            @Value("${fleet.telemetry.max-clock-skew:PT5M}") Duration maxClockSkew,
+            @Value("${fleet.telemetry.write-batch:1000}") int writeBatch,
+            @Value("${fleet.telemetry.max-pending:100000}") int maxPending) {
+        this.vehicleTelemetry = vehicleTelemetry;
+        this.changeTracker = changeTracker;
+        this.vehicleRepository = vehicleRepository;
+        this.telemetryMinuteRepository = telemetryMinuteRepository;
+        this.catalogueService = catalogueService;
+        this.shardRouter = shardRouter;
+        this.jdbcTemplate = jdbcTemplate;
+        // Flushes run on the scheduler thread, never inside another transaction
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxBatch = maxBatch;
+        this.maxClockSkew = maxClockSkew;
+        this.writeBatch = Math.max(writeBatch, 1);
+        this.maxPending = maxPending;
+        this.accepted = counter(meterRegistry, "fleet.telemetry.readings", "accepted", "Telemetry readings, by outcome");
+        this.rejected = counter(meterRegistry, "fleet.telemetry.readings", "rejected", "Telemetry readings, by outcome");
+        this.dropped = counter(meterRegistry, "fleet.telemetry.readings", "dropped", "Telemetry readings, by outcome");
+        this.late = counter(meterRegistry, "fleet.telemetry.readings", "late", "Telemetry readings, by outcome");
+        this.minutesWritten = counter(meterRegistry, "fleet.telemetry.minutes", "written",
+                "Telemetry minutes, by outcome");
+        this.minutesDiscarded = counter(meterRegistry, "fleet.telemetry.minutes", "discarded",
+                "Telemetry minutes, by outcome");
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String name, String outcome, String description) {
+        return Counter.builder(name)
+                .tag("outcome", outcome)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    // ============================================
+    // INGESTION
+    // ============================================
+
+    /**
+     * Buffer a batch of readings.
+     *
+     * @throws InvalidRequestException if the batch is empty or too large
+     */
+    public TelemetryBatchResponse ingest(TelemetryBatchRequest request) {
+        List<TelemetryBatchRequest.Reading> readings = request == null ? null : request.getReadings();
+        if (readings == null || readings.isEmpty()) {
+            throw new InvalidRequestException("readings must not be empty");
+        }
+        if (readings.size() > maxBatch) {
+            throw new InvalidRequestException("At most " + maxBatch + " readings per batch");
+        }
+        resolve(readings);
+
+        long latestAllowed = Instant.now().plus(maxClockSkew).toEpochMilli();
+        int acceptedReadings = 0;
+        int rejectedReadings = 0;
+        int droppedReadings = 0;
+        for (TelemetryBatchRequest.Reading reading : readings) {
+            Long vehicleId = reading.getVehicleUuid() == null ? null : vehicleIds.get(reading.getVehicleUuid());
+            if (vehicleId == null || vehicleId == NOT_ELECTRIC || !isValid(reading, latestAllowed)) {
+                rejectedReadings++;
+            } else if (vehicleTelemetry.offer(vehicleId, reading.getRecordedAt().toEpochMilli(),
+                    reading.getStateOfChargePercent(),
+                    reading.getOdometerKm() == null ? Double.NaN : reading.getOdometerKm())) {
+                acceptedReadings++;
+            } else {
+                droppedReadings++;
+            }
+        }
+        accepted.increment(acceptedReadings);
+        rejected.increment(rejectedReadings);
+        dropped.increment(droppedReadings);
+        return TelemetryBatchResponse.builder()
+                .accepted(acceptedReadings)
+                .rejected(rejectedReadings)
+                .dropped(droppedReadings)
+                .build();
+    }
+
+    private static boolean isValid(TelemetryBatchRequest.Reading reading, long latestAllowed) {
+        Double stateOfCharge = reading.getStateOfChargePercent();
+        Double odometer = reading.getOdometerKm();
+        return reading.getRecordedAt() != null
+                && reading.getRecordedAt().toEpochMilli() <= latestAllowed
+                && stateOfCharge != null && stateOfCharge >= 0 && stateOfCharge <= 100
+                && (odometer == null || (odometer >= 0 && odometer < Double.POSITIVE_INFINITY));
+    }
+
+    /**
+     * Look up the vehicles of a batch that are not cached yet, on every shard.
+     * Unknown UUIDs are not cached: the vehicle may be added later.
+     */
+    private void resolve(List<TelemetryBatchRequest.Reading> readings) {
+        Set<UUID> missing = new HashSet<>();
+        for (TelemetryBatchRequest.Reading reading : readings) {
+            if (reading.getVehicleUuid() != null && !vehicleIds.containsKey(reading.getVehicleUuid())) {
+                missing.add(reading.getVehicleUuid());
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        for (Object[] key : shardRouter.scatterGatherAll(shard -> vehicleRepository.findActiveVehicleKeysByUuid(missing))) {
+            long vehicleId = (Long) key[0];
+            long carModelId = (Long) key[2];
+            boolean electric = catalogueService.findById(carModelId)
+                    .map(CarModel::getFuelType)
+                    .filter(fuelType -> fuelType == FuelType.ELECTRIC)
+                    .isPresent();
+            if (electric) {
+                vehicleTelemetry.track(vehicleId, carModelId);
+            }
+            vehicleIds.put((UUID) key[1], electric ? vehicleId : NOT_ELECTRIC);
+        }
+    }
+
+    // ============================================
+    // FLUSH
+    // ============================================
+
+    @Scheduled(fixedDelayString = "${fleet.telemetry.flush-interval:PT1S}")
+    public void flush() {
+        flush(System.currentTimeMillis());
+    }
+
+    /**
+     * Write every open minute before the database goes away.
+     */
+    @PreDestroy
+    public void flushAll() {
+        flush(Long.MAX_VALUE);
+    }
+
+    private synchronized void flush(long now) {
+        VehicleTelemetry.Drain drain = vehicleTelemetry.drain(now);
+        late.increment(drain.late());
+        drain.eligibilityChanged().forEach(changeTracker::modelChanged);
+        pending.addAll(drain.minutes());
+        if (pending.size() > maxPending) {
+            int discard = pending.size() - maxPending;
+            for (int i = 0; i < discard; i++) {
+                pending.pollFirst();
+            }
+            minutesDiscarded.increment(discard);
+            log.warn("Discarded {} unwritten telemetry minutes", discard);
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, List<VehicleTelemetry.Minute>> byShard = new TreeMap<>();
+        List<VehicleTelemetry.Minute> held = new ArrayList<>();
+        for (VehicleTelemetry.Minute minute : pending) {
+            try {
+                int shard = shardRouter.shardForWrite(shardRouter.operatorOfVehicle(minute.vehicleId()));
+                byShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(minute);
+            } catch (ServiceBusyException e) {
+                held.add(minute);
+            }
+        }
+        pending.clear();
+        pending.addAll(held);
+
+        for (Map.Entry<Integer, List<VehicleTelemetry.Minute>> entry : byShard.entrySet()) {
+            List<VehicleTelemetry.Minute> minutes = entry.getValue();
+            for (int from = 0; from < minutes.size(); from += writeBatch) {
+                List<VehicleTelemetry.Minute> chunk = minutes.subList(from, Math.min(from + writeBatch, minutes.size()));
+                try {
+                    write(entry.getKey(), chunk);
+                    minutesWritten.increment(chunk.size());
+                } catch (RuntimeException e) {
+                    log.warn("Could not write {} telemetry minutes to shard {}, retrying on the next flush",
+                            minutes.size() - from, entry.getKey(), e);
+                    pending.addAll(minutes.subList(from, minutes.size()));
+                    break;
+                }
+            }
+        }
+    }
+
+    private void write(int shard, List<VehicleTelemetry.Minute> minutes) {
+        List<Object[]> args = minutes.stream()
+                .map(m -> new Object[] {
+                        m.vehicleId(), new Timestamp(m.minute()), m.samples(), m.stateOfChargeMin(),
+                        m.stateOfChargeMax(), m.stateOfChargeAvg(), m.stateOfChargeLast(),
+                        Double.isNaN(m.odometerKm()) ? null : m.odometerKm() })
+                .toList();
+        shardRouter.onShard(shard, () -> writeTransaction.execute(
+                status -> jdbcTemplate.batchUpdate(INSERT_SQL, args, ARG_TYPES)));
+    }
+
+    // ============================================
+    // QUERIES
+    // ============================================
+
+    /**
+     * Latest state and stored minutes of an electric vehicle.
+     *
+     * @param minutes how far back to list stored minutes
+     * @throws ResourceNotFoundException if the vehicle is unknown or not electric
+     */
+    public VehicleTelemetryResponse getTelemetry(UUID vehicleUuid, int minutes) {
+        if (!vehicleIds.containsKey(vehicleUuid)) {
+            resolve(List.of(TelemetryBatchRequest.Reading.builder().vehicleUuid(vehicleUuid).build()));
+        }
+        Long vehicleId = vehicleIds.get(vehicleUuid);
+        if (vehicleId == null || vehicleId == NOT_ELECTRIC) {
+            throw new ResourceNotFoundException("Electric vehicle not found: " + vehicleUuid);
+        }
+        Instant from = Instant.now().minus(Duration.ofMinutes(minutes));
+        List<VehicleTelemetryResponse.Minute> stored = shardRouter.onShard(
+                shardRouter.shardFor(shardRouter.operatorOfVehicle(vehicleId)),
+                () -> telemetryMinuteRepository.findByVehicleIdAndMinuteStartGreaterThanEqualOrderByMinuteStart(
+                        vehicleId, from))
+                .stream()
+                .map(m -> VehicleTelemetryResponse.Minute.builder()
+                        .minute(m.getMinuteStart())
+                        .samples(m.getSamples())
+                        .stateOfChargeMin(m.getStateOfChargeMin())
+                        .stateOfChargeMax(m.getStateOfChargeMax())
+                        .stateOfChargeAvg(m.getStateOfChargeAvg())
+                        .stateOfChargeLast(m.getStateOfChargeLast())
+                        .odometerKm(m.getOdometerKm())
+                        .build())
+                .toList();
+
+        VehicleTelemetry.State state = vehicleTelemetry.latest(vehicleId).orElse(null);
+        return VehicleTelemetryResponse.builder()
+                .vehicleUuid(vehicleUuid)
+                .recordedAt(state == null ? null : Instant.ofEpochMilli(state.recordedAt()))
+                .stateOfChargePercent(state == null ? null : state.stateOfCharge())
+                .odometerKm(state == null || Double.isNaN(state.odometerKm()) ? null : state.odometerKm())
+                .estimatedRangeKm(vehicleTelemetry.estimatedRangeKm(vehicleId).orElse(null))
+                .offerableToday(vehicleTelemetry.isOfferable(vehicleId, LocalDate.now().toEpochDay()))
+                .minutes(stored)
+                .build();
+    }
+}
@@ -0,0 +1,166 @@
+package com.exploresg.fleetservice.config;
+
+import com.exploresg.fleetservice.dto.OperatorRequest;
+import com.exploresg.fleetservice.dto.ShardMoveRequest;
+import com.exploresg.fleetservice.dto.VehicleRequest;
+import com.exploresg.fleetservice.engine.OperatorIndex;
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.FuelType;
+import com.exploresg.fleetservice.model.Manufacturer;
+import com.exploresg.fleetservice.model.OperatorShardState;
+import com.exploresg.fleetservice.model.Transmission;
+import com.exploresg.fleetservice.repository.CarModelRepository;
+import com.exploresg.fleetservice.service.OperatorService;
+import com.exploresg.fleetservice.service.OperatorShardRouter;
+import com.exploresg.fleetservice.service.ShardRebalancer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Id blocks of the data shards across a restart, on three embedded H2
+ * databases.
+ *
+ * ShardRebalancer moves rows with their ids, so a shard's table can end up
+ * empty while its ids live on in another shard. Restarting must not hand
+ * those ids out again.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shard-ids-0;DB_CLOSE_DELAY=-1",
+        "fleet.sharding.shard-urls=jdbc:h2:mem:shard-ids-1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard-ids-2;DB_CLOSE_DELAY=-1",
+        "fleet.sharding.move-grace=PT0.05S",
+        "spring.jpa.show-sql=false"
+})
+class ShardIdBlockTest {
+
+    private static final long MOVE_TIMEOUT_MS = 10_000;
+
+    @Autowired
+    private ShardSchemaSync shardSchemaSync;
+
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+
+    @Autowired
+    private OperatorShardRouter shardRouter;
+
+    @Autowired
+    private OperatorService operatorService;
+
+    @Autowired
+    private OperatorIndex operatorIndex;
+
+    @Autowired
+    private CarModelRepository carModelRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID carModelUuid;
+
+    @BeforeEach
+    void setUp() {
+        carModelUuid = carModelRepository.save(CarModel.builder()
+                .model("Sharded Model")
+                .manufacturer(Manufacturer.values()[0])
+                .seats(5)
+                .transmission(Transmission.values()[0])
+                .category(Category.values()[0])
+                .fuelType(FuelType.values()[0])
+                .modelYear(2024)
+                .build()).getCarModelUuid();
+        // Vehicles of earlier tests, gone; the shards keep counting where they were
+        for (int shard = 1; shard < shardRouter.shardCount(); shard++) {
+            shardRouter.onShard(shard, () -> jdbcTemplate.update("delete from vehicle"));
+        }
+    }
+
+    @Test
+    void restartAfterAShardWasEmptiedByAMoveKeepsItsIdsUnique() {
+        long movedId = moveEveryVehicleOffShard1();
+
+        // Restart: the shards are synchronized again, shard 1's vehicle table is empty
+        shardSchemaSync.syncAll(shardRouter.shardCount());
+
+        assertThat(vehicleId(1, addVehicle(operatorOnShard("Staying Rentals", 1)))).isGreaterThan(movedId);
+    }
+
+    @Test
+    void blockAssignedBeforeItWasRecordedStartsAboveTheMovedIds() {
+        long movedId = moveEveryVehicleOffShard1();
+
+        // As left by a version that set the block without recording it
+        shardRouter.onShard(1, () -> jdbcTemplate.update("delete from shard_id_block"));
+        shardSchemaSync.syncAll(shardRouter.shardCount());
+
+        assertThat(vehicleId(1, addVehicle(operatorOnShard("Staying Rentals", 1)))).isGreaterThan(movedId);
+    }
+
+    // ============================================
+    // HELPERS
+    // ============================================
+
+    /**
+     * Add a vehicle on shard 1 and move its operator to shard 2.
+     *
+     * @return id of the moved vehicle, from shard 1's block
+     */
+    private long moveEveryVehicleOffShard1() {
+        UUID moving = operatorOnShard("Moving Rentals", 1);
+        UUID movedVehicle = addVehicle(moving);
+        long movedId = vehicleId(1, movedVehicle);
+        assertThat(movedId).isGreaterThan(ShardSchemaSync.ID_BLOCK);
+
+        shardRebalancer.startMove(ShardMoveRequest.builder().operatorUuid(moving).targetShard(2).build());
+        await(() -> vehicles(1) == 0);
+        assertThat(vehicles(1)).as("vehicles left on shard 1").isZero();
+        assertThat(vehicleId(2, movedVehicle)).isEqualTo(movedId);
+        return movedId;
+    }
+
+    private UUID operatorOnShard(String name, int shard) {
+        UUID operatorUuid = operatorService.createOperator(OperatorRequest.builder()
+                .name(name + " " + UUID.randomUUID())
+                .build()).getOperatorUuid();
+        shardRouter.updatePlacement(operatorIndex.findOperatorId(operatorUuid).orElseThrow(), shard,
+                OperatorShardState.ACTIVE);
+        return operatorUuid;
+    }
+
+    private UUID addVehicle(UUID operatorUuid) {
+        return operatorService.addVehicle(VehicleRequest.builder()
+                .carModelUuid(carModelUuid)
+                .operatorUuid(operatorUuid)
+                .licensePlate("SHARD" + UUID.randomUUID().toString().substring(0, 8))
+                .build()).getVehicleUuid();
+    }
+
+    private long vehicleId(int shard, UUID vehicleUuid) {
+        return shardRouter.onShard(shard, () -> jdbcTemplate.queryForObject(
+                "select id from vehicle where vehicle_uuid = ?", Long.class, vehicleUuid));
+    }
+
+    private long vehicles(int shard) {
+        return shardRouter.onShard(shard, () -> jdbcTemplate.queryForObject("select count(*) from vehicle", Long.class));
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + MOVE_TIMEOUT_MS;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
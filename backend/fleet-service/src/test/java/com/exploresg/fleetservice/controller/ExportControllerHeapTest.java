@@ -0,0 +1,209 @@
+package com.exploresg.fleetservice.controller;
+
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.FuelType;
+import com.exploresg.fleetservice.model.Manufacturer;
+import com.exploresg.fleetservice.model.Transmission;
+import com.exploresg.fleetservice.repository.CarModelRepository;
+import com.exploresg.fleetservice.service.CatalogueService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Streams millions of bookings through /admin/export/bookings in a JVM with a
+ * 64 MB heap (the small-heap surefire execution, which also exits on any
+ * OutOfMemoryError). The export must not hold rows in memory: the whole
+ * table is several times larger than the heap.
+ *
+ * The database is an H2 file with a small page cache, so the rows live on
+ * disk and not on the heap the export is measured against. Lazy query
+ * execution makes H2 stream the result set like a PostgreSQL cursor does,
+ * instead of buffering it.
+ */
+@Tag("small-heap")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/export-heap-test/${random.uuid};CACHE_SIZE=2048;LAZY_QUERY_EXECUTION=TRUE",
+        "spring.jpa.show-sql=false",
+        "logging.level.root=WARN",
+        "logging.level.com.exploresg.fleetservice=WARN"
+})
+class ExportControllerHeapTest {
+
+    private static final int ROWS = 2_000_000;
+    private static final int INSERT_CHUNK = 10_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${application.security.jwt.secret-key}")
+    private String jwtSecretKey;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CarModelRepository carModelRepository;
+
+    @Autowired
+    private CatalogueService catalogueService;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private String adminToken;
+    private String carModelUuid;
+
+    @BeforeAll
+    void seed() {
+        assertThat(Runtime.getRuntime().maxMemory()).as("heap limit of the small-heap execution")
+                .isLessThanOrEqualTo(64L << 20);
+
+        CarModel carModel = carModelRepository.save(CarModel.builder()
+                .model("Export Model")
+                .manufacturer(Manufacturer.values()[0])
+                .seats(5)
+                .transmission(Transmission.values()[0])
+                .category(Category.values()[0])
+                .fuelType(FuelType.values()[0])
+                .modelYear(2024)
+                .build());
+        catalogueService.rebuild();
+        carModelUuid = carModel.getCarModelUuid().toString();
+
+        jdbcTemplate.update("insert into vehicle (vehicle_uuid, car_model_id, license_plate, active, created_at) "
+                + "values (random_uuid(), ?, 'EXPORT1', true, current_timestamp)", carModel.getId());
+        long vehicleId = jdbcTemplate.queryForObject("select id from vehicle where license_plate = 'EXPORT1'",
+                Long.class);
+
+        // The export reads by primary key only. Without the secondary indexes, and in small
+        // transactions, seeding stays fast in this heap; UUIDs and dates grow with x
+        for (String index : List.of("idx_booking_vehicle_start", "idx_booking_status_end", "idx_booking_updated_at")) {
+            jdbcTemplate.execute("drop index if exists " + index);
+        }
+        for (int from = 1; from <= ROWS; from += INSERT_CHUNK) {
+            jdbcTemplate.update("insert into booking (booking_uuid, vehicle_id, car_model_id, "
+                            + "start_date, end_date, status, created_at, updated_at) "
+                            + "select cast('00000000-0000-4000-8000-' || lpad(cast(x as varchar), 12, '0') as uuid), "
+                            + "?, ?, dateadd('DAY', x / 2000 - 1100, current_date), "
+                            + "dateadd('DAY', x / 2000 - 1097, current_date), "
+                            + "'CONFIRMED', current_timestamp, current_timestamp from system_range(?, ?)",
+                    vehicleId, carModel.getId(), from, Math.min(from + INSERT_CHUNK - 1, ROWS));
+        }
+
+        byte[] key = Base64.getDecoder().decode(jwtSecretKey);
+        adminToken = Jwts.builder()
+                .subject(UUID.randomUUID().toString())
+                .claim("roles", List.of("ADMIN"))
+                .issuedAt(new Date())
+                .expiration(Date.from(Instant.now().plusSeconds(3600)))
+                .signWith(Keys.hmacShaKeyFor(key), Jwts.SIG.HS256)
+                .compact();
+    }
+
+    @Test
+    void ndjsonExportStreamsEveryRow() throws Exception {
+        Export export = export("format=ndjson", false);
+
+        assertThat(export.status).isEqualTo(200);
+        assertThat(export.rows).isEqualTo(ROWS);
+        assertThat(export.lastLine).contains("\"carModelUuid\":\"" + carModelUuid + "\"");
+    }
+
+    @Test
+    void gzipCsvExportStreamsEveryRow() throws Exception {
+        Export export = export("format=csv", true);
+
+        assertThat(export.status).isEqualTo(200);
+        assertThat(export.contentEncoding).isEqualTo("gzip");
+        assertThat(export.firstLine).startsWith("cursor,bookingUuid,");
+        // Header line + one line per booking
+        assertThat(export.rows).isEqualTo(ROWS + 1);
+    }
+
+    @Test
+    void resumedExportContinuesAfterTheCursor() throws Exception {
+        int firstPart = ROWS / 3;
+        Export head = export("format=ndjson&limit=" + firstPart, false);
+        assertThat(head.rows).isEqualTo(firstPart);
+
+        String cursor = field(head.lastLine, "cursor");
+        Export tail = export("format=ndjson&after=" + cursor, true);
+
+        assertThat(tail.rows).isEqualTo(ROWS - firstPart);
+        assertThat(field(tail.firstLine, "cursor")).isNotEqualTo(cursor);
+        assertThat(field(tail.firstLine, "bookingUuid")).isNotEqualTo(field(head.lastLine, "bookingUuid"));
+    }
+
+    // ============================================
+    // HELPERS
+    // ============================================
+
+    /**
+     * Lines of one export; only the first and last are kept.
+     */
+    private record Export(int status, String contentEncoding, long rows, String firstLine, String lastLine) {
+    }
+
+    private Export export(String query, boolean gzip) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/v1/fleet/admin/export/bookings?" + query))
+                .header("Authorization", "Bearer " + adminToken);
+        if (gzip) {
+            request.header("Accept-Encoding", "gzip");
+        }
+        HttpResponse<InputStream> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        String contentEncoding = response.headers().firstValue("Content-Encoding").orElse(null);
+        InputStream body = "gzip".equals(contentEncoding) ? new GZIPInputStream(response.body(), 1 << 16) : response.body();
+
+        long rows = 0;
+        String first = null;
+        String last = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 1 << 16)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (first == null) {
+                    first = line;
+                }
+                last = line;
+                rows++;
+            }
+        }
+        return new Export(response.statusCode(), contentEncoding, rows, first, last);
+    }
+
+    /**
+     * String field of an NDJSON line, without a JSON parser: values here are
+     * cursors and UUIDs, which need no escaping.
+     */
+    private static String field(String line, String name) {
+        String prefix = "\"" + name + "\":\"";
+        int start = line.indexOf(prefix) + prefix.length();
+        return line.substring(start, line.indexOf('"', start));
+    }
+}
@@ -0,0 +1,259 @@
+package com.exploresg.fleetservice.engine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers the BookingEngine from many threads with overlapping periods and
+ * checks the per-model locking: no vehicle ever holds two overlapping
+ * intervals, and exactly as many reservations succeed as there was free
+ * capacity.
+ */
+class BookingEngineConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final LocalDate DAY_ZERO = LocalDate.of(2030, 1, 1);
+
+    private ExecutorService executor;
+    private OccupancyMirror mirror;
+    private BookingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(THREADS);
+        mirror = new OccupancyMirror();
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        beans.registerSingleton("occupancyMirror", mirror);
+        engine = new BookingEngine(beans.getBeanProvider(OccupancyListener.class),
+                beans.getBeanProvider(VehicleEligibility.class));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void sameHotPeriodBooksExactlyTheFleet() throws Exception {
+        long model = 1;
+        int vehicles = 40;
+        registerFleet(model, 1, vehicles);
+
+        LocalDate start = day(10);
+        LocalDate end = day(13);
+        AtomicInteger reserved = new AtomicInteger();
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < 200; i++) {
+                if (engine.reserveFirstAvailable(model, start, end, UUID.randomUUID()).isPresent()) {
+                    reserved.incrementAndGet();
+                }
+            }
+        });
+
+        assertThat(reserved.get()).isEqualTo(vehicles);
+        assertThat(engine.countAvailable(model, start, end)).isZero();
+        assertThat(mirror.overlaps.get()).isZero();
+    }
+
+    @Test
+    void overlappingRangesNeverDoubleBook() throws Exception {
+        long model = 7;
+        int vehicles = 50;
+        int horizonDays = 60;
+        registerFleet(model, 100, vehicles);
+        // A second model on the same threads: must not interfere
+        registerFleet(8, 1_000, 10);
+
+        // Phase 1: random overlapping reserve/release from every thread
+        List<List<Held>> heldPerThread = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            heldPerThread.add(new ArrayList<>());
+        }
+        runConcurrently(THREADS, thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            List<Held> held = heldPerThread.get(thread);
+            for (int i = 0; i < 5_000; i++) {
+                if (!held.isEmpty() && random.nextInt(3) == 0) {
+                    Held release = held.remove(random.nextInt(held.size()));
+                    assertThat(engine.release(release.vehicleId(), day(release.startDay()), release.bookingUuid()))
+                            .isTrue();
+                    continue;
+                }
+                long bookedModel = random.nextInt(10) == 0 ? 8 : model;
+                int startDay = random.nextInt(horizonDays);
+                int endDay = startDay + 1 + random.nextInt(7);
+                UUID uuid = UUID.randomUUID();
+                OptionalLong vehicle = engine.reserveFirstAvailable(bookedModel, day(startDay), day(endDay), uuid);
+                if (vehicle.isPresent() && bookedModel == model) {
+                    held.add(new Held(vehicle.getAsLong(), startDay, endDay, uuid));
+                } else if (vehicle.isPresent()) {
+                    engine.release(vehicle.getAsLong(), day(startDay), uuid);
+                }
+            }
+        });
+
+        assertThat(mirror.overlaps.get()).isZero();
+
+        // Every vehicle's schedule, as seen by the threads that won the reservations
+        Map<Long, TreeMap<Long, Long>> schedules = new TreeMap<>();
+        int heldCount = 0;
+        for (List<Held> held : heldPerThread) {
+            for (Held h : held) {
+                schedules.computeIfAbsent(h.vehicleId(), v -> new TreeMap<>()).put((long) h.startDay(), (long) h.endDay());
+                heldCount++;
+            }
+        }
+        int intervals = 0;
+        for (TreeMap<Long, Long> schedule : schedules.values()) {
+            long previousEnd = Long.MIN_VALUE;
+            for (Map.Entry<Long, Long> interval : schedule.entrySet()) {
+                assertThat(interval.getKey()).isGreaterThanOrEqualTo(previousEnd);
+                previousEnd = interval.getValue();
+                intervals++;
+            }
+        }
+        assertThat(intervals).as("two holds share a vehicle and start day").isEqualTo(heldCount);
+        assertThat(schedules).isEqualTo(mirror.snapshot(model));
+
+        // The engine's counts match the schedules day by day
+        for (int d = 0; d < horizonDays + 8; d++) {
+            assertThat(engine.countAvailable(model, day(d), day(d + 1)))
+                    .as("free on day %d", d)
+                    .isEqualTo(vehicles - busyVehicles(schedules, d, d + 1));
+        }
+
+        // Phase 2: race for what is really free in a window; exactly that many succeed
+        int windowStart = 20;
+        int windowEnd = 25;
+        int free = vehicles - busyVehicles(schedules, windowStart, windowEnd);
+        AtomicInteger reserved = new AtomicInteger();
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < 20; i++) {
+                if (engine.reserveFirstAvailable(model, day(windowStart), day(windowEnd), UUID.randomUUID())
+                        .isPresent()) {
+                    reserved.incrementAndGet();
+                }
+            }
+        });
+        assertThat(reserved.get()).isEqualTo(free);
+        assertThat(engine.countAvailable(model, day(windowStart), day(windowEnd))).isZero();
+        assertThat(mirror.overlaps.get()).isZero();
+    }
+
+    // ============================================
+    // HELPERS
+    // ============================================
+
+    private record Held(long vehicleId, int startDay, int endDay, UUID bookingUuid) {
+    }
+
+    @FunctionalInterface
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    private void registerFleet(long model, long firstVehicleId, int vehicles) {
+        for (int v = 0; v < vehicles; v++) {
+            engine.registerVehicle(firstVehicleId + v, model);
+        }
+    }
+
+    private void runConcurrently(int threads, Worker worker) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                worker.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+    }
+
+    private static int busyVehicles(Map<Long, TreeMap<Long, Long>> schedules, long startDay, long endDay) {
+        int busy = 0;
+        for (TreeMap<Long, Long> schedule : schedules.values()) {
+            Map.Entry<Long, Long> candidate = schedule.lowerEntry(endDay);
+            if (candidate != null && candidate.getValue() > startDay) {
+                busy++;
+            }
+        }
+        return busy;
+    }
+
+    private static LocalDate day(long offset) {
+        return DAY_ZERO.plusDays(offset);
+    }
+
+    /**
+     * Independent copy of the occupancy, fed by the engine's callbacks. Runs
+     * under the model lock, so it sees every model's changes in order and can
+     * flag an overlapping interval the moment it is handed out. Days are
+     * kept relative to DAY_ZERO, like the test's own bookkeeping.
+     */
+    private static final class OccupancyMirror implements OccupancyListener {
+
+        private final Map<Long, Long> modelOfVehicle = new ConcurrentHashMap<>();
+        private final Map<Long, TreeMap<Long, Long>> schedules = new ConcurrentHashMap<>();
+        private final AtomicInteger overlaps = new AtomicInteger();
+
+        @Override
+        public void vehicleRegistered(long carModelId, long vehicleId) {
+            modelOfVehicle.put(vehicleId, carModelId);
+            schedules.put(vehicleId, new TreeMap<>());
+        }
+
+        @Override
+        public void occupied(long carModelId, long vehicleId, long startDay, long endDay) {
+            startDay -= DAY_ZERO.toEpochDay();
+            endDay -= DAY_ZERO.toEpochDay();
+            TreeMap<Long, Long> schedule = schedules.get(vehicleId);
+            Map.Entry<Long, Long> candidate = schedule.lowerEntry(endDay);
+            if (candidate != null && candidate.getValue() > startDay) {
+                overlaps.incrementAndGet();
+            }
+            schedule.put(startDay, endDay);
+        }
+
+        @Override
+        public void released(long carModelId, long vehicleId, long startDay, long endDay) {
+            schedules.get(vehicleId).remove(startDay - DAY_ZERO.toEpochDay());
+        }
+
+        private Map<Long, TreeMap<Long, Long>> snapshot(long carModelId) {
+            Map<Long, TreeMap<Long, Long>> copy = new TreeMap<>();
+            schedules.forEach((vehicleId, schedule) -> {
+                if (modelOfVehicle.get(vehicleId) == carModelId && !schedule.isEmpty()) {
+                    copy.put(vehicleId, new TreeMap<>(schedule));
+                }
+            });
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.exploresg.fleetservice.repository;
+
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.FuelType;
+import com.exploresg.fleetservice.model.Manufacturer;
+import com.exploresg.fleetservice.model.Transmission;
+import com.exploresg.fleetservice.service.CatalogueImportService;
+import com.exploresg.fleetservice.service.CatalogueService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Second-level cache of CarModel (hibernate-cache.xml): findByCarModelUuid is
+ * answered from the "car-model-lookups" query region, and every way of
+ * changing a model invalidates it - Hibernate writes through the repository,
+ * and writes Hibernate never sees (bulk import, SQL) through the catalogue
+ * version bump that CarModelCacheEvictor listens to.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:car-model-cache-test;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+class CarModelCacheTest {
+
+    private static final String LOOKUP_REGION = "car-model-lookups";
+
+    @Autowired
+    private CarModelRepository carModelRepository;
+
+    @Autowired
+    private CatalogueService catalogueService;
+
+    @Autowired
+    private CatalogueImportService catalogueImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private CarModel carModel;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        carModel = carModelRepository.save(CarModel.builder()
+                .model("Cached Model")
+                .manufacturer(Manufacturer.values()[0])
+                .seats(5)
+                .transmission(Transmission.values()[0])
+                .category(Category.values()[0])
+                .fuelType(FuelType.values()[0])
+                .modelYear(2024)
+                .build());
+        assertSecondReadIsCached("Cached Model");
+    }
+
+    @Test
+    void repositoryUpdateInvalidatesTheLookup() {
+        long version = catalogueService.getVersion().number();
+
+        CarModel changed = carModelRepository.findById(carModel.getId()).orElseThrow();
+        changed.setModel("Renamed Model");
+        carModelRepository.save(changed);
+
+        assertThat(catalogueService.getVersion().number()).isGreaterThan(version);
+        assertNextReadMisses("Renamed Model");
+    }
+
+    @Test
+    void catalogueImportInvalidatesTheLookup() throws Exception {
+        long version = catalogueService.getVersion().number();
+
+        String row = "{\"carModelUuid\":\"" + carModel.getCarModelUuid() + "\",\"model\":\"Imported Model\","
+                + "\"manufacturer\":\"" + carModel.getManufacturer() + "\",\"seats\":5,"
+                + "\"transmission\":\"" + carModel.getTransmission() + "\","
+                + "\"category\":\"" + carModel.getCategory() + "\","
+                + "\"fuelType\":\"" + carModel.getFuelType() + "\",\"modelYear\":2024}";
+        catalogueImportService.importModels(new ByteArrayInputStream(row.getBytes(StandardCharsets.UTF_8)),
+                CatalogueImportService.Format.NDJSON);
+
+        assertThat(catalogueService.getVersion().number()).isGreaterThan(version);
+        assertNextReadMisses("Imported Model");
+    }
+
+    @Test
+    void sqlChangeIsServedFromTheCacheUntilTheVersionMoves() {
+        jdbcTemplate.update("update car_model set model = 'Edited By Hand' where id = ?", carModel.getId());
+
+        // Hibernate has not seen the write: still the cached model
+        CacheRegionStatistics lookups = statistics.getQueryRegionStatistics(LOOKUP_REGION);
+        long hits = lookups.getHitCount();
+        assertThat(lookup().getModel()).isEqualTo("Cached Model");
+        assertThat(lookups.getHitCount()).isEqualTo(hits + 1);
+
+        catalogueService.rebuild();
+
+        assertNextReadMisses("Edited By Hand");
+    }
+
+    // ============================================
+    // HELPERS
+    // ============================================
+
+    private CarModel lookup() {
+        return carModelRepository.findByCarModelUuid(carModel.getCarModelUuid()).orElseThrow();
+    }
+
+    /**
+     * Two reads: the second is answered from the query region.
+     */
+    private void assertSecondReadIsCached(String expectedModel) {
+        lookup();
+        CacheRegionStatistics lookups = statistics.getQueryRegionStatistics(LOOKUP_REGION);
+        long queryHits = lookups.getHitCount();
+        long queryMisses = lookups.getMissCount();
+
+        assertThat(lookup().getModel()).isEqualTo(expectedModel);
+
+        assertThat(lookups.getHitCount()).isEqualTo(queryHits + 1);
+        assertThat(lookups.getMissCount()).isEqualTo(queryMisses);
+    }
+
+    /**
+     * The next read misses the query region, goes to the database, sees the
+     * change and caches it again.
+     */
+    private void assertNextReadMisses(String expectedModel) {
+        CacheRegionStatistics lookups = statistics.getQueryRegionStatistics(LOOKUP_REGION);
+        long queryHits = lookups.getHitCount();
+        long queryMisses = lookups.getMissCount();
+        long queryPuts = lookups.getPutCount();
+
+        assertThat(lookup().getModel()).isEqualTo(expectedModel);
+
+        assertThat(lookups.getHitCount()).isEqualTo(queryHits);
+        assertThat(lookups.getMissCount()).isEqualTo(queryMisses + 1);
+        assertThat(lookups.getPutCount()).isEqualTo(queryPuts + 1);
+
+        assertSecondReadIsCached(expectedModel);
+    }
+}
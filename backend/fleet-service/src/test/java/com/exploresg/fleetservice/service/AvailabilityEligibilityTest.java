@@ -0,0 +1,162 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.OperatorRequest;
+import com.exploresg.fleetservice.dto.TelemetryBatchRequest;
+import com.exploresg.fleetservice.dto.VehicleRequest;
+import com.exploresg.fleetservice.engine.AvailabilityChangeTracker;
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.FuelType;
+import com.exploresg.fleetservice.model.Manufacturer;
+import com.exploresg.fleetservice.model.Transmission;
+import com.exploresg.fleetservice.repository.CarModelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * An EV too low on charge for a pickup within the charge window
+ * (VehicleTelemetry) is left out of every availability answer, not only the
+ * per-model count, and the change is marked for the pushed counts when the
+ * veto appears and when it lifts.
+ *
+ * The push ticker is slowed down so that this test is the only one draining
+ * the AvailabilityChangeTracker.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:availability-eligibility-test;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "fleet.availability-push.tick=PT1H",
+        "fleet.telemetry.min-range-km=50",
+        "fleet.telemetry.charge-days=1"
+})
+class AvailabilityEligibilityTest {
+
+    private static final long TIMEOUT_MS = 10_000;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private TelemetryService telemetryService;
+
+    @Autowired
+    private AvailabilityChangeTracker changeTracker;
+
+    @Autowired
+    private OperatorService operatorService;
+
+    @Autowired
+    private CatalogueService catalogueService;
+
+    @Autowired
+    private CarModelRepository carModelRepository;
+
+    private CarModel carModel;
+    private UUID vehicleUuid;
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        carModel = carModelRepository.save(CarModel.builder()
+                .model("Eligibility EV " + UUID.randomUUID())
+                .manufacturer(Manufacturer.values()[0])
+                .seats(5)
+                .transmission(Transmission.values()[0])
+                .category(Category.values()[0])
+                .fuelType(FuelType.ELECTRIC)
+                .rangeInKm(300)
+                .modelYear(2024)
+                .build());
+        await(() -> catalogueService.findById(carModel.getId()).isPresent());
+        UUID operatorUuid = operatorService.createOperator(OperatorRequest.builder()
+                .name("Eligibility Rentals " + UUID.randomUUID())
+                .build()).getOperatorUuid();
+        vehicleUuid = operatorService.addVehicle(VehicleRequest.builder()
+                .carModelUuid(carModel.getCarModelUuid())
+                .operatorUuid(operatorUuid)
+                .licensePlate("EV" + UUID.randomUUID().toString().substring(0, 8))
+                .build()).getVehicleUuid();
+        changeTracker.drain();
+    }
+
+    @Test
+    void lowChargeVehicleIsLeftOutOfEveryAnswerWithinTheChargeWindow() {
+        assertThat(availableToday()).isTrue();
+
+        report(5); // 15 km left
+        awaitMarked();
+
+        assertThat(availableToday()).isFalse();
+        assertThat(availabilityService.getAvailabilityCount(carModel.getCarModelUuid(), today, today.plusDays(2))
+                .getAvailableVehicles()).isZero();
+        assertThat(availabilityService.availableCount(carModel.getId(), today, today.plusDays(2))).isZero();
+        assertThat(availabilityService.availableCount(carModel.getId(), vehicleId -> true, today, today.plusDays(2)))
+                .isZero();
+        // Enough time to charge for a later pickup
+        LocalDate later = today.plusDays(5);
+        assertThat(availabilityService.findAvailableModels(later, later.plusDays(2))).contains(carModel);
+        assertThat(availabilityService.availableCount(carModel.getId(), later, later.plusDays(2))).isOne();
+
+        report(90);
+        awaitMarked();
+
+        assertThat(availableToday()).isTrue();
+        assertThat(availabilityService.availableCount(carModel.getId(), today, today.plusDays(2))).isOne();
+    }
+
+    // ============================================
+    // HELPERS
+    // ============================================
+
+    private boolean availableToday() {
+        List<CarModel> models = availabilityService.findAvailableModels(today, today.plusDays(2));
+        return models.contains(carModel);
+    }
+
+    private void report(double stateOfChargePercent) {
+        telemetryService.ingest(TelemetryBatchRequest.builder()
+                .readings(List.of(TelemetryBatchRequest.Reading.builder()
+                        .vehicleUuid(vehicleUuid)
+                        .recordedAt(Instant.now())
+                        .stateOfChargePercent(stateOfChargePercent)
+                        .build()))
+                .build());
+    }
+
+    /**
+     * Flush telemetry until the model is marked changed: the veto appeared or lifted.
+     */
+    private void awaitMarked() {
+        Set<Long> marked = new HashSet<>();
+        await(() -> {
+            telemetryService.flush();
+            marked.addAll(changeTracker.drain());
+            return marked.contains(carModel.getId());
+        });
+        assertThat(marked).contains(carModel.getId());
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
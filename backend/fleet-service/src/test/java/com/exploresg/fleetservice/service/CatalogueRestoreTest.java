@@ -0,0 +1,161 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.engine.CatalogueDiskCache;
+import com.exploresg.fleetservice.engine.CatalogueListener;
+import com.exploresg.fleetservice.engine.ModelSearchIndex;
+import com.exploresg.fleetservice.engine.SimilarModelIndex;
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.FuelType;
+import com.exploresg.fleetservice.model.Manufacturer;
+import com.exploresg.fleetservice.model.Transmission;
+import com.exploresg.fleetservice.repository.CarModelRepository;
+import com.exploresg.fleetservice.repository.CatalogueVersionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Restart from the CatalogueDiskCache: the restored snapshot is served at
+ * once, and the car_model table is then checked in the background, so SQL
+ * run by hand without a version bump is not hidden behind the cache.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:catalogue-restore-test;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "fleet.catalogue-cache.enabled=true",
+        "fleet.catalogue-cache.directory=./target/catalogue-restore-test/${random.uuid}"
+})
+class CatalogueRestoreTest {
+
+    private static final long VERIFY_TIMEOUT_MS = 10_000;
+
+    @Autowired
+    private CatalogueService catalogueService;
+
+    @Autowired
+    private CarModelRepository carModelRepository;
+
+    @Autowired
+    private CatalogueVersionRepository catalogueVersionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ModelSearchIndex searchIndex;
+
+    @Autowired
+    private SimilarModelIndex similarModels;
+
+    @Autowired
+    private CatalogueDiskCache diskCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LoopbackCatalogueChangeTransport loopback;
+    private CarModel carModel;
+
+    @BeforeEach
+    void setUp() {
+        loopback = new LoopbackCatalogueChangeTransport();
+        // Saved through JPA: the application's CatalogueService rebuilds and writes the disk cache
+        carModel = carModelRepository.save(CarModel.builder()
+                .model("Cached Model")
+                .manufacturer(Manufacturer.values()[0])
+                .seats(5)
+                .transmission(Transmission.values()[0])
+                .category(Category.values()[0])
+                .fuelType(FuelType.values()[0])
+                .modelYear(2024)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        loopback.stop();
+    }
+
+    @Test
+    void sqlChangeWithoutVersionBumpIsPickedUpAfterRestore() {
+        long cachedVersion = catalogueService.getVersion().number();
+        jdbcTemplate.update("update car_model set model = 'Edited By Hand' where id = ?", carModel.getId());
+
+        Restarted restarted = restart();
+
+        // First the disk cache as it was written, then the table as it is
+        await(() -> restarted.installed.size() >= 2);
+        assertThat(restarted.installed.get(0)).isEqualTo(new Installed(cachedVersion, "Cached Model"));
+        Installed verified = restarted.installed.get(1);
+        assertThat(verified.version()).isGreaterThan(cachedVersion);
+        assertThat(verified.model()).isEqualTo("Edited By Hand");
+        assertThat(restarted.service.findByUuid(carModel.getCarModelUuid()).orElseThrow().getModel())
+                .isEqualTo("Edited By Hand");
+    }
+
+    @Test
+    void unchangedTableKeepsTheRestoredSnapshot() throws InterruptedException {
+        long cachedVersion = catalogueService.getVersion().number();
+
+        Restarted restarted = restart();
+
+        assertThat(restarted.installed).first().isEqualTo(new Installed(cachedVersion, "Cached Model"));
+        // The check runs in the background and finds nothing to do
+        Thread.sleep(500);
+        assertThat(restarted.installed).hasSize(1);
+        assertThat(restarted.service.getVersion().number()).isEqualTo(cachedVersion);
+    }
+
+    // ============================================
+    // HELPERS
+    // ============================================
+
+    private record Installed(long version, String model) {
+    }
+
+    private record Restarted(CatalogueService service, List<Installed> installed) {
+    }
+
+    /**
+     * A new CatalogueService on the same database and disk cache, as after a
+     * restart, recording what it installs.
+     */
+    private Restarted restart() {
+        List<Installed> installed = new CopyOnWriteArrayList<>();
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        beans.registerSingleton("diskCache", diskCache);
+        beans.registerSingleton("recorder", (CatalogueListener) (models, version) -> models.stream()
+                .filter(model -> model.getId().equals(carModel.getId()))
+                .forEach(model -> installed.add(new Installed(version, model.getModel()))));
+        CatalogueService service = new CatalogueService(carModelRepository, catalogueVersionRepository,
+                transactionManager, beans.getBeanProvider(CatalogueListener.class), searchIndex, similarModels,
+                loopback, beans.getBeanProvider(CatalogueDiskCache.class), new SimpleMeterRegistry(), "restarted");
+        service.start();
+        return new Restarted(service, installed);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + VERIFY_TIMEOUT_MS;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.engine.CatalogueDiskCache;
+import com.exploresg.fleetservice.engine.CatalogueListener;
+import com.exploresg.fleetservice.engine.ModelSearchIndex;
+import com.exploresg.fleetservice.engine.SimilarModelIndex;
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.FuelType;
+import com.exploresg.fleetservice.model.Manufacturer;
+import com.exploresg.fleetservice.model.Transmission;
+import com.exploresg.fleetservice.repository.CarModelRepository;
+import com.exploresg.fleetservice.repository.CatalogueVersionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Three CatalogueService nodes on one database and one loopback transport,
+ * standing in for a cluster: a change made on one node is patched into the
+ * others, a node that missed a change reloads everything, and duplicate or
+ * stale notifications are ignored.
+ *
+ * Models are changed in SQL, out of sight of the Spring context's own
+ * CatalogueService, so only the node that rebuilds advances the version.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:catalogue-sync-test;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+class CatalogueSyncTest {
+
+    private static final long DELIVERY_TIMEOUT_MS = 10_000;
+
+    @Autowired
+    private CarModelRepository carModelRepository;
+
+    @Autowired
+    private CatalogueVersionRepository catalogueVersionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ModelSearchIndex searchIndex;
+
+    @Autowired
+    private SimilarModelIndex similarModels;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LoopbackCatalogueChangeTransport loopback;
+    private CarModel carModel;
+
+    @BeforeEach
+    void setUp() {
+        loopback = new LoopbackCatalogueChangeTransport();
+        carModel = carModelRepository.save(CarModel.builder()
+                .model("Synced Model")
+                .manufacturer(Manufacturer.values()[0])
+                .seats(5)
+                .transmission(Transmission.values()[0])
+                .category(Category.values()[0])
+                .fuelType(FuelType.values()[0])
+                .modelYear(2024)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        loopback.stop();
+    }
+
+    @Test
+    void changeIsPatchedOnThePeers() {
+        Node a = node("a");
+        Node b = node("b");
+        Node c = node("c");
+
+        rename("Patched Model");
+        a.service.rebuild();
+
+        for (Node peer : List.of(b, c)) {
+            awaitCount(peer, "patched", 1);
+            assertThat(peer.service.getVersion()).isEqualTo(a.service.getVersion());
+            assertThat(peer.service.findByUuid(carModel.getCarModelUuid()).orElseThrow().getModel())
+                    .isEqualTo("Patched Model");
+            assertThat(peer.count("reloaded")).isZero();
+        }
+    }
+
+    @Test
+    void versionGapTriggersAFullReload() {
+        Node a = node("a");
+        Node b = node("b");
+        Node c = node("c");
+
+        c.transport.dropping = true;
+        rename("First Change");
+        a.service.rebuild();
+        awaitCount(b, "patched", 1);
+        awaitDropped(c, 1);
+        long missed = a.service.getVersion().number();
+        assertThat(c.service.getVersion().number()).isLessThan(missed);
+
+        c.transport.dropping = false;
+        rename("Second Change");
+        a.service.rebuild();
+
+        // The reload is counted before it runs: wait for its result
+        await(() -> c.service.getVersion().equals(a.service.getVersion()));
+        assertThat(c.service.getVersion()).isEqualTo(a.service.getVersion());
+        assertThat(c.count("reloaded")).isEqualTo(1);
+        assertThat(c.count("patched")).isZero();
+        assertThat(c.service.findByUuid(carModel.getCarModelUuid()).orElseThrow().getModel())
+                .isEqualTo("Second Change");
+        awaitCount(b, "patched", 2);
+    }
+
+    @Test
+    void duplicateAndStaleChangesAreIgnored() {
+        Node a = node("a");
+        Node b = node("b");
+
+        rename("Current Model");
+        a.service.rebuild();
+        awaitCount(b, "patched", 1);
+        CatalogueService.Version held = b.service.getVersion();
+        CatalogueChangeNotification change = a.transport.published.get(a.transport.published.size() - 1);
+
+        // Redelivered as is, and an older change arriving late
+        loopback.publish(change);
+        loopback.publish(new CatalogueChangeNotification("x", held.number() - 1, held.number() - 2,
+                held.lastModified(), List.of(carModel.getCarModelUuid())));
+        // Even when the database now holds something else, nothing is reloaded for them
+        rename("Unannounced Model");
+
+        awaitCount(b, "ignored", 2);
+        assertThat(b.count("patched")).isEqualTo(1);
+        assertThat(b.count("reloaded")).isZero();
+        assertThat(b.service.getVersion()).isEqualTo(held);
+        assertThat(b.service.findByUuid(carModel.getCarModelUuid()).orElseThrow().getModel())
+                .isEqualTo("Current Model");
+    }
+
+    // ============================================
+    // HELPERS
+    // ============================================
+
+    /**
+     * One fleet-service node: its own CatalogueService, without disk cache or
+     * listeners, on the shared database and transport.
+     */
+    private record Node(CatalogueService service, TestTransport transport, SimpleMeterRegistry meters) {
+
+        double count(String outcome) {
+            return meters.counter("fleet.catalogue.sync.received", "outcome", outcome).count();
+        }
+    }
+
+    private Node node(String nodeId) {
+        DefaultListableBeanFactory none = new DefaultListableBeanFactory();
+        TestTransport transport = new TestTransport(loopback);
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        CatalogueService service = new CatalogueService(carModelRepository, catalogueVersionRepository,
+                transactionManager, none.getBeanProvider(CatalogueListener.class), searchIndex, similarModels,
+                transport, none.getBeanProvider(CatalogueDiskCache.class), meters, nodeId);
+        service.start();
+        return new Node(service, transport, meters);
+    }
+
+    private void rename(String model) {
+        jdbcTemplate.update("update car_model set model = ? where id = ?", model, carModel.getId());
+    }
+
+    private static void awaitCount(Node node, String outcome, double expected) {
+        await(() -> node.count(outcome) >= expected);
+        assertThat(node.count(outcome)).as(outcome).isEqualTo(expected);
+    }
+
+    private static void awaitDropped(Node node, int expected) {
+        await(() -> node.transport.dropped.get() >= expected);
+        assertThat(node.transport.dropped.get()).isEqualTo(expected);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + DELIVERY_TIMEOUT_MS;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * A node's view of the loopback transport: remembers what it published and
+     * can lose what is delivered to it.
+     */
+    private static final class TestTransport implements CatalogueChangeTransport {
+
+        private final CatalogueChangeTransport delegate;
+        private final List<CatalogueChangeNotification> published = new CopyOnWriteArrayList<>();
+        private final AtomicInteger dropped = new AtomicInteger();
+        private volatile boolean dropping;
+
+        private TestTransport(CatalogueChangeTransport delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void publish(CatalogueChangeNotification notification) {
+            published.add(notification);
+            delegate.publish(notification);
+        }
+
+        @Override
+        public void subscribe(Consumer<CatalogueChangeNotification> receiver) {
+            delegate.subscribe(notification -> {
+                if (dropping) {
+                    dropped.incrementAndGet();
+                } else {
+                    receiver.accept(notification);
+                }
+            });
+        }
+    }
+}
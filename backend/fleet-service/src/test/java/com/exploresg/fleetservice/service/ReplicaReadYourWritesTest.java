@@ -0,0 +1,183 @@
+package com.exploresg.fleetservice.service;
+
+import com.exploresg.fleetservice.dto.BookingRequest;
+import com.exploresg.fleetservice.dto.BookingResponse;
+import com.exploresg.fleetservice.dto.OperatorRequest;
+import com.exploresg.fleetservice.dto.VehicleRequest;
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.FuelType;
+import com.exploresg.fleetservice.model.Manufacturer;
+import com.exploresg.fleetservice.model.Transmission;
+import com.exploresg.fleetservice.repository.BookingRepository;
+import com.exploresg.fleetservice.repository.CarModelRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Read-your-writes with a read replica while bookings are committed by the
+ * ShardedBookingLedger writer threads, which run without the request's
+ * SecurityContext.
+ *
+ * The replica is a second embedded H2 database with the primary's schema but
+ * none of its rows, and it only sees heartbeats the test copies over: it
+ * counts as in sync, yet has never replayed a booking. A read routed there
+ * does not find the booking.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ryw-primary;DB_CLOSE_DELAY=-1",
+        "application.datasource.replicas.urls=jdbc:h2:mem:ryw-replica;DB_CLOSE_DELAY=-1",
+        "application.datasource.replicas.check-interval=PT0.05S",
+        "application.datasource.replicas.max-lag=PT30S",
+        "fleet.booking.execution-mode=sharded",
+        "spring.jpa.show-sql=false"
+})
+class ReplicaReadYourWritesTest {
+
+    private static final long TIMEOUT_MS = 10_000;
+    private static final String REPLICA_URL = "jdbc:h2:mem:ryw-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CarModelRepository carModelRepository;
+
+    @Autowired
+    private OperatorService operatorService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final UUID userId = UUID.randomUUID();
+    private UUID carModelUuid;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Seeded while the replica has no heartbeat table: every statement goes to the primary
+        CarModel carModel = carModelRepository.save(CarModel.builder()
+                .model("Replica Model")
+                .manufacturer(Manufacturer.values()[0])
+                .seats(5)
+                .transmission(Transmission.values()[0])
+                .category(Category.values()[0])
+                .fuelType(FuelType.values()[0])
+                .modelYear(2024)
+                .build());
+        carModelUuid = carModel.getCarModelUuid();
+        UUID operatorUuid = operatorService.createOperator(OperatorRequest.builder()
+                .name("Replica Rentals")
+                .build()).getOperatorUuid();
+        operatorService.addVehicle(VehicleRequest.builder()
+                .carModelUuid(carModelUuid)
+                .operatorUuid(operatorUuid)
+                .licensePlate("REPLICA" + UUID.randomUUID().toString().substring(0, 8))
+                .build());
+
+        // The replica gets the schema and the heartbeats, nothing else
+        JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        Path schema = Files.createTempFile("ryw-schema", ".sql");
+        try {
+            jdbcTemplate.execute("SCRIPT NODATA TO '" + schema + "'");
+            replica.execute("DROP ALL OBJECTS");
+            replica.execute("RUNSCRIPT FROM '" + schema + "'");
+        } finally {
+            Files.deleteIfExists(schema);
+        }
+        jdbcTemplate.query("SELECT node_id, beat_at FROM replication_heartbeat", row -> {
+            replica.update("INSERT INTO replication_heartbeat (node_id, beat_at) VALUES (?, ?)",
+                    row.getString(1), row.getLong(2));
+        });
+        await(() -> onNewThread(this::vehiclesSeenByReadOnlyTransaction) == 0);
+        assertThat(onNewThread(this::vehiclesSeenByReadOnlyTransaction)).as("read by the empty replica").isZero();
+    }
+
+    @Test
+    void bookingCommittedByTheShardWriterIsReadFromThePrimary() {
+        double sticky = stickyConnections();
+        LocalDate start = LocalDate.now().plusDays(10);
+
+        // A request thread: POST, then the GET right after it
+        BookingResponse[] responses = onNewThread(() -> {
+            SecurityContextHolder.getContext().setAuthentication(
+                    UsernamePasswordAuthenticationToken.authenticated(userId.toString(), null, List.of()));
+            BookingResponse booked = bookingService.bookAsync(BookingRequest.builder()
+                    .carModelUuid(carModelUuid)
+                    .startDate(start)
+                    .endDate(start.plusDays(2))
+                    .build(), userId).join();
+            return new BookingResponse[] {booked, bookingService.getBooking(booked.getBookingUuid(), userId)};
+        });
+
+        assertThat(responses[1].getBookingUuid()).isEqualTo(responses[0].getBookingUuid());
+        assertThat(stickyConnections()).isGreaterThan(sticky);
+        // Anybody else still reads from the replica, which does not have it yet
+        assertThat(onNewThread(() -> bookingRepository.findByBookingUuid(responses[0].getBookingUuid()))).isEmpty();
+    }
+
+    // ============================================
+    // HELPERS
+    // ============================================
+
+    /**
+     * 0 from the replica, which has no rows; the primary has the vehicle.
+     */
+    private int vehiclesSeenByReadOnlyTransaction() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vehicle", Integer.class));
+    }
+
+    /**
+     * Run on a thread that has committed nothing: one that has is itself
+     * sticky to the primary, like the seeding thread.
+     */
+    private static <T> T onNewThread(Supplier<T> work) {
+        return CompletableFuture.supplyAsync(work, runnable -> new Thread(runnable).start()).join();
+    }
+
+    private double stickyConnections() {
+        return meterRegistry.counter("datasource.routing.connections", "target", "primary_sticky").count();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
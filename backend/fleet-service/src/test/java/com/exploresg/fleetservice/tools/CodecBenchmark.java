@@ -0,0 +1,128 @@
+package com.exploresg.fleetservice.tools;
+
+import com.exploresg.common.codec.BinaryCodec;
+import com.exploresg.fleetservice.dto.CarModelResponse;
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.FuelType;
+import com.exploresg.fleetservice.model.Manufacturer;
+import com.exploresg.fleetservice.model.Transmission;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares the BinaryCodec formats with JSON for CarModel lists: payload size
+ * (raw and gzipped) and server-side serialization time.
+ *
+ * Not part of the application; run it from backend/fleet-service:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:java -Dbenchmark=CodecBenchmark \
+ *     -Dexec.args="[listSizes]"
+ * </pre>
+ *
+ * listSizes is comma separated, default 10,100,1000,10000. Each measurement
+ * serializes the list repeatedly after a warm-up and reports the mean.
+ */
+public final class CodecBenchmark {
+
+    private static final long MEASURE_NANOS = 2_000_000_000L;
+
+    private CodecBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        String sizes = args.length > 0 ? args[0] : "10,100,1000,10000";
+
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", new Jackson2ObjectMapperBuilder().build());
+        mappers.put("cbor", BinaryCodec.cborMapper(new Jackson2ObjectMapperBuilder()));
+        mappers.put("smile", BinaryCodec.smileMapper(new Jackson2ObjectMapperBuilder()));
+
+        System.out.printf("%8s %-6s %12s %12s %10s %12s%n",
+                "models", "format", "bytes", "gzip bytes", "vs json", "serialize us");
+        for (String size : sizes.split(",")) {
+            List<CarModelResponse> models = sampleModels(Integer.parseInt(size.trim()));
+            long jsonBytes = 0;
+            for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+                ObjectMapper mapper = entry.getValue();
+                byte[] payload = mapper.writeValueAsBytes(models);
+                if (jsonBytes == 0) {
+                    jsonBytes = payload.length;
+                }
+                System.out.printf("%8d %-6s %,12d %,12d %9.0f%% %,12.1f%n",
+                        models.size(), entry.getKey(), payload.length, gzip(payload).length,
+                        100.0 * payload.length / jsonBytes, serializeMicros(mapper, models));
+            }
+        }
+    }
+
+    private static double serializeMicros(ObjectMapper mapper, List<CarModelResponse> models) throws IOException {
+        // Warm-up: let the JIT compile the serializers
+        long until = System.nanoTime() + MEASURE_NANOS / 2;
+        while (System.nanoTime() < until) {
+            mapper.writeValueAsBytes(models);
+        }
+        long iterations = 0;
+        long started = System.nanoTime();
+        long elapsed;
+        do {
+            mapper.writeValueAsBytes(models);
+            iterations++;
+            elapsed = System.nanoTime() - started;
+        } while (elapsed < MEASURE_NANOS);
+        return elapsed / 1000.0 / iterations;
+    }
+
+    private static byte[] gzip(byte[] payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(payload);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Catalogue-like data: repeated enum values, a few distinct numbers, unique names and URLs.
+     */
+    private static List<CarModelResponse> sampleModels(int count) {
+        Random random = new Random(42);
+        Manufacturer[] manufacturers = Manufacturer.values();
+        Category[] categories = Category.values();
+        FuelType[] fuelTypes = FuelType.values();
+        Transmission[] transmissions = Transmission.values();
+        List<CarModelResponse> models = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            FuelType fuelType = fuelTypes[random.nextInt(fuelTypes.length)];
+            models.add(CarModelResponse.builder()
+                    .carModelUuid(new UUID(random.nextLong(), random.nextLong()))
+                    .model("Model " + i)
+                    .manufacturer(manufacturers[random.nextInt(manufacturers.length)])
+                    .seats(random.nextBoolean() ? 5 : 7)
+                    .transmission(transmissions[random.nextInt(transmissions.length)])
+                    .imageUrl("https://cdn.exploresg.com/models/" + i + ".jpg")
+                    .category(categories[random.nextInt(categories.length)])
+                    .fuelType(fuelType)
+                    .modelYear(2018 + random.nextInt(8))
+                    .engineCapacityCc(fuelType == FuelType.ELECTRIC ? null : 1000 + 100 * random.nextInt(30))
+                    .maxUnladenWeightKg(1200 + random.nextInt(800))
+                    .maxLadenWeightKg(1700 + random.nextInt(900))
+                    .rangeInKm(400 + random.nextInt(500))
+                    .hasAirConditioning(true)
+                    .hasInfotainmentSystem(random.nextBoolean())
+                    .safetyRating(random.nextInt(5) + 1 + "-Star ANCAP")
+                    .topSpeedKph(150 + random.nextInt(100))
+                    .zeroToHundredSec(4 + random.nextInt(80) / 10.0)
+                    .build());
+        }
+        return models;
+    }
+}
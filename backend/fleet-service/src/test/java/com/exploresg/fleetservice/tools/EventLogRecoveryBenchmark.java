@@ -0,0 +1,163 @@
+package com.exploresg.fleetservice.tools;
+
+import com.exploresg.fleetservice.engine.AvailabilityCalendar;
+import com.exploresg.fleetservice.engine.BookingEngine;
+import com.exploresg.fleetservice.engine.BookingEventLog;
+import com.exploresg.fleetservice.engine.OccupancyListener;
+import com.exploresg.fleetservice.engine.VehicleEligibility;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Measures how long it takes to restore the in-memory booking state from the
+ * BookingEventLog, with and without a snapshot.
+ *
+ * Not part of the application; run it from backend/fleet-service:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:java -Dbenchmark=EventLogRecoveryBenchmark \
+ *     -Dexec.args="[events] [vehicles] [tailEvents]"
+ * </pre>
+ *
+ * Defaults: 10,000,000 historical events over 20,000 vehicles, 100,000 tail events.
+ * Roughly one booking in ten is cancelled, the rest are back to back up to a few
+ * months ahead, so most of the history has already ended.
+ *
+ * Phases:
+ * 1. Write the history through BookingEventLog (append throughput)
+ * 2. Recover by replaying every record (what a log without snapshots would do)
+ * 3. Take a snapshot (fold + drop ended bookings)
+ * 4. Append the tail, then recover from snapshot + tail
+ */
+public final class EventLogRecoveryBenchmark {
+
+    private static final int STRIDE_DAYS = 4;
+    private static final int BOOKING_DAYS = 3;
+    private static final int HORIZON_DAYS = 548;
+
+    private EventLogRecoveryBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        long events = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        int vehicles = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int tailEvents = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+
+        Path directory = Files.createTempDirectory("booking-event-log-bench");
+        LocalDate today = LocalDate.now();
+        try {
+            BookingEventLog eventLog = new BookingEventLog(directory, 1 << 20, Duration.ofMinutes(5));
+            eventLog.open();
+            eventLog.writeBaseline(List.of());
+
+            // 1. History
+            // ~11 records per 10 bookings; aim for the history to end ~4 months ahead
+            long bookingsPerVehicle = (long) (events / (vehicles * 1.1));
+            long firstDay = today.toEpochDay() + 120 - bookingsPerVehicle * STRIDE_DAYS;
+            long written = 0;
+            long started = System.nanoTime();
+            for (long k = 0; written < events; k++) {
+                long start = firstDay + k * STRIDE_DAYS;
+                for (int v = 1; v <= vehicles && written < events; v++) {
+                    UUID uuid = new UUID(v, k);
+                    eventLog.appendBooked(uuid, v, LocalDate.ofEpochDay(start), LocalDate.ofEpochDay(start + BOOKING_DAYS));
+                    written++;
+                    if ((v + k) % 10 == 0 && written < events) {
+                        eventLog.appendReleased(uuid, v, LocalDate.ofEpochDay(start));
+                        written++;
+                    }
+                }
+            }
+            report("append", written, started);
+            System.out.printf("  log size on disk: %,d MB%n", directorySize(directory) >> 20);
+
+            // 2. Full replay (the snapshot is the empty baseline)
+            eventLog.close();
+            eventLog = reopen(directory);
+            recoverInto(eventLog, vehicles, today, "recover, full log replay");
+
+            // 3. Snapshot
+            started = System.nanoTime();
+            eventLog.snapshot();
+            report("snapshot", written, started);
+            System.out.printf("  files after snapshot: %,d MB%n", directorySize(directory) >> 20);
+
+            // 4. Tail after the snapshot, then recover again
+            long tailStart = today.toEpochDay() + 200;
+            for (int i = 0; i < tailEvents; i++) {
+                int v = 1 + i % vehicles;
+                long start = tailStart + (long) (i / vehicles) * STRIDE_DAYS;
+                eventLog.appendBooked(new UUID(-v, i), v, LocalDate.ofEpochDay(start),
+                        LocalDate.ofEpochDay(start + BOOKING_DAYS));
+            }
+            eventLog.close();
+            eventLog = reopen(directory);
+            recoverInto(eventLog, vehicles, today, "recover, snapshot + tail");
+            eventLog.close();
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private static BookingEventLog reopen(Path directory) throws IOException {
+        BookingEventLog eventLog = new BookingEventLog(directory, 1 << 20, Duration.ofMinutes(5));
+        eventLog.open();
+        return eventLog;
+    }
+
+    /**
+     * Restore into a fresh engine + availability calendar, as BookingService does on startup.
+     */
+    private static void recoverInto(BookingEventLog eventLog, int vehicles, LocalDate today, String label) {
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        beans.registerSingleton("availabilityCalendar", new AvailabilityCalendar(HORIZON_DAYS));
+        BookingEngine engine = new BookingEngine(beans.getBeanProvider(OccupancyListener.class),
+                beans.getBeanProvider(VehicleEligibility.class));
+        for (int v = 1; v <= vehicles; v++) {
+            engine.registerVehicle(v, v % 50);
+        }
+
+        long started = System.nanoTime();
+        long[] applied = new long[1];
+        BookingEventLog.RecoveryStats stats = eventLog.recover(today, event -> {
+            LocalDate startDate = LocalDate.ofEpochDay(event.startDay());
+            if (event.type() == BookingEventLog.Type.BOOKED) {
+                engine.reserve(event.vehicleId(), startDate, LocalDate.ofEpochDay(event.endDay()), event.bookingUuid());
+            } else {
+                engine.release(event.vehicleId(), startDate, event.bookingUuid());
+            }
+            applied[0]++;
+        }).orElseThrow();
+        report(label, stats.snapshotEntries() + stats.tailEvents(), started);
+        System.out.printf("  snapshot entries %,d, tail records %,d, applied to engine %,d%n",
+                stats.snapshotEntries(), stats.tailEvents(), applied[0]);
+    }
+
+    private static void report(String phase, long records, long startedNanos) {
+        double seconds = (System.nanoTime() - startedNanos) / 1e9;
+        System.out.printf("%-28s %,12d records %8.2f s %,12.0f records/s%n",
+                phase, records, seconds, records / seconds);
+    }
+
+    private static long directorySize(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            long total = 0;
+            for (Path file : files.toList()) {
+                total += Files.size(file);
+            }
+            return total;
+        }
+    }
+}
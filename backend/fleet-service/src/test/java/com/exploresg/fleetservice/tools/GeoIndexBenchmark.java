@@ -0,0 +1,182 @@
+package com.exploresg.fleetservice.tools;
+
+import com.exploresg.fleetservice.engine.PickupLocationIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Measures PickupLocationIndex on synthetic pickup locations across
+ * Singapore: build time and latency percentiles of radius and k-nearest
+ * queries, with and without an operator filter, against a linear scan.
+ *
+ * Not part of the application; run it from backend/fleet-service:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:java -Dbenchmark=GeoIndexBenchmark \
+ *     -Dexec.args="[locations] [queries]"
+ * </pre>
+ *
+ * Defaults: 50000 locations of 2000 operators, 20000 queries per kind.
+ * 70% of the locations cluster around 25 hotspots (malls, MRT stations), the
+ * rest are spread over the island. The filter accepts a fixed 20% of the
+ * operators, standing in for "has an SUV free on those dates". Every query
+ * kind is first checked against a linear scan on 1000 points.
+ */
+public final class GeoIndexBenchmark {
+
+    private static final double MIN_LAT = 1.22;
+    private static final double MAX_LAT = 1.47;
+    private static final double MIN_LON = 103.60;
+    private static final double MAX_LON = 104.05;
+    private static final int OPERATORS = 2000;
+    private static final int HOTSPOTS = 25;
+    private static final int LIMIT = 10;
+
+    private GeoIndexBenchmark() {
+    }
+
+    private interface Query {
+        List<PickupLocationIndex.Hit> run(double latitude, double longitude);
+    }
+
+    public static void main(String[] args) {
+        int locationCount = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int queryCount = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        Random random = new Random(42);
+        List<PickupLocationIndex.Location> locations = sampleLocations(locationCount, random);
+        boolean[] matchingOperators = new boolean[OPERATORS];
+        for (int i = 0; i < OPERATORS; i++) {
+            matchingOperators[i] = random.nextInt(5) == 0;
+        }
+        Predicate<PickupLocationIndex.Location> all = location -> true;
+        Predicate<PickupLocationIndex.Location> filtered = location -> matchingOperators[(int) location.operatorId()];
+
+        PickupLocationIndex index = new PickupLocationIndex();
+        long started = System.nanoTime();
+        index.load(locations);
+        System.out.printf("build           %,10.1f ms  (%,d locations)%n", (System.nanoTime() - started) / 1e6, index.size());
+
+        double[][] points = new double[queryCount][];
+        for (int i = 0; i < queryCount; i++) {
+            points[i] = point(random);
+        }
+
+        run("radius 1 km", index, points, locations,
+                (lat, lon) -> index.withinRadius(lat, lon, 1_000, LIMIT, all), 1_000, all);
+        run("radius 5 km", index, points, locations,
+                (lat, lon) -> index.withinRadius(lat, lon, 5_000, LIMIT, all), 5_000, all);
+        run("radius 5 km +f", index, points, locations,
+                (lat, lon) -> index.withinRadius(lat, lon, 5_000, LIMIT, filtered), 5_000, filtered);
+        run("10-nearest", index, points, locations,
+                (lat, lon) -> index.nearest(lat, lon, LIMIT, 50_000, all), 50_000, all);
+        run("10-nearest +f", index, points, locations,
+                (lat, lon) -> index.nearest(lat, lon, LIMIT, 50_000, filtered), 50_000, filtered);
+
+        long[] latencies = new long[Math.min(queryCount, 2_000)];
+        for (int i = 0; i < latencies.length; i++) {
+            started = System.nanoTime();
+            linearScan(locations, points[i][0], points[i][1], 50_000, filtered);
+            latencies[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%-15s p50 %,8.1f us   p99 %,8.1f us  (10-nearest +f by linear scan)%n", "linear scan",
+                percentile(latencies, 0.50), percentile(latencies, 0.99));
+
+        long[] puts = new long[50];
+        for (int i = 0; i < puts.length; i++) {
+            double[] point = point(random);
+            started = System.nanoTime();
+            index.put(new PickupLocationIndex.Location(locationCount + 1L + i, UUID.randomUUID(), 0,
+                    "New " + i, point[0], point[1]));
+            puts[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(puts);
+        System.out.printf("1-location put  %,10.1f ms  median (copy-on-write snapshot)%n", puts[puts.length / 2] / 1e6);
+    }
+
+    private static void run(String name, PickupLocationIndex index, double[][] points,
+            List<PickupLocationIndex.Location> locations, Query query, double radiusMeters,
+            Predicate<PickupLocationIndex.Location> filter) {
+        for (int i = 0; i < Math.min(points.length, 1_000); i++) {
+            List<Long> expected = linearScan(locations, points[i][0], points[i][1], radiusMeters, filter).stream()
+                    .map(hit -> hit.location().locationId())
+                    .toList();
+            List<Long> actual = query.run(points[i][0], points[i][1]).stream()
+                    .map(hit -> hit.location().locationId())
+                    .toList();
+            if (!expected.equals(actual)) {
+                throw new IllegalStateException(name + " differs from the linear scan at " + Arrays.toString(points[i]));
+            }
+        }
+        long hits = 0;
+        for (double[] point : points) {
+            hits += query.run(point[0], point[1]).size();
+        }
+        long[] latencies = new long[points.length];
+        for (int i = 0; i < points.length; i++) {
+            long started = System.nanoTime();
+            hits += query.run(points[i][0], points[i][1]).size();
+            latencies[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%-15s p50 %,8.1f us   p90 %,8.1f us   p99 %,8.1f us   max %,8.1f us   mean hits %.1f%n",
+                name, percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                latencies[latencies.length - 1] / 1e3, hits / (2.0 * points.length));
+    }
+
+    /**
+     * The LIMIT nearest accepted locations within the radius, by brute force.
+     */
+    private static List<PickupLocationIndex.Hit> linearScan(List<PickupLocationIndex.Location> locations,
+            double latitude, double longitude, double radiusMeters, Predicate<PickupLocationIndex.Location> filter) {
+        List<PickupLocationIndex.Hit> hits = new ArrayList<>();
+        for (PickupLocationIndex.Location location : locations) {
+            double distance = PickupLocationIndex.distanceMeters(latitude, longitude,
+                    location.latitude(), location.longitude());
+            if (distance <= radiusMeters && filter.test(location)) {
+                hits.add(new PickupLocationIndex.Hit(location, distance));
+            }
+        }
+        hits.sort(Comparator.comparingDouble(PickupLocationIndex.Hit::distanceMeters)
+                .thenComparingLong(hit -> hit.location().locationId()));
+        return hits.subList(0, Math.min(LIMIT, hits.size()));
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))] / 1e3;
+    }
+
+    private static double[] point(Random random) {
+        return new double[] {
+                MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT),
+                MIN_LON + random.nextDouble() * (MAX_LON - MIN_LON)};
+    }
+
+    private static List<PickupLocationIndex.Location> sampleLocations(int count, Random random) {
+        double[][] hotspots = new double[HOTSPOTS][];
+        for (int i = 0; i < HOTSPOTS; i++) {
+            hotspots[i] = point(random);
+        }
+        List<PickupLocationIndex.Location> locations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double[] point;
+            if (random.nextInt(10) < 7) {
+                // ~1.5 km spread around the hotspot
+                double[] hotspot = hotspots[random.nextInt(HOTSPOTS)];
+                point = new double[] {
+                        hotspot[0] + random.nextGaussian() * 0.0135,
+                        hotspot[1] + random.nextGaussian() * 0.0135};
+            } else {
+                point = point(random);
+            }
+            locations.add(new PickupLocationIndex.Location(i + 1L, new UUID(random.nextLong(), random.nextLong()),
+                    random.nextInt(OPERATORS), "Location " + (i + 1), point[0], point[1]));
+        }
+        return locations;
+    }
+}
@@ -0,0 +1,163 @@
+package com.exploresg.fleetservice.tools;
+
+import com.exploresg.fleetservice.dto.FacetFilter;
+import com.exploresg.fleetservice.engine.ModelSearchIndex;
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.FuelType;
+import com.exploresg.fleetservice.model.Manufacturer;
+import com.exploresg.fleetservice.model.Transmission;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Measures ModelSearchIndex on a synthetic catalogue: full build, incremental
+ * single-model update and query latency percentiles.
+ *
+ * Not part of the application; run it from backend/fleet-service:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:java -Dbenchmark=SearchIndexBenchmark \
+ *     -Dexec.args="[models] [queries]"
+ * </pre>
+ *
+ * Defaults: 100000 models, 200000 queries. Queries replay typing: every prefix
+ * length of "[manufacturer] model name" is equally likely, 10% carry a typo
+ * in the last word and 20% a category filter. Latency is measured per query
+ * after a warm-up with the same mix.
+ */
+public final class SearchIndexBenchmark {
+
+    private static final String[] SYLLABLES = {
+            "ca", "ro", "la", "mi", "ta", "ve", "zo", "ne", "ri", "ko", "sa", "lu", "pre", "vi", "an", "tor",
+            "el", "mo", "di", "qua", "xe", "fi", "ra", "no", "ste", "ga", "li", "be", "or", "cru"};
+    private static final String[] TRIMS = {
+            "Sport", "Hybrid", "Touring", "GT", "Limited", "Plus", "Premium", "Active", "Eco", "Turbo"};
+    private static final int RESULTS = 10;
+
+    private SearchIndexBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int modelCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int queryCount = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        Random random = new Random(42);
+        List<CarModel> models = sampleModels(modelCount, random);
+
+        ModelSearchIndex index = new ModelSearchIndex();
+        long started = System.nanoTime();
+        index.catalogueChanged(models, 1);
+        System.out.printf("full build      %,10.1f ms  (%,d models)%n", (System.nanoTime() - started) / 1e6, index.size());
+
+        List<CarModel> changed = new ArrayList<>(models);
+        long[] updates = new long[50];
+        for (int i = 0; i < updates.length; i++) {
+            int position = random.nextInt(changed.size());
+            CarModel renamed = copy(changed.get(position));
+            renamed.setModel(name(random));
+            changed.set(position, renamed);
+            started = System.nanoTime();
+            index.catalogueChanged(changed, 2 + i);
+            updates[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(updates);
+        System.out.printf("1-model update  %,10.1f ms  median (diff of the full catalogue + re-index)%n",
+                updates[updates.length / 2] / 1e6);
+
+        String[] queries = new String[queryCount];
+        FacetFilter[] filters = new FacetFilter[queryCount];
+        for (int i = 0; i < queryCount; i++) {
+            queries[i] = query(changed.get(random.nextInt(changed.size())), random);
+            filters[i] = random.nextInt(5) == 0
+                    ? new FacetFilter(null, Category.values()[random.nextInt(Category.values().length)], null, null, null)
+                    : FacetFilter.NONE;
+        }
+
+        long hits = 0;
+        for (int i = 0; i < queryCount; i++) {
+            hits += index.search(queries[i], filters[i], RESULTS).size();
+        }
+        long[] latencies = new long[queryCount];
+        for (int i = 0; i < queryCount; i++) {
+            started = System.nanoTime();
+            hits += index.search(queries[i], filters[i], RESULTS).size();
+            latencies[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("queries %,d, mean hits %.1f%n", queryCount, hits / (2.0 * queryCount));
+        System.out.printf("p50 %,8.1f us   p90 %,8.1f us   p99 %,8.1f us   p99.9 %,8.1f us   max %,8.1f us%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                percentile(latencies, 0.999), latencies[latencies.length - 1] / 1e3);
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))] / 1e3;
+    }
+
+    /**
+     * A prefix of "[manufacturer ]model", optionally with one letter of the last word replaced.
+     */
+    private static String query(CarModel model, Random random) {
+        String text = (random.nextInt(3) == 0 ? model.getManufacturer().name().toLowerCase(Locale.ROOT) + " " : "")
+                + model.getModel().toLowerCase(Locale.ROOT);
+        String query = text.substring(0, 1 + random.nextInt(text.length())).strip();
+        int lastWord = query.lastIndexOf(' ') + 1;
+        if (random.nextInt(10) == 0 && query.length() - lastWord >= 4) {
+            int position = lastWord + 1 + random.nextInt(query.length() - lastWord - 1);
+            query = query.substring(0, position) + (char) ('a' + random.nextInt(26)) + query.substring(position + 1);
+        }
+        return query;
+    }
+
+    private static String name(Random random) {
+        StringBuilder name = new StringBuilder();
+        int syllables = 2 + random.nextInt(2);
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        if (random.nextBoolean()) {
+            name.append(' ').append(TRIMS[random.nextInt(TRIMS.length)]);
+        }
+        if (random.nextInt(4) == 0) {
+            name.append(' ').append((char) ('A' + random.nextInt(26))).append(1 + random.nextInt(9));
+        }
+        return name.toString();
+    }
+
+    private static List<CarModel> sampleModels(int count, Random random) {
+        List<CarModel> models = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            models.add(CarModel.builder()
+                    .id((long) i + 1)
+                    .carModelUuid(new UUID(random.nextLong(), random.nextLong()))
+                    .model(name(random))
+                    .manufacturer(Manufacturer.values()[random.nextInt(Manufacturer.values().length)])
+                    .seats(random.nextBoolean() ? 5 : 7)
+                    .transmission(Transmission.values()[random.nextInt(Transmission.values().length)])
+                    .category(Category.values()[random.nextInt(Category.values().length)])
+                    .fuelType(FuelType.values()[random.nextInt(FuelType.values().length)])
+                    .modelYear(2018 + random.nextInt(8))
+                    .build());
+        }
+        return models;
+    }
+
+    private static CarModel copy(CarModel model) {
+        return CarModel.builder()
+                .id(model.getId())
+                .carModelUuid(model.getCarModelUuid())
+                .model(model.getModel())
+                .manufacturer(model.getManufacturer())
+                .seats(model.getSeats())
+                .transmission(model.getTransmission())
+                .category(model.getCategory())
+                .fuelType(model.getFuelType())
+                .modelYear(model.getModelYear())
+                .build();
+    }
+}
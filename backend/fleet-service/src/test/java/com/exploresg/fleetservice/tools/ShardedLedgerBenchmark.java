@@ -0,0 +1,185 @@
+package com.exploresg.fleetservice.tools;
+
+import com.exploresg.fleetservice.FleetApplication;
+import com.exploresg.fleetservice.dto.BookingRequest;
+import com.exploresg.fleetservice.dto.OperatorRequest;
+import com.exploresg.fleetservice.dto.VehicleRequest;
+import com.exploresg.fleetservice.exception.BookingConflictException;
+import com.exploresg.fleetservice.model.CarModel;
+import com.exploresg.fleetservice.model.Category;
+import com.exploresg.fleetservice.model.FuelType;
+import com.exploresg.fleetservice.model.Manufacturer;
+import com.exploresg.fleetservice.model.Transmission;
+import com.exploresg.fleetservice.repository.CarModelRepository;
+import com.exploresg.fleetservice.service.BookingService;
+import com.exploresg.fleetservice.service.CatalogueService;
+import com.exploresg.fleetservice.service.OperatorService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Booking throughput on one hot CarModel: the default locking mode (per-model
+ * lock, one transaction per booking on the request thread) against the
+ * sharded mode (ShardedBookingLedger: single writer per model, group commits).
+ *
+ * Not part of the application; run it from backend/fleet-service:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:java -Dbenchmark=ShardedLedgerBenchmark \
+ *     -Dexec.args="[bookings] [threads] [vehicles]"
+ * </pre>
+ *
+ * Defaults: 100,000 bookings from 64 threads on a model with 250 vehicles.
+ * Each mode boots the fleet service on its own in-memory H2 database, adds
+ * the vehicles and books through BookingService.bookAsync, as the booking
+ * endpoint does. Bookings are one day long and fill the fleet day after day,
+ * so every request finds a free vehicle and both modes do the same work.
+ * The first day of bookings is a warm-up and is not measured.
+ */
+public final class ShardedLedgerBenchmark {
+
+    private static final int HORIZON_DAYS = 548;
+
+    private ShardedLedgerBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int bookings = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int vehicles = args.length > 2 ? Integer.parseInt(args[2]) : 250;
+        if (bookings / vehicles + 2 >= HORIZON_DAYS) {
+            throw new IllegalArgumentException("bookings / vehicles must stay below " + (HORIZON_DAYS - 2)
+                    + " days; add vehicles");
+        }
+
+        System.out.printf("%,d bookings, %d threads, hot model with %,d vehicles%n", bookings, threads, vehicles);
+        System.out.printf("%-10s %12s %10s %14s %12s %12s%n",
+                "mode", "confirmed", "conflicts", "bookings/s", "p50 ms", "p99 ms");
+        for (String mode : List.of("locking", "sharded")) {
+            run(mode, bookings, threads, vehicles);
+        }
+    }
+
+    private static void run(String mode, int bookings, int threads, int vehicles) throws Exception {
+        // Command line arguments, so they override application.properties
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(FleetApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:ledger-bench-" + mode + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.exploresg.fleetservice=WARN",
+                "--fleet.availability.horizon-days=" + HORIZON_DAYS,
+                "--fleet.booking.execution-mode=" + mode)) {
+            UUID carModelUuid = seed(context, vehicles);
+            BookingService bookingService = context.getBean(BookingService.class);
+            LocalDate firstDay = LocalDate.now().plusDays(1);
+
+            // Warm-up: the first day of the fleet
+            book(bookingService, carModelUuid, firstDay, 0, vehicles, threads, vehicles);
+
+            long[] latencies = new long[bookings];
+            AtomicLong confirmed = new AtomicLong();
+            AtomicLong conflicts = new AtomicLong();
+            long started = System.nanoTime();
+            book(bookingService, carModelUuid, firstDay.plusDays(1), 0, bookings, threads, vehicles,
+                    latencies, confirmed, conflicts);
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            Arrays.sort(latencies);
+            System.out.printf("%-10s %,12d %,10d %,14.0f %12.2f %12.2f%n", mode, confirmed.get(), conflicts.get(),
+                    bookings / seconds, latencies[bookings / 2] / 1e6, latencies[(int) (bookings * 0.99)] / 1e6);
+        }
+    }
+
+    /**
+     * One operator with the given number of vehicles of a single model.
+     */
+    private static UUID seed(ConfigurableApplicationContext context, int vehicles) {
+        CarModel carModel = context.getBean(CarModelRepository.class).save(CarModel.builder()
+                .model("Hot Model")
+                .manufacturer(Manufacturer.values()[0])
+                .seats(5)
+                .transmission(Transmission.values()[0])
+                .category(Category.values()[0])
+                .fuelType(FuelType.values()[0])
+                .modelYear(2024)
+                .build());
+        context.getBean(CatalogueService.class).rebuild();
+
+        OperatorService operatorService = context.getBean(OperatorService.class);
+        UUID operatorUuid = operatorService.createOperator(OperatorRequest.builder()
+                .name("Benchmark Rentals")
+                .build()).getOperatorUuid();
+        for (int v = 0; v < vehicles; v++) {
+            operatorService.addVehicle(VehicleRequest.builder()
+                    .carModelUuid(carModel.getCarModelUuid())
+                    .operatorUuid(operatorUuid)
+                    .licensePlate("BENCH" + v)
+                    .build());
+        }
+        return carModel.getCarModelUuid();
+    }
+
+    private static void book(BookingService bookingService, UUID carModelUuid, LocalDate firstDay,
+            int from, int to, int threads, int vehicles) throws Exception {
+        book(bookingService, carModelUuid, firstDay, from, to, threads, vehicles,
+                new long[to - from], new AtomicLong(), new AtomicLong());
+    }
+
+    /**
+     * Book [from, to) from the given number of threads. Booking i is for day
+     * firstDay + i / vehicles, so each day takes exactly the whole fleet.
+     */
+    private static void book(BookingService bookingService, UUID carModelUuid, LocalDate firstDay,
+            int from, int to, int threads, int vehicles,
+            long[] latencies, AtomicLong confirmed, AtomicLong conflicts) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            AtomicLong next = new AtomicLong(from);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (long i = next.getAndIncrement(); i < to; i = next.getAndIncrement()) {
+                        LocalDate day = firstDay.plusDays(i / vehicles);
+                        BookingRequest request = BookingRequest.builder()
+                                .carModelUuid(carModelUuid)
+                                .startDate(day)
+                                .endDate(day.plusDays(1))
+                                .build();
+                        long requested = System.nanoTime();
+                        try {
+                            bookingService.bookAsync(request, null).join();
+                            confirmed.incrementAndGet();
+                        } catch (CompletionException | BookingConflictException e) {
+                            // Locking mode throws conflicts, sharded mode completes the future with them
+                            conflicts.incrementAndGet();
+                        }
+                        latencies[(int) (i - from)] = System.nanoTime() - requested;
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+}